@@ -0,0 +1,234 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * User cache backed by a Guava cache.
+ * <p>
+ * It is meant to be used by the password validation callback handlers, and
+ * authentication providers, so the user details are not queried from the
+ * persistence layer on each request.
+ * <p>
+ * The cache is bounded, and each entry expires after a fixed time since it was
+ * stored. Usernames are handled in lower case, as done by the
+ * {@link com.bernardomg.example.swss.auth.service.PersistentUserDetailsService
+ * PersistentUserDetailsService}.
+ * <p>
+ * Users which are locked, disabled or expired are never returned from the
+ * cache. Instead they are removed, so they will be read again from the
+ * persistence layer. Any other change will be noticed only after the entry
+ * expires, unless the user is removed explicitly, which can be done through
+ * JMX.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(
+        description = "Cache for the user details used for authentication")
+public final class GuavaBasedUserCache implements UserCache {
+
+    /**
+     * The logger used for logging the user cache.
+     */
+    private static final Logger              LOGGER = LoggerFactory
+            .getLogger(GuavaBasedUserCache.class);
+
+    /**
+     * Cache for the user details, using the usernames as keys.
+     */
+    private final Cache<String, UserDetails> cache;
+
+    /**
+     * Constructs a user cache with the specified expiration time and size.
+     *
+     * @param timeToLive
+     *            seconds each user is kept since being stored
+     * @param maxSize
+     *            maximum number of users to keep
+     */
+    public GuavaBasedUserCache(final Long timeToLive, final Long maxSize) {
+        super();
+
+        checkNotNull(timeToLive, "Received a null pointer as time to live");
+        checkNotNull(maxSize, "Received a null pointer as maximum size");
+
+        checkArgument(timeToLive >= 0, "The time to live can't be negative");
+        checkArgument(maxSize >= 0, "The maximum size can't be negative");
+
+        cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(timeToLive, TimeUnit.SECONDS)
+                .maximumSize(maxSize).recordStats().build();
+    }
+
+    /**
+     * Returns the number of users removed because of their expiration time or
+     * the cache size.
+     *
+     * @return the number of users removed by the cache
+     */
+    @ManagedAttribute(
+            description = "Number of users removed by expiration or size")
+    public final Long getEvictionCount() {
+        return getCache().stats().evictionCount();
+    }
+
+    /**
+     * Returns the number of times a user was found in the cache.
+     *
+     * @return the number of cache hits
+     */
+    @ManagedAttribute(description = "Number of times a user was found")
+    public final Long getHitCount() {
+        return getCache().stats().hitCount();
+    }
+
+    /**
+     * Returns the ratio of requests which found a user in the cache.
+     *
+     * @return the cache hit ratio
+     */
+    @ManagedAttribute(description = "Ratio of requests which found a user")
+    public final Double getHitRate() {
+        return getCache().stats().hitRate();
+    }
+
+    /**
+     * Returns the number of times a user was not found in the cache.
+     *
+     * @return the number of cache misses
+     */
+    @ManagedAttribute(description = "Number of times a user was not found")
+    public final Long getMissCount() {
+        return getCache().stats().missCount();
+    }
+
+    /**
+     * Returns the approximate number of users in the cache.
+     *
+     * @return the number of cached users
+     */
+    @ManagedAttribute(description = "Approximate number of cached users")
+    public final Long getSize() {
+        return getCache().size();
+    }
+
+    @Override
+    public final UserDetails getUserFromCache(final String username) {
+        final String key; // Cache key
+        UserDetails user; // Cached user
+
+        checkNotNull(username, "Received a null pointer as username");
+
+        key = username.toLowerCase();
+        user = getCache().getIfPresent(key);
+
+        if ((user != null) && (!isUsable(user))) {
+            // The user can't be used, it will be read again
+            LOGGER.debug("Removing unusable user {} from cache", username);
+            getCache().invalidate(key);
+            user = null;
+        }
+
+        return user;
+    }
+
+    @Override
+    public final void putUserInCache(final UserDetails user) {
+        checkNotNull(user, "Received a null pointer as user");
+
+        getCache().put(user.getUsername().toLowerCase(), user);
+    }
+
+    /**
+     * Removes all the users from the cache.
+     * <p>
+     * This should be used after any bulk change to the users, such as
+     * locking or expiring several of them.
+     */
+    @ManagedOperation(description = "Removes all the users from the cache")
+    public final void removeAllUsersFromCache() {
+        LOGGER.debug("Removing all users from cache");
+
+        getCache().invalidateAll();
+    }
+
+    /**
+     * Removes a single user from the cache.
+     * <p>
+     * This should be used after changing the user, for example after locking
+     * it or changing its password, so the new data is read.
+     *
+     * @param username
+     *            name of the user to remove
+     */
+    @Override
+    @ManagedOperation(description = "Removes a single user from the cache")
+    public final void removeUserFromCache(final String username) {
+        checkNotNull(username, "Received a null pointer as username");
+
+        LOGGER.debug("Removing user {} from cache", username);
+
+        getCache().invalidate(username.toLowerCase());
+    }
+
+    /**
+     * Returns the cache for the user details.
+     *
+     * @return the cache for the user details
+     */
+    private final Cache<String, UserDetails> getCache() {
+        return cache;
+    }
+
+    /**
+     * Indicates if the user can be authenticated.
+     *
+     * @param user
+     *            user to check
+     * @return {@code true} if the user is not locked, disabled or expired,
+     *         {@code false} otherwise
+     */
+    private final Boolean isUsable(final UserDetails user) {
+        return user.isEnabled() && user.isAccountNonLocked()
+                && user.isAccountNonExpired()
+                && user.isCredentialsNonExpired();
+    }
+
+}
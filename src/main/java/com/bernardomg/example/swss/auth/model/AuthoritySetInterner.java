@@ -0,0 +1,84 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.model;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Interns the sets of granted authorities.
+ * <p>
+ * There are just a few distinct combinations of authorities, shared by all the
+ * users. Instead of keeping a copy for each user, these are transformed into
+ * immutable sets of plain authorities, and equal sets are replaced by a single
+ * shared instance.
+ * <p>
+ * The instances are weakly referenced, so those no longer in use can be
+ * garbage collected.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class AuthoritySetInterner {
+
+    /**
+     * Interner for the authority sets.
+     */
+    private static final Interner<ImmutableSet<GrantedAuthority>> INTERNER = Interners
+            .newWeakInterner();
+
+    /**
+     * Returns the shared immutable set equal to the received authorities.
+     *
+     * @param authorities
+     *            authorities to intern
+     * @return the shared set of authorities
+     */
+    public static final Collection<GrantedAuthority>
+            intern(final Collection<? extends GrantedAuthority> authorities) {
+        final ImmutableSet.Builder<GrantedAuthority> builder; // Set builder
+
+        builder = ImmutableSet.builder();
+        for (final GrantedAuthority authority : authorities) {
+            // Detached from the persistent entities
+            builder.add(new SimpleGrantedAuthority(authority.getAuthority()));
+        }
+
+        return INTERNER.intern(builder.build());
+    }
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private AuthoritySetInterner() {
+        super();
+    }
+
+}
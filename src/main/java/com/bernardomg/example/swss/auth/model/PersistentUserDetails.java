@@ -92,6 +92,14 @@ public class PersistentUserDetails implements UserDetails {
     @Column(name = "id", nullable = false, unique = true)
     private Long                                   id;
 
+    /**
+     * Shared immutable copy of the authorities.
+     * <p>
+     * This is created the first time the authorities are requested.
+     */
+    @Transient
+    private transient Collection<GrantedAuthority> internedAuthorities;
+
     /**
      * User locked flag.
      */
@@ -135,9 +143,21 @@ public final boolean equals(final Object obj) {
         return Objects.equals(username, other.username);
     }
 
+    /**
+     * Returns the granted authorities.
+     * <p>
+     * These are returned as an immutable set, shared with any other user
+     * having the same authorities.
+     *
+     * @return the granted authorities
+     */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return authorities;
+        if (internedAuthorities == null) {
+            internedAuthorities = AuthoritySetInterner.intern(authorities);
+        }
+
+        return internedAuthorities;
     }
 
     /**
@@ -220,6 +240,7 @@ public boolean isEnabled() {
     public void
             setAuthorities(final Collection<PersistentGrantedAuthority> auths) {
         authorities = auths;
+        internedAuthorities = null;
     }
 
     /**
@@ -25,7 +25,9 @@
  * Authentication data entities.
  * <p>
  * These include persistent implementations of {@code UserDetails} and
- * {@code GrantedAuthority}.
+ * {@code GrantedAuthority}. The
+ * {@link com.bernardomg.example.swss.auth.model.AuthoritySetInterner
+ * AuthoritySetInterner} shares the authority sets between users.
  */
 
 package com.bernardomg.example.swss.auth.model;
@@ -0,0 +1,63 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.nonce;
+
+import java.util.Date;
+
+/**
+ * Cache for the nonces received with the digested password tokens, used to
+ * detect replay attacks.
+ * <p>
+ * Each nonce should be accepted only once while the token it comes with is
+ * still considered fresh.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface NonceCache {
+
+    /**
+     * Returns the time, in seconds, during which a token is considered fresh.
+     * <p>
+     * Nonces are kept at least for this time since the token was created.
+     *
+     * @return the seconds during which a token is fresh
+     */
+    public Integer getTimeToLive();
+
+    /**
+     * Registers a nonce, and indicates if it was accepted.
+     * <p>
+     * A nonce is rejected if it was already registered, if the token was
+     * created before the freshness window or if the cache is full.
+     *
+     * @param nonce
+     *            nonce to register
+     * @param created
+     *            creation date of the token, may be {@code null}
+     * @return {@code true} if the nonce was accepted, {@code false} otherwise
+     */
+    public Boolean register(final String nonce, final Date created);
+
+}
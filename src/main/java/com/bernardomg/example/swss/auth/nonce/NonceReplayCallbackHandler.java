@@ -0,0 +1,166 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.nonce;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Date;
+
+import javax.security.auth.callback.Callback;
+import javax.security.auth.callback.UnsupportedCallbackException;
+import javax.xml.bind.DatatypeConverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ws.soap.security.callback.AbstractCallbackHandler;
+
+import com.sun.xml.wss.impl.callback.PasswordValidationCallback;
+import com.sun.xml.wss.impl.callback.PasswordValidationCallback.DigestPasswordRequest;
+import com.sun.xml.wss.impl.callback.PasswordValidationCallback.PasswordValidator;
+import com.sun.xml.wss.impl.callback.PasswordValidationCallback.Request;
+
+/**
+ * XWSS callback handler which rejects digested passwords coming with a
+ * replayed nonce.
+ * <p>
+ * It should be the first handler for the interceptor. When the nonce is
+ * rejected by the {@link NonceCache} the validation fails. Otherwise the
+ * callback is marked as unsupported, so it is handled by the next handler,
+ * which should validate the password.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class NonceReplayCallbackHandler extends AbstractCallbackHandler {
+
+    /**
+     * Password validator which always fails.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class RejectingPasswordValidator
+            implements PasswordValidator {
+
+        /**
+         * Default constructor.
+         */
+        public RejectingPasswordValidator() {
+            super();
+        }
+
+        @Override
+        public final boolean validate(final Request request) {
+            return false;
+        }
+
+    }
+
+    /**
+     * The logger used for logging the callback handler.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(NonceReplayCallbackHandler.class);
+
+    /**
+     * Cache for the received nonces.
+     */
+    private final NonceCache    nonceCache;
+
+    /**
+     * Constructs a callback handler using the specified nonce cache.
+     *
+     * @param cache
+     *            cache for the received nonces
+     */
+    public NonceReplayCallbackHandler(final NonceCache cache) {
+        super();
+
+        nonceCache = checkNotNull(cache,
+                "Received a null pointer as nonce cache");
+    }
+
+    @Override
+    protected final void handleInternal(final Callback callback)
+            throws UnsupportedCallbackException {
+        final PasswordValidationCallback validation; // Validation callback
+        final DigestPasswordRequest request;         // Digest request
+
+        if (!(callback instanceof PasswordValidationCallback)) {
+            throw new UnsupportedCallbackException(callback);
+        }
+
+        validation = (PasswordValidationCallback) callback;
+        if (!(validation.getRequest() instanceof DigestPasswordRequest)) {
+            throw new UnsupportedCallbackException(callback);
+        }
+
+        request = (DigestPasswordRequest) validation.getRequest();
+        if ((request.getNonce() != null)
+                && getNonceCache().register(request.getNonce(),
+                        getCreated(request.getCreated()))) {
+            // The password will be validated by the next handler
+            throw new UnsupportedCallbackException(callback);
+        }
+
+        LOGGER.debug("Rejected token for user {}", request.getUsername());
+        validation.setValidator(new RejectingPasswordValidator());
+    }
+
+    /**
+     * Returns the received creation date as a {@code Date}.
+     * <p>
+     * If it can't be parsed then a date old enough for the token to be
+     * rejected is returned.
+     *
+     * @param created
+     *            creation date to parse
+     * @return the creation date
+     */
+    private final Date getCreated(final String created) {
+        Date date; // Parsed date
+
+        if (created == null) {
+            date = null;
+        } else {
+            try {
+                date = DatatypeConverter.parseDateTime(created).getTime();
+            } catch (final IllegalArgumentException e) {
+                LOGGER.debug("Invalid creation date {}", created);
+                date = new Date(0);
+            }
+        }
+
+        return date;
+    }
+
+    /**
+     * Returns the cache for the received nonces.
+     *
+     * @return the cache for the received nonces
+     */
+    private final NonceCache getNonceCache() {
+        return nonceCache;
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.nonce;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.apache.wss4j.common.cache.ReplayCache;
+import org.apache.wss4j.dom.handler.RequestData;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.security.wss4j2.Wss4jSecurityInterceptor;
+
+/**
+ * WSS4J security interceptor which rejects username tokens with a replayed
+ * nonce.
+ * <p>
+ * The interceptor does not set any nonce cache for WSS4J, this one sets the
+ * received {@link ReplayCache} when validating the messages. The time during
+ * which the username tokens are considered fresh is also set to the cache
+ * window, so the nonces are kept as long as their tokens may be accepted.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public class NonceReplayWss4jSecurityInterceptor
+        extends Wss4jSecurityInterceptor {
+
+    /**
+     * Cache for the received nonces.
+     */
+    private ReplayCache nonceCache;
+
+    /**
+     * Default constructor.
+     */
+    public NonceReplayWss4jSecurityInterceptor() {
+        super();
+    }
+
+    /**
+     * Sets the cache for the received nonces.
+     * <p>
+     * If it is also a {@link NonceCache} then its window will be used as the
+     * time during which the username tokens are fresh.
+     *
+     * @param cache
+     *            cache for the received nonces
+     */
+    public final void setNonceCache(final ReplayCache cache) {
+        nonceCache = checkNotNull(cache,
+                "Received a null pointer as nonce cache");
+    }
+
+    @Override
+    protected RequestData
+            initializeValidationRequestData(final MessageContext context) {
+        final RequestData data; // Request data
+
+        data = super.initializeValidationRequestData(context);
+
+        if (nonceCache != null) {
+            data.setNonceReplayCache(nonceCache);
+
+            if (nonceCache instanceof NonceCache) {
+                data.setUtTTL(((NonceCache) nonceCache).getTimeToLive());
+            }
+        }
+
+        return data;
+    }
+
+}
@@ -0,0 +1,481 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.nonce;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.wss4j.common.cache.ReplayCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Nonce cache which stores the nonces in time buckets, so they can be expired
+ * without scanning the whole cache.
+ * <p>
+ * The nonces are kept in a concurrent map, which maps each of them to its
+ * expiration time. This is the creation time of its token plus the freshness
+ * window, and so once a nonce expires its token would be rejected anyway.
+ * Tokens created before the freshness window are always rejected, as their
+ * nonces may have been removed already.
+ * <p>
+ * Additionally, each nonce is added to the bucket for its expiration time.
+ * These form a ring which covers the whole window. When the time for a bucket
+ * ends the first thread to notice it removes the expired nonces in it. There
+ * is no lock or background thread involved.
+ * <p>
+ * The number of nonces is bounded. If the cache is full new nonces are
+ * rejected, as accepting them without storing them would allow replays.
+ * <p>
+ * It can be used both as a WSS4J {@link ReplayCache} and through the
+ * {@link NonceCache} interface. As WSS4J always stores the nonce right after
+ * checking it, {@link #contains(String)} already registers it. This way two
+ * concurrent replays can't both pass the check.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Cache for the nonces used to detect replays")
+public final class TimeBucketedNonceCache
+        implements NonceCache, ReplayCache, Closeable {
+
+    /**
+     * The logger used for logging the nonce cache.
+     */
+    private static final Logger               LOGGER = LoggerFactory
+            .getLogger(TimeBucketedNonceCache.class);
+
+    /**
+     * Number of nonces accepted.
+     */
+    private final AtomicLong                  accepted;
+
+    /**
+     * Milliseconds covered by each bucket.
+     */
+    private final Long                        bucketLength;
+
+    /**
+     * Ring of buckets, each containing the nonces which expire during its
+     * time.
+     */
+    private final List<Queue<String>>         buckets;
+
+    /**
+     * Expiration times, in milliseconds, for each nonce.
+     */
+    private final ConcurrentMap<String, Long> expirations;
+
+    /**
+     * Maximum number of nonces which can be stored.
+     */
+    private final Integer                     maxSize;
+
+    /**
+     * Index of the next time slot to sweep.
+     */
+    private final AtomicLong                  nextSweep;
+
+    /**
+     * Number of nonces rejected because the cache was full.
+     */
+    private final AtomicLong                  overflows;
+
+    /**
+     * Number of nonces rejected because they were replayed.
+     */
+    private final AtomicLong                  replays;
+
+    /**
+     * Number of stored nonces.
+     */
+    private final AtomicInteger               size;
+
+    /**
+     * Number of nonces rejected because their tokens were too old.
+     */
+    private final AtomicLong                  stale;
+
+    /**
+     * Seconds during which a token is considered fresh.
+     */
+    private final Integer                     timeToLive;
+
+    /**
+     * Constructs a nonce cache with the specified window, granularity and
+     * size.
+     *
+     * @param window
+     *            seconds during which a token is considered fresh
+     * @param bucketCount
+     *            number of buckets in which the window is divided
+     * @param max
+     *            maximum number of nonces to store
+     */
+    public TimeBucketedNonceCache(final Integer window,
+            final Integer bucketCount, final Integer max) {
+        super();
+
+        timeToLive = checkNotNull(window,
+                "Received a null pointer as time to live");
+        checkNotNull(bucketCount, "Received a null pointer as bucket count");
+        maxSize = checkNotNull(max, "Received a null pointer as maximum size");
+
+        checkArgument(timeToLive > 0, "The time to live should be positive");
+        checkArgument(bucketCount > 0, "The bucket count should be positive");
+        checkArgument(maxSize > 0, "The maximum size should be positive");
+
+        bucketLength = Math.max(1L, (timeToLive * 1000L) / bucketCount);
+
+        // Two additional buckets cover the partial slots at both ends
+        buckets = new ArrayList<>(bucketCount + 2);
+        for (int i = 0; i < (bucketCount + 2); i++) {
+            buckets.add(new ConcurrentLinkedQueue<String>());
+        }
+
+        expirations = new ConcurrentHashMap<>();
+        size = new AtomicInteger();
+        nextSweep = new AtomicLong(getTime() / bucketLength);
+
+        accepted = new AtomicLong();
+        overflows = new AtomicLong();
+        replays = new AtomicLong();
+        stale = new AtomicLong();
+    }
+
+    /**
+     * Stores a nonce, expiring after the freshness window.
+     * <p>
+     * If the nonce is already stored then its expiration time is updated.
+     *
+     * @param identifier
+     *            nonce to store
+     */
+    @Override
+    public final void add(final String identifier) {
+        store(identifier, getTime() + (timeToLive * 1000L));
+    }
+
+    /**
+     * Stores a nonce, expiring after the specified time.
+     * <p>
+     * If the nonce is already stored then its expiration time is updated. If
+     * the time to live is not positive the freshness window is used instead.
+     *
+     * @param identifier
+     *            nonce to store
+     * @param timeToLive
+     *            seconds during which the nonce is stored
+     */
+    @Override
+    public final void add(final String identifier, final long timeToLive) {
+        if (timeToLive <= 0) {
+            add(identifier);
+        } else {
+            store(identifier, getTime() + (timeToLive * 1000L));
+        }
+    }
+
+    /**
+     * Removes all the nonces.
+     */
+    @Override
+    public final void close() {
+        expirations.clear();
+        for (final Queue<String> bucket : buckets) {
+            bucket.clear();
+        }
+        size.set(0);
+    }
+
+    /**
+     * Indicates if the nonce was already received.
+     * <p>
+     * If it was not, then it is registered, so any later call will find it.
+     * If the cache is full the nonce is treated as already received, so the
+     * token is rejected.
+     *
+     * @param identifier
+     *            nonce to check
+     * @return {@code true} if the nonce was received before, {@code false}
+     *         otherwise
+     */
+    @Override
+    public final boolean contains(final String identifier) {
+        return !register(identifier, null);
+    }
+
+    /**
+     * Returns the number of nonces accepted.
+     *
+     * @return the number of nonces accepted
+     */
+    @ManagedAttribute(description = "Number of nonces accepted")
+    public final Long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    /**
+     * Returns the number of nonces rejected because the cache was full.
+     *
+     * @return the number of nonces rejected because the cache was full
+     */
+    @ManagedAttribute(description = "Number of nonces rejected as cache full")
+    public final Long getOverflowCount() {
+        return overflows.get();
+    }
+
+    /**
+     * Returns the number of replayed nonces rejected.
+     *
+     * @return the number of replayed nonces rejected
+     */
+    @ManagedAttribute(description = "Number of replayed nonces rejected")
+    public final Long getReplayCount() {
+        return replays.get();
+    }
+
+    /**
+     * Returns the number of stored nonces.
+     *
+     * @return the number of stored nonces
+     */
+    @ManagedAttribute(description = "Number of stored nonces")
+    public final Integer getSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of nonces rejected because their tokens were too
+     * old.
+     *
+     * @return the number of nonces rejected because their tokens were too old
+     */
+    @ManagedAttribute(description = "Number of nonces rejected as too old")
+    public final Long getStaleCount() {
+        return stale.get();
+    }
+
+    @Override
+    @ManagedAttribute(description = "Seconds during which a token is fresh")
+    public final Integer getTimeToLive() {
+        return timeToLive;
+    }
+
+    @Override
+    public final Boolean register(final String nonce, final Date created) {
+        final Long now;           // Current time
+        final Long expiry;        // Expiration time for the nonce
+        final Boolean registered; // Flag marking the nonce was registered
+
+        checkNotNull(nonce, "Received a null pointer as nonce");
+
+        now = getTime();
+
+        if (created == null) {
+            expiry = now + (timeToLive * 1000L);
+        } else {
+            expiry = created.getTime() + (timeToLive * 1000L);
+        }
+
+        sweep(now);
+
+        if (expiry <= now) {
+            // The token is too old
+            stale.incrementAndGet();
+            LOGGER.debug("Rejected nonce {} from a stale token", nonce);
+            registered = false;
+        } else {
+            registered = claim(nonce, expiry, now);
+        }
+
+        return registered;
+    }
+
+    /**
+     * Returns the bucket for the received time.
+     *
+     * @param time
+     *            time for the bucket
+     * @return the bucket for the time
+     */
+    private final Queue<String> getBucket(final Long time) {
+        return buckets.get((int) ((time / bucketLength) % buckets.size()));
+    }
+
+    /**
+     * Tries to store a nonce which should not be stored already.
+     *
+     * @param nonce
+     *            nonce to store
+     * @param expiry
+     *            expiration time for the nonce
+     * @param now
+     *            current time
+     * @return {@code true} if the nonce was stored, {@code false} otherwise
+     */
+    private final Boolean claim(final String nonce, final Long expiry,
+            final Long now) {
+        final Long previous;   // Previous expiration time for the nonce
+        final Boolean claimed; // Flag marking the nonce was stored
+
+        if (size.incrementAndGet() > maxSize) {
+            // The cache is full
+            size.decrementAndGet();
+            overflows.incrementAndGet();
+            LOGGER.warn("Nonce cache full, rejected nonce {}", nonce);
+            claimed = false;
+        } else {
+            previous = expirations.putIfAbsent(nonce, expiry);
+            if (previous == null) {
+                claimed = true;
+            } else {
+                // Only one slot is used by the nonce
+                size.decrementAndGet();
+
+                // An expired nonce may not have been swept yet
+                claimed = (previous <= now)
+                        && expirations.replace(nonce, previous, expiry);
+            }
+
+            if (claimed) {
+                getBucket(expiry).offer(nonce);
+                accepted.incrementAndGet();
+            } else {
+                replays.incrementAndGet();
+                LOGGER.debug("Rejected replayed nonce {}", nonce);
+            }
+        }
+
+        return claimed;
+    }
+
+    /**
+     * Removes the expired nonces in a bucket.
+     * <p>
+     * Nonces which are not expired are kept, these may come from a later
+     * slot sharing the same bucket.
+     *
+     * @param bucket
+     *            bucket to clear
+     * @param now
+     *            current time
+     */
+    private final void drain(final Queue<String> bucket, final Long now) {
+        final Collection<String> kept; // Nonces to keep in the bucket
+        String nonce;                  // Nonce being checked
+        Long expiry;                   // Expiration time for the nonce
+
+        kept = new ArrayList<>();
+        nonce = bucket.poll();
+        while (nonce != null) {
+            expiry = expirations.get(nonce);
+            if (expiry != null) {
+                if (expiry <= now) {
+                    if (expirations.remove(nonce, expiry)) {
+                        size.decrementAndGet();
+                    }
+                } else if (getBucket(expiry) == bucket) {
+                    kept.add(nonce);
+                }
+            }
+            nonce = bucket.poll();
+        }
+
+        bucket.addAll(kept);
+    }
+
+    /**
+     * Returns the current time in milliseconds.
+     *
+     * @return the current time
+     */
+    private final Long getTime() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Stores a nonce with the received expiration time.
+     * <p>
+     * This does not check the cache size, as it is expected to be called
+     * after the nonce was registered with {@link #contains(String)}.
+     *
+     * @param nonce
+     *            nonce to store
+     * @param expiry
+     *            expiration time for the nonce
+     */
+    private final void store(final String nonce, final Long expiry) {
+        checkNotNull(nonce, "Received a null pointer as nonce");
+
+        if (expirations.put(nonce, expiry) == null) {
+            size.incrementAndGet();
+        }
+        getBucket(expiry).offer(nonce);
+    }
+
+    /**
+     * Removes the nonces in all the buckets whose time has ended.
+     * <p>
+     * Each bucket is swept by a single thread, the first one to claim it.
+     *
+     * @param now
+     *            current time
+     */
+    private final void sweep(final Long now) {
+        final Long current; // Current time slot
+        Long next;          // Next time slot to sweep
+
+        current = now / bucketLength;
+        next = nextSweep.get();
+        while (next < current) {
+            if ((current - next) >= buckets.size()) {
+                // All the buckets are outdated
+                if (nextSweep.compareAndSet(next, current)) {
+                    for (final Queue<String> bucket : buckets) {
+                        drain(bucket, now);
+                    }
+                }
+            } else if (nextSweep.compareAndSet(next, next + 1)) {
+                drain(buckets.get((int) (next % buckets.size())), now);
+            }
+            next = nextSweep.get();
+        }
+    }
+
+}
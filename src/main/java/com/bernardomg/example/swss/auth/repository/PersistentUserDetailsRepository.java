@@ -25,6 +25,8 @@
 package com.bernardomg.example.swss.auth.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.bernardomg.example.swss.auth.model.PersistentUserDetails;
 
@@ -47,4 +49,19 @@
      */
     public PersistentUserDetails findOneByUsername(final String username);
 
+    /**
+     * Returns the user details for the received username, along its
+     * authorities.
+     * <p>
+     * The authorities are fetched in the same query, joining them, so
+     * authenticating a user requires a single query.
+     * 
+     * @param username
+     *            username to search for
+     * @return the user details for the received username
+     */
+    @Query("SELECT DISTINCT u FROM UserDetails u LEFT JOIN FETCH u.authorities WHERE u.username = :username")
+    public PersistentUserDetails findOneWithAuthoritiesByUsername(
+            @Param("username") final String username);
+
 }
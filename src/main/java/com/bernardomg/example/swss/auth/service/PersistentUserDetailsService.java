@@ -33,6 +33,7 @@
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.bernardomg.example.swss.auth.repository.PersistentUserDetailsRepository;
 
@@ -45,11 +46,17 @@
  * <p>
  * This search is case insensitive, as the persisted user details are expected
  * to contain the username in lower case.
+ * <p>
+ * The search is a read-only transaction, so it can be sent to a read replica.
+ * The user and its authorities are read with a single query, and the
+ * authorities are returned as a set shared by all the users with the same
+ * ones.
  * 
  * @author Bernardo
  *
  */
 @Service("userDetailsService")
+@Transactional(readOnly = true)
 public final class PersistentUserDetailsService implements UserDetailsService {
 
     /**
@@ -86,7 +93,7 @@ public final UserDetails loadUserByUsername(final String username)
         LOGGER.debug("Asked for username {}", username);
 
         user = getPersistentUserDetailsRepository()
-                .findOneByUsername(username.toLowerCase());
+                .findOneWithAuthoritiesByUsername(username.toLowerCase());
 
         if (user == null) {
             LOGGER.debug("Username {} not found in DB", username);
@@ -0,0 +1,80 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.session;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.Security;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Makes sure there is a provider for AES-GCM, which the session keys use.
+ * <p>
+ * Java 8 includes it, but on Java 7 the default providers lack it. In that
+ * case the Bouncy Castle provider is registered.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class AesGcmProviders {
+
+    /**
+     * The logger used for logging the provider registration.
+     */
+    private static final Logger LOGGER         = LoggerFactory
+            .getLogger(AesGcmProviders.class);
+
+    /**
+     * JCE transformation for AES-GCM.
+     */
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    /**
+     * Registers the Bouncy Castle provider if no provider supports AES-GCM.
+     * <p>
+     * It can be called several times, the provider is registered only once.
+     */
+    public static final void register() {
+        try {
+            Cipher.getInstance(TRANSFORMATION);
+        } catch (final NoSuchAlgorithmException | NoSuchPaddingException e) {
+            LOGGER.debug("No provider for {}, registering Bouncy Castle",
+                    TRANSFORMATION);
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private AesGcmProviders() {
+        super();
+    }
+
+}
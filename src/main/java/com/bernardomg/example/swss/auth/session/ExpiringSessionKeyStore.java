@@ -0,0 +1,208 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.session;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Session key store backed by a Guava cache.
+ * <p>
+ * The cache is bounded, and each session expires after a fixed time since it
+ * was opened, whether it is used or not. When full, the least recently used
+ * sessions are removed first. Clients of a removed session are rejected, and
+ * should open a new one.
+ * <p>
+ * The identifiers are random UUIDs, as URNs, so they can't be guessed from
+ * other sessions. The secrets are copied when stored and returned, so they
+ * can't be modified from outside.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Store for the secrets of the open sessions")
+public final class ExpiringSessionKeyStore implements SessionKeyStore {
+
+    /**
+     * The logger used for logging the session store.
+     */
+    private static final Logger         LOGGER = LoggerFactory
+            .getLogger(ExpiringSessionKeyStore.class);
+
+    /**
+     * Cache for the secrets, using the session identifiers as keys.
+     */
+    private final Cache<String, byte[]> cache;
+
+    /**
+     * Number of sessions opened.
+     */
+    private final AtomicLong            created;
+
+    /**
+     * Seconds during which a session is kept.
+     */
+    private final Integer               timeToLive;
+
+    /**
+     * Constructs a session store with the specified expiration time and size.
+     *
+     * @param lifetime
+     *            seconds each session is kept since being opened
+     * @param maxSize
+     *            maximum number of sessions to keep
+     */
+    public ExpiringSessionKeyStore(final Integer lifetime,
+            final Long maxSize) {
+        super();
+
+        timeToLive = checkNotNull(lifetime,
+                "Received a null pointer as time to live");
+        checkNotNull(maxSize, "Received a null pointer as maximum size");
+
+        checkArgument(timeToLive > 0, "The time to live should be positive");
+        checkArgument(maxSize > 0, "The maximum size should be positive");
+
+        cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(timeToLive, TimeUnit.SECONDS)
+                .maximumSize(maxSize).recordStats().build();
+
+        created = new AtomicLong();
+    }
+
+    @Override
+    public final String create(final byte[] secret) {
+        final String identifier; // Session identifier
+
+        checkNotNull(secret, "Received a null pointer as secret");
+        checkArgument(secret.length >= SessionConstants.MIN_SECRET_LENGTH,
+                "The secret should have at least %s bytes",
+                SessionConstants.MIN_SECRET_LENGTH);
+
+        identifier = "urn:uuid:" + UUID.randomUUID();
+        getCache().put(identifier, secret.clone());
+        created.incrementAndGet();
+
+        LOGGER.debug("Opened session {}", identifier);
+
+        return identifier;
+    }
+
+    /**
+     * Returns the number of sessions opened.
+     *
+     * @return the number of sessions opened
+     */
+    @ManagedAttribute(description = "Number of sessions opened")
+    public final Long getCreatedCount() {
+        return created.get();
+    }
+
+    /**
+     * Returns the number of sessions removed because of their expiration time
+     * or the store size.
+     *
+     * @return the number of sessions removed by the store
+     */
+    @ManagedAttribute(
+            description = "Number of sessions removed by expiration or size")
+    public final Long getEvictionCount() {
+        return getCache().stats().evictionCount();
+    }
+
+    /**
+     * Returns the number of times a session was not found.
+     * <p>
+     * These are requests for unknown or expired sessions, which were
+     * rejected.
+     *
+     * @return the number of sessions not found
+     */
+    @ManagedAttribute(description = "Number of times a session was not found")
+    public final Long getMissCount() {
+        return getCache().stats().missCount();
+    }
+
+    @Override
+    public final byte[] getSecret(final String identifier) {
+        final byte[] secret; // Stored secret
+
+        checkNotNull(identifier, "Received a null pointer as identifier");
+
+        secret = getCache().getIfPresent(identifier);
+
+        return (secret == null) ? null : secret.clone();
+    }
+
+    /**
+     * Returns the approximate number of open sessions.
+     *
+     * @return the number of open sessions
+     */
+    @ManagedAttribute(description = "Approximate number of open sessions")
+    public final Long getSize() {
+        return getCache().size();
+    }
+
+    @Override
+    @ManagedAttribute(description = "Seconds during which a session is kept")
+    public final Integer getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Closes all the sessions.
+     * <p>
+     * The clients will have to open new ones.
+     */
+    @ManagedOperation(description = "Closes all the sessions")
+    public final void removeAll() {
+        LOGGER.debug("Closing all sessions");
+
+        getCache().invalidateAll();
+    }
+
+    /**
+     * Returns the cache for the secrets.
+     *
+     * @return the cache for the secrets
+     */
+    private final Cache<String, byte[]> getCache() {
+        return cache;
+    }
+
+}
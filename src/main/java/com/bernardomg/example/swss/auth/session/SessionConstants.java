@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.session;
+
+/**
+ * Constants for the session handshake.
+ * <p>
+ * These define the namespace, SOAP action and elements of the messages used
+ * to open a session.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SessionConstants {
+
+    /**
+     * The action for opening a session.
+     * <p>
+     * The handshake is encrypted, so it is mapped by this action.
+     */
+    public static final String  ACTION            = "http://bernardomg.com/example/ws/session/createSession";
+
+    /**
+     * Name for the element with the session identifier.
+     */
+    public static final String  IDENTIFIER        = "identifier";
+
+    /**
+     * Name for the element with the session lifetime, in seconds.
+     */
+    public static final String  LIFETIME          = "lifetime";
+
+    /**
+     * Minimum length, in bytes, for the session secrets.
+     */
+    public static final Integer MIN_SECRET_LENGTH = 16;
+
+    /**
+     * Namespace for the session handshake.
+     */
+    public static final String  NAMESPACE         = "http://bernardomg.com/example/ws/session";
+
+    /**
+     * Name for the request used to open a session.
+     */
+    public static final String  REQUEST           = "createSessionRequest";
+
+    /**
+     * Name for the response to the request used to open a session.
+     */
+    public static final String  RESPONSE          = "createSessionResponse";
+
+    /**
+     * Name for the element with the session secret.
+     */
+    public static final String  SECRET            = "secret";
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private SessionConstants() {
+        super();
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.session;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Locale;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.transform.dom.DOMResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.MessageEndpoint;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.xml.transform.StringSource;
+import org.springframework.xml.transform.TransformerHelper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Endpoint for opening sessions.
+ * <p>
+ * The request carries the secret for the session, encoded in Base64, which is
+ * chosen by the client. This request should be encrypted with the server
+ * public key, so the secret is never sent in clear. This is the only
+ * asymmetric operation the client needs until the session expires.
+ * <p>
+ * The secret is kept in the {@link SessionKeyStore}, and the response
+ * carries the identifier for the session, along its lifetime in seconds.
+ * Secrets shorter than {@link SessionConstants#MIN_SECRET_LENGTH} are
+ * rejected with a SOAP fault.
+ * <p>
+ * It is not annotated, so it is not mapped along the entity endpoints.
+ * Instead it should be mapped to the {@link SessionConstants#ACTION} SOAP
+ * action, as the payload root is encrypted when the request is mapped.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SessionHandshakeEndpoint implements MessageEndpoint {
+
+    /**
+     * The logger used for logging the handshake endpoint.
+     */
+    private static final Logger     LOGGER   = LoggerFactory
+            .getLogger(SessionHandshakeEndpoint.class);
+
+    /**
+     * Template for the response payload.
+     */
+    private static final String     RESPONSE = "<ses:%1$s xmlns:ses=\"%2$s\"><ses:%3$s>%4$s</ses:%3$s><ses:%5$s>%6$d</ses:%5$s></ses:%1$s>";
+
+    /**
+     * Store for the session secrets.
+     */
+    private final SessionKeyStore   keyStore;
+
+    /**
+     * Helper for reading and writing the payloads.
+     */
+    private final TransformerHelper transformerHelper;
+
+    /**
+     * Constructs an endpoint opening the sessions in the specified store.
+     *
+     * @param store
+     *            store for the session secrets
+     */
+    public SessionHandshakeEndpoint(final SessionKeyStore store) {
+        super();
+
+        keyStore = checkNotNull(store,
+                "Received a null pointer as session store");
+
+        transformerHelper = new TransformerHelper();
+    }
+
+    @Override
+    public final void invoke(final MessageContext messageContext)
+            throws Exception {
+        final DOMResult payload;    // Request payload
+        final byte[]    secret;     // Session secret
+        final String    identifier; // Session identifier
+
+        payload = new DOMResult();
+        transformerHelper.transform(
+                messageContext.getRequest().getPayloadSource(), payload);
+
+        secret = readSecret(payload.getNode());
+
+        if (secret.length < SessionConstants.MIN_SECRET_LENGTH) {
+            LOGGER.debug("Rejected session secret with {} bytes",
+                    secret.length);
+            ((SoapMessage) messageContext.getResponse()).getSoapBody()
+                    .addClientOrSenderFault(String.format(
+                            "The secret should have at least %d bytes",
+                            SessionConstants.MIN_SECRET_LENGTH),
+                            Locale.ENGLISH);
+        } else {
+            identifier = keyStore.create(secret);
+
+            transformerHelper.transform(
+                    new StringSource(String.format(RESPONSE,
+                            SessionConstants.RESPONSE,
+                            SessionConstants.NAMESPACE,
+                            SessionConstants.IDENTIFIER, identifier,
+                            SessionConstants.LIFETIME,
+                            keyStore.getTimeToLive())),
+                    messageContext.getResponse().getPayloadResult());
+        }
+    }
+
+    /**
+     * Returns the secret in the request payload.
+     * <p>
+     * If there is no secret an empty array is returned.
+     *
+     * @param payload
+     *            request payload
+     * @return the secret in the payload
+     */
+    private final byte[] readSecret(final Node payload) {
+        Node   node;   // Node being checked
+        byte[] secret; // Secret in the payload
+
+        if (payload instanceof Document) {
+            node = ((Document) payload).getDocumentElement();
+        } else {
+            node = payload;
+        }
+
+        secret = new byte[0];
+        if (node != null) {
+            node = node.getFirstChild();
+            while (node != null) {
+                if ((node.getNodeType() == Node.ELEMENT_NODE)
+                        && SessionConstants.SECRET.equals(node.getLocalName())
+                        && SessionConstants.NAMESPACE
+                                .equals(node.getNamespaceURI())) {
+                    secret = DatatypeConverter
+                            .parseBase64Binary(node.getTextContent().trim());
+                    node = null;
+                } else {
+                    node = node.getNextSibling();
+                }
+            }
+        }
+
+        return secret;
+    }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.session;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.security.auth.callback.Callback;
+import javax.security.auth.callback.UnsupportedCallbackException;
+
+import org.apache.wss4j.common.ext.WSPasswordCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ws.soap.security.callback.AbstractCallbackHandler;
+
+/**
+ * WSS4J callback handler which gives the secrets for the security context
+ * tokens.
+ * <p>
+ * The secrets are read from the {@link SessionKeyStore}. If the session is
+ * unknown no secret is set, and so WSS4J rejects the token. Any other
+ * callback is marked as unsupported.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SessionKeyCallbackHandler extends AbstractCallbackHandler {
+
+    /**
+     * The logger used for logging the callback handler.
+     */
+    private static final Logger   LOGGER = LoggerFactory
+            .getLogger(SessionKeyCallbackHandler.class);
+
+    /**
+     * Store for the session secrets.
+     */
+    private final SessionKeyStore keyStore;
+
+    /**
+     * Constructs a callback handler using the specified session store.
+     *
+     * @param store
+     *            store for the session secrets
+     */
+    public SessionKeyCallbackHandler(final SessionKeyStore store) {
+        super();
+
+        keyStore = checkNotNull(store,
+                "Received a null pointer as session store");
+    }
+
+    @Override
+    protected final void handleInternal(final Callback callback)
+            throws UnsupportedCallbackException {
+        final WSPasswordCallback request; // Secret request
+        final byte[] secret;              // Session secret
+
+        if (!(callback instanceof WSPasswordCallback)) {
+            throw new UnsupportedCallbackException(callback);
+        }
+
+        request = (WSPasswordCallback) callback;
+        if (request
+                .getUsage() != WSPasswordCallback.SECURITY_CONTEXT_TOKEN) {
+            throw new UnsupportedCallbackException(callback);
+        }
+
+        secret = getKeyStore().getSecret(request.getIdentifier());
+        if (secret == null) {
+            LOGGER.debug("Unknown session {}", request.getIdentifier());
+        } else {
+            request.setKey(secret);
+        }
+    }
+
+    /**
+     * Returns the store for the session secrets.
+     *
+     * @return the store for the session secrets
+     */
+    private final SessionKeyStore getKeyStore() {
+        return keyStore;
+    }
+
+}
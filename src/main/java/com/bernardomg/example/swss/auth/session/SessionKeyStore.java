@@ -0,0 +1,66 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.session;
+
+/**
+ * Store for the secrets of the open sessions.
+ * <p>
+ * Each secret is identified by the URI used in the security context tokens.
+ * Sessions are kept only for a limited time, after which the clients should
+ * open a new one.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface SessionKeyStore {
+
+    /**
+     * Opens a session with the received secret, and returns its identifier.
+     *
+     * @param secret
+     *            secret shared with the client
+     * @return the identifier for the session
+     */
+    public String create(final byte[] secret);
+
+    /**
+     * Returns the secret for the session.
+     * <p>
+     * If the session is unknown, or it expired, then {@code null} is
+     * returned.
+     *
+     * @param identifier
+     *            identifier for the session
+     * @return the secret for the session
+     */
+    public byte[] getSecret(final String identifier);
+
+    /**
+     * Returns the time, in seconds, during which a session is kept.
+     *
+     * @return the seconds during which a session is kept
+     */
+    public Integer getTimeToLive();
+
+}
@@ -0,0 +1,349 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.auth.session;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.security.auth.callback.CallbackHandler;
+import javax.xml.namespace.QName;
+
+import org.apache.wss4j.common.ext.WSSecurityException;
+import org.apache.wss4j.dom.WSConstants;
+import org.apache.wss4j.dom.WSDataRef;
+import org.apache.wss4j.dom.engine.WSSConfig;
+import org.apache.wss4j.dom.engine.WSSecurityEngine;
+import org.apache.wss4j.dom.engine.WSSecurityEngineResult;
+import org.apache.wss4j.dom.handler.RequestData;
+import org.apache.wss4j.dom.handler.WSHandlerResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.server.SoapEndpointInterceptor;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Security interceptor which validates the requests sent through a session.
+ * <p>
+ * These requests carry a security context token identifying the session, and
+ * their body is encrypted with a key derived from its secret, which is read
+ * from the {@link SessionKeyStore}. Only symmetric cryptography is involved,
+ * and as the encryption algorithm is authenticated, such as AES-GCM, only a
+ * client knowing the secret can create a valid request.
+ * <p>
+ * Any request without a security context token, such as the handshake
+ * opening the session, is validated by the handshake interceptor instead.
+ * This should validate the requests encrypted with the server public key. The
+ * responses are always handled by it, as with any other security
+ * interceptor.
+ * <p>
+ * Requests for unknown or expired sessions are rejected with a SOAP fault,
+ * after which the client should open a new session.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SessionSecurityInterceptor
+        implements SoapEndpointInterceptor {
+
+    /**
+     * Local name of the body element.
+     */
+    private static final String       BODY            = "Body";
+
+    /**
+     * Local name of the header element.
+     */
+    private static final String       HEADER          = "Header";
+
+    /**
+     * The logger used for logging the session interceptor.
+     */
+    private static final Logger       LOGGER          = LoggerFactory
+            .getLogger(SessionSecurityInterceptor.class);
+
+    /**
+     * Name of the security header.
+     */
+    private static final QName        SECURITY_HEADER = new QName(
+            WSConstants.WSSE_NS, WSConstants.WSSE_LN);
+
+    /**
+     * Local name of the security context token.
+     */
+    private static final String       TOKEN           = "SecurityContextToken";
+
+    /**
+     * Callback handler giving the session secrets.
+     */
+    private final CallbackHandler     callbackHandler;
+
+    /**
+     * Interceptor for the requests without a session.
+     */
+    private final EndpointInterceptor handshakeInterceptor;
+
+    /**
+     * Engine processing the security headers.
+     */
+    private final WSSecurityEngine    securityEngine;
+
+    /**
+     * Constructs a session interceptor using the specified store.
+     *
+     * @param store
+     *            store for the session secrets
+     * @param handshake
+     *            interceptor for the requests without a session
+     */
+    public SessionSecurityInterceptor(final SessionKeyStore store,
+            final EndpointInterceptor handshake) {
+        super();
+
+        checkNotNull(store, "Received a null pointer as session store");
+
+        handshakeInterceptor = checkNotNull(handshake,
+                "Received a null pointer as handshake interceptor");
+
+        WSSConfig.init();
+        AesGcmProviders.register();
+
+        callbackHandler = new SessionKeyCallbackHandler(store);
+        securityEngine = new WSSecurityEngine();
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Object endpoint, final Exception ex) throws Exception {
+        handshakeInterceptor.afterCompletion(messageContext, endpoint, ex);
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext,
+            final Object endpoint) throws Exception {
+        return handshakeInterceptor.handleFault(messageContext, endpoint);
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext,
+            final Object endpoint) throws Exception {
+        final SoapMessage request;  // Received request
+        final Document    document; // Request envelope
+        final boolean     proceed;  // Flag to continue
+
+        request = (SoapMessage) messageContext.getRequest();
+        document = request.getDocument();
+
+        if (hasSessionToken(document)) {
+            proceed = validate(messageContext, request, document);
+        } else {
+            proceed = handshakeInterceptor.handleRequest(messageContext,
+                    endpoint);
+        }
+
+        return proceed;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext,
+            final Object endpoint) throws Exception {
+        return handshakeInterceptor.handleResponse(messageContext, endpoint);
+    }
+
+    @Override
+    public final boolean understands(final SoapHeaderElement header) {
+        return SECURITY_HEADER.equals(header.getName())
+                || ((handshakeInterceptor instanceof SoapEndpointInterceptor)
+                        && ((SoapEndpointInterceptor) handshakeInterceptor)
+                                .understands(header));
+    }
+
+    /**
+     * Returns the first child element with the specified name.
+     * <p>
+     * If the namespace is {@code null} then any namespace is accepted. If
+     * there is no such child then {@code null} is returned.
+     *
+     * @param parent
+     *            parent element
+     * @param namespace
+     *            namespace of the child
+     * @param localName
+     *            local name of the child
+     * @return the first child element with the name
+     */
+    private final Element findChild(final Element parent,
+            final String namespace, final String localName) {
+        Node    child; // Child being checked
+        Element found; // Child found
+
+        found = null;
+        if (parent != null) {
+            child = parent.getFirstChild();
+            while ((child != null) && (found == null)) {
+                if ((child.getNodeType() == Node.ELEMENT_NODE)
+                        && localName.equals(child.getLocalName())
+                        && ((namespace == null) || namespace
+                                .equals(child.getNamespaceURI()))) {
+                    found = (Element) child;
+                }
+                child = child.getNextSibling();
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Indicates if the envelope security header carries a security context
+     * token.
+     *
+     * @param document
+     *            envelope to check
+     * @return {@code true} if there is a security context token,
+     *         {@code false} otherwise
+     */
+    private final Boolean hasSessionToken(final Document document) {
+        final Element header;   // SOAP header
+        final Element security; // Security header
+
+        header = findChild(document.getDocumentElement(), null, HEADER);
+        security = findChild(header, WSConstants.WSSE_NS, WSConstants.WSSE_LN);
+
+        return findChild(security, null, TOKEN) != null;
+    }
+
+    /**
+     * Indicates if the body was decrypted with a key derived from a security
+     * context token.
+     *
+     * @param result
+     *            results of processing the security header
+     * @return {@code true} if the body was decrypted with a session key,
+     *         {@code false} otherwise
+     */
+    private final Boolean isBodyDecrypted(final WSHandlerResult result) {
+        final List<WSSecurityEngineResult> decrypted; // Decryption results
+        List<WSDataRef>                    references; // Decrypted parts
+        Boolean                            found;      // Body found flag
+
+        found = false;
+        if (result.getActionResults().containsKey(WSConstants.SCT)) {
+            decrypted = result.getActionResults().get(WSConstants.ENCR);
+            if (decrypted != null) {
+                for (final WSSecurityEngineResult action : decrypted) {
+                    references = readReferences(action);
+                    for (final WSDataRef reference : references) {
+                        if (BODY.equals(reference.getName().getLocalPart())) {
+                            found = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns the parts decrypted by a decryption result.
+     *
+     * @param action
+     *            decryption result
+     * @return the decrypted parts
+     */
+    @SuppressWarnings("unchecked")
+    private final List<WSDataRef>
+            readReferences(final WSSecurityEngineResult action) {
+        return (List<WSDataRef>) action
+                .get(WSSecurityEngineResult.TAG_DATA_REF_URIS);
+    }
+
+    /**
+     * Rejects the request, adding a fault to the response.
+     *
+     * @param messageContext
+     *            context for the request
+     * @param reason
+     *            reason for rejecting the request
+     */
+    private final void reject(final MessageContext messageContext,
+            final String reason) {
+        ((SoapMessage) messageContext.getResponse()).getSoapBody()
+                .addClientOrSenderFault(reason, Locale.ENGLISH);
+    }
+
+    /**
+     * Validates a request sent through a session, decrypting it.
+     * <p>
+     * If the request is valid the security header is removed, otherwise a
+     * fault is added to the response.
+     *
+     * @param messageContext
+     *            context for the request
+     * @param request
+     *            received request
+     * @param document
+     *            request envelope
+     * @return {@code true} if the request is valid, {@code false} otherwise
+     */
+    private final boolean validate(final MessageContext messageContext,
+            final SoapMessage request, final Document document) {
+        final RequestData     data;   // Data for processing the header
+        final WSHandlerResult result; // Processing results
+        boolean               valid;  // Valid request flag
+
+        data = new RequestData();
+        data.setWssConfig(WSSConfig.getNewInstance());
+        data.setCallbackHandler(callbackHandler);
+
+        try {
+            result = securityEngine.processSecurityHeader(document, data);
+            valid = isBodyDecrypted(result);
+            if (!valid) {
+                LOGGER.debug("Session request body was not encrypted");
+                reject(messageContext, "The body should be encrypted");
+            }
+        } catch (final WSSecurityException e) {
+            LOGGER.debug("Rejected session request: {}", e.getMessage());
+            reject(messageContext, "Invalid or expired session");
+            valid = false;
+        }
+
+        if (valid) {
+            request.setDocument(document);
+            request.getSoapHeader().removeHeaderElement(SECURITY_HEADER);
+        }
+
+        return valid;
+    }
+
+}
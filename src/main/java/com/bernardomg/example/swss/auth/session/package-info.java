@@ -0,0 +1,40 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/**
+ * Session keys for secure conversations.
+ * <p>
+ * Clients open a session with a single asymmetrically encrypted handshake,
+ * answered by the
+ * {@link com.bernardomg.example.swss.auth.session.SessionHandshakeEndpoint
+ * SessionHandshakeEndpoint}, which keeps the secret they sent in a
+ * {@link com.bernardomg.example.swss.auth.session.SessionKeyStore
+ * SessionKeyStore}. Later requests reference the session through a security
+ * context token, and are encrypted with keys derived from its secret, which
+ * are validated by the
+ * {@link com.bernardomg.example.swss.auth.session.SessionSecurityInterceptor
+ * SessionSecurityInterceptor}.
+ */
+
+package com.bernardomg.example.swss.auth.session;
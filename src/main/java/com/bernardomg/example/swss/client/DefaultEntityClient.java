@@ -26,25 +26,44 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.BeanUtils;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.ws.client.core.WebServiceMessageCallback;
 import org.springframework.ws.client.core.support.WebServiceGatewaySupport;
 import org.springframework.ws.soap.client.core.SoapActionCallback;
 
 import com.bernardomg.example.swss.endpoint.ExampleEntityEndpointConstants;
+import com.bernardomg.example.swss.event.LifecycleEvents;
+import com.bernardomg.example.swss.event.LifecycleStage;
 import com.bernardomg.example.swss.model.DefaultExampleEntity;
 import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.generated.entity.Entity;
+import com.bernardomg.example.swss.generated.entity.GetEntitiesRequest;
+import com.bernardomg.example.swss.generated.entity.GetEntitiesResponse;
 import com.bernardomg.example.swss.generated.entity.GetEntityRequest;
 import com.bernardomg.example.swss.generated.entity.GetEntityResponse;
+import com.google.common.collect.Iterables;
 
 /**
  * Spring-based client for querying the web service endpoints.
  * <p>
- * It supports the only operation which the
+ * It supports the operations which the
  * {@link com.bernardomg.example.swss.endpoint.ExampleEntityEndpoint
- * ExampleEntityEndpoint} has: querying an entity by its id.
+ * ExampleEntityEndpoint} has: querying an entity by its id, and querying
+ * several entities by their ids. It also supports iterating over the entities
+ * listed by the
+ * {@link com.bernardomg.example.swss.endpoint.StreamingExampleEntityEndpoint
+ * StreamingExampleEntityEndpoint}.
  * <p>
  * As with that same endpoint, this client by default is unsecured. Any such
  * concern is to be taken care by Spring. This means that by default it will
@@ -60,6 +79,9 @@
  * the client, meaning that any SOAP or transmission exception will leak out to
  * the main application, but if for some reason there is no exception and the
  * response is empty then a {@code null} value will be returned.
+ * <p>
+ * Each query for entities is emitted as a {@link LifecycleStage#CLIENT_QUERY}
+ * lifecycle event, if the events are set and being recorded.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  * @see ExampleEntity
@@ -72,14 +94,100 @@ public final class DefaultEntityClient extends WebServiceGatewaySupport
     /**
      * The logger used for logging the entity client.
      */
-    private static final Logger LOGGER = LoggerFactory
+    private static final Logger         LOGGER = LoggerFactory
             .getLogger(DefaultEntityClient.class);
 
+    /**
+     * Mapper for transforming the received JAXB entities into domain
+     * entities.
+     */
+    private ExampleEntityMapper         entityMapper;
+
+    /**
+     * Executor for the asynchronous queries.
+     */
+    private AsyncListenableTaskExecutor executor;
+
+    /**
+     * Events where the queries are emitted.
+     */
+    private LifecycleEvents             lifecycleEvents;
+
     /**
      * Default constructor.
      */
     public DefaultEntityClient() {
         super();
+
+        entityMapper = new DefaultExampleEntityMapper();
+        executor = new TaskExecutorAdapter(new SyncTaskExecutor());
+        lifecycleEvents = new LifecycleEvents(false);
+    }
+
+    /**
+     * Sends several ids to the endpoint and receives back the data for the
+     * entities with those same ids.
+     * <p>
+     * The endpoint accepts a limited number of ids on each request, if more
+     * than those are received then they will be split and sent in as many
+     * requests as needed.
+     * <p>
+     * If for some reason an empty response, or not response at all, is
+     * received then no entity will be returned for that request.
+     * <p>
+     * As with the single entity query, the SOAP request will include the SOAP
+     * action in the HTTP header.
+     *
+     * @param uri
+     *            URI to the endpoint
+     * @param identifiers
+     *            ids of the queried entities
+     * @return the entities with the received ids
+     */
+    @Override
+    public final Collection<ExampleEntity> getEntities(final String uri,
+            final Collection<Integer> identifiers) {
+        final Collection<ExampleEntity> entities; // Entities with the response
+                                                  // data
+        final WebServiceMessageCallback callback; // SOAP action callback
+        GetEntitiesRequest request;               // Request for the entities
+        GetEntitiesResponse response;             // Response with the result
+
+        checkNotNull(uri, "Received a null pointer as URI");
+        checkNotNull(identifiers, "Received a null pointer as entity ids");
+
+        LOGGER.debug("Querying URI {} for {} ids", uri, identifiers.size());
+
+        // Prepares callback
+        callback = new SoapActionCallback(
+                ExampleEntityEndpointConstants.ACTION_ENTITIES);
+
+        entities = new ArrayList<>();
+        for (final List<Integer> batch : Iterables.partition(identifiers,
+                ExampleEntityEndpointConstants.MAX_IDS)) {
+            // Generates request
+            request = new GetEntitiesRequest();
+            request.getId().addAll(batch);
+
+            // Sends request and receives response
+            response = (GetEntitiesResponse) sendAndReceive(uri, request,
+                    callback, ExampleEntityEndpointConstants.ACTION_ENTITIES,
+                    batch.get(0));
+
+            if (response == null) {
+                // No response was received
+                LOGGER.debug("No response received");
+            } else {
+                for (final Entity received : response.getEntity()) {
+                    entities.add(getEntityMapper().map(received));
+                }
+
+                LOGGER.debug("Received response with {} entities",
+                        response.getEntity().size());
+            }
+        }
+
+        return entities;
     }
 
     /**
@@ -122,8 +230,8 @@ public final ExampleEntity getEntity(final String uri,
                 ExampleEntityEndpointConstants.ACTION);
 
         // Sends request and receives response
-        response = (GetEntityResponse) getWebServiceTemplate()
-                .marshalSendAndReceive(uri, request, callback);
+        response = (GetEntityResponse) sendAndReceive(uri, request, callback,
+                ExampleEntityEndpointConstants.ACTION, identifier);
 
         if ((response == null) || (response.getEntity() == null)) {
             // No response was received
@@ -133,16 +241,16 @@ public final ExampleEntity getEntity(final String uri,
 
             LOGGER.debug("No response received");
         } else {
-            entity = new DefaultExampleEntity();
             if (response.getEntity().getName() == null) {
                 // The response was empty
+                entity = new DefaultExampleEntity();
                 entity.setName("");
                 entity.setId(-1);
 
                 LOGGER.debug("Received an empty response");
             } else {
                 // The response was not empty
-                BeanUtils.copyProperties(response.getEntity(), entity);
+                entity = getEntityMapper().map(response.getEntity());
 
                 LOGGER.debug("Received response with id {} and name {}",
                         entity.getId(), entity.getName());
@@ -153,4 +261,180 @@ public final ExampleEntity getEntity(final String uri,
         return entity;
     }
 
+    /**
+     * Sends an id to the endpoint and receives back the data for the entity
+     * with that same id, without blocking the caller while waiting for the
+     * response.
+     * <p>
+     * The query is the same as the one made by
+     * {@link #getEntity(String, Integer) getEntity}, but it is run by the
+     * asynchronous executor. If this executor limits the queries in flight,
+     * then the caller may block until one of them finishes.
+     * <p>
+     * By default the query is run on the calling thread, and the returned
+     * future is already done.
+     *
+     * @param uri
+     *            URI to the endpoint
+     * @param identifier
+     *            id of the queried entity
+     * @return a future for the entity with the received id
+     */
+    @Override
+    public final ListenableFuture<ExampleEntity>
+            getEntityAsync(final String uri, final Integer identifier) {
+        checkNotNull(uri, "Received a null pointer as URI");
+        checkNotNull(identifier, "Received a null pointer as entity id");
+
+        return getExecutor().submitListenable(new Callable<ExampleEntity>() {
+
+            @Override
+            public final ExampleEntity call() {
+                return getEntity(uri, identifier);
+            }
+
+        });
+    }
+
+    /**
+     * Iterates over all the entities with an id greater than the received one,
+     * ordered by id.
+     * <p>
+     * The endpoint is queried one page at a time, and only when the previous
+     * page has been consumed. The last id received is used as the starting
+     * point for the next page. The payloads are handled with StAX instead of
+     * JAXB.
+     * <p>
+     * As with the other queries, the SOAP request will include the SOAP action
+     * in the HTTP header.
+     *
+     * @param uri
+     *            URI to the endpoint
+     * @param identifier
+     *            id after which the entities will be iterated
+     * @param pageSize
+     *            number of entities to request on each query
+     * @return an iterator over the entities after the received id
+     */
+    @Override
+    public final Iterator<ExampleEntity> listEntities(final String uri,
+            final Integer identifier, final Integer pageSize) {
+        checkNotNull(uri, "Received a null pointer as URI");
+        checkNotNull(identifier, "Received a null pointer as entity id");
+        checkNotNull(pageSize, "Received a null pointer as page size");
+
+        return new PagedEntityIterator(getWebServiceTemplate(), uri,
+                identifier, pageSize);
+    }
+
+    /**
+     * Sets the mapper for transforming the received JAXB entities into domain
+     * entities.
+     * <p>
+     * By default a {@link DefaultExampleEntityMapper} is used.
+     *
+     * @param mapper
+     *            the mapper for the received entities
+     */
+    public final void setEntityMapper(final ExampleEntityMapper mapper) {
+        entityMapper = checkNotNull(mapper,
+                "Received a null pointer as entity mapper");
+    }
+
+    /**
+     * Sets the executor for the asynchronous queries.
+     * <p>
+     * By default the queries are run on the calling thread.
+     *
+     * @param asyncExecutor
+     *            the executor for the asynchronous queries
+     */
+    public final void
+            setExecutor(final AsyncListenableTaskExecutor asyncExecutor) {
+        executor = checkNotNull(asyncExecutor,
+                "Received a null pointer as executor");
+    }
+
+    /**
+     * Sets the events where the queries are emitted.
+     * <p>
+     * By default the events are disabled.
+     *
+     * @param events
+     *            the events where the queries are emitted
+     */
+    public final void setLifecycleEvents(final LifecycleEvents events) {
+        lifecycleEvents = checkNotNull(events,
+                "Received a null pointer as lifecycle events");
+    }
+
+    /**
+     * Returns the mapper for transforming the received JAXB entities into
+     * domain entities.
+     *
+     * @return the mapper for the received entities
+     */
+    private final ExampleEntityMapper getEntityMapper() {
+        return entityMapper;
+    }
+
+    /**
+     * Returns the executor for the asynchronous queries.
+     *
+     * @return the executor for the asynchronous queries
+     */
+    private final AsyncListenableTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the events where the queries are emitted.
+     *
+     * @return the events where the queries are emitted
+     */
+    private final LifecycleEvents getLifecycleEvents() {
+        return lifecycleEvents;
+    }
+
+    /**
+     * Sends the request and receives the response, emitting the query if the
+     * lifecycle events are being recorded.
+     *
+     * @param uri
+     *            URI to the endpoint
+     * @param request
+     *            request to send
+     * @param callback
+     *            SOAP action callback
+     * @param action
+     *            SOAP action of the request
+     * @param identifier
+     *            id of the first entity queried
+     * @return the response received
+     */
+    private final Object sendAndReceive(final String uri, final Object request,
+            final WebServiceMessageCallback callback, final String action,
+            final Integer identifier) {
+        final LifecycleEvents events; // Events for the query
+        final long start;             // Query start
+        final Object response;        // Received response
+
+        events = getLifecycleEvents();
+        if (events.isRecording()) {
+            start = System.nanoTime();
+            try {
+                response = getWebServiceTemplate().marshalSendAndReceive(uri,
+                        request, callback);
+            } finally {
+                events.emit(LifecycleStage.CLIENT_QUERY, uri, action,
+                        identifier, System.nanoTime() - start);
+            }
+        } else {
+            response = getWebServiceTemplate().marshalSendAndReceive(uri,
+                    request, callback);
+        }
+
+        return response;
+    }
+
 }
@@ -24,14 +24,23 @@
 
 package com.bernardomg.example.swss.client;
 
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.springframework.util.concurrent.ListenableFuture;
+
 import com.bernardomg.example.swss.model.ExampleEntity;
 
 /**
  * Client for querying the web service endpoints.
  * <p>
- * It supports the only operation which the
+ * It supports the operations which the
  * {@link com.bernardomg.example.swss.endpoint.ExampleEntityEndpoint
- * ExampleEntityEndpoint} has: querying an entity by its id.
+ * ExampleEntityEndpoint} has: querying an entity by its id, and querying
+ * several entities by their ids. Additionally, it can iterate over the
+ * entities, as offered by the
+ * {@link com.bernardomg.example.swss.endpoint.StreamingExampleEntityEndpoint
+ * StreamingExampleEntityEndpoint}.
  * <p>
  * Implementations are expected to take care of any security protocol used by
  * the queried endpoint. After all this example is about web service security.
@@ -41,6 +50,23 @@
  */
 public interface EntityClient {
 
+    /**
+     * Sends several ids to the endpoint and receives back the entities with
+     * those same ids.
+     * <p>
+     * The method is expected to never return a null. Instead it should return
+     * an empty collection. Ids for which there is no entity are expected to be
+     * ignored.
+     *
+     * @param uri
+     *            URI to the endpoint
+     * @param identifiers
+     *            ids of the queried entities
+     * @return the entities for the given ids
+     */
+    public Collection<ExampleEntity> getEntities(final String uri,
+            final Collection<Integer> identifiers);
+
     /**
      * Sends an id to the endpoint and receives back the entity with that same
      * id.
@@ -57,4 +83,40 @@ public interface EntityClient {
      */
     public ExampleEntity getEntity(final String uri, final Integer identifier);
 
+    /**
+     * Sends an id to the endpoint and receives back the entity with that same
+     * id, without blocking the caller while waiting for the response.
+     * <p>
+     * The returned future is expected to follow the same rules as
+     * {@link #getEntity(String, Integer) getEntity}, and any exception thrown
+     * by the query should be received through it.
+     *
+     * @param uri
+     *            URI to the endpoint
+     * @param identifier
+     *            id of the queried entity
+     * @return a future for the entity with the given id
+     */
+    public ListenableFuture<ExampleEntity> getEntityAsync(final String uri,
+            final Integer identifier);
+
+    /**
+     * Iterates over all the entities with an id greater than the received one,
+     * ordered by id.
+     * <p>
+     * The entities are expected to be requested lazily, one page at a time,
+     * and only when the previous page has been consumed. So the iterator may
+     * query the endpoint while iterating.
+     *
+     * @param uri
+     *            URI to the endpoint
+     * @param identifier
+     *            id after which the entities will be iterated
+     * @param pageSize
+     *            number of entities to request on each query
+     * @return an iterator over the entities after the received id
+     */
+    public Iterator<ExampleEntity> listEntities(final String uri,
+            final Integer identifier, final Integer pageSize);
+
 }
@@ -0,0 +1,388 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.client.core.SourceExtractor;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.soap.client.core.SoapActionCallback;
+import org.springframework.xml.transform.StringSource;
+import org.springframework.xml.transform.TransformerHelper;
+
+import com.bernardomg.example.swss.endpoint.ExampleEntityEndpointConstants;
+import com.bernardomg.example.swss.model.DefaultExampleEntity;
+import com.bernardomg.example.swss.model.ExampleEntity;
+
+/**
+ * Iterator over the entities listed by the
+ * {@link com.bernardomg.example.swss.endpoint.StreamingExampleEntityEndpoint
+ * StreamingExampleEntityEndpoint}.
+ * <p>
+ * Pages are requested only when the previous one has been consumed, using the
+ * id of the last entity received as the starting point for the next one. When
+ * a page smaller than the requested size is received the iteration ends.
+ * <p>
+ * Both the request and the response payloads are handled with StAX, instead of
+ * JAXB. If the message factory offers a StAX source for the response it will
+ * be read directly, otherwise the payload is transformed into a stream first.
+ * In any case only a single page is kept in memory.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class PagedEntityIterator implements Iterator<ExampleEntity> {
+
+    /**
+     * Extractor reading the entities in a response payload.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class EntitiesExtractor
+            implements SourceExtractor<List<ExampleEntity>> {
+
+        /**
+         * Default constructor.
+         */
+        public EntitiesExtractor() {
+            super();
+        }
+
+        @Override
+        public final List<ExampleEntity> extractData(final Source source)
+                throws TransformerException {
+            final List<ExampleEntity> entities; // Read entities
+            final XMLStreamReader reader;       // Reader for the payload
+            ExampleEntity entity;               // Entity being read
+
+            entities = new ArrayList<>();
+            try {
+                reader = getReader(source);
+
+                entity = null;
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            if (ENTITY.equals(reader.getLocalName())) {
+                                entity = new DefaultExampleEntity();
+                            } else if ((entity != null)
+                                    && ID.equals(reader.getLocalName())) {
+                                entity.setId(Integer.valueOf(
+                                        reader.getElementText().trim()));
+                            } else if ((entity != null)
+                                    && NAME.equals(reader.getLocalName())) {
+                                entity.setName(reader.getElementText());
+                            }
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            if (ENTITY.equals(reader.getLocalName())) {
+                                entities.add(entity);
+                                entity = null;
+                            }
+                            break;
+                        default:
+                    }
+                }
+
+                reader.close();
+            } catch (final XMLStreamException e) {
+                throw new TransformerException(e);
+            }
+
+            return entities;
+        }
+
+        /**
+         * Returns a reader for the received source.
+         *
+         * @param source
+         *            source to read
+         * @return a reader for the source
+         * @throws XMLStreamException
+         *             if the reader can't be created
+         * @throws TransformerException
+         *             if the source can't be transformed into a stream
+         */
+        private final XMLStreamReader getReader(final Source source)
+                throws XMLStreamException, TransformerException {
+            final XMLStreamReader reader;        // Reader for the source
+            final ByteArrayOutputStream payload; // Payload as a stream
+
+            if (StaxUtils.isStaxSource(source)
+                    && (StaxUtils.getXMLStreamReader(source) != null)) {
+                reader = StaxUtils.getXMLStreamReader(source);
+            } else {
+                // Trees, such as SAAJ's DOM, can't be read with StAX
+                payload = new ByteArrayOutputStream();
+                new TransformerHelper().transform(source,
+                        new StreamResult(payload));
+                reader = INPUT_FACTORY.createXMLStreamReader(
+                        new ByteArrayInputStream(payload.toByteArray()));
+            }
+
+            return reader;
+        }
+
+    }
+
+    /**
+     * Name of the element for the id after which the entities are listed.
+     */
+    private static final String            AFTER_ID       = "afterId";
+
+    /**
+     * Name of the element for each entity.
+     */
+    private static final String            ENTITY         = "entity";
+
+    /**
+     * Extractor for the response entities.
+     */
+    private static final EntitiesExtractor EXTRACTOR      = new EntitiesExtractor();
+
+    /**
+     * Name of the element for the entity id.
+     */
+    private static final String            ID             = "id";
+
+    /**
+     * Factory for the response readers.
+     */
+    private static final XMLInputFactory   INPUT_FACTORY  = XMLInputFactory
+            .newInstance();
+
+    /**
+     * The logger used for logging the iterator.
+     */
+    private static final Logger            LOGGER         = LoggerFactory
+            .getLogger(PagedEntityIterator.class);
+
+    /**
+     * Name of the element for the entity name.
+     */
+    private static final String            NAME           = "name";
+
+    /**
+     * Factory for the request writers.
+     */
+    private static final XMLOutputFactory  OUTPUT_FACTORY = XMLOutputFactory
+            .newInstance();
+
+    /**
+     * Prefix for the entities namespace.
+     */
+    private static final String            PREFIX         = "ent";
+
+    /**
+     * Name of the element for the page size.
+     */
+    private static final String            SIZE           = "size";
+
+    /**
+     * SOAP action callback.
+     */
+    private final SoapActionCallback       callback;
+
+    /**
+     * Flag marking the last page has been received.
+     */
+    private Boolean                        exhausted      = false;
+
+    /**
+     * Id of the last entity returned.
+     */
+    private Integer                        lastId;
+
+    /**
+     * Entities in the current page.
+     */
+    private Iterator<ExampleEntity>        page           = Collections
+            .emptyIterator();
+
+    /**
+     * Number of entities to request on each query.
+     */
+    private final Integer                  pageSize;
+
+    /**
+     * Template used for sending the requests.
+     */
+    private final WebServiceTemplate       template;
+
+    /**
+     * URI to the endpoint.
+     */
+    private final String                   uri;
+
+    /**
+     * Constructs an iterator over the entities after the received id.
+     *
+     * @param webServiceTemplate
+     *            template used for sending the requests
+     * @param endpoint
+     *            URI to the endpoint
+     * @param identifier
+     *            id after which the entities are iterated
+     * @param size
+     *            number of entities to request on each query
+     */
+    public PagedEntityIterator(final WebServiceTemplate webServiceTemplate,
+            final String endpoint, final Integer identifier,
+            final Integer size) {
+        super();
+
+        template = checkNotNull(webServiceTemplate,
+                "Received a null pointer as template");
+        uri = checkNotNull(endpoint, "Received a null pointer as URI");
+        lastId = checkNotNull(identifier,
+                "Received a null pointer as identifier");
+        pageSize = checkNotNull(size, "Received a null pointer as page size");
+
+        checkArgument(pageSize > 0, "The page size should be positive");
+
+        callback = new SoapActionCallback(
+                ExampleEntityEndpointConstants.ACTION_LIST);
+    }
+
+    @Override
+    public final boolean hasNext() {
+        final List<ExampleEntity> entities; // Received page
+
+        if ((!page.hasNext()) && (!exhausted)) {
+            entities = requestPage();
+
+            // A short page means there is nothing after it
+            exhausted = entities.size() < pageSize;
+
+            page = entities.iterator();
+        }
+
+        return page.hasNext();
+    }
+
+    @Override
+    public final ExampleEntity next() {
+        final ExampleEntity entity; // Next entity
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        entity = page.next();
+        lastId = entity.getId();
+
+        return entity;
+    }
+
+    @Override
+    public final void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the payload for requesting the page after the last id.
+     *
+     * @return the payload for the next page request
+     */
+    private final Source getRequest() {
+        final StringWriter payload;   // Request payload
+        final XMLStreamWriter writer; // Writer for the payload
+
+        payload = new StringWriter();
+        try {
+            writer = OUTPUT_FACTORY.createXMLStreamWriter(payload);
+
+            writer.writeStartElement(PREFIX,
+                    ExampleEntityEndpointConstants.REQUEST_LIST,
+                    ExampleEntityEndpointConstants.ENTITY_NS);
+            writer.writeNamespace(PREFIX,
+                    ExampleEntityEndpointConstants.ENTITY_NS);
+
+            writer.writeStartElement(PREFIX, AFTER_ID,
+                    ExampleEntityEndpointConstants.ENTITY_NS);
+            writer.writeCharacters(String.valueOf(lastId));
+            writer.writeEndElement();
+
+            writer.writeStartElement(PREFIX, SIZE,
+                    ExampleEntityEndpointConstants.ENTITY_NS);
+            writer.writeCharacters(String.valueOf(pageSize));
+            writer.writeEndElement();
+
+            writer.writeEndElement();
+            writer.close();
+        } catch (final XMLStreamException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return new StringSource(payload.toString());
+    }
+
+    /**
+     * Requests the page after the last id.
+     * <p>
+     * If for some reason no response is received then an empty page is
+     * returned.
+     *
+     * @return the entities in the next page
+     */
+    private final List<ExampleEntity> requestPage() {
+        final List<ExampleEntity> entities; // Received entities
+
+        LOGGER.debug("Querying URI {} for {} entities after id {}", uri,
+                pageSize, lastId);
+
+        entities = template.sendSourceAndReceive(uri, getRequest(), callback,
+                EXTRACTOR);
+
+        LOGGER.debug("Received page with {} entities",
+                entities == null ? 0 : entities.size());
+
+        return entities == null ? Collections.<ExampleEntity> emptyList()
+                : entities;
+    }
+
+}
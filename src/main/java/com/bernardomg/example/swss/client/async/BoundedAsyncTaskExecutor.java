@@ -0,0 +1,203 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client.async;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+/**
+ * Task executor which limits the number of tasks in flight.
+ * <p>
+ * A task is in flight from the moment it is submitted until it finishes or is
+ * cancelled, so this includes both the tasks being run and those waiting in
+ * the delegated executor. Once the limit is reached any new submission blocks
+ * the caller until another task finishes. This way the callers are slowed
+ * down instead of the queue growing without limit.
+ * <p>
+ * The tasks themselves are run by the delegated executor.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Executor limiting the tasks in flight")
+public final class BoundedAsyncTaskExecutor
+        implements AsyncListenableTaskExecutor {
+
+    /**
+     * Executor which runs the tasks.
+     */
+    private final TaskExecutor executor;
+
+    /**
+     * Maximum number of tasks in flight.
+     */
+    private final Integer      maxInFlight;
+
+    /**
+     * Permits for the tasks in flight.
+     */
+    private final Semaphore    permits;
+
+    /**
+     * Constructs an executor with the specified delegate and limit.
+     *
+     * @param delegate
+     *            executor which will run the tasks
+     * @param max
+     *            maximum number of tasks in flight
+     */
+    public BoundedAsyncTaskExecutor(final TaskExecutor delegate,
+            final Integer max) {
+        super();
+
+        executor = checkNotNull(delegate,
+                "Received a null pointer as executor");
+        maxInFlight = checkNotNull(max,
+                "Received a null pointer as maximum tasks in flight");
+
+        checkArgument(max > 0,
+                "The maximum tasks in flight should be positive");
+
+        permits = new Semaphore(max);
+    }
+
+    @Override
+    public final void execute(final Runnable task) {
+        submitListenable(task);
+    }
+
+    @Override
+    public final void execute(final Runnable task, final long startTimeout) {
+        submitListenable(task);
+    }
+
+    /**
+     * Returns the number of tasks in flight.
+     *
+     * @return the number of tasks in flight
+     */
+    @ManagedAttribute(description = "Number of tasks in flight")
+    public final Integer getInFlight() {
+        return getMaxInFlight() - getPermits().availablePermits();
+    }
+
+    /**
+     * Returns the maximum number of tasks in flight.
+     *
+     * @return the maximum number of tasks in flight
+     */
+    @ManagedAttribute(description = "Maximum number of tasks in flight")
+    public final Integer getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    @Override
+    public final <T> Future<T> submit(final Callable<T> task) {
+        return submitListenable(task);
+    }
+
+    @Override
+    public final Future<?> submit(final Runnable task) {
+        return submitListenable(task);
+    }
+
+    @Override
+    public final <T> ListenableFuture<T>
+            submitListenable(final Callable<T> task) {
+        checkNotNull(task, "Received a null pointer as task");
+
+        return run(new BoundedFutureTask<>(task, getPermits()));
+    }
+
+    @Override
+    public final ListenableFuture<?> submitListenable(final Runnable task) {
+        checkNotNull(task, "Received a null pointer as task");
+
+        return run(new BoundedFutureTask<Object>(task, null, getPermits()));
+    }
+
+    /**
+     * Returns the executor which runs the tasks.
+     *
+     * @return the executor which runs the tasks
+     */
+    private final TaskExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the permits for the tasks in flight.
+     *
+     * @return the permits for the tasks in flight
+     */
+    private final Semaphore getPermits() {
+        return permits;
+    }
+
+    /**
+     * Waits until there is a free permit, and then sends the task to the
+     * delegated executor.
+     * <p>
+     * The permit is freed by the task itself when it is done. If the delegated
+     * executor rejects the task, then the permit is freed at once.
+     *
+     * @param <T>
+     *            type of the task result
+     * @param task
+     *            task to run
+     * @return the received task
+     */
+    private final <T> ListenableFuture<T>
+            run(final ListenableFutureTask<T> task) {
+        try {
+            getPermits().acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException(
+                    "Interrupted while waiting for a task to finish", e);
+        }
+
+        try {
+            getExecutor().execute(task);
+        } catch (final RuntimeException e) {
+            getPermits().release();
+            throw e;
+        }
+
+        return task;
+    }
+
+}
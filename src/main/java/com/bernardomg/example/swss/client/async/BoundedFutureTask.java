@@ -0,0 +1,119 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+/**
+ * Future task which frees a permit once it is done.
+ * <p>
+ * A task is done once it finishes, fails or is cancelled. The permit is freed
+ * only once, even if the task was cancelled before running.
+ * <p>
+ * The permit is freed by a callback registered when the task is created, so
+ * it is called before any callback added later.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @param <T>
+ *            type of the task result
+ */
+final class BoundedFutureTask<T> extends ListenableFutureTask<T> {
+
+    /**
+     * Constructs a future task for the specified callable.
+     *
+     * @param callable
+     *            task to run
+     * @param semaphore
+     *            permits to free the task permit into
+     */
+    public BoundedFutureTask(final Callable<T> callable,
+            final Semaphore semaphore) {
+        super(callable);
+
+        addCallback(new PermitReleasingCallback(semaphore));
+    }
+
+    /**
+     * Constructs a future task for the specified runnable.
+     *
+     * @param runnable
+     *            task to run
+     * @param result
+     *            result to return once the task finishes
+     * @param semaphore
+     *            permits to free the task permit into
+     */
+    public BoundedFutureTask(final Runnable runnable, final T result,
+            final Semaphore semaphore) {
+        super(runnable, result);
+
+        addCallback(new PermitReleasingCallback(semaphore));
+    }
+
+    /**
+     * Callback which frees a permit once the task is done.
+     * <p>
+     * Failures include the cancellations.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class PermitReleasingCallback
+            implements ListenableFutureCallback<Object> {
+
+        /**
+         * Permits to free the task permit into.
+         */
+        private final Semaphore permits;
+
+        /**
+         * Constructs a callback freeing a permit into the specified permits.
+         *
+         * @param semaphore
+         *            permits to free the task permit into
+         */
+        public PermitReleasingCallback(final Semaphore semaphore) {
+            super();
+
+            permits = semaphore;
+        }
+
+        @Override
+        public final void onFailure(final Throwable ex) {
+            permits.release();
+        }
+
+        @Override
+        public final void onSuccess(final Object result) {
+            permits.release();
+        }
+
+    }
+
+}
\ No newline at end of file
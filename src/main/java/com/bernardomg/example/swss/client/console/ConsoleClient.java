@@ -24,9 +24,13 @@
 
 package com.bernardomg.example.swss.client.console;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Scanner;
@@ -34,6 +38,7 @@
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.core.NestedRuntimeException;
+import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.io.ClassPathResource;
 
 import com.bernardomg.example.swss.client.EntityClient;
@@ -46,6 +51,11 @@
  * used as the client's UI.
  * <p>
  * Once it starts just follow the instructions.
+ * <p>
+ * It can also be started in load mode, with the {@code --load} argument. In
+ * this case, instead of showing the menu, it will keep querying a single
+ * endpoint from several threads for a period of time, and then print the
+ * throughput and latency percentiles.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
@@ -81,6 +91,10 @@ private enum Security {
          * Plain password using XWSS.
          */
         PASSWORD_PLAIN_XWSS,
+        /**
+         * Session keys using WSS4J.
+         */
+        SESSION_WSS4J,
         /**
          * Signature using WSS4J.
          */
@@ -103,6 +117,36 @@ private enum Security {
      */
     private static final String ENDPOINT_URL_TEMPLATE = "http://localhost:8080/swss%s";
 
+    /**
+     * Argument for the CSV file where the load results are appended.
+     */
+    private static final String OPTION_CSV            = "--csv";
+
+    /**
+     * Argument for the load duration.
+     */
+    private static final String OPTION_DURATION       = "--duration";
+
+    /**
+     * Argument for the range of ids to query while in load mode.
+     */
+    private static final String OPTION_IDS            = "--ids";
+
+    /**
+     * Argument for running the load mode.
+     */
+    private static final String OPTION_LOAD           = "--load";
+
+    /**
+     * Argument for the security mode to query while in load mode.
+     */
+    private static final String OPTION_MODE           = "--mode";
+
+    /**
+     * Argument for the number of threads sending requests.
+     */
+    private static final String OPTION_THREADS        = "--threads";
+
     /**
      * Property key for the endpoint URI.
      */
@@ -115,17 +159,31 @@ private enum Security {
      *            command line arguments
      * @throws IOException
      *             if any error occurs while loading the client
+     * @throws InterruptedException
+     *             if interrupted while generating load
      */
-    public static void main(final String[] args) throws IOException {
+    public static void main(final String[] args)
+            throws IOException, InterruptedException {
         final PrintStream output; // Output for the client information
 
         output = System.out;
 
         // The client header is printed
         printTitle(output);
-        printHelp(output);
 
-        runMainLoop(output, getClients(), getUris());
+        if (Arrays.asList(args).contains(OPTION_LOAD)) {
+            try {
+                runLoad(output, Arrays.asList(args));
+            } catch (final IllegalArgumentException e) {
+                output.println(String.format("Error: %s", e.getMessage()));
+                output.println();
+                printLoadUsage(output);
+            }
+        } else {
+            printHelp(output);
+
+            runMainLoop(output, getClients(), getUris());
+        }
     }
 
     /**
@@ -187,6 +245,54 @@ private static final void callEndpoint(final EntityClient client,
         waitForEnter(output, scanner);
     }
 
+    /**
+     * Returns the path to the Spring context for the client of the specified
+     * security protocol.
+     *
+     * @param security
+     *            security protocol of the client
+     * @return the path to the context for the client
+     */
+    private static final String
+            getClientContextPath(final Security security) {
+        final String path; // Context path
+
+        switch (security) {
+            case PASSWORD_PLAIN_XWSS:
+                path = "context/client/password/plain/xwss/client-password-plain-xwss.xml";
+                break;
+            case PASSWORD_PLAIN_WSS4J:
+                path = "context/client/password/plain/wss4j/client-password-plain-wss4j.xml";
+                break;
+            case PASSWORD_DIGEST_XWSS:
+                path = "context/client/password/digest/xwss/client-password-digest-xwss.xml";
+                break;
+            case PASSWORD_DIGEST_WSS4J:
+                path = "context/client/password/digest/wss4j/client-password-digest-wss4j.xml";
+                break;
+            case SIGNATURE_XWSS:
+                path = "context/client/signature/xwss/client-signature-xwss.xml";
+                break;
+            case SIGNATURE_WSS4J:
+                path = "context/client/signature/wss4j/client-signature-wss4j.xml";
+                break;
+            case ENCRYPTION_XWSS:
+                path = "context/client/encryption/xwss/client-encryption-xwss.xml";
+                break;
+            case ENCRYPTION_WSS4J:
+                path = "context/client/encryption/wss4j/client-encryption-wss4j.xml";
+                break;
+            case SESSION_WSS4J:
+                path = "context/client/session/wss4j/client-session-wss4j.xml";
+                break;
+            default:
+                path = "context/client/client-unsecure.xml";
+                break;
+        }
+
+        return path;
+    }
+
     /**
      * Returns all the clients, one prepared for each security protocol.
      * <p>
@@ -198,24 +304,11 @@ private static final Map<Security, EntityClient> getClients() {
         final Map<Security, EntityClient> clients; // Returned clients
 
         clients = new HashMap<Security, EntityClient>();
-        clients.put(Security.UNSECURE,
-                getEntityClient("context/client/client-unsecure.xml"));
-        clients.put(Security.PASSWORD_PLAIN_XWSS, getEntityClient(
-                "context/client/password/plain/xwss/client-password-plain-xwss.xml"));
-        clients.put(Security.PASSWORD_PLAIN_WSS4J, getEntityClient(
-                "context/client/password/plain/wss4j/client-password-plain-wss4j.xml"));
-        clients.put(Security.PASSWORD_DIGEST_XWSS, getEntityClient(
-                "context/client/password/digest/xwss/client-password-digest-xwss.xml"));
-        clients.put(Security.PASSWORD_DIGEST_WSS4J, getEntityClient(
-                "context/client/password/digest/wss4j/client-password-digest-wss4j.xml"));
-        clients.put(Security.SIGNATURE_XWSS, getEntityClient(
-                "context/client/signature/xwss/client-signature-xwss.xml"));
-        clients.put(Security.SIGNATURE_WSS4J, getEntityClient(
-                "context/client/signature/wss4j/client-signature-wss4j.xml"));
-        clients.put(Security.ENCRYPTION_XWSS, getEntityClient(
-                "context/client/encryption/xwss/client-encryption-xwss.xml"));
-        clients.put(Security.ENCRYPTION_WSS4J, getEntityClient(
-                "context/client/encryption/wss4j/client-encryption-wss4j.xml"));
+        for (final Security security : Security.values()) {
+            clients.put(security,
+                    getEntityClient(getClientContextPath(security),
+                            Collections.<String, Object> emptyMap()));
+        }
 
         return clients;
     }
@@ -247,23 +340,32 @@ private static final String getEndpointUri(final String propertiesPath)
     /**
      * Returns a client generated from the Spring context defined in the
      * specified file.
+     * <p>
+     * The received properties take precedence over the ones in the context
+     * properties files.
+     * <p>
+     * The context is kept open, as the client depends on beans which are
+     * released when it is closed, such as the connection pool. It will be
+     * closed when the JVM shuts down.
      *
      * @param contextPath
      *            path to the Spring context file
+     * @param properties
+     *            properties overriding the context ones
      * @return a client loaded from the specified context
      */
-    private static final EntityClient
-            getEntityClient(final String contextPath) {
+    private static final EntityClient getEntityClient(
+            final String contextPath, final Map<String, Object> properties) {
         final ConfigurableApplicationContext context; // Context
-        final EntityClient client; // Client
 
-        context = new ClassPathXmlApplicationContext(contextPath);
+        context = new ClassPathXmlApplicationContext(
+                new String[] { contextPath }, false);
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("overrides", properties));
+        context.refresh();
+        context.registerShutdownHook();
 
-        client = context.getBean(EntityClient.class);
-
-        context.close();
-
-        return client;
+        return context.getBean(EntityClient.class);
     }
 
     /**
@@ -298,6 +400,37 @@ private static final Integer getInteger(final Scanner scanner) {
         return integer;
     }
 
+    /**
+     * Returns the value following the specified option in the arguments.
+     * <p>
+     * If the option is not among the arguments the default value is returned.
+     *
+     * @param args
+     *            command line arguments
+     * @param option
+     *            option to search for
+     * @param defaultValue
+     *            value to return if the option is missing
+     * @return the value for the option
+     */
+    private static final String getOption(final List<String> args,
+            final String option, final String defaultValue) {
+        final Integer index; // Position of the option
+        final String value; // Value for the option
+
+        index = args.indexOf(option);
+        if (index < 0) {
+            value = defaultValue;
+        } else if ((index + 1) < args.size()) {
+            value = args.get(index + 1);
+        } else {
+            throw new IllegalArgumentException(
+                    String.format("Missing value for %s", option));
+        }
+
+        return value;
+    }
+
     /**
      * Returns the URIs for all the endpoints.
      *
@@ -327,6 +460,8 @@ private static final Map<Security, String> getUris() throws IOException {
                 "config/endpoint/encryption/xwss/endpoint-encryption-xwss.properties"));
         uris.put(Security.ENCRYPTION_WSS4J, getEndpointUri(
                 "config/endpoint/encryption/wss4j/endpoint-encryption-wss4j.properties"));
+        uris.put(Security.SESSION_WSS4J, getEndpointUri(
+                "config/endpoint/session/wss4j/endpoint-session-wss4j.properties"));
 
         return uris;
     }
@@ -349,6 +484,73 @@ private static final void printClientOptions(final PrintStream output) {
         output.println("7.- Signature (WSS4J)");
         output.println("8.- Encryption (XWSS)");
         output.println("9.- Encryption (WSS4J)");
+        output.println("10.- Session keys (WSS4J)");
+    }
+
+    /**
+     * Parses a duration into seconds.
+     * <p>
+     * The duration may end with a unit, {@code s} for seconds, {@code m} for
+     * minutes or {@code h} for hours. Without unit it is read as seconds.
+     *
+     * @param duration
+     *            duration to parse
+     * @return the seconds in the duration
+     */
+    private static final Long parseDuration(final String duration) {
+        final String number; // Duration without unit
+        final Long multiplier; // Seconds for each unit
+
+        if (duration.endsWith("h")) {
+            multiplier = 3600L;
+        } else if (duration.endsWith("m")) {
+            multiplier = 60L;
+        } else {
+            multiplier = 1L;
+        }
+
+        if (Character.isDigit(duration.charAt(duration.length() - 1))) {
+            number = duration;
+        } else {
+            number = duration.substring(0, duration.length() - 1);
+        }
+
+        try {
+            return Long.parseLong(number) * multiplier;
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid duration %s", duration), e);
+        }
+    }
+
+    /**
+     * Parses a range of ids, such as {@code 1-10000}.
+     * <p>
+     * A single id is accepted as a range containing only that id.
+     *
+     * @param range
+     *            range to parse
+     * @return the lowest and highest ids in the range
+     */
+    private static final Integer[] parseIds(final String range) {
+        final String[] limits; // Limits of the range
+
+        limits = range.split("-");
+        try {
+            if (limits.length == 1) {
+                return new Integer[] { Integer.parseInt(limits[0]),
+                        Integer.parseInt(limits[0]) };
+            } else if (limits.length == 2) {
+                return new Integer[] { Integer.parseInt(limits[0]),
+                        Integer.parseInt(limits[1]) };
+            }
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid id range %s", range), e);
+        }
+
+        throw new IllegalArgumentException(
+                String.format("Invalid id range %s", range));
     }
 
     /**
@@ -369,6 +571,23 @@ private static final void printHelp(final PrintStream output) {
                 "========================================================================");
     }
 
+    /**
+     * Prints the arguments accepted by the load mode.
+     *
+     * @param output
+     *            output where the information will be printed
+     */
+    private static final void printLoadUsage(final PrintStream output) {
+        output.println("Load mode arguments:");
+        output.println();
+        output.println("--load                Runs the load mode");
+        output.println("--mode <security>     Security mode, such as UNSECURE");
+        output.println("--threads <count>     Threads sending requests");
+        output.println("--duration <time>     Duration, such as 60s or 2m");
+        output.println("--ids <range>         Ids to query, such as 1-10000");
+        output.println("--csv <file>          CSV file for the results");
+    }
+
     /**
      * Prints the header telling which endpoint is going to be queried.
      *
@@ -412,6 +631,9 @@ private static final void printQueryHeader(final String uri,
             case ENCRYPTION_WSS4J:
                 securityName = "encryption (WSS4J)";
                 break;
+            case SESSION_WSS4J:
+                securityName = "session keys (WSS4J)";
+                break;
             default:
                 securityName = null;
                 break;
@@ -438,6 +660,70 @@ private static final void printTitle(final PrintStream output) {
         output.println();
     }
 
+    /**
+     * Runs the load mode.
+     * <p>
+     * The endpoint for the chosen security mode is queried, with the same
+     * client the interactive mode uses, for the received duration. Then the
+     * results are printed. If a CSV file was received they are also appended
+     * to it.
+     * <p>
+     * Only the client for the chosen mode is loaded, and its connection pool
+     * is sized to the number of threads. Otherwise the threads would wait for
+     * a free connection, and the results would measure the client pool
+     * instead of the server.
+     *
+     * @param output
+     *            output where all the information will be printed
+     * @param args
+     *            command line arguments
+     * @throws IOException
+     *             if any error occurs while loading the client or writing the
+     *             results
+     * @throws InterruptedException
+     *             if interrupted while generating load
+     */
+    private static final void runLoad(final PrintStream output,
+            final List<String> args) throws IOException, InterruptedException {
+        final Security security; // Queried security mode
+        final Integer threads; // Threads sending requests
+        final Long seconds; // Load duration
+        final Integer[] ids; // Range of ids to query
+        final String csv; // CSV file for the results
+        final String uri; // Endpoint for the security mode
+        final LoadReport report; // Load results
+        final Map<String, Object> pool; // Connection pool properties
+
+        security = Security.valueOf(
+                getOption(args, OPTION_MODE, Security.UNSECURE.name()));
+        threads = Integer.parseInt(getOption(args, OPTION_THREADS, "1"));
+        seconds = parseDuration(getOption(args, OPTION_DURATION, "60s"));
+        ids = parseIds(getOption(args, OPTION_IDS, "1"));
+        csv = getOption(args, OPTION_CSV, null);
+
+        uri = getUris().get(security);
+
+        printQueryHeader(uri, security, output);
+        output.println(String.format(
+                "Sending requests from %d threads for %d seconds", threads,
+                seconds));
+        output.println();
+
+        pool = new HashMap<String, Object>();
+        pool.put("client.sender.maxConnections", threads);
+        pool.put("client.sender.maxConnectionsPerRoute", threads);
+
+        report = new LoadGenerator(
+                getEntityClient(getClientContextPath(security), pool), uri,
+                threads, seconds, ids[0], ids[1]).run();
+
+        report.print(output);
+
+        if (csv != null) {
+            report.writeCsv(new File(csv), security.name(), threads);
+        }
+    }
+
     /**
      * Runs the main application loop.
      * <p>
@@ -503,6 +789,9 @@ private static final void runMainLoop(final PrintStream output,
                 case "9":
                     security = Security.ENCRYPTION_WSS4J;
                     break;
+                case "10":
+                    security = Security.SESSION_WSS4J;
+                    break;
                 default:
                     security = null;
                     break;
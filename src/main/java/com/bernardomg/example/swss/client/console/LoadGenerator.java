@@ -0,0 +1,232 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client.console;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+
+import com.bernardomg.example.swss.client.EntityClient;
+
+/**
+ * Generates sustained load against an endpoint.
+ * <p>
+ * A number of threads query the endpoint with the same client, one request
+ * after the other, for the specified time. Each request asks for a random id
+ * inside the specified range.
+ * <p>
+ * The latency of every request is recorded into a histogram for each thread,
+ * and these are merged once all the threads finish. Failed requests are
+ * counted, but their latency is not recorded.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class LoadGenerator {
+
+    /**
+     * Worker sending requests until the deadline.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private final class Worker implements Callable<Histogram> {
+
+        /**
+         * Time, in nanoseconds, after which no more requests are sent.
+         */
+        private final Long deadline;
+
+        /**
+         * Constructs a worker sending requests until the specified time.
+         *
+         * @param end
+         *            time, in nanoseconds, after which no more requests are
+         *            sent
+         */
+        public Worker(final Long end) {
+            super();
+
+            deadline = end;
+        }
+
+        @Override
+        public final Histogram call() {
+            final Histogram         latencies; // Latency for each request
+            final ThreadLocalRandom random;    // Random id generator
+            Long                    start;     // Request start time
+
+            latencies = new Histogram(SIGNIFICANT_DIGITS);
+            random = ThreadLocalRandom.current();
+
+            while (System.nanoTime() < deadline) {
+                start = System.nanoTime();
+                try {
+                    client.getEntity(uri,
+                            random.nextInt(minId, maxId + 1));
+                    latencies.recordValue(TimeUnit.NANOSECONDS
+                            .toMicros(System.nanoTime() - start));
+                } catch (final RuntimeException e) {
+                    errors.incrementAndGet();
+                }
+            }
+
+            return latencies;
+        }
+
+    }
+
+    /**
+     * Significant digits kept by the latency histograms.
+     */
+    private static final Integer SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Client sending the requests.
+     */
+    private final EntityClient   client;
+
+    /**
+     * Seconds during which the requests are sent.
+     */
+    private final Long           duration;
+
+    /**
+     * Number of failed requests.
+     */
+    private final AtomicLong     errors;
+
+    /**
+     * Highest id to query.
+     */
+    private final Integer        maxId;
+
+    /**
+     * Lowest id to query.
+     */
+    private final Integer        minId;
+
+    /**
+     * Number of threads sending requests.
+     */
+    private final Integer        threads;
+
+    /**
+     * URI for the endpoint.
+     */
+    private final String         uri;
+
+    /**
+     * Constructs a load generator with the specified settings.
+     *
+     * @param entityClient
+     *            client sending the requests
+     * @param endpointUri
+     *            URI for the endpoint
+     * @param threadCount
+     *            number of threads sending requests
+     * @param seconds
+     *            seconds during which the requests are sent
+     * @param lowestId
+     *            lowest id to query
+     * @param highestId
+     *            highest id to query
+     */
+    public LoadGenerator(final EntityClient entityClient,
+            final String endpointUri, final Integer threadCount,
+            final Long seconds, final Integer lowestId,
+            final Integer highestId) {
+        super();
+
+        client = checkNotNull(entityClient,
+                "Received a null pointer as client");
+        uri = checkNotNull(endpointUri, "Received a null pointer as URI");
+        threads = checkNotNull(threadCount,
+                "Received a null pointer as threads");
+        duration = checkNotNull(seconds,
+                "Received a null pointer as duration");
+        minId = checkNotNull(lowestId, "Received a null pointer as lowest id");
+        maxId = checkNotNull(highestId,
+                "Received a null pointer as highest id");
+
+        checkArgument(threadCount > 0, "The threads should be positive");
+        checkArgument(seconds > 0, "The duration should be positive");
+        checkArgument(lowestId <= highestId,
+                "The lowest id can't be greater than the highest id");
+
+        errors = new AtomicLong();
+    }
+
+    /**
+     * Sends requests until the duration is over, and returns the results.
+     *
+     * @return the results of the load
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads
+     */
+    public final LoadReport run() throws InterruptedException {
+        final ExecutorService         executor;  // Threads sending requests
+        final List<Future<Histogram>> workers;   // Running workers
+        final Histogram               latencies; // Merged latencies
+        final Long                    start;     // Load start time
+        final Long                    deadline;  // Load end time
+
+        executor = Executors.newFixedThreadPool(threads);
+        workers = new ArrayList<>();
+        latencies = new Histogram(SIGNIFICANT_DIGITS);
+
+        start = System.nanoTime();
+        deadline = start + TimeUnit.SECONDS.toNanos(duration);
+        try {
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(new Worker(deadline)));
+            }
+
+            for (final Future<Histogram> worker : workers) {
+                try {
+                    latencies.add(worker.get());
+                } catch (final ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new LoadReport(latencies, errors.get(),
+                System.nanoTime() - start);
+    }
+
+}
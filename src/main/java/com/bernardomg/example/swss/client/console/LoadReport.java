@@ -0,0 +1,231 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client.console;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Results from a load generated against an endpoint.
+ * <p>
+ * Latencies are stored in microseconds, but are reported in milliseconds.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class LoadReport {
+
+    /**
+     * Header for the CSV files.
+     */
+    private static final String CSV_HEADER       = "mode,threads,duration_s,requests,errors,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms";
+
+    /**
+     * Microseconds in a millisecond.
+     */
+    private static final Double MICROS_PER_MILLI = 1000d;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final Double NANOS_PER_SECOND = 1000000000d;
+
+    /**
+     * Time, in nanoseconds, the load took.
+     */
+    private final Long          elapsed;
+
+    /**
+     * Number of failed requests.
+     */
+    private final Long          errors;
+
+    /**
+     * Latencies, in microseconds, of the successful requests.
+     */
+    private final Histogram     latencies;
+
+    /**
+     * Constructs a report with the specified results.
+     *
+     * @param histogram
+     *            latencies, in microseconds, of the successful requests
+     * @param failed
+     *            number of failed requests
+     * @param nanos
+     *            time, in nanoseconds, the load took
+     */
+    public LoadReport(final Histogram histogram, final Long failed,
+            final Long nanos) {
+        super();
+
+        latencies = checkNotNull(histogram,
+                "Received a null pointer as latencies");
+        errors = checkNotNull(failed, "Received a null pointer as errors");
+        elapsed = checkNotNull(nanos, "Received a null pointer as time");
+    }
+
+    /**
+     * Returns the number of failed requests.
+     *
+     * @return the number of failed requests
+     */
+    public final Long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the latency, in milliseconds, for the specified percentile.
+     *
+     * @param percentile
+     *            percentile to return, between 0 and 100
+     * @return the latency for the percentile
+     */
+    public final Double getLatency(final Double percentile) {
+        return getLatencies().getValueAtPercentile(percentile)
+                / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Returns the highest latency, in milliseconds.
+     *
+     * @return the highest latency
+     */
+    public final Double getMaxLatency() {
+        return getLatencies().getMaxValue() / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Returns the number of requests sent, including the failed ones.
+     *
+     * @return the number of requests sent
+     */
+    public final Long getRequests() {
+        return getLatencies().getTotalCount() + getErrors();
+    }
+
+    /**
+     * Returns the seconds the load took.
+     *
+     * @return the seconds the load took
+     */
+    public final Long getSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(elapsed);
+    }
+
+    /**
+     * Returns the requests sent each second.
+     *
+     * @return the throughput of the load
+     */
+    public final Double getThroughput() {
+        return getRequests() / (elapsed / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Prints the report to the specified output.
+     *
+     * @param output
+     *            output where the report will be printed
+     */
+    public final void print(final PrintStream output) {
+        checkNotNull(output, "Received a null pointer as output");
+
+        output.println(String.format(Locale.ENGLISH, "Requests:   %d",
+                getRequests()));
+        output.println(
+                String.format(Locale.ENGLISH, "Errors:     %d", getErrors()));
+        output.println(String.format(Locale.ENGLISH, "Throughput: %.2f req/s",
+                getThroughput()));
+        output.println(String.format(Locale.ENGLISH, "p50:        %.3f ms",
+                getLatency(50d)));
+        output.println(String.format(Locale.ENGLISH, "p90:        %.3f ms",
+                getLatency(90d)));
+        output.println(String.format(Locale.ENGLISH, "p99:        %.3f ms",
+                getLatency(99d)));
+        output.println(String.format(Locale.ENGLISH, "p999:       %.3f ms",
+                getLatency(99.9d)));
+        output.println(String.format(Locale.ENGLISH, "Max:        %.3f ms",
+                getMaxLatency()));
+    }
+
+    /**
+     * Appends the report as a row to the specified CSV file.
+     * <p>
+     * If the file does not exist it is created, and the header is added
+     * before the row.
+     *
+     * @param file
+     *            CSV file where the report will be written
+     * @param mode
+     *            name of the security mode which was queried
+     * @param threads
+     *            number of threads which sent the requests
+     * @throws IOException
+     *             if any error occurs while writing the file
+     */
+    public final void writeCsv(final File file, final String mode,
+            final Integer threads) throws IOException {
+        final Boolean     header; // Flag telling if the header is required
+        final PrintWriter writer; // Writer for the CSV file
+
+        checkNotNull(file, "Received a null pointer as file");
+
+        header = !file.exists();
+        writer = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), "UTF-8"));
+        try {
+            if (header) {
+                writer.println(CSV_HEADER);
+            }
+            writer.println(String.format(Locale.ENGLISH,
+                    "%s,%d,%d,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f", mode,
+                    threads, getSeconds(), getRequests(), getErrors(),
+                    getThroughput(), getLatency(50d), getLatency(90d),
+                    getLatency(99d), getLatency(99.9d), getMaxLatency()));
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Returns the latencies, in microseconds, of the successful requests.
+     *
+     * @return the latencies of the successful requests
+     */
+    private final Histogram getLatencies() {
+        return latencies;
+    }
+
+}
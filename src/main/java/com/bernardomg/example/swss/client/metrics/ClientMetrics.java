@@ -0,0 +1,346 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.bernardomg.example.swss.timing.AccumulatingRecorder;
+
+/**
+ * Metrics for the queries sent by the clients, kept for each target URI.
+ * <p>
+ * For each target the latency of every {@link ClientPhase} is recorded, in
+ * microseconds, along the size of the responses, in bytes, and the number of
+ * faults and errors received.
+ * <p>
+ * The metrics for a target are created the first time it is queried, and
+ * kept until reset, so this is meant for clients querying a few known
+ * services.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Metrics for the queries sent by the clients")
+public final class ClientMetrics {
+
+    /**
+     * Significant digits kept by the histograms.
+     */
+    private static final Integer                       SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Metrics for each target URI.
+     */
+    private final ConcurrentMap<String, TargetMetrics> targets;
+
+    /**
+     * Default constructor.
+     */
+    public ClientMetrics() {
+        super();
+
+        targets = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the number of latencies recorded for the phase of the queries
+     * to the target.
+     *
+     * @param target
+     *            target URI
+     * @param phase
+     *            name of the phase
+     * @return the number of latencies recorded
+     */
+    @ManagedOperation(
+            description = "Number of latencies recorded for a target phase")
+    public final Long getCount(final String target, final String phase) {
+        return getLatencies(target, phase).getHistogram().getTotalCount();
+    }
+
+    /**
+     * Returns the number of errors received from the target.
+     *
+     * @param target
+     *            target URI
+     * @return the number of errors received
+     */
+    @ManagedOperation(description = "Number of errors received from a target")
+    public final Long getErrors(final String target) {
+        return getTarget(target).errors.get();
+    }
+
+    /**
+     * Returns the number of faults received from the target.
+     *
+     * @param target
+     *            target URI
+     * @return the number of faults received
+     */
+    @ManagedOperation(description = "Number of faults received from a target")
+    public final Long getFaults(final String target) {
+        return getTarget(target).faults.get();
+    }
+
+    /**
+     * Returns the latency, in microseconds, at the percentile for the phase
+     * of the queries to the target.
+     *
+     * @param target
+     *            target URI
+     * @param phase
+     *            name of the phase
+     * @param percentile
+     *            percentile to read, from 0 to 100
+     * @return the latency at the percentile
+     */
+    @ManagedOperation(
+            description = "Microseconds at a percentile for a target phase")
+    public final Long getPercentile(final String target, final String phase,
+            final Double percentile) {
+        checkNotNull(percentile, "Received a null pointer as percentile");
+
+        return getLatencies(target, phase).getHistogram()
+                .getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Returns a summary of the metrics for each target.
+     *
+     * @return a summary of the metrics for each target
+     */
+    @ManagedAttribute(description = "Metrics for each target")
+    public final String[] getSummary() {
+        final List<String> lines;  // Summary for each target
+        TargetMetrics      metrics; // Metrics for the target
+
+        lines = new ArrayList<>();
+        for (final String target : targets.keySet()) {
+            metrics = targets.get(target);
+            lines.add(String.format(Locale.ENGLISH,
+                    "%s: faults=%d, errors=%d", target, metrics.faults.get(),
+                    metrics.errors.get()));
+            for (final ClientPhase phase : ClientPhase.values()) {
+                lines.add(summarize(target + " " + phase,
+                        metrics.latencies.get(phase).getHistogram()));
+            }
+            lines.add(summarize(target + " SIZE",
+                    metrics.sizes.getHistogram()));
+        }
+
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    /**
+     * Returns the target URIs queried.
+     *
+     * @return the target URIs queried
+     */
+    @ManagedAttribute(description = "Target URIs queried")
+    public final String[] getTargets() {
+        return targets.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Records the latency of a phase for a query to the target.
+     *
+     * @param target
+     *            target URI
+     * @param phase
+     *            timed phase
+     * @param nanos
+     *            latency, in nanoseconds
+     */
+    public final void record(final String target, final ClientPhase phase,
+            final Long nanos) {
+        getTarget(target).latencies.get(phase)
+                .record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * Registers an error received from the target.
+     *
+     * @param target
+     *            target URI
+     */
+    public final void registerError(final String target) {
+        getTarget(target).errors.incrementAndGet();
+    }
+
+    /**
+     * Registers a fault received from the target.
+     *
+     * @param target
+     *            target URI
+     */
+    public final void registerFault(final String target) {
+        getTarget(target).faults.incrementAndGet();
+    }
+
+    /**
+     * Records the size of a response received from the target.
+     *
+     * @param target
+     *            target URI
+     * @param bytes
+     *            size of the response, in bytes
+     */
+    public final void registerResponseSize(final String target,
+            final Long bytes) {
+        getTarget(target).sizes.record(bytes);
+    }
+
+    /**
+     * Removes all the metrics.
+     */
+    @ManagedOperation(description = "Removes all the metrics")
+    public final void reset() {
+        targets.clear();
+    }
+
+    /**
+     * Returns the latencies recorded for the phase of the queries to the
+     * target.
+     *
+     * @param target
+     *            target URI
+     * @param phase
+     *            name of the phase
+     * @return the latencies recorded
+     */
+    private final AccumulatingRecorder getLatencies(final String target,
+            final String phase) {
+        final ClientPhase timed; // Phase to read
+
+        checkNotNull(phase, "Received a null pointer as phase");
+
+        timed = ClientPhase.valueOf(phase.toUpperCase(Locale.ENGLISH));
+
+        return getTarget(target).latencies.get(timed);
+    }
+
+    /**
+     * Returns the metrics for the target, creating them if needed.
+     *
+     * @param target
+     *            target URI
+     * @return the metrics for the target
+     */
+    private final TargetMetrics getTarget(final String target) {
+        TargetMetrics metrics; // Metrics for the target
+
+        checkNotNull(target, "Received a null pointer as target");
+
+        metrics = targets.get(target);
+        if (metrics == null) {
+            metrics = new TargetMetrics();
+            if (targets.putIfAbsent(target, metrics) != null) {
+                metrics = targets.get(target);
+            }
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Returns a single line summary of the histogram.
+     *
+     * @param name
+     *            name of the histogram
+     * @param histogram
+     *            histogram to summarize
+     * @return a summary of the histogram
+     */
+    private final String summarize(final String name,
+            final Histogram histogram) {
+        return String.format(Locale.ENGLISH,
+                "%s: count=%d, p50=%d, p99=%d, p999=%d, max=%d", name,
+                histogram.getTotalCount(), histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue());
+    }
+
+    /**
+     * Metrics for a single target URI.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class TargetMetrics {
+
+        /**
+         * Number of errors received.
+         */
+        private final AtomicLong                             errors;
+
+        /**
+         * Number of faults received.
+         */
+        private final AtomicLong                             faults;
+
+        /**
+         * Latencies for each phase.
+         */
+        private final Map<ClientPhase, AccumulatingRecorder> latencies;
+
+        /**
+         * Sizes of the responses.
+         */
+        private final AccumulatingRecorder                   sizes;
+
+        /**
+         * Default constructor.
+         */
+        public TargetMetrics() {
+            super();
+
+            errors = new AtomicLong();
+            faults = new AtomicLong();
+            sizes = new AccumulatingRecorder(SIGNIFICANT_DIGITS);
+
+            latencies = new EnumMap<>(ClientPhase.class);
+            for (final ClientPhase phase : ClientPhase.values()) {
+                latencies.put(phase,
+                        new AccumulatingRecorder(SIGNIFICANT_DIGITS));
+            }
+        }
+
+    }
+
+}
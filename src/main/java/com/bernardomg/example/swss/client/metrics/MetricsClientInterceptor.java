@@ -0,0 +1,381 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ws.client.WebServiceClientException;
+import org.springframework.ws.client.support.interceptor.ClientInterceptor;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.transport.HeadersAwareSenderWebServiceConnection;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+
+/**
+ * Client interceptor which wraps the interceptors of a client, recording
+ * metrics for each query into a {@link ClientMetrics}.
+ * <p>
+ * It should be the only interceptor of the client, receiving the actual ones
+ * on its constructor. These are called in the same way the template would
+ * call them, but as this interceptor surrounds them it can time how long they
+ * take with the request and the response, such as when signing or encrypting
+ * it. The time between both is the network wait, while the time between the
+ * response leaving the interceptors and the query completing is the
+ * unmarshalling of the response.
+ * <p>
+ * Metrics are kept for each target URI. The response size is taken from the
+ * {@code Content-Length} header, so it is not recorded for responses without
+ * it.
+ * <p>
+ * The template completes the queries which receive a fault twice, once after
+ * the fault is handled and again when the fault exception is thrown. Only the
+ * first one is recorded, and passed to the wrapped interceptors.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class MetricsClientInterceptor implements ClientInterceptor {
+
+    /**
+     * Header with the size of the response.
+     */
+    private static final String           CONTENT_LENGTH = "Content-Length";
+
+    /**
+     * The logger used for logging the metrics interceptor.
+     */
+    private static final Logger           LOGGER         = LoggerFactory
+            .getLogger(MetricsClientInterceptor.class);
+
+    /**
+     * Message context property where the query state is stored.
+     */
+    private static final String           QUERY          = MetricsClientInterceptor.class
+            .getName() + ".query";
+
+    /**
+     * Target used when the URI can't be read.
+     */
+    private static final String           UNKNOWN_TARGET = "unknown";
+
+    /**
+     * Wrapped interceptors.
+     */
+    private final List<ClientInterceptor> interceptors;
+
+    /**
+     * Metrics where the queries are recorded.
+     */
+    private final ClientMetrics           metrics;
+
+    /**
+     * Constructs an interceptor wrapping the specified ones.
+     *
+     * @param clientMetrics
+     *            metrics where the queries are recorded
+     * @param wrapped
+     *            interceptors to wrap, in the order they should be called
+     */
+    public MetricsClientInterceptor(final ClientMetrics clientMetrics,
+            final List<ClientInterceptor> wrapped) {
+        super();
+
+        metrics = checkNotNull(clientMetrics,
+                "Received a null pointer as metrics");
+
+        checkNotNull(wrapped, "Received a null pointer as interceptors");
+
+        interceptors = Collections.unmodifiableList(new ArrayList<>(wrapped));
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Exception ex) throws WebServiceClientException {
+        final Query query; // Query state
+        final long  now;   // Current time
+
+        query = (Query) messageContext.getProperty(QUERY);
+
+        if (query != null) {
+            try {
+                for (int i = query.lastIndex; i >= 0; i--) {
+                    interceptors.get(i).afterCompletion(messageContext, ex);
+                }
+            } finally {
+                now = System.nanoTime();
+                if (query.responseHandled) {
+                    metrics.record(query.target, ClientPhase.UNMARSHALLING,
+                            now - query.lastMark);
+                }
+                metrics.record(query.target, ClientPhase.TOTAL,
+                        now - query.start);
+                if (ex != null) {
+                    metrics.registerError(query.target);
+                }
+
+                messageContext.removeProperty(QUERY);
+            }
+        }
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext)
+            throws WebServiceClientException {
+        final Query query;   // Query state
+        boolean     proceed; // Flag to continue
+
+        query = received(messageContext);
+        metrics.registerFault(query.target);
+
+        proceed = true;
+        for (int i = query.lastIndex; proceed && (i >= 0); i--) {
+            proceed = interceptors.get(i).handleFault(messageContext);
+        }
+
+        handled(query);
+
+        return proceed;
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext)
+            throws WebServiceClientException {
+        final Query query;   // Query state
+        boolean     proceed; // Flag to continue
+        final long  now;     // Current time
+
+        query = new Query(getTarget());
+        messageContext.setProperty(QUERY, query);
+
+        proceed = true;
+        for (int i = 0; proceed && (i < interceptors.size()); i++) {
+            query.lastIndex = i;
+            proceed = interceptors.get(i).handleRequest(messageContext);
+        }
+
+        now = System.nanoTime();
+        metrics.record(query.target, ClientPhase.REQUEST, now - query.start);
+        query.lastMark = now;
+
+        return proceed;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext)
+            throws WebServiceClientException {
+        final Query query;   // Query state
+        boolean     proceed; // Flag to continue
+
+        query = received(messageContext);
+
+        proceed = true;
+        for (int i = query.lastIndex; proceed && (i >= 0); i--) {
+            proceed = interceptors.get(i).handleResponse(messageContext);
+        }
+
+        handled(query);
+
+        return proceed;
+    }
+
+    /**
+     * Returns the size of the response, as told by the connection.
+     * <p>
+     * If the size is unknown then {@code null} is returned.
+     *
+     * @return the size of the response
+     */
+    private final Long getResponseSize() {
+        final TransportContext     context;    // Transport context
+        final WebServiceConnection connection; // Connection for the query
+        final Long                 size;       // Response size
+
+        context = TransportContextHolder.getTransportContext();
+
+        if (context == null) {
+            size = null;
+        } else {
+            connection = context.getConnection();
+            if (connection instanceof HeadersAwareSenderWebServiceConnection) {
+                size = readContentLength(
+                        (HeadersAwareSenderWebServiceConnection) connection);
+            } else {
+                size = null;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the target URI for the current query.
+     *
+     * @return the target URI for the current query
+     */
+    private final String getTarget() {
+        final TransportContext context; // Transport context
+        String                 target;  // Target URI
+
+        context = TransportContextHolder.getTransportContext();
+        target = UNKNOWN_TARGET;
+        if (context != null) {
+            try {
+                target = context.getConnection().getUri().toString();
+            } catch (final URISyntaxException e) {
+                LOGGER.debug("Can't read the target URI", e);
+            }
+        }
+
+        return target;
+    }
+
+    /**
+     * Records the end of the response handling by the wrapped interceptors.
+     *
+     * @param query
+     *            query state
+     */
+    private final void handled(final Query query) {
+        final long now; // Current time
+
+        now = System.nanoTime();
+        metrics.record(query.target, ClientPhase.RESPONSE,
+                now - query.lastMark);
+        query.lastMark = now;
+        query.responseHandled = true;
+    }
+
+    /**
+     * Reads the size of the response from its {@code Content-Length} header.
+     * <p>
+     * If the header is missing or invalid then {@code null} is returned.
+     *
+     * @param connection
+     *            connection which received the response
+     * @return the size of the response
+     */
+    private final Long readContentLength(
+            final HeadersAwareSenderWebServiceConnection connection) {
+        final Iterator<String> values; // Header values
+        Long                   size;   // Response size
+
+        size = null;
+        try {
+            values = connection.getResponseHeaders(CONTENT_LENGTH);
+            if (values.hasNext()) {
+                size = Long.valueOf(values.next());
+            }
+        } catch (final IOException | NumberFormatException e) {
+            LOGGER.debug("Can't read the response size", e);
+        }
+
+        return size;
+    }
+
+    /**
+     * Records the reception of the response, before the wrapped interceptors
+     * handle it.
+     *
+     * @param messageContext
+     *            context for the query
+     * @return the query state
+     */
+    private final Query received(final MessageContext messageContext) {
+        final Query query; // Query state
+        final long  now;   // Current time
+        final Long  size;  // Response size
+
+        query = (Query) messageContext.getProperty(QUERY);
+
+        now = System.nanoTime();
+        metrics.record(query.target, ClientPhase.NETWORK, now - query.lastMark);
+        query.lastMark = now;
+
+        size = getResponseSize();
+        if (size != null) {
+            metrics.registerResponseSize(query.target, size);
+        }
+
+        return query;
+    }
+
+    /**
+     * State of a single query.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class Query {
+
+        /**
+         * Index of the last interceptor which handled the request.
+         */
+        private int          lastIndex       = -1;
+
+        /**
+         * Time, in nanoseconds, of the last phase end.
+         */
+        private long         lastMark;
+
+        /**
+         * Flag telling if the interceptors handled the response.
+         */
+        private boolean      responseHandled = false;
+
+        /**
+         * Time, in nanoseconds, when the query reached the interceptors.
+         */
+        private final long   start;
+
+        /**
+         * Target URI.
+         */
+        private final String target;
+
+        /**
+         * Constructs the state for a query to the specified target.
+         *
+         * @param uri
+         *            target URI
+         */
+        public Query(final String uri) {
+            super();
+
+            target = uri;
+            start = System.nanoTime();
+            lastMark = start;
+        }
+
+    }
+
+}
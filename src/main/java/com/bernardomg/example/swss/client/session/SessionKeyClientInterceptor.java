@@ -0,0 +1,520 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client.session;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.URISyntaxException;
+import java.security.SecureRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.transform.dom.DOMResult;
+
+import org.apache.wss4j.common.ext.WSSecurityException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ws.client.WebServiceClientException;
+import org.springframework.ws.client.core.WebServiceOperations;
+import org.springframework.ws.client.support.interceptor.ClientInterceptor;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.client.core.SoapActionCallback;
+import org.springframework.ws.soap.security.wss4j2.Wss4jSecuritySecurementException;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.xml.transform.StringSource;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import com.bernardomg.example.swss.auth.session.SessionConstants;
+
+/**
+ * Client interceptor which secures the requests through a session with each
+ * target.
+ * <p>
+ * The first request to a target opens a session, sending a random secret
+ * through the handshake operations. These should encrypt the handshake with
+ * the server public key, which is the only asymmetric operation until the
+ * session expires. Then this and the following requests are secured with
+ * the {@link SessionMessageSecurer}.
+ * <p>
+ * Only one handshake is sent to each target at a time. If several threads
+ * need a session while it is being opened, they wait for that handshake
+ * instead of sending their own.
+ * <p>
+ * Sessions are renewed a bit before the lifetime told by the server ends. If
+ * a fault is received, which may be caused by the server dropping the
+ * session, then the session used by that request is discarded and the next
+ * request opens a new one.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SessionKeyClientInterceptor implements ClientInterceptor {
+
+    /**
+     * The logger used for logging the session interceptor.
+     */
+    private static final Logger                                    LOGGER           = LoggerFactory
+            .getLogger(SessionKeyClientInterceptor.class);
+
+    /**
+     * Milliseconds before the session expiration when it is renewed.
+     */
+    private static final Long                                      RENEWAL_MARGIN   = 5000L;
+
+    /**
+     * Template for the handshake request payload.
+     */
+    private static final String                                    REQUEST          = "<ses:%1$s xmlns:ses=\"%2$s\"><ses:%3$s>%4$s</ses:%3$s></ses:%1$s>";
+
+    /**
+     * Message context property with the identifier of the session used by
+     * the request.
+     */
+    private static final String                                    SESSION_PROPERTY = SessionKeyClientInterceptor.class
+            .getName() + ".session";
+
+    /**
+     * Operations for sending the handshakes.
+     */
+    private final WebServiceOperations                             handshake;
+
+    /**
+     * Generator for the session secrets.
+     */
+    private final SecureRandom                                     random;
+
+    /**
+     * Length, in bytes, of the session secrets.
+     */
+    private final Integer                                          secretLength;
+
+    /**
+     * Securer for the requests.
+     */
+    private final SessionMessageSecurer                            securer;
+
+    /**
+     * Sessions for each target URI.
+     * <p>
+     * Each of them is the task opening the session, which may be still
+     * running.
+     */
+    private final ConcurrentMap<String, FutureTask<ClientSession>> sessions;
+
+    /**
+     * Constructs a session interceptor.
+     *
+     * @param handshakeOperations
+     *            operations for sending the handshakes, which should encrypt
+     *            them
+     * @param encryptionAlgorithm
+     *            URI of the algorithm for encrypting the requests
+     * @param length
+     *            length, in bytes, of the session secrets
+     */
+    public SessionKeyClientInterceptor(
+            final WebServiceOperations handshakeOperations,
+            final String encryptionAlgorithm, final Integer length) {
+        super();
+
+        handshake = checkNotNull(handshakeOperations,
+                "Received a null pointer as handshake operations");
+        secretLength = checkNotNull(length,
+                "Received a null pointer as secret length");
+
+        checkArgument(secretLength >= SessionConstants.MIN_SECRET_LENGTH,
+                "The secret should have at least %s bytes",
+                SessionConstants.MIN_SECRET_LENGTH);
+
+        securer = new SessionMessageSecurer(encryptionAlgorithm);
+        random = new SecureRandom();
+        sessions = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Exception ex) throws WebServiceClientException {
+        // Nothing to do
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext)
+            throws WebServiceClientException {
+        final String              target;     // Target URI
+        final Object              identifier; // Session used by the request
+        FutureTask<ClientSession> task;       // Task for the current session
+
+        target = getTarget();
+        identifier = messageContext.getProperty(SESSION_PROPERTY);
+        if ((target != null) && (identifier != null)) {
+            task = sessions.get(target);
+            // Other threads may have already opened a new session
+            if ((task != null) && task.isDone()
+                    && identifier.equals(getIdentifier(task))
+                    && sessions.remove(target, task)) {
+                LOGGER.debug("Discarded session {} with {} after a fault",
+                        identifier, target);
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext)
+            throws WebServiceClientException {
+        final String        target;  // Target URI
+        final ClientSession session; // Session with the target
+
+        target = getTarget();
+        if (target == null) {
+            throw new Wss4jSecuritySecurementException(
+                    "No target to open a session with");
+        }
+
+        session = getSession(target);
+        messageContext.setProperty(SESSION_PROPERTY, session.identifier);
+
+        try {
+            securer.secure((SoapMessage) messageContext.getRequest(),
+                    session.identifier, session.secret);
+        } catch (final WSSecurityException e) {
+            throw new Wss4jSecuritySecurementException(e.getMessage(), e);
+        }
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext)
+            throws WebServiceClientException {
+        return true;
+    }
+
+    /**
+     * Returns the identifier of the session opened by the task, or
+     * {@code null} if it could not be opened.
+     *
+     * @param task
+     *            finished task opening a session
+     * @return the identifier of the session
+     */
+    private final String getIdentifier(final FutureTask<ClientSession> task) {
+        String identifier; // Session identifier
+
+        try {
+            identifier = task.get().identifier;
+        } catch (final InterruptedException | ExecutionException e) {
+            identifier = null;
+        }
+
+        return identifier;
+    }
+
+    /**
+     * Returns the session opened by the task, waiting for it if needed.
+     * <p>
+     * If the session could not be opened the task is discarded, so the next
+     * request tries again.
+     *
+     * @param target
+     *            target URI
+     * @param task
+     *            task opening the session
+     * @return the session opened by the task
+     */
+    private final ClientSession getResult(final String target,
+            final FutureTask<ClientSession> task) {
+        final Throwable cause; // Handshake error
+
+        try {
+            return task.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Wss4jSecuritySecurementException(
+                    "Interrupted while opening a session", e);
+        } catch (final ExecutionException e) {
+            sessions.remove(target, task);
+
+            cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new Wss4jSecuritySecurementException(
+                        cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /**
+     * Returns an open session with the target, opening a new one if needed.
+     * <p>
+     * If another thread is opening the session then this waits for it.
+     *
+     * @param target
+     *            target URI
+     * @return a session with the target
+     */
+    private final ClientSession getSession(final String target) {
+        FutureTask<ClientSession> task;    // Task opening the session
+        ClientSession             session; // Session with the target
+
+        session = null;
+        while (session == null) {
+            task = sessions.get(target);
+            if ((task == null) || isExpired(task)) {
+                // If another thread replaces the task first, this is null
+                task = open(target, task);
+            }
+
+            if (task != null) {
+                session = getResult(target, task);
+            }
+        }
+
+        return session;
+    }
+
+    /**
+     * Returns the target URI for the current request.
+     * <p>
+     * If there is no connection then {@code null} is returned.
+     *
+     * @return the target URI for the current request
+     */
+    private final String getTarget() {
+        final TransportContext context; // Transport context
+        String                 target;  // Target URI
+
+        context = TransportContextHolder.getTransportContext();
+        target = null;
+        if (context != null) {
+            try {
+                target = context.getConnection().getUri().toString();
+            } catch (final URISyntaxException e) {
+                LOGGER.debug("Can't read the target URI", e);
+            }
+        }
+
+        return target;
+    }
+
+    /**
+     * Sends the handshake opening a session with the target.
+     *
+     * @param target
+     *            target URI
+     * @return the session with the target
+     */
+    private final ClientSession handshake(final String target) {
+        final byte[]    secret;     // Session secret
+        final DOMResult response;   // Handshake response
+        final String    identifier; // Session identifier
+        final Long      lifetime;   // Session lifetime
+
+        secret = new byte[secretLength];
+        random.nextBytes(secret);
+
+        response = new DOMResult();
+        handshake.sendSourceAndReceiveToResult(target,
+                new StringSource(String.format(REQUEST,
+                        SessionConstants.REQUEST, SessionConstants.NAMESPACE,
+                        SessionConstants.SECRET,
+                        DatatypeConverter.printBase64Binary(secret))),
+                new SoapActionCallback(SessionConstants.ACTION), response);
+
+        identifier = readText(response.getNode(),
+                SessionConstants.IDENTIFIER);
+        lifetime = Long.valueOf(
+                readText(response.getNode(), SessionConstants.LIFETIME));
+
+        LOGGER.debug("Opened session {} with {}", identifier, target);
+
+        return new ClientSession(identifier, secret, System.currentTimeMillis()
+                + (lifetime * 1000L) - RENEWAL_MARGIN);
+    }
+
+    /**
+     * Indicates if the session opened by the task should be renewed.
+     * <p>
+     * Sessions still being opened are not expired, while those which could
+     * not be opened are.
+     *
+     * @param task
+     *            task opening the session
+     * @return {@code true} if the session should be renewed, {@code false}
+     *         otherwise
+     */
+    private final Boolean isExpired(final FutureTask<ClientSession> task) {
+        Boolean expired; // Expiration flag
+
+        if (task.isDone()) {
+            try {
+                expired = System.currentTimeMillis() >= task.get().renewal;
+            } catch (final InterruptedException | ExecutionException e) {
+                expired = true;
+            }
+        } else {
+            expired = false;
+        }
+
+        return expired;
+    }
+
+    /**
+     * Opens a session with the target, replacing the current one.
+     * <p>
+     * If another thread replaced the current session first, then no session
+     * is opened and {@code null} is returned. The caller should use the
+     * session from that thread.
+     *
+     * @param target
+     *            target URI
+     * @param current
+     *            task for the current session, or {@code null} if there is
+     *            none
+     * @return the task which opened the session, or {@code null} if another
+     *         thread is opening it
+     */
+    private final FutureTask<ClientSession> open(final String target,
+            final FutureTask<ClientSession> current) {
+        final FutureTask<ClientSession> task;     // Task opening the session
+        final Boolean                   replaced; // Flag for the replacement
+
+        task = new FutureTask<>(new Callable<ClientSession>() {
+
+            @Override
+            public final ClientSession call() {
+                return handshake(target);
+            }
+
+        });
+
+        if (current == null) {
+            replaced = sessions.putIfAbsent(target, task) == null;
+        } else {
+            replaced = sessions.replace(target, current, task);
+        }
+
+        if (replaced) {
+            // The handshake is sent from this thread
+            task.run();
+        }
+
+        return replaced ? task : null;
+    }
+
+    /**
+     * Returns the text of the handshake response element with the specified
+     * name.
+     *
+     * @param payload
+     *            handshake response payload
+     * @param name
+     *            local name of the element
+     * @return the text of the element
+     */
+    private final String readText(final Node payload, final String name) {
+        Node   node; // Node being checked
+        String text; // Text of the element
+
+        if (payload instanceof Document) {
+            node = ((Document) payload).getDocumentElement();
+        } else {
+            node = payload;
+        }
+
+        text = null;
+        if (node != null) {
+            node = node.getFirstChild();
+            while ((node != null) && (text == null)) {
+                if ((node.getNodeType() == Node.ELEMENT_NODE)
+                        && name.equals(node.getLocalName())) {
+                    text = node.getTextContent().trim();
+                }
+                node = node.getNextSibling();
+            }
+        }
+
+        if (text == null) {
+            throw new Wss4jSecuritySecurementException(String
+                    .format("The handshake response has no %s", name));
+        }
+
+        return text;
+    }
+
+    /**
+     * Session opened with a target.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class ClientSession {
+
+        /**
+         * Session identifier.
+         */
+        private final String identifier;
+
+        /**
+         * Time, in milliseconds, after which the session should be renewed.
+         */
+        private final Long   renewal;
+
+        /**
+         * Session secret.
+         */
+        private final byte[] secret;
+
+        /**
+         * Constructs a session.
+         *
+         * @param id
+         *            session identifier
+         * @param key
+         *            session secret
+         * @param renewAfter
+         *            time, in milliseconds, after which the session should
+         *            be renewed
+         */
+        public ClientSession(final String id, final byte[] key,
+                final Long renewAfter) {
+            super();
+
+            identifier = id;
+            secret = key;
+            renewal = renewAfter;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client.session;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.apache.wss4j.common.ext.WSSecurityException;
+import org.apache.wss4j.dom.engine.WSSConfig;
+import org.apache.wss4j.dom.message.WSSecDKEncrypt;
+import org.apache.wss4j.dom.message.WSSecHeader;
+import org.apache.wss4j.dom.message.WSSecSecurityContextToken;
+import org.springframework.ws.soap.SoapMessage;
+import org.w3c.dom.Document;
+
+import com.bernardomg.example.swss.auth.session.AesGcmProviders;
+
+/**
+ * Secures the messages sent through a session.
+ * <p>
+ * A security context token with the session identifier is added to the
+ * security header, and the body is encrypted with a key derived from the
+ * session secret. Only symmetric cryptography is involved.
+ * <p>
+ * The encryption algorithm should be an authenticated one, such as AES-GCM,
+ * as the messages are not signed. This way the server can trust they come
+ * from the holder of the secret.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SessionMessageSecurer {
+
+    /**
+     * Algorithm for encrypting the body.
+     */
+    private final String encryptionAlgorithm;
+
+    /**
+     * Constructs a securer using the specified encryption algorithm.
+     *
+     * @param algorithm
+     *            URI of the algorithm for encrypting the body
+     */
+    public SessionMessageSecurer(final String algorithm) {
+        super();
+
+        encryptionAlgorithm = checkNotNull(algorithm,
+                "Received a null pointer as encryption algorithm");
+
+        WSSConfig.init();
+        AesGcmProviders.register();
+    }
+
+    /**
+     * Secures the message for the specified session.
+     *
+     * @param message
+     *            message to secure
+     * @param identifier
+     *            session identifier
+     * @param secret
+     *            session secret
+     * @throws WSSecurityException
+     *             if the message can't be secured
+     */
+    public final void secure(final SoapMessage message,
+            final String identifier, final byte[] secret)
+            throws WSSecurityException {
+        final Document                  document; // Message envelope
+        final WSSecHeader               header;   // Security header
+        final WSSecSecurityContextToken token;    // Session token
+        final WSSecDKEncrypt            encrypt;  // Body encryption
+
+        checkNotNull(message, "Received a null pointer as message");
+        checkNotNull(identifier, "Received a null pointer as identifier");
+        checkNotNull(secret, "Received a null pointer as secret");
+
+        document = message.getDocument();
+
+        header = new WSSecHeader(document);
+        header.insertSecurityHeader();
+
+        token = new WSSecSecurityContextToken();
+        token.setIdentifier(identifier);
+        token.prepare(document, null);
+
+        encrypt = new WSSecDKEncrypt();
+        encrypt.setSymmetricEncAlgorithm(encryptionAlgorithm);
+        encrypt.setExternalKey(secret, token.getSctId());
+        encrypt.build(document, header);
+
+        // The token should come before the keys derived from it
+        token.prependSCTElementToHeader(document, header);
+
+        message.setDocument(document);
+    }
+
+}
@@ -0,0 +1,323 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.client.transport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.ws.transport.http.HttpComponentsMessageSender;
+
+/**
+ * Message sender which keeps a pool of HTTP connections.
+ * <p>
+ * Connections are reused between requests, up to a maximum number in total and
+ * for each route, which is each combination of host and port. The pool is
+ * shared by all the clients using the same sender.
+ * <p>
+ * Connections are kept alive for as long as the server allows, but never for
+ * more than the configured keep alive time. A background thread closes those
+ * which have expired or stayed idle for too long.
+ * <p>
+ * All the times are in milliseconds.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Pooled HTTP message sender")
+public final class PooledHttpComponentsMessageSender
+        extends HttpComponentsMessageSender {
+
+    /**
+     * Keep alive strategy which limits the time given by the server.
+     * <p>
+     * If the server doesn't give any time, then the limit is used.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class BoundedKeepAliveStrategy
+            implements ConnectionKeepAliveStrategy {
+
+        /**
+         * Maximum time to keep a connection alive.
+         */
+        private final Long keepAlive;
+
+        /**
+         * Constructs a strategy with the specified maximum time.
+         *
+         * @param max
+         *            maximum time to keep a connection alive
+         */
+        public BoundedKeepAliveStrategy(final Long max) {
+            super();
+
+            keepAlive = max;
+        }
+
+        @Override
+        public final long getKeepAliveDuration(final HttpResponse response,
+                final HttpContext context) {
+            final long duration; // Time given by the server
+            final long result;   // Time to keep alive
+
+            duration = DefaultConnectionKeepAliveStrategy.INSTANCE
+                    .getKeepAliveDuration(response, context);
+
+            if ((duration < 0) || (duration > keepAlive)) {
+                result = keepAlive;
+            } else {
+                result = duration;
+            }
+
+            return result;
+        }
+
+    }
+
+    /**
+     * HTTP client used by the sender.
+     */
+    private final CloseableHttpClient                client;
+
+    /**
+     * Pool of connections.
+     */
+    private final PoolingHttpClientConnectionManager pool;
+
+    /**
+     * Constructs a message sender with the specified pool settings.
+     *
+     * @param maxConnections
+     *            maximum number of connections
+     * @param maxPerRoute
+     *            maximum number of connections for each route
+     * @param connectionTimeout
+     *            time to wait for establishing a connection
+     * @param readTimeout
+     *            time to wait for data
+     * @param keepAlive
+     *            maximum time to keep a connection alive
+     * @param idleTimeout
+     *            time after which idle connections are closed
+     */
+    public PooledHttpComponentsMessageSender(final Integer maxConnections,
+            final Integer maxPerRoute, final Integer connectionTimeout,
+            final Integer readTimeout, final Long keepAlive,
+            final Long idleTimeout) {
+        this(createPool(maxConnections, maxPerRoute), connectionTimeout,
+                readTimeout, keepAlive, idleTimeout);
+    }
+
+    /**
+     * Constructs a message sender with the specified pool.
+     *
+     * @param connections
+     *            pool of connections
+     * @param connectionTimeout
+     *            time to wait for establishing a connection
+     * @param readTimeout
+     *            time to wait for data
+     * @param keepAlive
+     *            maximum time to keep a connection alive
+     * @param idleTimeout
+     *            time after which idle connections are closed
+     */
+    private PooledHttpComponentsMessageSender(
+            final PoolingHttpClientConnectionManager connections,
+            final Integer connectionTimeout, final Integer readTimeout,
+            final Long keepAlive, final Long idleTimeout) {
+        super(createClient(connections, connectionTimeout, readTimeout,
+                keepAlive, idleTimeout));
+
+        pool = connections;
+        client = (CloseableHttpClient) getHttpClient();
+    }
+
+    /**
+     * Creates the HTTP client using the specified pool.
+     *
+     * @param pool
+     *            pool of connections
+     * @param connectionTimeout
+     *            time to wait for establishing a connection
+     * @param readTimeout
+     *            time to wait for data
+     * @param keepAlive
+     *            maximum time to keep a connection alive
+     * @param idleTimeout
+     *            time after which idle connections are closed
+     * @return the HTTP client
+     */
+    private static final CloseableHttpClient createClient(
+            final PoolingHttpClientConnectionManager pool,
+            final Integer connectionTimeout, final Integer readTimeout,
+            final Long keepAlive, final Long idleTimeout) {
+        final RequestConfig config; // Timeouts for the requests
+
+        checkNotNull(connectionTimeout,
+                "Received a null pointer as connection timeout");
+        checkNotNull(readTimeout, "Received a null pointer as read timeout");
+        checkNotNull(keepAlive, "Received a null pointer as keep alive");
+        checkNotNull(idleTimeout, "Received a null pointer as idle timeout");
+
+        checkArgument(keepAlive > 0, "The keep alive time should be positive");
+        checkArgument(idleTimeout > 0, "The idle timeout should be positive");
+
+        config = RequestConfig.custom().setConnectTimeout(connectionTimeout)
+                .setConnectionRequestTimeout(connectionTimeout)
+                .setSocketTimeout(readTimeout).build();
+
+        return HttpClients.custom().setConnectionManager(pool)
+                .setDefaultRequestConfig(config)
+                .setKeepAliveStrategy(new BoundedKeepAliveStrategy(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout.longValue(),
+                        TimeUnit.MILLISECONDS)
+                .addInterceptorFirst(new RemoveSoapHeadersInterceptor())
+                .build();
+    }
+
+    /**
+     * Creates the pool of connections.
+     *
+     * @param maxConnections
+     *            maximum number of connections
+     * @param maxPerRoute
+     *            maximum number of connections for each route
+     * @return the pool of connections
+     */
+    private static final PoolingHttpClientConnectionManager createPool(
+            final Integer maxConnections, final Integer maxPerRoute) {
+        final PoolingHttpClientConnectionManager pool; // Connections pool
+
+        checkNotNull(maxConnections,
+                "Received a null pointer as maximum connections");
+        checkNotNull(maxPerRoute,
+                "Received a null pointer as maximum connections per route");
+
+        checkArgument(maxConnections > 0,
+                "The maximum connections should be positive");
+        checkArgument(maxPerRoute > 0,
+                "The maximum connections per route should be positive");
+
+        pool = new PoolingHttpClientConnectionManager();
+        pool.setMaxTotal(maxConnections);
+        pool.setDefaultMaxPerRoute(maxPerRoute);
+
+        return pool;
+    }
+
+    /**
+     * Closes the HTTP client, along all its connections.
+     *
+     * @throws IOException
+     *             if the client can't be closed
+     */
+    @Override
+    public final void destroy() throws IOException {
+        getClient().close();
+    }
+
+    /**
+     * Returns the number of connections kept idle in the pool.
+     *
+     * @return the number of idle connections
+     */
+    @ManagedAttribute(description = "Number of idle connections")
+    public final Integer getAvailableConnections() {
+        return getStats().getAvailable();
+    }
+
+    /**
+     * Returns the number of connections being used.
+     *
+     * @return the number of connections being used
+     */
+    @ManagedAttribute(description = "Number of connections being used")
+    public final Integer getLeasedConnections() {
+        return getStats().getLeased();
+    }
+
+    /**
+     * Returns the maximum number of connections.
+     *
+     * @return the maximum number of connections
+     */
+    @ManagedAttribute(description = "Maximum number of connections")
+    public final Integer getMaxConnections() {
+        return getStats().getMax();
+    }
+
+    /**
+     * Returns the number of requests waiting for a connection.
+     *
+     * @return the number of requests waiting for a connection
+     */
+    @ManagedAttribute(description = "Number of requests waiting a connection")
+    public final Integer getPendingConnections() {
+        return getStats().getPending();
+    }
+
+    /**
+     * Returns the HTTP client used by the sender.
+     *
+     * @return the HTTP client
+     */
+    private final CloseableHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Returns the pool of connections.
+     *
+     * @return the pool of connections
+     */
+    private final PoolingHttpClientConnectionManager getPool() {
+        return pool;
+    }
+
+    /**
+     * Returns the current statistics for the pool.
+     *
+     * @return the pool statistics
+     */
+    private final PoolStats getStats() {
+        return getPool().getTotalStats();
+    }
+
+}
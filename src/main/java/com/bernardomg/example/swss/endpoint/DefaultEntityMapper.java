@@ -0,0 +1,71 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.springframework.stereotype.Component;
+
+import com.bernardomg.example.swss.generated.entity.Entity;
+import com.bernardomg.example.swss.model.ExampleEntity;
+
+/**
+ * Entity mapper which copies each field explicitly.
+ * <p>
+ * This replaces the reflective copy made by Spring's {@code BeanUtils}, which
+ * resolves the property descriptors of both classes and invokes their methods
+ * through reflection on each call. Here the accessors are invoked directly,
+ * and nothing other than the returned entity is allocated.
+ * <p>
+ * It should be updated whenever a field is added to the entities.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Component("entityMapper")
+public final class DefaultEntityMapper implements EntityMapper {
+
+    /**
+     * Default constructor.
+     */
+    public DefaultEntityMapper() {
+        super();
+    }
+
+    @Override
+    public final Entity map(final ExampleEntity entity) {
+        final Entity mapped; // Mapped entity
+
+        checkNotNull(entity, "Received a null pointer as entity");
+
+        mapped = new Entity();
+        if (entity.getId() != null) {
+            mapped.setId(entity.getId());
+        }
+        mapped.setName(entity.getName());
+
+        return mapped;
+    }
+
+}
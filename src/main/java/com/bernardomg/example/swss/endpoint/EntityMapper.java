@@ -0,0 +1,52 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint;
+
+import com.bernardomg.example.swss.generated.entity.Entity;
+import com.bernardomg.example.swss.model.ExampleEntity;
+
+/**
+ * Maps the domain model entities into the JAXB entities returned by the
+ * endpoints.
+ * <p>
+ * This is used on each response, so implementations should avoid any kind of
+ * reflection or introspection.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see ExampleEntity
+ * @see Entity
+ */
+public interface EntityMapper {
+
+    /**
+     * Returns a JAXB entity with the same data as the received domain entity.
+     *
+     * @param entity
+     *            domain entity to map
+     * @return a JAXB entity with the domain entity's data
+     */
+    public Entity map(final ExampleEntity entity);
+
+}
@@ -26,9 +26,10 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Collection;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
@@ -39,6 +40,8 @@
 import com.bernardomg.example.swss.model.ExampleEntity;
 import com.bernardomg.example.swss.service.domain.ExampleEntityService;
 import com.bernardomg.example.swss.generated.entity.Entity;
+import com.bernardomg.example.swss.generated.entity.GetEntitiesRequest;
+import com.bernardomg.example.swss.generated.entity.GetEntitiesResponse;
 import com.bernardomg.example.swss.generated.entity.GetEntityRequest;
 import com.bernardomg.example.swss.generated.entity.GetEntityResponse;
 
@@ -48,8 +51,13 @@
  * It just receives a request with the id for a single entity and then returns a
  * response containing that same entity's data.
  * <p>
+ * Several entities may also be queried at once, by sending all their ids in a
+ * single request. This way the cost of the security protocol, which is applied
+ * to the full message, is paid only once for all of them.
+ * <p>
  * For both of them the JAXB annotated classes generated from the XSD file,the
- * same file used to create the WSDL for the endpoints, are used.
+ * same file used to create the WSDL for the endpoints, are used. The domain
+ * entities are transformed into these with an {@link EntityMapper}.
  * <p>
  * The project is based around securing endpoints, but by default this one is
  * unsecured. This concern is handled by Spring, not by the class itself.
@@ -60,6 +68,8 @@
  * @author Bernardo Mart&iacute;nez Garrido
  * @see GetEntityResponse
  * @see GetEntityRequest
+ * @see GetEntitiesResponse
+ * @see GetEntitiesRequest
  * @see Entity
  */
 @Endpoint
@@ -81,19 +91,72 @@ public class ExampleEntityEndpoint {
      */
     private final ExampleEntityService entityService;
 
+    /**
+     * Mapper for transforming the domain entities into the JAXB entities.
+     * <p>
+     * This is injected by Spring.
+     */
+    private final EntityMapper         mapper;
+
     /**
      * Constructs an endpoint for the example entities using the specified
-     * domain service.
+     * domain service and mapper.
      *
      * @param service
      *            the service for the domain entities
+     * @param entityMapper
+     *            the mapper for transforming the domain entities
      */
     @Autowired
-    public ExampleEntityEndpoint(final ExampleEntityService service) {
+    public ExampleEntityEndpoint(final ExampleEntityService service,
+            final EntityMapper entityMapper) {
         super();
 
         entityService = checkNotNull(service,
                 "Received a null pointer as service");
+        mapper = checkNotNull(entityMapper,
+                "Received a null pointer as entity mapper");
+    }
+
+    /**
+     * Receives a query for several entities and returns the data for all of
+     * them.
+     * <p>
+     * The entities are acquired at once from the persistence layer. Any id for
+     * which there is no entity is ignored, and won't be in the response.
+     * <p>
+     * As with the single entity query, JAXB beans are used for mapping both
+     * the request and the response payloads.
+     *
+     * @param request
+     *            payload of the SOAP request for the entities
+     * @return payload for the SOAP response with the entities
+     */
+    @PayloadRoot(localPart = ExampleEntityEndpointConstants.REQUEST_ENTITIES,
+            namespace = ExampleEntityEndpointConstants.ENTITY_NS)
+    @SoapAction(ExampleEntityEndpointConstants.ACTION_ENTITIES)
+    @ResponsePayload
+    public final GetEntitiesResponse
+            getEntities(@RequestPayload final GetEntitiesRequest request) {
+        final GetEntitiesResponse response;       // SOAP response with the result
+        final Collection<ExampleEntity> entities; // Found entities
+
+        checkNotNull(request, "Received a null pointer as request");
+
+        LOGGER.debug("Received request for {} ids", request.getId().size());
+
+        // Acquires the entities
+        entities = getExampleEntityService().findByIds(request.getId());
+
+        response = new GetEntitiesResponse();
+        for (final ExampleEntity entity : entities) {
+            // The entity is transformed from the domain model to the JAXB model
+            response.getEntity().add(getEntityMapper().map(entity));
+        }
+
+        LOGGER.debug("Found {} entities", entities.size());
+
+        return response;
     }
 
     /**
@@ -128,8 +191,7 @@ public ExampleEntityEndpoint(final ExampleEntityService service) {
         entity = getExampleEntityService().findById(request.getId());
 
         // The entity is transformed from the domain model to the JAXB model
-        entityResponse = new Entity();
-        BeanUtils.copyProperties(entity, entityResponse);
+        entityResponse = getEntityMapper().map(entity);
 
         LOGGER.debug("Found entity with id {} and name {}", entity.getId(),
                 entity.getName());
@@ -140,6 +202,16 @@ public ExampleEntityEndpoint(final ExampleEntityService service) {
         return response;
     }
 
+    /**
+     * Returns the mapper for transforming the domain entities into the JAXB
+     * entities.
+     *
+     * @return the mapper for the domain entities
+     */
+    private final EntityMapper getEntityMapper() {
+        return mapper;
+    }
+
     /**
      * Returns the entity domain service.
      * <p>
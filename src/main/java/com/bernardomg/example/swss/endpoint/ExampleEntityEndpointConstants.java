@@ -40,17 +40,61 @@ public final class ExampleEntityEndpointConstants {
      * When sending requests to the web service this action should be used if
      * the authentication systems modifies the message.
      */
-    public static final String ACTION    = "http://bernardomg.com/example/ws/entity/getEntity";
+    public static final String ACTION           = "http://bernardomg.com/example/ws/entity/getEntity";
+
+    /**
+     * The action for acquiring several entities at once.
+     * <p>
+     * As with {@link #ACTION}, this should be used when querying the web
+     * service if the authentication systems modifies the message.
+     */
+    public static final String ACTION_ENTITIES  = "http://bernardomg.com/example/ws/entity/getEntities";
+
+    /**
+     * The action for listing a page of entities.
+     * <p>
+     * As with {@link #ACTION}, this should be used when querying the web
+     * service if the authentication systems modifies the message.
+     */
+    public static final String ACTION_LIST      = "http://bernardomg.com/example/ws/entity/listEntities";
 
     /**
      * Namespace for the example entities.
      */
-    public static final String ENTITY_NS = "http://bernardomg.com/example/ws/entity";
+    public static final String ENTITY_NS        = "http://bernardomg.com/example/ws/entity";
+
+    /**
+     * Maximum number of ids which can be queried in a single request for
+     * several entities.
+     * <p>
+     * This is the same limit set in the XSD.
+     */
+    public static final int    MAX_IDS          = 100;
 
     /**
      * Name for the operation used to acquire an entity.
      */
-    public static final String REQUEST   = "getEntityRequest";
+    public static final String REQUEST          = "getEntityRequest";
+
+    /**
+     * Name for the operation used to acquire several entities at once.
+     */
+    public static final String REQUEST_ENTITIES = "getEntitiesRequest";
+
+    /**
+     * Name for the operation used to list a page of entities.
+     */
+    public static final String REQUEST_LIST     = "listEntitiesRequest";
+
+    /**
+     * Name for the response to the operation used to acquire an entity.
+     */
+    public static final String RESPONSE         = "getEntityResponse";
+
+    /**
+     * Name for the response to the operation used to list a page of entities.
+     */
+    public static final String RESPONSE_LIST    = "listEntitiesResponse";
 
     /**
      * Private constructor to avoid initialization.
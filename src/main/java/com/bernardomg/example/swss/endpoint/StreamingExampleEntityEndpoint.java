@@ -0,0 +1,335 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.annotation.Endpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+import org.springframework.ws.server.endpoint.annotation.RequestPayload;
+import org.springframework.ws.soap.server.endpoint.annotation.SoapAction;
+import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
+
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.service.domain.ExampleEntityService;
+
+/**
+ * Streaming endpoint for listing the example entities.
+ * <p>
+ * It receives a request with an id and a page size, and returns the entities
+ * following that id, ordered by id, up to the page size. The last id received
+ * is meant to be used as the starting point for the next page.
+ * <p>
+ * Unlike the {@link ExampleEntityEndpoint}, this does not use JAXB. The request
+ * is read with an {@link XMLStreamReader}, and each entity is written into the
+ * response payload with an {@link XMLStreamWriter} as soon as it is read from
+ * the domain service, which reads them lazily in chunks. So no object graph
+ * for the full response is ever built.
+ * <p>
+ * Note that most message factories, such as SAAJ, still keep the whole
+ * response message in memory until it is sent. With a streaming one, such as
+ * the AXIOM one, the response is set as a {@link StreamingPayload}, and the
+ * entities are written by the message when it is serialized.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Endpoint
+public class StreamingExampleEntityEndpoint {
+
+    /**
+     * Name of the element for the id after which the entities are listed.
+     */
+    private static final String           AFTER_ID       = "afterId";
+
+    /**
+     * Name of the element for each entity.
+     */
+    private static final String           ENTITY         = "entity";
+
+    /**
+     * Name of the element for the entity id.
+     */
+    private static final String           ID             = "id";
+
+    /**
+     * The logger used for logging the endpoint.
+     */
+    private static final Logger           LOGGER         = LoggerFactory
+            .getLogger(StreamingExampleEntityEndpoint.class);
+
+    /**
+     * Name of the element for the entity name.
+     */
+    private static final String           NAME           = "name";
+
+    /**
+     * Factory for the response writers.
+     * <p>
+     * It is only used to create writers, which is thread safe.
+     */
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory
+            .newInstance();
+
+    /**
+     * Prefix for the entities namespace.
+     */
+    private static final String           PREFIX         = "ent";
+
+    /**
+     * Name of the element for the page size.
+     */
+    private static final String           SIZE           = "size";
+
+    /**
+     * Domain service for accessing the entities handled by the web service.
+     * <p>
+     * This is injected by Spring.
+     */
+    private final ExampleEntityService    entityService;
+
+    /**
+     * Writes a single entity element.
+     *
+     * @param writer
+     *            writer for the response payload
+     * @param entity
+     *            entity to write
+     * @throws XMLStreamException
+     *             if the entity can't be written
+     */
+    private static final void writeEntity(final XMLStreamWriter writer,
+            final ExampleEntity entity) throws XMLStreamException {
+        writer.writeStartElement(PREFIX, ENTITY,
+                ExampleEntityEndpointConstants.ENTITY_NS);
+
+        writer.writeStartElement(PREFIX, ID,
+                ExampleEntityEndpointConstants.ENTITY_NS);
+        writer.writeCharacters(String.valueOf(entity.getId()));
+        writer.writeEndElement();
+
+        writer.writeStartElement(PREFIX, NAME,
+                ExampleEntityEndpointConstants.ENTITY_NS);
+        writer.writeCharacters(entity.getName());
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+    }
+
+    /**
+     * Writes the response payload.
+     * <p>
+     * The writer is flushed but not closed, as it may belong to the message.
+     *
+     * @param writer
+     *            writer for the response payload
+     * @param entities
+     *            entities to return
+     * @throws XMLStreamException
+     *             if the response can't be written
+     */
+    private static final void writeResponse(final XMLStreamWriter writer,
+            final Iterable<ExampleEntity> entities) throws XMLStreamException {
+        Integer count; // Number of entities written
+
+        writer.writeStartElement(PREFIX,
+                ExampleEntityEndpointConstants.RESPONSE_LIST,
+                ExampleEntityEndpointConstants.ENTITY_NS);
+        writer.writeNamespace(PREFIX, ExampleEntityEndpointConstants.ENTITY_NS);
+
+        count = 0;
+        for (final ExampleEntity entity : entities) {
+            writeEntity(writer, entity);
+            count++;
+        }
+
+        writer.writeEndElement();
+        writer.flush();
+
+        LOGGER.debug("Written {} entities", count);
+    }
+
+    /**
+     * Constructs a streaming endpoint for the example entities using the
+     * specified domain service.
+     *
+     * @param service
+     *            the service for the domain entities
+     */
+    @Autowired
+    public StreamingExampleEntityEndpoint(final ExampleEntityService service) {
+        super();
+
+        entityService = checkNotNull(service,
+                "Received a null pointer as service");
+    }
+
+    /**
+     * Receives a query for a page of entities and writes them into the
+     * response.
+     * <p>
+     * The entities are written one by one as they are read from the domain
+     * service. If the response is a streaming message, this happens when it
+     * is serialized.
+     *
+     * @param request
+     *            reader for the SOAP request payload
+     * @param context
+     *            message context, where the response is written
+     * @throws XMLStreamException
+     *             if the request can't be read or the response written
+     */
+    @PayloadRoot(localPart = ExampleEntityEndpointConstants.REQUEST_LIST,
+            namespace = ExampleEntityEndpointConstants.ENTITY_NS)
+    @SoapAction(ExampleEntityEndpointConstants.ACTION_LIST)
+    public final void listEntities(@RequestPayload final XMLStreamReader request,
+            final MessageContext context) throws XMLStreamException {
+        final Iterable<ExampleEntity> entities; // Entities to return
+        final WebServiceMessage response;       // Response
+        final XMLStreamWriter writer;           // Writer for the payload
+        Integer afterId; // Id after which entities are listed
+        Integer size;    // Page size
+
+        checkNotNull(request, "Received a null pointer as request");
+        checkNotNull(context, "Received a null pointer as message context");
+
+        // Reads the request
+        afterId = null;
+        size = null;
+        while (request.hasNext()) {
+            if (request.next() == XMLStreamConstants.START_ELEMENT) {
+                if (AFTER_ID.equals(request.getLocalName())) {
+                    afterId = Integer.valueOf(request.getElementText().trim());
+                } else if (SIZE.equals(request.getLocalName())) {
+                    size = Integer.valueOf(request.getElementText().trim());
+                }
+            }
+        }
+
+        checkNotNull(afterId, "Received a request without the after id");
+        checkNotNull(size, "Received a request without the page size");
+
+        LOGGER.debug("Received request for {} entities after id {}", size,
+                afterId);
+
+        entities = getExampleEntityService().findAllAfter(afterId, size);
+
+        response = context.getResponse();
+        if (response instanceof StreamingWebServiceMessage) {
+            // The message writes the payload when serialized
+            ((StreamingWebServiceMessage) response)
+                    .setStreamingPayload(new EntitiesPayload(entities));
+        } else {
+            writer = getWriter(response.getPayloadResult());
+            writeResponse(writer, entities);
+            writer.close();
+        }
+    }
+
+    /**
+     * Returns the entity domain service.
+     *
+     * @return the entity domain service
+     */
+    private final ExampleEntityService getExampleEntityService() {
+        return entityService;
+    }
+
+    /**
+     * Returns a writer for the received result.
+     *
+     * @param result
+     *            result to write into
+     * @return a writer for the result
+     * @throws XMLStreamException
+     *             if the writer can't be created
+     */
+    private final XMLStreamWriter getWriter(final Result result)
+            throws XMLStreamException {
+        final XMLStreamWriter writer; // Writer for the result
+
+        if (StaxUtils.isStaxResult(result)
+                && (StaxUtils.getXMLStreamWriter(result) != null)) {
+            writer = StaxUtils.getXMLStreamWriter(result);
+        } else {
+            writer = OUTPUT_FACTORY.createXMLStreamWriter(result);
+        }
+
+        return writer;
+    }
+
+    /**
+     * Response payload written by the message when it is serialized.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class EntitiesPayload implements StreamingPayload {
+
+        /**
+         * Entities to return.
+         */
+        private final Iterable<ExampleEntity> entities;
+
+        /**
+         * Constructs a payload for the specified entities.
+         *
+         * @param values
+         *            entities to return
+         */
+        public EntitiesPayload(final Iterable<ExampleEntity> values) {
+            super();
+
+            entities = values;
+        }
+
+        @Override
+        public final QName getName() {
+            return new QName(ExampleEntityEndpointConstants.ENTITY_NS,
+                    ExampleEntityEndpointConstants.RESPONSE_LIST, PREFIX);
+        }
+
+        @Override
+        public final void writeTo(final XMLStreamWriter streamWriter)
+                throws XMLStreamException {
+            writeResponse(streamWriter, entities);
+        }
+
+    }
+
+}
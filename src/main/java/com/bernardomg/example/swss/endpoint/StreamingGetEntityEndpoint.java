@@ -0,0 +1,423 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.server.endpoint.MessageEndpoint;
+import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
+import org.springframework.xml.transform.TransformerHelper;
+
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.service.domain.ExampleEntityService;
+
+/**
+ * Streaming endpoint for acquiring a single example entity.
+ * <p>
+ * It answers the same requests as the {@link ExampleEntityEndpoint}, but
+ * without JAXB or DOM. The id is read from the request payload with a pull
+ * parser, and the response payload is written directly with an
+ * {@link XMLStreamWriter}.
+ * <p>
+ * This only avoids building trees if the message factory is a streaming one,
+ * such as the AXIOM one, which gives StAX access to the payloads. Then the
+ * response is set as a {@link StreamingPayload}, written by the message when
+ * it is serialized. Otherwise the payloads are serialized and parsed again,
+ * which works but is slower than using JAXB.
+ * <p>
+ * It is not annotated, so it is not mapped along the annotated endpoints.
+ * Instead it should be mapped to the request payload root.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public class StreamingGetEntityEndpoint implements MessageEndpoint {
+
+    /**
+     * Name of the element for each entity.
+     */
+    private static final String           ENTITY         = "entity";
+
+    /**
+     * Name of the element for the entity id.
+     */
+    private static final String           ID             = "id";
+
+    /**
+     * Factory for the request readers.
+     * <p>
+     * It is only used to create readers, which is thread safe.
+     */
+    private static final XMLInputFactory  INPUT_FACTORY  = createInputFactory();
+
+    /**
+     * The logger used for logging the endpoint.
+     */
+    private static final Logger           LOGGER         = LoggerFactory
+            .getLogger(StreamingGetEntityEndpoint.class);
+
+    /**
+     * Name of the element for the entity name.
+     */
+    private static final String           NAME           = "name";
+
+    /**
+     * Factory for the response writers.
+     * <p>
+     * It is only used to create writers, which is thread safe.
+     */
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory
+            .newInstance();
+
+    /**
+     * Prefix for the entities namespace.
+     */
+    private static final String           PREFIX         = "ent";
+
+    /**
+     * Domain service for accessing the entities handled by the web service.
+     */
+    private final ExampleEntityService    entityService;
+
+    /**
+     * Helper for copying the payloads which can't be streamed.
+     */
+    private final TransformerHelper       transformerHelper;
+
+    /**
+     * Returns a factory for readers which don't process DTDs.
+     *
+     * @return a factory for the request readers
+     */
+    private static final XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory; // Created factory
+
+        factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                false);
+
+        return factory;
+    }
+
+    /**
+     * Writes the response payload.
+     * <p>
+     * The writer is flushed but not closed, as it may belong to the message.
+     *
+     * @param writer
+     *            writer for the response payload
+     * @param entity
+     *            entity to return
+     * @throws XMLStreamException
+     *             if the response can't be written
+     */
+    private static final void writeResponse(final XMLStreamWriter writer,
+            final ExampleEntity entity) throws XMLStreamException {
+        writer.writeStartElement(PREFIX,
+                ExampleEntityEndpointConstants.RESPONSE,
+                ExampleEntityEndpointConstants.ENTITY_NS);
+        writer.writeNamespace(PREFIX, ExampleEntityEndpointConstants.ENTITY_NS);
+
+        writer.writeStartElement(PREFIX, ENTITY,
+                ExampleEntityEndpointConstants.ENTITY_NS);
+
+        writer.writeStartElement(PREFIX, ID,
+                ExampleEntityEndpointConstants.ENTITY_NS);
+        writer.writeCharacters(String.valueOf(entity.getId()));
+        writer.writeEndElement();
+
+        writer.writeStartElement(PREFIX, NAME,
+                ExampleEntityEndpointConstants.ENTITY_NS);
+        writer.writeCharacters(entity.getName());
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+        writer.flush();
+    }
+
+    /**
+     * Constructs a streaming endpoint for the example entities using the
+     * specified domain service.
+     *
+     * @param service
+     *            the service for the domain entities
+     */
+    public StreamingGetEntityEndpoint(final ExampleEntityService service) {
+        super();
+
+        entityService = checkNotNull(service,
+                "Received a null pointer as service");
+
+        transformerHelper = new TransformerHelper();
+    }
+
+    /**
+     * Returns the entity for the id in the request.
+     * <p>
+     * If no entity exists with that id then the response contains an entity
+     * with a negative id.
+     *
+     * @param context
+     *            message context, where the response is written
+     * @throws Exception
+     *             if the request can't be read or the response written
+     */
+    @Override
+    public final void invoke(final MessageContext context) throws Exception {
+        final Integer identifier;         // Requested id
+        final ExampleEntity entity;       // Found entity
+        final WebServiceMessage response; // Response
+        final Result result;              // Response payload
+
+        checkNotNull(context, "Received a null pointer as message context");
+
+        identifier = readId(context.getRequest().getPayloadSource());
+
+        LOGGER.debug("Received request for id {}", identifier);
+
+        entity = getExampleEntityService().findById(identifier);
+
+        LOGGER.debug("Found entity with id {} and name {}", entity.getId(),
+                entity.getName());
+
+        response = context.getResponse();
+        if (response instanceof StreamingWebServiceMessage) {
+            // The message writes the payload when serialized
+            ((StreamingWebServiceMessage) response)
+                    .setStreamingPayload(new EntityPayload(entity));
+        } else {
+            result = response.getPayloadResult();
+            if (result instanceof SAXResult) {
+                // No StAX writer can be created for SAX, the response is
+                // copied
+                writeCopy(result, entity);
+            } else {
+                writeClosing(getWriter(result), entity);
+            }
+        }
+    }
+
+    /**
+     * Returns the entity domain service.
+     *
+     * @return the entity domain service
+     */
+    private final ExampleEntityService getExampleEntityService() {
+        return entityService;
+    }
+
+    /**
+     * Returns a reader for the received source.
+     *
+     * @param source
+     *            source to read
+     * @return a reader for the source
+     * @throws XMLStreamException
+     *             if the reader can't be created
+     * @throws TransformerException
+     *             if the source can't be copied
+     */
+    private final XMLStreamReader getReader(final Source source)
+            throws XMLStreamException, TransformerException {
+        final XMLStreamReader reader;       // Reader for the source
+        final ByteArrayOutputStream output; // Copied source
+
+        if (StaxUtils.isStaxSource(source)
+                && (StaxUtils.getXMLStreamReader(source) != null)) {
+            reader = StaxUtils.getXMLStreamReader(source);
+        } else {
+            // Not a streaming source, it is copied
+            output = new ByteArrayOutputStream();
+            transformerHelper.transform(source, new StreamResult(output));
+            reader = INPUT_FACTORY.createXMLStreamReader(
+                    new ByteArrayInputStream(output.toByteArray()));
+        }
+
+        return reader;
+    }
+
+    /**
+     * Returns a writer for the received result.
+     *
+     * @param result
+     *            result to write into
+     * @return a writer for the result
+     * @throws XMLStreamException
+     *             if the writer can't be created
+     */
+    private final XMLStreamWriter getWriter(final Result result)
+            throws XMLStreamException {
+        final XMLStreamWriter writer; // Writer for the result
+
+        if (StaxUtils.isStaxResult(result)
+                && (StaxUtils.getXMLStreamWriter(result) != null)) {
+            writer = StaxUtils.getXMLStreamWriter(result);
+        } else {
+            writer = OUTPUT_FACTORY.createXMLStreamWriter(result);
+        }
+
+        return writer;
+    }
+
+    /**
+     * Reads the id from the request payload.
+     *
+     * @param source
+     *            request payload
+     * @return the requested id
+     * @throws XMLStreamException
+     *             if the request can't be read
+     * @throws TransformerException
+     *             if the request can't be copied
+     */
+    private final Integer readId(final Source source)
+            throws XMLStreamException, TransformerException {
+        final XMLStreamReader reader; // Reader for the request
+        Integer identifier;           // Requested id
+
+        checkNotNull(source, "Received a request without payload");
+
+        reader = getReader(source);
+
+        identifier = null;
+        while ((identifier == null) && reader.hasNext()) {
+            if ((reader.next() == XMLStreamConstants.START_ELEMENT)
+                    && ID.equals(reader.getLocalName())) {
+                identifier = Integer.valueOf(reader.getElementText().trim());
+            }
+        }
+
+        checkNotNull(identifier, "Received a request without the id");
+
+        return identifier;
+    }
+
+    /**
+     * Writes the response into a buffer, and then copies it into the result.
+     *
+     * @param result
+     *            result to copy the response into
+     * @param entity
+     *            entity to return
+     * @throws XMLStreamException
+     *             if the response can't be written
+     * @throws TransformerException
+     *             if the response can't be copied
+     */
+    private final void writeCopy(final Result result,
+            final ExampleEntity entity)
+            throws XMLStreamException, TransformerException {
+        final ByteArrayOutputStream output; // Buffered response
+        final Source source;                // Source for the buffer
+
+        output = new ByteArrayOutputStream();
+        writeClosing(OUTPUT_FACTORY.createXMLStreamWriter(output, "UTF-8"),
+                entity);
+
+        source = new StreamSource(
+                new ByteArrayInputStream(output.toByteArray()));
+        transformerHelper.transform(source, result);
+    }
+
+    /**
+     * Writes the response payload, and then closes the writer.
+     *
+     * @param writer
+     *            writer for the response payload
+     * @param entity
+     *            entity to return
+     * @throws XMLStreamException
+     *             if the response can't be written
+     */
+    private final void writeClosing(final XMLStreamWriter writer,
+            final ExampleEntity entity) throws XMLStreamException {
+        writeResponse(writer, entity);
+        writer.close();
+    }
+
+    /**
+     * Response payload written by the message when it is serialized.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class EntityPayload implements StreamingPayload {
+
+        /**
+         * Entity to return.
+         */
+        private final ExampleEntity entity;
+
+        /**
+         * Constructs a payload for the specified entity.
+         *
+         * @param value
+         *            entity to return
+         */
+        public EntityPayload(final ExampleEntity value) {
+            super();
+
+            entity = value;
+        }
+
+        @Override
+        public final QName getName() {
+            return new QName(ExampleEntityEndpointConstants.ENTITY_NS,
+                    ExampleEntityEndpointConstants.RESPONSE, PREFIX);
+        }
+
+        @Override
+        public final void writeTo(final XMLStreamWriter streamWriter)
+                throws XMLStreamException {
+            writeResponse(streamWriter, entity);
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint.interceptor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+
+import com.bernardomg.example.swss.event.LifecycleStage;
+import com.bernardomg.example.swss.event.LifecycleTrace;
+
+/**
+ * Marks the end of a stage of the request lifecycle.
+ * <p>
+ * It should be placed right after the interceptor whose work ends the stage,
+ * such as after the security interceptor for
+ * {@link LifecycleStage#SECURITY_VALIDATED}. The trace is started by the
+ * {@link LifecycleStartInterceptor}, and if there is none the request is just
+ * let through.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class LifecycleMarkInterceptor implements EndpointInterceptor {
+
+    /**
+     * Stage which ends when the request reaches this interceptor.
+     */
+    private final LifecycleStage stage;
+
+    /**
+     * Constructs an interceptor marking the specified stage.
+     *
+     * @param marked
+     *            stage which ends when the request reaches this interceptor
+     */
+    public LifecycleMarkInterceptor(final LifecycleStage marked) {
+        super();
+
+        stage = checkNotNull(marked, "Received a null pointer as stage");
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Object endpoint, final Exception ex) {
+        // Nothing to do
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext,
+            final Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext,
+            final Object endpoint) {
+        final LifecycleTrace trace; // Trace for the request
+
+        trace = LifecycleTrace.current();
+        if (trace != null) {
+            trace.mark(stage);
+        }
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext,
+            final Object endpoint) {
+        return true;
+    }
+
+}
@@ -0,0 +1,201 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint.interceptor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.soap.SoapMessage;
+import org.w3c.dom.Node;
+
+import com.bernardomg.example.swss.event.LifecycleEvents;
+import com.bernardomg.example.swss.event.LifecycleStage;
+import com.bernardomg.example.swss.event.LifecycleTrace;
+
+/**
+ * Starts and finishes tracing the lifecycle of the requests.
+ * <p>
+ * It should be the first interceptor in the chain, so the
+ * {@link LifecycleStage#RESPONSE_WRITTEN} stage ends once all the other
+ * interceptors handled the response. The {@link LifecycleMarkInterceptor}
+ * instances mark the stages between both. The request is completed, and its
+ * stages emitted in a single event, after all the interceptors.
+ * <p>
+ * The events carry the name of the servlet, which is set through
+ * {@link #setServlet(String)}, the SOAP action and the id of the entity
+ * requested. This id is only read when the payload is already a DOM tree, so
+ * the payloads of the streaming message factories are not parsed just for it.
+ * <p>
+ * When the events are not being recorded no trace is started, and so the
+ * interceptors do nothing more than checking for it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class LifecycleStartInterceptor implements EndpointInterceptor {
+
+    /**
+     * Local name of the element with the entity id.
+     */
+    private static final String   ID_ELEMENT = "id";
+
+    /**
+     * Events where the stages are emitted.
+     */
+    private final LifecycleEvents events;
+
+    /**
+     * Servlet which receives the requests.
+     */
+    private String                servlet    = "unknown";
+
+    /**
+     * Constructs an interceptor emitting into the specified events.
+     *
+     * @param lifecycleEvents
+     *            events where the stages are emitted
+     */
+    public LifecycleStartInterceptor(final LifecycleEvents lifecycleEvents) {
+        super();
+
+        events = checkNotNull(lifecycleEvents,
+                "Received a null pointer as events");
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Object endpoint, final Exception ex) {
+        final LifecycleTrace trace; // Trace for the request
+
+        trace = LifecycleTrace.current();
+        if (trace != null) {
+            trace.finish();
+        }
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext,
+            final Object endpoint) {
+        mark(LifecycleStage.RESPONSE_WRITTEN);
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext,
+            final Object endpoint) {
+        final WebServiceMessage request; // Received request
+        final String            action;  // SOAP action
+
+        if (events.isRecording()) {
+            request = messageContext.getRequest();
+            if (request instanceof SoapMessage) {
+                action = ((SoapMessage) request).getSoapAction();
+            } else {
+                action = null;
+            }
+
+            LifecycleTrace.start(events, servlet, action,
+                    readEntityId(request.getPayloadSource()));
+        }
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext,
+            final Object endpoint) {
+        mark(LifecycleStage.RESPONSE_WRITTEN);
+
+        return true;
+    }
+
+    /**
+     * Sets the name of the servlet which receives the requests.
+     *
+     * @param name
+     *            name of the servlet
+     */
+    public final void setServlet(final String name) {
+        servlet = checkNotNull(name, "Received a null pointer as servlet");
+    }
+
+    /**
+     * Marks the end of a stage, if the request is being traced.
+     *
+     * @param stage
+     *            stage which ends
+     */
+    private final void mark(final LifecycleStage stage) {
+        final LifecycleTrace trace; // Trace for the request
+
+        trace = LifecycleTrace.current();
+        if (trace != null) {
+            trace.mark(stage);
+        }
+    }
+
+    /**
+     * Returns the first entity id in the payload.
+     * <p>
+     * If the payload is not a DOM tree, or it contains no valid id, then
+     * {@code null} is returned.
+     *
+     * @param payload
+     *            request payload
+     * @return the first entity id in the payload
+     */
+    private final Integer readEntityId(final Source payload) {
+        Integer identifier; // Entity id
+        Node    child;      // Payload child
+
+        identifier = null;
+        if (payload instanceof DOMSource) {
+            child = ((DOMSource) payload).getNode().getFirstChild();
+            while ((child != null) && (identifier == null)) {
+                if ((child.getNodeType() == Node.ELEMENT_NODE)
+                        && ID_ELEMENT.equals(child.getLocalName())) {
+                    try {
+                        identifier = Integer
+                                .valueOf(child.getTextContent().trim());
+                    } catch (final NumberFormatException e) {
+                        // Not a valid id, it will be rejected by the endpoint
+                        child = null;
+                    }
+                }
+                if (child != null) {
+                    child = child.getNextSibling();
+                }
+            }
+        }
+
+        return identifier;
+    }
+
+}
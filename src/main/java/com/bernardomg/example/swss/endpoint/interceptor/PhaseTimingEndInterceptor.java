@@ -0,0 +1,99 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint.interceptor;
+
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+
+import com.bernardomg.example.swss.timing.PhaseClock;
+import com.bernardomg.example.swss.timing.TimedPhase;
+
+/**
+ * Marks the phases around the endpoint invocation.
+ * <p>
+ * It should be the last interceptor in the chain, while the
+ * {@link PhaseTimingStartInterceptor} should be the first one. It uses the
+ * clock started by that one, and does nothing if there is none.
+ * <p>
+ * The request phase ends here, and so it covers the interceptors after the
+ * last {@link PhaseTimingMarkInterceptor}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PhaseTimingEndInterceptor implements EndpointInterceptor {
+
+    /**
+     * Default constructor.
+     */
+    public PhaseTimingEndInterceptor() {
+        super();
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Object endpoint, final Exception ex) {
+        // The clock is finished by the first interceptor
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext,
+            final Object endpoint) {
+        mark(TimedPhase.ENDPOINT);
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext,
+            final Object endpoint) {
+        mark(TimedPhase.REQUEST);
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext,
+            final Object endpoint) {
+        mark(TimedPhase.ENDPOINT);
+
+        return true;
+    }
+
+    /**
+     * Marks the end of a phase, if the request is being timed.
+     *
+     * @param phase
+     *            phase which ends
+     */
+    private final void mark(final TimedPhase phase) {
+        final PhaseClock clock; // Clock for the request
+
+        clock = PhaseClock.current();
+        if (clock != null) {
+            clock.mark(phase);
+        }
+    }
+
+}
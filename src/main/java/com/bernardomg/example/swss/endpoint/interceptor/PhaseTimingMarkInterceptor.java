@@ -0,0 +1,94 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.bernardomg.example.swss.endpoint.interceptor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+
+import com.bernardomg.example.swss.timing.PhaseClock;
+import com.bernardomg.example.swss.timing.TimedPhase;
+
+/**
+ * Marks the end of a phase of the requests.
+ * <p>
+ * It should be placed right after the interceptor whose work ends the phase,
+ * such as after the security interceptor for {@link TimedPhase#SECURITY}, so
+ * that work gets its own latencies. It uses the clock started by the
+ * {@link PhaseTimingStartInterceptor}, and does nothing if there is none.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PhaseTimingMarkInterceptor implements EndpointInterceptor {
+
+    /**
+     * Phase which ends when the request reaches this interceptor.
+     */
+    private final TimedPhase phase;
+
+    /**
+     * Constructs an interceptor marking the specified phase.
+     *
+     * @param marked
+     *            phase which ends when the request reaches this interceptor
+     */
+    public PhaseTimingMarkInterceptor(final TimedPhase marked) {
+        super();
+
+        phase = checkNotNull(marked, "Received a null pointer as phase");
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Object endpoint, final Exception ex) {
+        // The clock is finished by the first interceptor
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext,
+            final Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext,
+            final Object endpoint) {
+        final PhaseClock clock; // Clock for the request
+
+        clock = PhaseClock.current();
+        if (clock != null) {
+            clock.mark(phase);
+        }
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext,
+            final Object endpoint) {
+        return true;
+    }
+
+}
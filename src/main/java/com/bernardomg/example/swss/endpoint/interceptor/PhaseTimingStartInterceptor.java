@@ -0,0 +1,122 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint.interceptor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+
+import com.bernardomg.example.swss.timing.PhaseClock;
+import com.bernardomg.example.swss.timing.PhaseTimings;
+import com.bernardomg.example.swss.timing.TimedPhase;
+
+/**
+ * Starts and finishes timing the requests.
+ * <p>
+ * It should be the first interceptor in the chain, while the
+ * {@link PhaseTimingEndInterceptor} should be the last one. Between both they
+ * split the request into the phases of {@link TimedPhase}. The
+ * {@link PhaseTimingMarkInterceptor} instances mark the validation and
+ * security phases, before the endpoint is invoked.
+ * <p>
+ * When the timings are disabled no clock is started, and so both
+ * interceptors do nothing more than checking for it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PhaseTimingStartInterceptor implements EndpointInterceptor {
+
+    /**
+     * Timings where the phases are recorded.
+     */
+    private final PhaseTimings timings;
+
+    /**
+     * Constructs an interceptor recording into the specified timings.
+     *
+     * @param phaseTimings
+     *            timings where the phases are recorded
+     */
+    public PhaseTimingStartInterceptor(final PhaseTimings phaseTimings) {
+        super();
+
+        timings = checkNotNull(phaseTimings,
+                "Received a null pointer as timings");
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Object endpoint, final Exception ex) {
+        final PhaseClock clock; // Clock for the request
+
+        clock = PhaseClock.current();
+        if (clock != null) {
+            clock.finish();
+        }
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext,
+            final Object endpoint) {
+        mark(TimedPhase.RESPONSE);
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext,
+            final Object endpoint) {
+        if (timings.getEnabled()) {
+            PhaseClock.start(timings);
+        }
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext,
+            final Object endpoint) {
+        mark(TimedPhase.RESPONSE);
+
+        return true;
+    }
+
+    /**
+     * Marks the end of a phase, if the request is being timed.
+     *
+     * @param phase
+     *            phase which ends
+     */
+    private final void mark(final TimedPhase phase) {
+        final PhaseClock clock; // Clock for the request
+
+        clock = PhaseClock.current();
+        if (clock != null) {
+            clock.mark(phase);
+        }
+    }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint.interceptor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+
+import javax.xml.transform.TransformerException;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.server.endpoint.interceptor.PayloadValidatingInterceptor;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Payload validating interceptor which chooses the messages to validate on
+ * each direction with a {@link ValidationPolicy}.
+ * <p>
+ * The responses are generated from JAXB objects, and validated again by the
+ * clients, so validating all of them is mostly wasted. With a policy they can
+ * be validated only for a sample of the messages, keeping a safety net at a
+ * fraction of the cost.
+ * <p>
+ * The policies replace the request and response validation flags, which
+ * should be kept enabled. By default all the messages are validated. The
+ * validations and violations on each direction are counted, and exported
+ * through JMX.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Payload validation following policies")
+public final class PolicyPayloadValidatingInterceptor
+        extends PayloadValidatingInterceptor {
+
+    /**
+     * Policy for the requests.
+     */
+    private ValidationPolicy requestPolicy  = new ValidationPolicy(
+            ValidationMode.ALWAYS, 100d, 0);
+
+    /**
+     * Policy for the responses.
+     */
+    private ValidationPolicy responsePolicy = new ValidationPolicy(
+            ValidationMode.ALWAYS, 100d, 0);
+
+    /**
+     * Default constructor.
+     */
+    public PolicyPayloadValidatingInterceptor() {
+        super();
+    }
+
+    /**
+     * Returns the number of requests which were not validated.
+     *
+     * @return the number of requests which were not validated
+     */
+    @ManagedAttribute(description = "Number of requests not validated")
+    public final Long getRequestsSkipped() {
+        return requestPolicy.getSkipped();
+    }
+
+    /**
+     * Returns the number of requests validated.
+     *
+     * @return the number of requests validated
+     */
+    @ManagedAttribute(description = "Number of requests validated")
+    public final Long getRequestsValidated() {
+        return requestPolicy.getValidated();
+    }
+
+    /**
+     * Returns the number of validated requests which were invalid.
+     *
+     * @return the number of validated requests which were invalid
+     */
+    @ManagedAttribute(description = "Number of invalid requests")
+    public final Long getRequestViolations() {
+        return requestPolicy.getViolations();
+    }
+
+    /**
+     * Returns the number of responses which were not validated.
+     *
+     * @return the number of responses which were not validated
+     */
+    @ManagedAttribute(description = "Number of responses not validated")
+    public final Long getResponsesSkipped() {
+        return responsePolicy.getSkipped();
+    }
+
+    /**
+     * Returns the number of responses validated.
+     *
+     * @return the number of responses validated
+     */
+    @ManagedAttribute(description = "Number of responses validated")
+    public final Long getResponsesValidated() {
+        return responsePolicy.getValidated();
+    }
+
+    /**
+     * Returns the number of validated responses which were invalid.
+     *
+     * @return the number of validated responses which were invalid
+     */
+    @ManagedAttribute(description = "Number of invalid responses")
+    public final Long getResponseViolations() {
+        return responsePolicy.getViolations();
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext,
+            final Object endpoint)
+            throws IOException, SAXException, TransformerException {
+        final boolean proceed; // Flag to continue
+
+        if (requestPolicy.shouldValidate()) {
+            proceed = super.handleRequest(messageContext, endpoint);
+        } else {
+            proceed = true;
+        }
+
+        return proceed;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext,
+            final Object endpoint) throws IOException, SAXException {
+        final boolean proceed; // Flag to continue
+
+        if (responsePolicy.shouldValidate()) {
+            proceed = super.handleResponse(messageContext, endpoint);
+        } else {
+            proceed = true;
+        }
+
+        return proceed;
+    }
+
+    /**
+     * Sets the policy for the requests.
+     *
+     * @param policy
+     *            policy for the requests
+     */
+    public final void setRequestPolicy(final ValidationPolicy policy) {
+        requestPolicy = checkNotNull(policy,
+                "Received a null pointer as request policy");
+    }
+
+    /**
+     * Sets the policy for the responses.
+     *
+     * @param policy
+     *            policy for the responses
+     */
+    public final void setResponsePolicy(final ValidationPolicy policy) {
+        responsePolicy = checkNotNull(policy,
+                "Received a null pointer as response policy");
+    }
+
+    @Override
+    protected final boolean handleRequestValidationErrors(
+            final MessageContext messageContext,
+            final SAXParseException[] errors) throws TransformerException {
+        requestPolicy.registerViolation();
+
+        return super.handleRequestValidationErrors(messageContext, errors);
+    }
+
+    @Override
+    protected final boolean handleResponseValidationErrors(
+            final MessageContext messageContext,
+            final SAXParseException[] errors) {
+        responsePolicy.registerViolation();
+
+        return super.handleResponseValidationErrors(messageContext, errors);
+    }
+
+}
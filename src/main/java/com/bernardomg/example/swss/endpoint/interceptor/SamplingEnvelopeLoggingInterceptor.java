@@ -0,0 +1,485 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint.interceptor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.xml.namespace.QName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.AsynchronouslyFormattable;
+import org.apache.logging.log4j.message.Message;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.support.PayloadRootUtils;
+import org.springframework.xml.transform.TransformerHelper;
+
+/**
+ * Logs the SOAP envelopes of a sample of the messages received.
+ * <p>
+ * This is meant to replace the {@code SoapEnvelopeLoggingInterceptor} when
+ * tracing is kept enabled under load. Where that one serializes every
+ * envelope into a string, this one only captures the messages chosen by the
+ * sampling rate, and does so into a buffer capped to a maximum length, which
+ * is decoded only when the log event is formatted. So when the logger is
+ * attached to an asynchronous appender the decoding and writing happen out of
+ * the request thread.
+ * <p>
+ * The messages can be also filtered by the local name of the payload root
+ * element, identifying the endpoint, and by the authenticated user. As the
+ * user is only known after the security interceptors validated the request,
+ * the request is captured when received and the user is checked before
+ * logging it along the response. If no filter is set all the messages are
+ * sampled.
+ * <p>
+ * Messages are logged at debug level into the
+ * {@code com.bernardomg.example.swss.endpoint.EnvelopeTracing} logger, and
+ * nothing is captured if this level is disabled. This goes through the Log4j
+ * API instead of SLF4J, as only Log4j messages can tell the asynchronous
+ * appenders that they are safe to format in the background.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SamplingEnvelopeLoggingInterceptor
+        implements EndpointInterceptor {
+
+    /**
+     * Message context property where the captured request is stored.
+     */
+    private static final String     CAPTURED_REQUEST = SamplingEnvelopeLoggingInterceptor.class
+            .getName() + ".request";
+
+    /**
+     * The logger used for tracing the envelopes.
+     */
+    private static final Logger     LOGGER           = LogManager.getLogger(
+            "com.bernardomg.example.swss.endpoint.EnvelopeTracing");
+
+    /**
+     * Local names of the payload roots to log.
+     * <p>
+     * If it is empty then all the payloads are logged.
+     */
+    private Set<String>             endpoints        = Collections
+            .emptySet();
+
+    /**
+     * Maximum number of bytes captured from each envelope.
+     */
+    private Integer                 maxLength        = 8192;
+
+    /**
+     * Fraction of the requests to log, from 0 to 1.
+     */
+    private Double                  samplingRate     = 0d;
+
+    /**
+     * Helper for reading the payload roots.
+     */
+    private final TransformerHelper transformerHelper;
+
+    /**
+     * Names of the users to log.
+     * <p>
+     * If it is empty then all the users are logged.
+     */
+    private Set<String>             users            = Collections.emptySet();
+
+    /**
+     * Default constructor.
+     */
+    public SamplingEnvelopeLoggingInterceptor() {
+        super();
+
+        transformerHelper = new TransformerHelper();
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Object endpoint, final Exception ex) throws Exception {
+        // Requests which didn't reach the response handlers
+        log(messageContext, null);
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext,
+            final Object endpoint) throws Exception {
+        log(messageContext, messageContext.getResponse());
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext,
+            final Object endpoint) throws Exception {
+        final WebServiceMessage request; // Received request
+
+        request = messageContext.getRequest();
+
+        if (LOGGER.isDebugEnabled() && isSampled() && isTraced(request)) {
+            messageContext.setProperty(CAPTURED_REQUEST, capture(request));
+        }
+
+        return true;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext,
+            final Object endpoint) throws Exception {
+        log(messageContext, messageContext.getResponse());
+
+        return true;
+    }
+
+    /**
+     * Sets the local names of the payload roots to log.
+     * <p>
+     * If it is empty then all the payloads are logged.
+     *
+     * @param names
+     *            local names of the payload roots to log
+     */
+    public final void setEndpoints(final String[] names) {
+        checkNotNull(names, "Received a null pointer as endpoints");
+
+        endpoints = Collections
+                .unmodifiableSet(new HashSet<>(Arrays.asList(names)));
+    }
+
+    /**
+     * Sets the maximum number of bytes captured from each envelope.
+     *
+     * @param length
+     *            maximum number of bytes to capture
+     */
+    public final void setMaxLength(final Integer length) {
+        checkNotNull(length, "Received a null pointer as max length");
+        checkArgument(length > 0, "The max length should be positive");
+
+        maxLength = length;
+    }
+
+    /**
+     * Sets the fraction of the requests to log, from 0 to 1.
+     *
+     * @param rate
+     *            fraction of the requests to log
+     */
+    public final void setSamplingRate(final Double rate) {
+        checkNotNull(rate, "Received a null pointer as sampling rate");
+        checkArgument((rate >= 0) && (rate <= 1),
+                "The sampling rate should be between 0 and 1");
+
+        samplingRate = rate;
+    }
+
+    /**
+     * Sets the names of the users to log.
+     * <p>
+     * If it is empty then all the users are logged.
+     *
+     * @param names
+     *            names of the users to log
+     */
+    public final void setUsers(final String[] names) {
+        checkNotNull(names, "Received a null pointer as users");
+
+        users = Collections
+                .unmodifiableSet(new HashSet<>(Arrays.asList(names)));
+    }
+
+    /**
+     * Captures the envelope of the received message.
+     *
+     * @param message
+     *            message to capture
+     * @return the captured envelope
+     * @throws IOException
+     *             if the message can't be written
+     */
+    private final CappedEnvelope capture(final WebServiceMessage message)
+            throws IOException {
+        final CappedEnvelope envelope; // Captured envelope
+
+        envelope = new CappedEnvelope(maxLength);
+        message.writeTo(envelope);
+
+        return envelope;
+    }
+
+    /**
+     * Indicates if the current user should be logged.
+     *
+     * @return {@code true} if the current user should be logged,
+     *         {@code false} otherwise
+     */
+    private final Boolean isAllowedUser() {
+        final Authentication authentication; // Current user
+        final Boolean        allowed;        // Allowed flag
+
+        if (users.isEmpty()) {
+            allowed = true;
+        } else {
+            authentication = SecurityContextHolder.getContext()
+                    .getAuthentication();
+            allowed = (authentication != null)
+                    && users.contains(authentication.getName());
+        }
+
+        return allowed;
+    }
+
+    /**
+     * Indicates if the current request should be sampled.
+     *
+     * @return {@code true} if the current request should be sampled,
+     *         {@code false} otherwise
+     */
+    private final Boolean isSampled() {
+        return (samplingRate > 0)
+                && (ThreadLocalRandom.current().nextDouble() < samplingRate);
+    }
+
+    /**
+     * Indicates if the received request is for one of the endpoints to log.
+     *
+     * @param request
+     *            request to check
+     * @return {@code true} if the request should be logged, {@code false}
+     *         otherwise
+     * @throws Exception
+     *             if the payload root can't be read
+     */
+    private final Boolean isTraced(final WebServiceMessage request)
+            throws Exception {
+        final QName   root;   // Payload root
+        final Boolean traced; // Traced flag
+
+        if (endpoints.isEmpty()) {
+            traced = true;
+        } else {
+            root = PayloadRootUtils.getPayloadRootQName(
+                    request.getPayloadSource(), transformerHelper);
+            traced = (root != null) && endpoints.contains(root.getLocalPart());
+        }
+
+        return traced;
+    }
+
+    /**
+     * Logs the captured request, if any, along the received response.
+     * <p>
+     * The captured request is removed from the context, so it is logged only
+     * once.
+     *
+     * @param messageContext
+     *            context with the captured request
+     * @param response
+     *            response to log, may be {@code null}
+     * @throws IOException
+     *             if the response can't be written
+     */
+    private final void log(final MessageContext messageContext,
+            final WebServiceMessage response) throws IOException {
+        final CappedEnvelope request; // Captured request
+
+        request = (CappedEnvelope) messageContext
+                .getProperty(CAPTURED_REQUEST);
+
+        if (request != null) {
+            messageContext.removeProperty(CAPTURED_REQUEST);
+
+            if (isAllowedUser()) {
+                LOGGER.debug(new EnvelopeMessage("Request", request));
+                if (response != null) {
+                    LOGGER.debug(
+                            new EnvelopeMessage("Response", capture(response)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Output stream which keeps the first bytes written into it, up to a
+     * maximum length, and discards the rest.
+     * <p>
+     * It is decoded only when converted into a string.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class CappedEnvelope extends OutputStream
+            implements Serializable {
+
+        /**
+         * Serialization ID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Bytes kept.
+         */
+        private final byte[]      buffer;
+
+        /**
+         * Number of bytes kept.
+         */
+        private int               count            = 0;
+
+        /**
+         * Number of bytes written.
+         */
+        private long              total            = 0;
+
+        /**
+         * Constructs an envelope keeping up to the specified number of bytes.
+         *
+         * @param length
+         *            maximum number of bytes to keep
+         */
+        public CappedEnvelope(final Integer length) {
+            super();
+
+            buffer = new byte[length];
+        }
+
+        @Override
+        public final String toString() {
+            final StringBuilder text; // Decoded envelope
+
+            text = new StringBuilder(
+                    new String(buffer, 0, count, StandardCharsets.UTF_8));
+            if (total > count) {
+                text.append("... [truncated, ").append(total)
+                        .append(" bytes]");
+            }
+
+            return text.toString();
+        }
+
+        @Override
+        public final void write(final byte[] bytes, final int offset,
+                final int length) {
+            final int kept; // Bytes to keep
+
+            kept = Math.min(length, buffer.length - count);
+            if (kept > 0) {
+                System.arraycopy(bytes, offset, buffer, count, kept);
+                count += kept;
+            }
+            total += length;
+        }
+
+        @Override
+        public final void write(final int value) {
+            if (count < buffer.length) {
+                buffer[count] = (byte) value;
+                count++;
+            }
+            total++;
+        }
+
+    }
+
+    /**
+     * Log message for a captured envelope.
+     * <p>
+     * The envelope is not modified after being captured, so it is safe to
+     * format the message in the background, which the asynchronous appenders
+     * will do in their own thread.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    @AsynchronouslyFormattable
+    private static final class EnvelopeMessage implements Message {
+
+        /**
+         * Serialization ID.
+         */
+        private static final long    serialVersionUID = 1L;
+
+        /**
+         * Captured envelope.
+         */
+        private final CappedEnvelope envelope;
+
+        /**
+         * Label identifying the envelope.
+         */
+        private final String         label;
+
+        /**
+         * Constructs a message for the specified envelope.
+         *
+         * @param name
+         *            label identifying the envelope
+         * @param captured
+         *            captured envelope
+         */
+        public EnvelopeMessage(final String name,
+                final CappedEnvelope captured) {
+            super();
+
+            label = name;
+            envelope = captured;
+        }
+
+        @Override
+        public final String getFormat() {
+            return label;
+        }
+
+        @Override
+        public final String getFormattedMessage() {
+            return label + ": " + envelope;
+        }
+
+        @Override
+        public final Object[] getParameters() {
+            return null;
+        }
+
+        @Override
+        public final Throwable getThrowable() {
+            return null;
+        }
+
+    }
+
+}
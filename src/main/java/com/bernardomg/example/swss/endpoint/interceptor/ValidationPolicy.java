@@ -0,0 +1,229 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint.interceptor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chooses the messages to validate, following a {@link ValidationMode}, and
+ * counts the validations.
+ * <p>
+ * For the {@link ValidationMode#FIRST_PER_MINUTE} mode time is divided into
+ * windows of one minute. The first thread to notice a window ended starts the
+ * next one, so there is no lock or background thread involved.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ValidationPolicy {
+
+    /**
+     * Nanoseconds covered by each window.
+     */
+    private static final long    WINDOW_LENGTH = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Maximum number of messages validated on each window.
+     */
+    private final Integer        limit;
+
+    /**
+     * Mode for choosing the messages.
+     */
+    private final ValidationMode mode;
+
+    /**
+     * Percentage of the messages validated when sampling.
+     */
+    private final Double         percentage;
+
+    /**
+     * Number of messages which were not validated.
+     */
+    private final AtomicLong     skipped;
+
+    /**
+     * Number of messages validated.
+     */
+    private final AtomicLong     validated;
+
+    /**
+     * Number of validated messages which were invalid.
+     */
+    private final AtomicLong     violations;
+
+    /**
+     * Number of messages validated on the current window.
+     */
+    private final AtomicInteger  windowCount;
+
+    /**
+     * Time, in nanoseconds, when the current window started.
+     */
+    private final AtomicLong     windowStart;
+
+    /**
+     * Constructs a policy with the specified mode.
+     * <p>
+     * The percentage is only used when sampling, and the limit on the first
+     * messages per minute mode.
+     *
+     * @param validationMode
+     *            mode for choosing the messages
+     * @param percent
+     *            percentage of the messages validated when sampling, from 0
+     *            to 100
+     * @param perMinute
+     *            maximum number of messages validated each minute
+     */
+    public ValidationPolicy(final ValidationMode validationMode,
+            final Double percent, final Integer perMinute) {
+        super();
+
+        mode = checkNotNull(validationMode,
+                "Received a null pointer as validation mode");
+        percentage = checkNotNull(percent,
+                "Received a null pointer as percentage");
+        limit = checkNotNull(perMinute, "Received a null pointer as limit");
+
+        checkArgument((percent >= 0) && (percent <= 100),
+                "The percentage should be between 0 and 100");
+        checkArgument(perMinute >= 0, "The limit can't be negative");
+
+        skipped = new AtomicLong();
+        validated = new AtomicLong();
+        violations = new AtomicLong();
+        windowCount = new AtomicInteger();
+        windowStart = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Returns the mode for choosing the messages.
+     *
+     * @return the mode for choosing the messages
+     */
+    public final ValidationMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the number of messages which were not validated.
+     *
+     * @return the number of messages which were not validated
+     */
+    public final Long getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Returns the number of messages validated.
+     *
+     * @return the number of messages validated
+     */
+    public final Long getValidated() {
+        return validated.get();
+    }
+
+    /**
+     * Returns the number of validated messages which were invalid.
+     *
+     * @return the number of validated messages which were invalid
+     */
+    public final Long getViolations() {
+        return violations.get();
+    }
+
+    /**
+     * Registers a message which failed validation.
+     */
+    public final void registerViolation() {
+        violations.incrementAndGet();
+    }
+
+    /**
+     * Indicates if the next message should be validated.
+     * <p>
+     * Each call is counted as a message, so it should be called only once for
+     * each of them.
+     *
+     * @return {@code true} if the message should be validated, {@code false}
+     *         otherwise
+     */
+    public final Boolean shouldValidate() {
+        final Boolean validate; // Validation flag
+
+        switch (mode) {
+            case ALWAYS:
+                validate = true;
+                break;
+            case FIRST_PER_MINUTE:
+                validate = isInWindowLimit();
+                break;
+            case SAMPLED:
+                validate = (percentage > 0) && ((ThreadLocalRandom.current()
+                        .nextDouble() * 100) < percentage);
+                break;
+            default:
+                validate = false;
+        }
+
+        if (validate) {
+            validated.incrementAndGet();
+        } else {
+            skipped.incrementAndGet();
+        }
+
+        return validate;
+    }
+
+    /**
+     * Indicates if the limit for the current window has not been reached yet,
+     * counting a new message.
+     * <p>
+     * If the current window ended then a new one is started.
+     *
+     * @return {@code true} if the message is within the limit, {@code false}
+     *         otherwise
+     */
+    private final Boolean isInWindowLimit() {
+        final long now;   // Current time
+        final long start; // Start of the current window
+
+        now = System.nanoTime();
+        start = windowStart.get();
+        if (((now - start) >= WINDOW_LENGTH)
+                && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+
+        return windowCount.incrementAndGet() <= limit;
+    }
+
+}
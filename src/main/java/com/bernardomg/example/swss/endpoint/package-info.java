@@ -29,6 +29,11 @@
  * ExampleEntityEndpoint}, is offered. This just receives a request for an
  * entity and returns it.
  * <p>
+ * Big slices of the entities can be listed through the
+ * {@link com.bernardomg.example.swss.endpoint.StreamingExampleEntityEndpoint
+ * StreamingExampleEntityEndpoint}, which writes them straight into the
+ * response payload instead of using JAXB.
+ * <p>
  * The various endpoints will extend this one by adding the required
  * authentication protocols through the use of Spring.
  */
@@ -0,0 +1,191 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint.routing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.io.Resource;
+import org.springframework.ws.server.EndpointInterceptor;
+
+/**
+ * Factory bean which loads an interceptor from its own child context.
+ * <p>
+ * All the security modes use the same bean names and the same property keys,
+ * so their interceptor contexts can't be imported into a single context. This
+ * factory loads each of them into a small context, with its own properties,
+ * which is a child of the one containing the factory. This way the shared
+ * beans, such as the user details service or the key stores, are still
+ * reachable.
+ * <p>
+ * The child context is closed along the factory.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ChildContextInterceptorFactoryBean
+        implements FactoryBean<EndpointInterceptor>, ApplicationContextAware,
+        InitializingBean, DisposableBean {
+
+    /**
+     * The logger used for logging the child contexts.
+     */
+    private static final Logger          LOGGER = LoggerFactory
+            .getLogger(ChildContextInterceptorFactoryBean.class);
+
+    /**
+     * Child context containing the interceptor.
+     */
+    private GenericXmlApplicationContext context;
+
+    /**
+     * Location of the context file defining the interceptor.
+     */
+    private String                       contextLocation;
+
+    /**
+     * Name of the interceptor bean.
+     */
+    private String                       interceptorName;
+
+    /**
+     * Context which will be the parent of the child context.
+     */
+    private ApplicationContext           parent;
+
+    /**
+     * Properties files used for the child context placeholders.
+     */
+    private Resource[]                   propertiesLocations;
+
+    /**
+     * Default constructor.
+     */
+    public ChildContextInterceptorFactoryBean() {
+        super();
+
+        interceptorName = "securityInterceptor";
+    }
+
+    @Override
+    public final void afterPropertiesSet() {
+        final PropertySourcesPlaceholderConfigurer configurer; // Placeholders
+        final Long                                 start;      // Start time
+
+        checkNotNull(contextLocation,
+                "Received a null pointer as context location");
+        checkNotNull(propertiesLocations,
+                "Received a null pointer as properties locations");
+
+        start = System.currentTimeMillis();
+
+        configurer = new PropertySourcesPlaceholderConfigurer();
+        configurer.setLocations(propertiesLocations);
+
+        context = new GenericXmlApplicationContext();
+        context.setParent(parent);
+        context.setDisplayName(contextLocation);
+        context.addBeanFactoryPostProcessor(configurer);
+        context.load(contextLocation);
+        context.refresh();
+
+        LOGGER.info("Loaded interceptor context {} in {} ms", contextLocation,
+                System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public final void destroy() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Override
+    public final EndpointInterceptor getObject() {
+        return context.getBean(interceptorName, EndpointInterceptor.class);
+    }
+
+    @Override
+    public final Class<?> getObjectType() {
+        return EndpointInterceptor.class;
+    }
+
+    @Override
+    public final boolean isSingleton() {
+        return true;
+    }
+
+    @Override
+    public final void
+            setApplicationContext(final ApplicationContext applicationContext) {
+        parent = applicationContext;
+    }
+
+    /**
+     * Sets the location of the context file defining the interceptor.
+     *
+     * @param location
+     *            location of the interceptor context file
+     */
+    public final void setContextLocation(final String location) {
+        contextLocation = checkNotNull(location,
+                "Received a null pointer as context location");
+    }
+
+    /**
+     * Sets the name of the interceptor bean.
+     * <p>
+     * By default this is {@code securityInterceptor}.
+     *
+     * @param name
+     *            name of the interceptor bean
+     */
+    public final void setInterceptorName(final String name) {
+        interceptorName = checkNotNull(name,
+                "Received a null pointer as interceptor name");
+    }
+
+    /**
+     * Sets the properties files used for the child context placeholders.
+     * <p>
+     * As with any placeholder configuration, properties from later files
+     * override those from earlier ones.
+     *
+     * @param locations
+     *            properties files for the child context
+     */
+    public final void setPropertiesLocations(final Resource[] locations) {
+        propertiesLocations = checkNotNull(locations,
+                "Received a null pointer as properties locations");
+    }
+
+}
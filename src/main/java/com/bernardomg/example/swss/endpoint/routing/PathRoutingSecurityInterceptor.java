@@ -0,0 +1,303 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.endpoint.routing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.server.SoapEndpointInterceptor;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+
+/**
+ * Interceptor which delegates into the security interceptors of the mode
+ * matching the request path.
+ * <p>
+ * Each route maps a path prefix, relative to the web application, to the
+ * interceptors applied to the requests received on it. The transport doesn't
+ * tell where the web application path ends, so the route used is the one
+ * found first in the request path. If several routes are found at the same
+ * point the longest one is used.
+ * <p>
+ * Requests which don't match any route are rejected with a SOAP fault, so
+ * there is no way of reaching the endpoints without security by mistake.
+ * Unsecured paths should be mapped to an empty list.
+ * <p>
+ * As the dispatcher does with its own interceptors, the responses, faults
+ * and completions are only sent to the route interceptors which received the
+ * request. If one of them rejects it, those after it are skipped.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PathRoutingSecurityInterceptor
+        implements SoapEndpointInterceptor {
+
+    /**
+     * The logger used for logging the routing interceptor.
+     */
+    private static final Logger                          LOGGER     = LoggerFactory
+            .getLogger(PathRoutingSecurityInterceptor.class);
+
+    /**
+     * Message context property with the index of the last route interceptor
+     * which received the request.
+     */
+    private static final String                          LAST_INDEX = PathRoutingSecurityInterceptor.class
+            .getName() + ".lastIndex";
+
+    /**
+     * Interceptors for each path prefix, sorted from the longest prefix to the
+     * shortest.
+     */
+    private final Map<String, List<EndpointInterceptor>> routes;
+
+    /**
+     * Constructs a routing interceptor with the specified routes.
+     *
+     * @param paths
+     *            interceptors to apply for each path prefix
+     */
+    public PathRoutingSecurityInterceptor(
+            final Map<String, List<EndpointInterceptor>> paths) {
+        super();
+
+        final List<String> prefixes; // Prefixes sorted by length
+
+        checkNotNull(paths, "Received a null pointer as routes");
+
+        prefixes = new ArrayList<>(paths.keySet());
+        Collections.sort(prefixes, new Comparator<String>() {
+
+            @Override
+            public final int compare(final String left, final String right) {
+                return Integer.compare(right.length(), left.length());
+            }
+
+        });
+
+        routes = new LinkedHashMap<>();
+        for (final String prefix : prefixes) {
+            routes.put(prefix, Collections.unmodifiableList(
+                    new ArrayList<>(paths.get(prefix))));
+        }
+    }
+
+    @Override
+    public final void afterCompletion(final MessageContext messageContext,
+            final Object endpoint, final Exception ex) throws Exception {
+        final List<EndpointInterceptor> interceptors; // Route interceptors
+
+        interceptors = getInterceptors();
+
+        try {
+            if (interceptors != null) {
+                for (int i = getLastIndex(messageContext); i >= 0; i--) {
+                    interceptors.get(i).afterCompletion(messageContext,
+                            endpoint, ex);
+                }
+            }
+        } finally {
+            messageContext.removeProperty(LAST_INDEX);
+        }
+    }
+
+    @Override
+    public final boolean handleFault(final MessageContext messageContext,
+            final Object endpoint) throws Exception {
+        final List<EndpointInterceptor> interceptors; // Route interceptors
+        boolean                         proceed;      // Flag to continue
+
+        interceptors = getInterceptors();
+
+        proceed = true;
+        if (interceptors != null) {
+            for (int i = getLastIndex(messageContext); proceed && (i >= 0);
+                    i--) {
+                proceed = interceptors.get(i).handleFault(messageContext,
+                        endpoint);
+            }
+        }
+
+        return proceed;
+    }
+
+    @Override
+    public final boolean handleRequest(final MessageContext messageContext,
+            final Object endpoint) throws Exception {
+        final List<EndpointInterceptor> interceptors; // Route interceptors
+        boolean                         proceed;      // Flag to continue
+
+        interceptors = getInterceptors();
+
+        if (interceptors == null) {
+            LOGGER.warn("No security route for path {}", getPath());
+            ((SoapMessage) messageContext.getResponse()).getSoapBody()
+                    .addClientOrSenderFault("Unknown security mode",
+                            Locale.ENGLISH);
+            proceed = false;
+        } else {
+            proceed = true;
+            for (int i = 0; proceed && (i < interceptors.size()); i++) {
+                messageContext.setProperty(LAST_INDEX, i);
+                proceed = interceptors.get(i).handleRequest(messageContext,
+                        endpoint);
+            }
+        }
+
+        return proceed;
+    }
+
+    @Override
+    public final boolean handleResponse(final MessageContext messageContext,
+            final Object endpoint) throws Exception {
+        final List<EndpointInterceptor> interceptors; // Route interceptors
+        boolean                         proceed;      // Flag to continue
+
+        interceptors = getInterceptors();
+
+        proceed = true;
+        if (interceptors != null) {
+            for (int i = getLastIndex(messageContext); proceed && (i >= 0);
+                    i--) {
+                proceed = interceptors.get(i).handleResponse(messageContext,
+                        endpoint);
+            }
+        }
+
+        return proceed;
+    }
+
+    @Override
+    public final boolean understands(final SoapHeaderElement header) {
+        final List<EndpointInterceptor> interceptors; // Route interceptors
+        boolean                         understood;   // Understood flag
+
+        interceptors = getInterceptors();
+
+        understood = false;
+        if (interceptors != null) {
+            for (final EndpointInterceptor interceptor : interceptors) {
+                if ((interceptor instanceof SoapEndpointInterceptor)
+                        && ((SoapEndpointInterceptor) interceptor)
+                                .understands(header)) {
+                    understood = true;
+                    break;
+                }
+            }
+        }
+
+        return understood;
+    }
+
+    /**
+     * Returns the interceptors for the current request.
+     * <p>
+     * If no route matches the request path then {@code null} is returned.
+     *
+     * @return the interceptors for the current request
+     */
+    private final List<EndpointInterceptor> getInterceptors() {
+        final String              path;         // Request path
+        List<EndpointInterceptor> interceptors; // Route interceptors
+        Integer                   first;        // Position of the route
+        Integer                   index;        // Position of the prefix
+
+        path = getPath();
+
+        interceptors = null;
+        if (path != null) {
+            first = Integer.MAX_VALUE;
+            // The prefixes are sorted by length, so ties keep the longest
+            for (final String prefix : routes.keySet()) {
+                index = path.indexOf(prefix);
+                if ((index >= 0) && (index < first)) {
+                    first = index;
+                    interceptors = routes.get(prefix);
+                }
+            }
+        }
+
+        return interceptors;
+    }
+
+    /**
+     * Returns the index of the last route interceptor which received the
+     * request.
+     * <p>
+     * If none received it then {@code -1} is returned.
+     *
+     * @param messageContext
+     *            context for the request
+     * @return the index of the last interceptor which received the request
+     */
+    private final Integer getLastIndex(final MessageContext messageContext) {
+        final Object index; // Stored index
+
+        index = messageContext.getProperty(LAST_INDEX);
+
+        return (index == null) ? -1 : (Integer) index;
+    }
+
+    /**
+     * Returns the path for the current request.
+     * <p>
+     * This includes the web application path. If there is no connection then
+     * {@code null} is returned.
+     *
+     * @return the path for the current request
+     */
+    private final String getPath() {
+        final TransportContext context; // Transport context
+        String                 path;    // Request path
+
+        context = TransportContextHolder.getTransportContext();
+
+        path = null;
+        if (context != null) {
+            try {
+                path = context.getConnection().getUri().getPath();
+            } catch (final URISyntaxException e) {
+                LOGGER.debug("Can't read the request path", e);
+            }
+        }
+
+        return path;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,323 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.event;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.AsynchronouslyFormattable;
+import org.apache.logging.log4j.message.Message;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Emits the events for the stages of the SOAP requests.
+ * <p>
+ * Each event carries the stage, the servlet receiving the request or the
+ * target URI of a client, the SOAP action, the entity id, when known, and the
+ * duration of the stage. The time and thread are kept by the logging event,
+ * so they can be correlated with the samples taken by a profiler.
+ * <p>
+ * The endpoints emit only two events for each request, when it is received
+ * and when it is completed, the last one carrying the duration of each stage
+ * in between.
+ * <p>
+ * Events are logged at debug level into the
+ * {@code com.bernardomg.example.swss.event.LifecycleEvents} logger. They are
+ * formatted only when written, so when the logger is attached to an
+ * asynchronous appender the request threads do little more than queueing
+ * them. When disabled, or when the logger level is not enabled, nothing is
+ * created at all, so the events can be kept on in production.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Events for the stages of the SOAP requests")
+public final class LifecycleEvents {
+
+    /**
+     * Logger where the events are written.
+     */
+    private static final Logger LOGGER = LogManager
+            .getLogger("com.bernardomg.example.swss.event.LifecycleEvents");
+
+    /**
+     * Number of events emitted.
+     */
+    private final AtomicLong    emitted;
+
+    /**
+     * Flag telling if the events are emitted.
+     */
+    private volatile Boolean    enabled;
+
+    /**
+     * Constructs the events emitter.
+     *
+     * @param enable
+     *            flag telling if the events are emitted
+     */
+    public LifecycleEvents(final Boolean enable) {
+        super();
+
+        enabled = checkNotNull(enable,
+                "Received a null pointer as enabled flag");
+
+        emitted = new AtomicLong();
+    }
+
+    /**
+     * Emits an event for a stage.
+     * <p>
+     * Nothing is done if the events are not being recorded.
+     *
+     * @param stage
+     *            stage which ended
+     * @param source
+     *            servlet which received the request, or target of the query
+     * @param action
+     *            SOAP action of the request
+     * @param entity
+     *            id of the entity requested, or {@code null} if not known
+     * @param nanos
+     *            duration of the stage, in nanoseconds
+     */
+    public final void emit(final LifecycleStage stage, final String source,
+            final String action, final Integer entity, final Long nanos) {
+        emit(stage, source, action, entity, nanos, null);
+    }
+
+    /**
+     * Emits an event for a stage, along the durations of the stages it
+     * contains.
+     * <p>
+     * The durations are kept by the event, and formatted only when written,
+     * so the array should not be changed afterwards.
+     * <p>
+     * Nothing is done if the events are not being recorded.
+     *
+     * @param stage
+     *            stage which ended
+     * @param source
+     *            servlet which received the request, or target of the query
+     * @param action
+     *            SOAP action of the request
+     * @param entity
+     *            id of the entity requested, or {@code null} if not known
+     * @param nanos
+     *            duration of the stage, in nanoseconds
+     * @param stages
+     *            duration, in nanoseconds, of each stage by its ordinal, or
+     *            -1 if not reached, or {@code null} if there are none
+     */
+    public final void emit(final LifecycleStage stage, final String source,
+            final String action, final Integer entity, final Long nanos,
+            final long[] stages) {
+        if (isRecording()) {
+            LOGGER.debug(new LifecycleMessage(stage, source, action, entity,
+                    nanos, stages));
+            emitted.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of events emitted.
+     *
+     * @return the number of events emitted
+     */
+    @ManagedAttribute(description = "Number of events emitted")
+    public final Long getEmitted() {
+        return emitted.get();
+    }
+
+    /**
+     * Indicates if the events are emitted.
+     * <p>
+     * Even if enabled, the events are only emitted if the logger accepts
+     * them.
+     *
+     * @return {@code true} if the events are emitted, {@code false} otherwise
+     */
+    @ManagedAttribute(description = "Flag telling if the events are emitted")
+    public final Boolean getEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indicates if the events are being recorded.
+     * <p>
+     * This is the case when they are enabled, and the logger accepts them.
+     * Callers can check this before gathering the data for the events.
+     *
+     * @return {@code true} if the events are being recorded, {@code false}
+     *         otherwise
+     */
+    public final Boolean isRecording() {
+        return enabled && LOGGER.isDebugEnabled();
+    }
+
+    /**
+     * Resets the number of events emitted.
+     */
+    @ManagedOperation(description = "Resets the number of events emitted")
+    public final void reset() {
+        emitted.set(0);
+    }
+
+    /**
+     * Enables or disables the events.
+     *
+     * @param enable
+     *            flag telling if the events are emitted
+     */
+    @ManagedAttribute(description = "Flag telling if the events are emitted")
+    public final void setEnabled(final Boolean enable) {
+        enabled = checkNotNull(enable,
+                "Received a null pointer as enabled flag");
+    }
+
+    /**
+     * Log message for an event.
+     * <p>
+     * It only keeps the event data, which is formatted when the message is
+     * written.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    @AsynchronouslyFormattable
+    private static final class LifecycleMessage implements Message {
+
+        /**
+         * Serialization ID.
+         */
+        private static final long    serialVersionUID = 1L;
+
+        /**
+         * SOAP action of the request.
+         */
+        private final String         action;
+
+        /**
+         * Id of the entity requested.
+         */
+        private final Integer        entity;
+
+        /**
+         * Duration of the stage, in nanoseconds.
+         */
+        private final Long           nanos;
+
+        /**
+         * Servlet or target of the query.
+         */
+        private final String         source;
+
+        /**
+         * Stage which ended.
+         */
+        private final LifecycleStage stage;
+
+        /**
+         * Duration of each contained stage, in nanoseconds.
+         */
+        private final long[]         stages;
+
+        /**
+         * Constructs a message for the specified event.
+         *
+         * @param ended
+         *            stage which ended
+         * @param origin
+         *            servlet which received the request, or target of the
+         *            query
+         * @param soapAction
+         *            SOAP action of the request
+         * @param identifier
+         *            id of the entity requested
+         * @param duration
+         *            duration of the stage, in nanoseconds
+         * @param contained
+         *            duration of each contained stage, in nanoseconds
+         */
+        public LifecycleMessage(final LifecycleStage ended,
+                final String origin, final String soapAction,
+                final Integer identifier, final Long duration,
+                final long[] contained) {
+            super();
+
+            stage = ended;
+            source = origin;
+            action = soapAction;
+            entity = identifier;
+            nanos = duration;
+            stages = contained;
+        }
+
+        @Override
+        public final String getFormat() {
+            return stage.name();
+        }
+
+        @Override
+        public final String getFormattedMessage() {
+            final StringBuilder message; // Formatted message
+
+            message = new StringBuilder(String.format(
+                    "stage=%s source=%s action=%s entity=%s micros=%d", stage,
+                    source, action, entity,
+                    TimeUnit.NANOSECONDS.toMicros(nanos)));
+
+            if (stages != null) {
+                for (final LifecycleStage contained : LifecycleStage
+                        .values()) {
+                    if ((contained.ordinal() < stages.length)
+                            && (stages[contained.ordinal()] >= 0)) {
+                        message.append(' ').append(contained).append('=')
+                                .append(TimeUnit.NANOSECONDS
+                                        .toMicros(stages[contained.ordinal()]));
+                    }
+                }
+            }
+
+            return message.toString();
+        }
+
+        @Override
+        public final Object[] getParameters() {
+            return null;
+        }
+
+        @Override
+        public final Throwable getThrowable() {
+            return null;
+        }
+
+    }
+
+}
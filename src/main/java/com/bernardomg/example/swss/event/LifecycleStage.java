@@ -0,0 +1,69 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.event;
+
+/**
+ * Stages of the SOAP requests lifecycle.
+ * <p>
+ * The endpoint stages are reached in the order they are declared. Only the
+ * first one, {@link #REQUEST_RECEIVED}, and {@link #REQUEST_COMPLETED} are
+ * emitted, the last one carrying the duration of all the stages between
+ * both. {@link #CLIENT_QUERY} is emitted by the clients.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public enum LifecycleStage {
+
+    /**
+     * The request was received by the servlet.
+     */
+    REQUEST_RECEIVED,
+    /**
+     * The request payload was validated.
+     */
+    PAYLOAD_VALIDATED,
+    /**
+     * The request security was validated.
+     */
+    SECURITY_VALIDATED,
+    /**
+     * The entities were looked up by the domain service.
+     */
+    SERVICE_LOOKUP,
+    /**
+     * The response was written into the message, and handled by the
+     * interceptors.
+     */
+    RESPONSE_WRITTEN,
+    /**
+     * The request was completed, successfully or not.
+     */
+    REQUEST_COMPLETED,
+    /**
+     * A query was sent by a client, and its response received.
+     */
+    CLIENT_QUERY
+
+}
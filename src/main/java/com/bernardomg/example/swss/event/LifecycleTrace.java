@@ -0,0 +1,205 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.event;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+
+/**
+ * Follows the lifecycle of a single request.
+ * <p>
+ * Each stage ends when the next one is marked, so the trace keeps the time of
+ * the last mark. The request is received when the trace starts, and so
+ * {@link LifecycleStage#REQUEST_RECEIVED} is emitted at once, with no
+ * duration.
+ * <p>
+ * The other stages are not emitted on their own, their durations are kept
+ * until the trace finishes. Then a single
+ * {@link LifecycleStage#REQUEST_COMPLETED} event is emitted, with the total
+ * duration and the duration of each stage reached. So each request emits
+ * only two events.
+ * <p>
+ * The trace for the request being handled is bound to the thread handling
+ * it, so the services can emit their stages without knowing about the servlet
+ * which received it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class LifecycleTrace {
+
+    /**
+     * Trace for the request handled by each thread.
+     */
+    private static final ThreadLocal<LifecycleTrace> CURRENT = new ThreadLocal<>();
+
+    /**
+     * SOAP action of the request.
+     */
+    private final String                             action;
+
+    /**
+     * Id of the entity requested.
+     */
+    private final Integer                            entity;
+
+    /**
+     * Events where the stages are emitted.
+     */
+    private final LifecycleEvents                    events;
+
+    /**
+     * Time, in nanoseconds, of the last mark.
+     */
+    private long                                     lastMark;
+
+    /**
+     * Servlet which received the request.
+     */
+    private final String                             source;
+
+    /**
+     * Duration, in nanoseconds, of each stage, or -1 if it was not reached.
+     */
+    private final long[]                             stages;
+
+    /**
+     * Time, in nanoseconds, when the request was received.
+     */
+    private final long                               start;
+
+    /**
+     * Returns the trace for the request handled by the current thread.
+     * <p>
+     * If no request is being traced then {@code null} is returned.
+     *
+     * @return the trace for the current request
+     */
+    public static final LifecycleTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts tracing a request, binding its trace to the current thread.
+     *
+     * @param lifecycleEvents
+     *            events where the stages are emitted
+     * @param servlet
+     *            servlet which received the request
+     * @param soapAction
+     *            SOAP action of the request
+     * @param identifier
+     *            id of the entity requested, or {@code null} if not known
+     * @return the trace for the request
+     */
+    public static final LifecycleTrace start(
+            final LifecycleEvents lifecycleEvents, final String servlet,
+            final String soapAction, final Integer identifier) {
+        final LifecycleTrace trace; // Trace for the request
+
+        checkNotNull(lifecycleEvents, "Received a null pointer as events");
+
+        trace = new LifecycleTrace(lifecycleEvents, servlet, soapAction,
+                identifier);
+        CURRENT.set(trace);
+
+        lifecycleEvents.emit(LifecycleStage.REQUEST_RECEIVED, servlet,
+                soapAction, identifier, 0L);
+
+        return trace;
+    }
+
+    /**
+     * Constructs a trace for a request received now.
+     *
+     * @param lifecycleEvents
+     *            events where the stages are emitted
+     * @param servlet
+     *            servlet which received the request
+     * @param soapAction
+     *            SOAP action of the request
+     * @param identifier
+     *            id of the entity requested
+     */
+    private LifecycleTrace(final LifecycleEvents lifecycleEvents,
+            final String servlet, final String soapAction,
+            final Integer identifier) {
+        super();
+
+        events = lifecycleEvents;
+        source = servlet;
+        action = soapAction;
+        entity = identifier;
+        start = System.nanoTime();
+        lastMark = start;
+
+        stages = new long[LifecycleStage.values().length];
+        Arrays.fill(stages, -1);
+    }
+
+    /**
+     * Emits the completion of the request, with the duration of the stages
+     * reached, and unbinds the trace from the current thread.
+     */
+    public final void finish() {
+        CURRENT.remove();
+
+        events.emit(LifecycleStage.REQUEST_COMPLETED, source, action, entity,
+                System.nanoTime() - start, stages);
+    }
+
+    /**
+     * Ends a stage, keeping the time since the previous mark as its
+     * duration.
+     *
+     * @param stage
+     *            stage which ends
+     */
+    public final void mark(final LifecycleStage stage) {
+        final long now; // Current time
+
+        now = System.nanoTime();
+        stages[stage.ordinal()] = now - lastMark;
+        lastMark = now;
+    }
+
+    /**
+     * Adds time to a stage which is contained in another one, without
+     * marking it.
+     *
+     * @param stage
+     *            stage which ended
+     * @param nanos
+     *            duration of the stage, in nanoseconds
+     */
+    public final void record(final LifecycleStage stage, final Long nanos) {
+        if (stages[stage.ordinal()] < 0) {
+            stages[stage.ordinal()] = nanos;
+        } else {
+            stages[stage.ordinal()] += nanos;
+        }
+    }
+
+}
@@ -28,6 +28,7 @@
 
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -36,6 +37,9 @@
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.google.common.base.MoreObjects;
 
 /**
@@ -43,19 +47,32 @@
  * <p>
  * This makes use of JPA annotations for the persistence configuration.
  * <p>
+ * The entities are kept in their own second-level cache region,
+ * {@value #CACHE_REGION}. As they are rarely modified, the cache uses a
+ * read-write strategy, which keeps them consistent on the few updates.
+ * <p>
  * For the JAXB annotated model check the generated classes folder.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
 @Entity(name = "ExampleEntity")
 @Table(name = "example_entities")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE,
+        region = DefaultExampleEntity.CACHE_REGION)
 public final class DefaultExampleEntity implements ExampleEntity {
 
+    /**
+     * Name of the second-level cache region for the entities.
+     */
+    @Transient
+    public static final String CACHE_REGION     = "exampleEntities";
+
     /**
      * Serialization ID.
      */
     @Transient
-    private static final long serialVersionUID = 1328776989450853491L;
+    private static final long  serialVersionUID = 1328776989450853491L;
 
     /**
      * Entity's ID.
@@ -63,7 +80,7 @@ public final class DefaultExampleEntity implements ExampleEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id", nullable = false, unique = true)
-    private Integer           id               = -1;
+    private Integer            id               = -1;
 
     /**
      * Name of the entity.
@@ -72,7 +89,7 @@ public final class DefaultExampleEntity implements ExampleEntity {
      * tests.
      */
     @Column(name = "name", nullable = false)
-    private String            name             = "";
+    private String             name             = "";
 
     /**
      * Constructs an example entity.
@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Immutable example entity.
+ * <p>
+ * This is a plain data holder, with no persistence annotations, meant to be
+ * filled directly from a query projection. Its values are set when it is
+ * created, and trying to change them will throw an exception.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ImmutableExampleEntity implements ExampleEntity {
+
+    /**
+     * Serialization ID.
+     */
+    private static final long serialVersionUID = 4617011350532924517L;
+
+    /**
+     * Entity's ID.
+     */
+    private final Integer     id;
+
+    /**
+     * Name of the entity.
+     */
+    private final String      name;
+
+    /**
+     * Constructs an entity with the specified values.
+     *
+     * @param identifier
+     *            the identifier for the entity
+     * @param entityName
+     *            the name for the entity
+     */
+    public ImmutableExampleEntity(final Integer identifier,
+            final String entityName) {
+        super();
+
+        id = checkNotNull(identifier, "Received a null pointer as identifier");
+        name = checkNotNull(entityName, "Received a null pointer as name");
+    }
+
+    @Override
+    public final boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null) {
+            return false;
+        }
+
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+
+        final ImmutableExampleEntity other = (ImmutableExampleEntity) obj;
+        return Objects.equals(id, other.id);
+    }
+
+    @Override
+    public final Integer getId() {
+        return id;
+    }
+
+    @Override
+    public final String getName() {
+        return name;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(id);
+    }
+
+    /**
+     * Unsupported, as this entity is immutable.
+     *
+     * @param identifier
+     *            ignored identifier
+     */
+    @Override
+    public final void setId(final Integer identifier) {
+        throw new UnsupportedOperationException(
+                "Immutable entities can't be modified");
+    }
+
+    /**
+     * Unsupported, as this entity is immutable.
+     *
+     * @param value
+     *            ignored name
+     */
+    @Override
+    public final void setName(final String value) {
+        throw new UnsupportedOperationException(
+                "Immutable entities can't be modified");
+    }
+
+    @Override
+    public final String toString() {
+        return MoreObjects.toStringHelper(this).add("entityId", id).toString();
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.model;
+
+/**
+ * Immutable entity returned when an entity can't be found.
+ * <p>
+ * There is a single instance, shared by all the lookups which find nothing, so
+ * these don't create new objects. It has a negative id, as expected for a
+ * missing entity, and an empty name. Trying to change it will throw an
+ * exception.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class NotFoundExampleEntity implements ExampleEntity {
+
+    /**
+     * The single instance.
+     */
+    private static final NotFoundExampleEntity INSTANCE         = new NotFoundExampleEntity();
+
+    /**
+     * Serialization ID.
+     */
+    private static final long                  serialVersionUID = -3213858046253547117L;
+
+    /**
+     * Returns the single instance of the not found entity.
+     *
+     * @return the not found entity
+     */
+    public static final NotFoundExampleEntity getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Constructs the not found entity.
+     */
+    private NotFoundExampleEntity() {
+        super();
+    }
+
+    /**
+     * Returns the identifier for the entity, which is always negative.
+     *
+     * @return a negative identifier
+     */
+    @Override
+    public final Integer getId() {
+        return -1;
+    }
+
+    /**
+     * Returns the name for the entity, which is always empty.
+     *
+     * @return an empty name
+     */
+    @Override
+    public final String getName() {
+        return "";
+    }
+
+    /**
+     * Unsupported, as this entity is immutable.
+     *
+     * @param identifier
+     *            ignored identifier
+     */
+    @Override
+    public final void setId(final Integer identifier) {
+        throw new UnsupportedOperationException(
+                "The not found entity can't be modified");
+    }
+
+    /**
+     * Unsupported, as this entity is immutable.
+     *
+     * @param name
+     *            ignored name
+     */
+    @Override
+    public final void setName(final String name) {
+        throw new UnsupportedOperationException(
+                "The not found entity can't be modified");
+    }
+
+    @Override
+    public final String toString() {
+        return "NotFoundExampleEntity";
+    }
+
+    /**
+     * Keeps the instance unique when deserializing.
+     *
+     * @return the single instance
+     */
+    private final Object readResolve() {
+        return INSTANCE;
+    }
+
+}
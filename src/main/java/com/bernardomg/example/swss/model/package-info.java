@@ -29,7 +29,11 @@
  * The {@link com.bernardomg.example.swss.model.ExampleEntity ExampleEntity}
  * interface and a JPA implementation of it, the
  * {@link com.bernardomg.example.swss.model.DefaultExampleEntity
- * DefaultExampleEntity}, represent it.
+ * DefaultExampleEntity}, represent it. Missing entities are represented by
+ * the immutable {@link com.bernardomg.example.swss.model.NotFoundExampleEntity
+ * NotFoundExampleEntity}, while the
+ * {@link com.bernardomg.example.swss.model.ImmutableExampleEntity
+ * ImmutableExampleEntity} holds the entities read without JPA.
  * <p>
  * Remember that there is also a JAXB annotated model, uses for the SOAP
  * messages, in the generated classes package.
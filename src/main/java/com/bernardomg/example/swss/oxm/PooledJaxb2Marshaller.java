@@ -0,0 +1,365 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.oxm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.MarshalException;
+import javax.xml.bind.UnmarshalException;
+import javax.xml.bind.ValidationException;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamSource;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.oxm.GenericMarshaller;
+import org.springframework.oxm.GenericUnmarshaller;
+import org.springframework.oxm.MarshallingFailureException;
+import org.springframework.oxm.UncategorizedMappingException;
+import org.springframework.oxm.UnmarshallingFailureException;
+import org.springframework.oxm.ValidationFailureException;
+import org.springframework.oxm.XmlMappingException;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.util.xml.StaxUtils;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * JAXB marshaller which reuses the JAXB marshallers and unmarshallers.
+ * <p>
+ * The {@link Jaxb2Marshaller} creates a new JAXB marshaller or unmarshaller
+ * for each message, and these are costly to build. This one keeps a bounded
+ * pool of each of them instead. A call takes an instance from the pool, or
+ * creates a new one if the pool is empty, and gives it back once done. If the
+ * pool is already full the instance is dropped.
+ * <p>
+ * An instance is only given back if the call finished correctly. Those which
+ * failed may have been left in the middle of a document, so they are
+ * discarded.
+ * <p>
+ * The JAXB context and the supported classes are taken from the received
+ * {@code Jaxb2Marshaller}, which should be already initialized.
+ * <p>
+ * As with the {@code Jaxb2Marshaller}, DTDs and external entities are not
+ * processed when unmarshalling streams.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Pool of JAXB marshallers and unmarshallers")
+public final class PooledJaxb2Marshaller
+        implements GenericMarshaller, GenericUnmarshaller {
+
+    /**
+     * SAX feature for rejecting documents with a DTD.
+     */
+    private static final String                              DISALLOW_DTD = "http://apache.org/xml/features/disallow-doctype-decl";
+
+    /**
+     * Marshaller used for creating the JAXB marshallers.
+     */
+    private final Jaxb2Marshaller                            jaxbMarshaller;
+
+    /**
+     * Pooled JAXB marshallers.
+     */
+    private final BlockingQueue<javax.xml.bind.Marshaller>   marshallers;
+
+    /**
+     * Number of JAXB marshallers created.
+     */
+    private final AtomicLong                                 marshallersCreated;
+
+    /**
+     * Pooled JAXB unmarshallers.
+     */
+    private final BlockingQueue<javax.xml.bind.Unmarshaller> unmarshallers;
+
+    /**
+     * Number of JAXB unmarshallers created.
+     */
+    private final AtomicLong                                 unmarshallersCreated;
+
+    /**
+     * Constructs a pooled marshaller using the specified marshaller.
+     *
+     * @param marshaller
+     *            marshaller with the JAXB context to use
+     * @param poolSize
+     *            maximum number of instances kept of each kind
+     */
+    public PooledJaxb2Marshaller(final Jaxb2Marshaller marshaller,
+            final Integer poolSize) {
+        super();
+
+        jaxbMarshaller = checkNotNull(marshaller,
+                "Received a null pointer as marshaller");
+        checkNotNull(poolSize, "Received a null pointer as pool size");
+        checkArgument(poolSize > 0, "The pool size should be positive");
+
+        marshallers = new ArrayBlockingQueue<>(poolSize);
+        unmarshallers = new ArrayBlockingQueue<>(poolSize);
+        marshallersCreated = new AtomicLong();
+        unmarshallersCreated = new AtomicLong();
+    }
+
+    /**
+     * Returns the number of JAXB marshallers created.
+     * <p>
+     * Once the pool is warm this should stop growing.
+     *
+     * @return the number of JAXB marshallers created
+     */
+    @ManagedAttribute(description = "Number of JAXB marshallers created")
+    public final Long getMarshallersCreated() {
+        return marshallersCreated.get();
+    }
+
+    /**
+     * Returns the number of JAXB marshallers waiting in the pool.
+     *
+     * @return the number of pooled JAXB marshallers
+     */
+    @ManagedAttribute(description = "Number of JAXB marshallers in the pool")
+    public final Integer getPooledMarshallers() {
+        return marshallers.size();
+    }
+
+    /**
+     * Returns the number of JAXB unmarshallers waiting in the pool.
+     *
+     * @return the number of pooled JAXB unmarshallers
+     */
+    @ManagedAttribute(description = "Number of JAXB unmarshallers in the pool")
+    public final Integer getPooledUnmarshallers() {
+        return unmarshallers.size();
+    }
+
+    /**
+     * Returns the number of JAXB unmarshallers created.
+     * <p>
+     * Once the pool is warm this should stop growing.
+     *
+     * @return the number of JAXB unmarshallers created
+     */
+    @ManagedAttribute(description = "Number of JAXB unmarshallers created")
+    public final Long getUnmarshallersCreated() {
+        return unmarshallersCreated.get();
+    }
+
+    @Override
+    public final void marshal(final Object graph, final Result result)
+            throws IOException, XmlMappingException {
+        final javax.xml.bind.Marshaller marshaller; // Pooled marshaller
+        final XMLStreamWriter streamWriter;         // StAX stream writer
+        final XMLEventWriter eventWriter;           // StAX event writer
+
+        checkNotNull(result, "Received a null pointer as result");
+
+        marshaller = borrowMarshaller();
+        try {
+            if (StaxUtils.isStaxResult(result)) {
+                streamWriter = StaxUtils.getXMLStreamWriter(result);
+                if (streamWriter == null) {
+                    eventWriter = StaxUtils.getXMLEventWriter(result);
+                    marshaller.marshal(graph, eventWriter);
+                } else {
+                    marshaller.marshal(graph, streamWriter);
+                }
+            } else {
+                marshaller.marshal(graph, result);
+            }
+        } catch (final JAXBException e) {
+            // The marshaller is discarded
+            throw convert(e);
+        }
+
+        marshallers.offer(marshaller);
+    }
+
+    @Override
+    public final boolean supports(final Class<?> clazz) {
+        return jaxbMarshaller.supports(clazz);
+    }
+
+    @Override
+    public final boolean supports(final Type genericType) {
+        return jaxbMarshaller.supports(genericType);
+    }
+
+    @Override
+    public final Object unmarshal(final Source source)
+            throws IOException, XmlMappingException {
+        final javax.xml.bind.Unmarshaller unmarshaller; // Pooled unmarshaller
+        final XMLStreamReader streamReader;             // StAX stream reader
+        final XMLEventReader eventReader;               // StAX event reader
+        final Object result;                            // Unmarshalled object
+
+        checkNotNull(source, "Received a null pointer as source");
+
+        unmarshaller = borrowUnmarshaller();
+        try {
+            if (StaxUtils.isStaxSource(source)) {
+                streamReader = StaxUtils.getXMLStreamReader(source);
+                if (streamReader == null) {
+                    eventReader = StaxUtils.getXMLEventReader(source);
+                    result = unmarshaller.unmarshal(eventReader);
+                } else {
+                    result = unmarshaller.unmarshal(streamReader);
+                }
+            } else {
+                result = unmarshaller.unmarshal(toSecureSource(source));
+            }
+        } catch (final JAXBException e) {
+            // The unmarshaller is discarded
+            throw convert(e);
+        }
+
+        unmarshallers.offer(unmarshaller);
+
+        return result;
+    }
+
+    /**
+     * Returns a pooled JAXB marshaller, or a new one if the pool is empty.
+     *
+     * @return a JAXB marshaller
+     */
+    private final javax.xml.bind.Marshaller borrowMarshaller() {
+        javax.xml.bind.Marshaller marshaller; // Marshaller to use
+
+        marshaller = marshallers.poll();
+        if (marshaller == null) {
+            try {
+                marshaller = jaxbMarshaller.getJaxbContext().createMarshaller();
+            } catch (final JAXBException e) {
+                throw convert(e);
+            }
+            marshallersCreated.incrementAndGet();
+        }
+
+        return marshaller;
+    }
+
+    /**
+     * Returns a pooled JAXB unmarshaller, or a new one if the pool is empty.
+     *
+     * @return a JAXB unmarshaller
+     */
+    private final javax.xml.bind.Unmarshaller borrowUnmarshaller() {
+        javax.xml.bind.Unmarshaller unmarshaller; // Unmarshaller to use
+
+        unmarshaller = unmarshallers.poll();
+        if (unmarshaller == null) {
+            try {
+                unmarshaller = jaxbMarshaller.getJaxbContext()
+                        .createUnmarshaller();
+            } catch (final JAXBException e) {
+                throw convert(e);
+            }
+            unmarshallersCreated.incrementAndGet();
+        }
+
+        return unmarshaller;
+    }
+
+    /**
+     * Transforms a JAXB exception into a mapping exception.
+     *
+     * @param exception
+     *            exception to transform
+     * @return the mapping exception
+     */
+    private final XmlMappingException convert(final JAXBException exception) {
+        final XmlMappingException result; // Transformed exception
+
+        if (exception instanceof ValidationException) {
+            result = new ValidationFailureException("JAXB validation exception",
+                    exception);
+        } else if (exception instanceof MarshalException) {
+            result = new MarshallingFailureException(
+                    "JAXB marshalling exception", exception);
+        } else if (exception instanceof UnmarshalException) {
+            result = new UnmarshallingFailureException(
+                    "JAXB unmarshalling exception", exception);
+        } else {
+            result = new UncategorizedMappingException(
+                    "Unknown JAXB exception", exception);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a source which won't process DTDs or external entities.
+     * <p>
+     * Only streams are parsed by JAXB, the rest of sources are returned
+     * unchanged.
+     *
+     * @param source
+     *            source to protect
+     * @return a source which won't process DTDs or external entities
+     */
+    private final Source toSecureSource(final Source source) {
+        final SAXParserFactory factory; // Factory for the XML reader
+        final XMLReader reader;         // Reader not processing DTDs
+        final Source result;            // Source to unmarshal
+
+        if (source instanceof StreamSource) {
+            factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            try {
+                factory.setFeature(DISALLOW_DTD, true);
+                reader = factory.newSAXParser().getXMLReader();
+            } catch (final SAXException | ParserConfigurationException e) {
+                throw new UnmarshallingFailureException(
+                        "Could not create a secure XML reader", e);
+            }
+
+            result = new SAXSource(reader,
+                    SAXSource.sourceToInputSource(source));
+        } else {
+            result = source;
+        }
+
+        return result;
+    }
+
+}
@@ -24,7 +24,12 @@
 
 package com.bernardomg.example.swss.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.bernardomg.example.swss.model.DefaultExampleEntity;
 
@@ -39,4 +44,47 @@
 public interface ExampleEntityRepository
         extends JpaRepository<DefaultExampleEntity, Integer> {
 
+    /**
+     * Returns all the entities with any of the received ids.
+     * <p>
+     * This is resolved with a single query, using an {@code IN} clause over the
+     * ids.
+     *
+     * @param identifiers
+     *            ids of the entities to find
+     * @return all the entities with any of the ids
+     */
+    public List<DefaultExampleEntity>
+            findAllByIdIn(final Collection<Integer> identifiers);
+
+    /**
+     * Returns the ids of all the entities.
+     * <p>
+     * Only the ids are read, so no entity is created.
+     *
+     * @return the ids of all the entities
+     */
+    @Query("SELECT e.id FROM ExampleEntity e")
+    public List<Integer> findAllIds();
+
+    /**
+     * Returns a slice of the entities with an id greater than the received
+     * one.
+     * <p>
+     * This allows keyset pagination, where the last id read is used as the
+     * starting point for the next slice. Unlike offset pagination the database
+     * does not need to skip over the rows already read, so the cost of each
+     * query does not grow as the reader advances.
+     * <p>
+     * The received page should be sorted by id, and be always the first one.
+     *
+     * @param identifier
+     *            id after which the entities will be returned
+     * @param page
+     *            size and ordering of the slice
+     * @return the entities after the received id
+     */
+    public List<DefaultExampleEntity> findAllByIdGreaterThan(
+            final Integer identifier, final Pageable page);
+
 }
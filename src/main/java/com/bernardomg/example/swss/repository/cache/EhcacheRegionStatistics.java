@@ -0,0 +1,242 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+
+/**
+ * Exposes the usage statistics of an Ehcache region through JMX.
+ * <p>
+ * The region is looked for in the cache manager on each call, as Hibernate
+ * creates its regions when the persistence unit is built. Until then all the
+ * statistics will be zero.
+ * <p>
+ * For a cached entity, each miss is a query to the database, so the miss
+ * count shows how many requests still reach it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Statistics for a second-level cache region")
+public final class EhcacheRegionStatistics {
+
+    /**
+     * Cache manager containing the region.
+     */
+    private final CacheManager cacheManager;
+
+    /**
+     * Name of the region.
+     */
+    private final String       region;
+
+    /**
+     * Constructs statistics for the specified region.
+     *
+     * @param manager
+     *            cache manager containing the region
+     * @param regionName
+     *            name of the region
+     */
+    public EhcacheRegionStatistics(final CacheManager manager,
+            final String regionName) {
+        super();
+
+        cacheManager = checkNotNull(manager,
+                "Received a null pointer as cache manager");
+        region = checkNotNull(regionName,
+                "Received a null pointer as region");
+    }
+
+    /**
+     * Removes all the entries from the region.
+     */
+    @ManagedOperation(description = "Removes all the entries from the region")
+    public final void clear() {
+        final Ehcache cache; // Cache region
+
+        cache = getCache();
+        if (cache != null) {
+            cache.removeAll();
+        }
+    }
+
+    /**
+     * Returns the number of entries removed to make room for new ones.
+     *
+     * @return the number of evicted entries
+     */
+    @ManagedAttribute(description = "Number of entries evicted by size")
+    public final Long getEvictionCount() {
+        final Ehcache cache; // Cache region
+        final Long count;    // Returned count
+
+        cache = getCache();
+        if (cache == null) {
+            count = 0L;
+        } else {
+            count = cache.getStatistics().cacheEvictedCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of entries removed because they expired.
+     *
+     * @return the number of expired entries
+     */
+    @ManagedAttribute(description = "Number of entries which expired")
+    public final Long getExpirationCount() {
+        final Ehcache cache; // Cache region
+        final Long count;    // Returned count
+
+        cache = getCache();
+        if (cache == null) {
+            count = 0L;
+        } else {
+            count = cache.getStatistics().cacheExpiredCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of times an entry was found in the region.
+     *
+     * @return the number of cache hits
+     */
+    @ManagedAttribute(description = "Number of times an entry was found")
+    public final Long getHitCount() {
+        final Ehcache cache; // Cache region
+        final Long count;    // Returned count
+
+        cache = getCache();
+        if (cache == null) {
+            count = 0L;
+        } else {
+            count = cache.getStatistics().cacheHitCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the ratio of requests which found an entry in the region.
+     *
+     * @return the cache hit ratio
+     */
+    @ManagedAttribute(description = "Ratio of requests which found an entry")
+    public final Double getHitRate() {
+        final Ehcache cache; // Cache region
+        final Double rate;   // Returned rate
+
+        cache = getCache();
+        if (cache == null) {
+            rate = 0d;
+        } else {
+            rate = cache.getStatistics().cacheHitRatio();
+        }
+
+        return rate;
+    }
+
+    /**
+     * Returns the number of times an entry was not found in the region.
+     *
+     * @return the number of cache misses
+     */
+    @ManagedAttribute(description = "Number of times an entry was not found")
+    public final Long getMissCount() {
+        final Ehcache cache; // Cache region
+        final Long count;    // Returned count
+
+        cache = getCache();
+        if (cache == null) {
+            count = 0L;
+        } else {
+            count = cache.getStatistics().cacheMissCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of entries stored in the region.
+     *
+     * @return the number of stored entries
+     */
+    @ManagedAttribute(description = "Number of entries stored")
+    public final Long getPutCount() {
+        final Ehcache cache; // Cache region
+        final Long count;    // Returned count
+
+        cache = getCache();
+        if (cache == null) {
+            count = 0L;
+        } else {
+            count = cache.getStatistics().cachePutCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of entries currently in the region.
+     *
+     * @return the size of the region
+     */
+    @ManagedAttribute(description = "Number of entries in the region")
+    public final Long getSize() {
+        final Ehcache cache; // Cache region
+        final Long size;     // Returned size
+
+        cache = getCache();
+        if (cache == null) {
+            size = 0L;
+        } else {
+            size = (long) cache.getSize();
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the cache for the region, or {@code null} if it doesn't exist
+     * yet.
+     *
+     * @return the cache for the region
+     */
+    private final Ehcache getCache() {
+        return cacheManager.getEhcache(region);
+    }
+
+}
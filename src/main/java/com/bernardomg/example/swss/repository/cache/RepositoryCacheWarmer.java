@@ -0,0 +1,142 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.bernardomg.example.swss.model.DefaultExampleEntity;
+import com.bernardomg.example.swss.repository.ExampleEntityRepository;
+
+/**
+ * Loads the example entities into the second-level cache once the application
+ * starts.
+ * <p>
+ * The entities with the lowest ids, which are the ones handed to the clients,
+ * are read in chunks, using keyset pagination. As the entity is cacheable,
+ * Hibernate stores each of them in its cache region, and so the first queries
+ * for them won't reach the database.
+ * <p>
+ * The database should be ready before this bean is initialized, which means
+ * it should depend on the bean which populates it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class RepositoryCacheWarmer implements InitializingBean {
+
+    /**
+     * The logger used for logging the cache warm-up.
+     */
+    private static final Logger           LOGGER = LoggerFactory
+            .getLogger(RepositoryCacheWarmer.class);
+
+    /**
+     * Number of entities read on each query.
+     */
+    private final Integer                 chunkSize;
+
+    /**
+     * Repository for the entities to load.
+     */
+    private final ExampleEntityRepository entityRepository;
+
+    /**
+     * Number of entities to load.
+     */
+    private final Integer                 size;
+
+    /**
+     * Constructs a warmer loading the specified number of entities.
+     *
+     * @param repository
+     *            repository for the entities to load
+     * @param count
+     *            number of entities to load
+     * @param chunk
+     *            number of entities read on each query
+     */
+    public RepositoryCacheWarmer(final ExampleEntityRepository repository,
+            final Integer count, final Integer chunk) {
+        super();
+
+        entityRepository = checkNotNull(repository,
+                "Received a null pointer as repository");
+        size = checkNotNull(count, "Received a null pointer as size");
+        chunkSize = checkNotNull(chunk, "Received a null pointer as chunk");
+
+        checkArgument(count >= 0, "The size can't be negative");
+        checkArgument(chunk > 0, "The chunk size should be positive");
+    }
+
+    @Override
+    public final void afterPropertiesSet() {
+        final Long start;                    // Warm-up start time
+        List<DefaultExampleEntity> entities; // Entities read
+        Integer lastId;                      // Last id read
+        Integer loaded;                      // Number of entities read
+        Integer requested;                   // Entities asked for
+        Boolean finished;                    // Flag to stop reading
+
+        start = System.currentTimeMillis();
+
+        lastId = 0;
+        loaded = 0;
+        finished = size == 0;
+        while (!finished) {
+            requested = Math.min(chunkSize, size - loaded);
+            entities = getExampleEntityRepository().findAllByIdGreaterThan(
+                    lastId, new PageRequest(0, requested, Direction.ASC, "id"));
+            loaded += entities.size();
+
+            if (!entities.isEmpty()) {
+                lastId = entities.get(entities.size() - 1).getId();
+            }
+
+            // Stops when there are no more entities, or enough were read
+            finished = (entities.size() < requested) || (loaded >= size);
+        }
+
+        LOGGER.info("Loaded {} entities into the cache in {} ms", loaded,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Returns the repository for the entities to load.
+     *
+     * @return the repository for the entities to load
+     */
+    private final ExampleEntityRepository getExampleEntityRepository() {
+        return entityRepository;
+    }
+
+}
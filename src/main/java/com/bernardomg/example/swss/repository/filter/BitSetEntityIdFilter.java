@@ -0,0 +1,227 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.filter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.bernardomg.example.swss.repository.ExampleEntityRepository;
+
+/**
+ * Entity id filter storing the ids in a bitmap.
+ * <p>
+ * The ids are generated by the database in sequence, so they are dense and a
+ * bitmap stores them in a fraction of the space a set would take, while giving
+ * exact answers. Each id takes a single bit, and a million of them fit into
+ * about 122 KB.
+ * <p>
+ * The ids are read from the repository when the bean is initialized. After
+ * that they should be kept updated by adding and removing them as the entities
+ * change. Ids written to the database directly, without going through JPA,
+ * can be loaded by reloading the filter through JMX.
+ * <p>
+ * Reading the ids is protected by a read lock, so lookups don't block each
+ * other, while changes take the write lock.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Filter for the ids of the existing entities")
+public final class BitSetEntityIdFilter
+        implements EntityIdFilter, InitializingBean {
+
+    /**
+     * The logger used for logging the filter.
+     */
+    private static final Logger           LOGGER = LoggerFactory
+            .getLogger(BitSetEntityIdFilter.class);
+
+    /**
+     * Repository for the entities whose ids are filtered.
+     */
+    private final ExampleEntityRepository entityRepository;
+
+    /**
+     * Bitmap with the existing ids.
+     */
+    private final BitSet                  ids;
+
+    /**
+     * Lock for the bitmap.
+     */
+    private final ReadWriteLock           lock;
+
+    /**
+     * Number of ids rejected by the filter.
+     */
+    private final AtomicLong              rejected;
+
+    /**
+     * Constructs a filter for the ids in the specified repository.
+     *
+     * @param repository
+     *            repository for the entities whose ids are filtered
+     */
+    public BitSetEntityIdFilter(final ExampleEntityRepository repository) {
+        super();
+
+        entityRepository = checkNotNull(repository,
+                "Received a null pointer as repository");
+
+        ids = new BitSet();
+        lock = new ReentrantReadWriteLock();
+        rejected = new AtomicLong();
+    }
+
+    @Override
+    public final void add(final Integer identifier) {
+        checkNotNull(identifier, "Received a null pointer as identifier");
+        checkArgument(identifier >= 0, "The identifier can't be negative");
+
+        lock.writeLock().lock();
+        try {
+            ids.set(identifier);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public final void afterPropertiesSet() {
+        reload();
+    }
+
+    /**
+     * Returns the number of lookups rejected by the filter.
+     *
+     * @return the number of rejected lookups
+     */
+    @ManagedAttribute(description = "Number of lookups rejected")
+    public final Long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Returns the number of ids in the filter.
+     *
+     * @return the number of ids
+     */
+    @ManagedAttribute(description = "Number of ids in the filter")
+    public final Integer getSize() {
+        lock.readLock().lock();
+        try {
+            return ids.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public final Boolean mightContain(final Integer identifier) {
+        final Boolean found; // Flag telling if the id was found
+
+        checkNotNull(identifier, "Received a null pointer as identifier");
+
+        if (identifier < 0) {
+            found = false;
+        } else {
+            lock.readLock().lock();
+            try {
+                found = ids.get(identifier);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        if (!found) {
+            rejected.incrementAndGet();
+        }
+
+        return found;
+    }
+
+    /**
+     * Reads all the ids from the repository, and adds them to the filter.
+     * <p>
+     * The ids already in the filter are kept, so those added while reading are
+     * not lost. Any of them which no longer exists will just cause a query
+     * which finds nothing.
+     */
+    @ManagedOperation(description = "Reads the ids from the repository")
+    public final void reload() {
+        final BitSet read; // Ids read from the repository
+
+        read = new BitSet();
+        for (final Integer identifier : getExampleEntityRepository()
+                .findAllIds()) {
+            read.set(identifier);
+        }
+
+        lock.writeLock().lock();
+        try {
+            ids.or(read);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LOGGER.info("Loaded {} entity ids into the filter",
+                read.cardinality());
+    }
+
+    @Override
+    public final void remove(final Integer identifier) {
+        checkNotNull(identifier, "Received a null pointer as identifier");
+
+        if (identifier >= 0) {
+            lock.writeLock().lock();
+            try {
+                ids.clear(identifier);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the repository for the entities whose ids are filtered.
+     *
+     * @return the repository for the entities
+     */
+    private final ExampleEntityRepository getExampleEntityRepository() {
+        return entityRepository;
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.filter;
+
+/**
+ * Filter telling which entity ids may exist.
+ * <p>
+ * It is meant to be checked before querying the persistence layer, so the
+ * lookups for ids which don't exist are answered without it.
+ * <p>
+ * False positives are allowed, and will just cause a query which finds
+ * nothing. But false negatives are not, as they would hide existing entities.
+ * Because of this ids should be added before they are visible to other
+ * transactions, and removed only after they stop being so.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface EntityIdFilter {
+
+    /**
+     * Adds an id to the filter.
+     *
+     * @param identifier
+     *            id to add
+     */
+    public void add(final Integer identifier);
+
+    /**
+     * Indicates if an entity with the specified id may exist.
+     *
+     * @param identifier
+     *            id to check
+     * @return {@code true} if the entity may exist, {@code false} if it
+     *         surely doesn't
+     */
+    public Boolean mightContain(final Integer identifier);
+
+    /**
+     * Removes an id from the filter.
+     *
+     * @param identifier
+     *            id to remove
+     */
+    public void remove(final Integer identifier);
+
+}
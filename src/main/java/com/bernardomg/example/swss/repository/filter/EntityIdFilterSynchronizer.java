@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.filter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Keeps an entity id filter updated with the entities persisted and removed
+ * through Hibernate.
+ * <p>
+ * It registers itself as an event listener in the session factory behind the
+ * received entity manager factory. To avoid false negatives in the filter ids
+ * are added as soon as the entity is inserted, before the transaction is
+ * committed, while they are removed only once the deletion is committed.
+ * <p>
+ * Only the entities of the specified class are taken into account.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class EntityIdFilterSynchronizer
+        implements PostInsertEventListener, PostCommitDeleteEventListener,
+        InitializingBean {
+
+    /**
+     * Serialization ID.
+     */
+    private static final long                    serialVersionUID = -1409316934264213561L;
+
+    /**
+     * Class of the entities whose ids are filtered.
+     */
+    private final Class<?>                       entityClass;
+
+    /**
+     * Entity manager factory to listen to.
+     */
+    private final transient EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Filter to update.
+     */
+    private final transient EntityIdFilter       idFilter;
+
+    /**
+     * Constructs a synchronizer for the specified filter.
+     *
+     * @param factory
+     *            entity manager factory to listen to
+     * @param filter
+     *            filter to update
+     * @param entity
+     *            class of the entities whose ids are filtered
+     */
+    public EntityIdFilterSynchronizer(final EntityManagerFactory factory,
+            final EntityIdFilter filter, final Class<?> entity) {
+        super();
+
+        entityManagerFactory = checkNotNull(factory,
+                "Received a null pointer as entity manager factory");
+        idFilter = checkNotNull(filter, "Received a null pointer as filter");
+        entityClass = checkNotNull(entity,
+                "Received a null pointer as entity class");
+    }
+
+    @Override
+    public final void afterPropertiesSet() {
+        final EventListenerRegistry registry; // Hibernate listeners
+
+        registry = ((SessionFactoryImplementor) entityManagerFactory
+                .unwrap(SessionFactory.class)).getServiceRegistry()
+                        .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public final void onPostDelete(final PostDeleteEvent event) {
+        if (entityClass.isInstance(event.getEntity())) {
+            idFilter.remove((Integer) event.getId());
+        }
+    }
+
+    @Override
+    public final void onPostDeleteCommitFailed(final PostDeleteEvent event) {
+        // The entity still exists, so its id is kept
+    }
+
+    @Override
+    public final void onPostInsert(final PostInsertEvent event) {
+        if (entityClass.isInstance(event.getEntity())) {
+            idFilter.add((Integer) event.getId());
+        }
+    }
+
+    @Override
+    public final boolean requiresPostCommitHanding(
+            final EntityPersister persister) {
+        return entityClass.isAssignableFrom(persister.getMappedClass());
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.routing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replica balancer choosing the replica with the fewest connections in use.
+ * <p>
+ * Ties are broken by starting the search at a different replica each time, so
+ * idle replicas share the load instead of it going always to the first one.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class LeastBusyReplicaBalancer implements ReplicaBalancer {
+
+    /**
+     * Number of choices made, used to rotate the first replica checked.
+     */
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Default constructor.
+     */
+    public LeastBusyReplicaBalancer() {
+        super();
+    }
+
+    @Override
+    public final Integer choose(final List<? extends Number> active) {
+        final int size;  // Number of replicas
+        final int start; // First replica checked
+        int chosen;      // Chosen replica
+        int index;       // Replica being checked
+
+        checkNotNull(active, "Received a null pointer as active connections");
+
+        size = active.size();
+        start = (counter.getAndIncrement() & Integer.MAX_VALUE) % size;
+
+        chosen = start;
+        for (int i = 1; i < size; i++) {
+            index = (start + i) % size;
+            if (active.get(index).intValue() < active.get(chosen)
+                    .intValue()) {
+                chosen = index;
+            }
+        }
+
+        return chosen;
+    }
+
+}
@@ -0,0 +1,49 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.routing;
+
+import java.util.List;
+
+/**
+ * Chooses the replica which will receive a connection request.
+ * <p>
+ * It receives the number of connections each replica has in use, in the same
+ * order as the replicas, so it can take their load into account.
+ * Implementations should be thread safe, as they are called concurrently.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface ReplicaBalancer {
+
+    /**
+     * Returns the index of the replica to use.
+     *
+     * @param active
+     *            connections in use for each replica, never empty
+     * @return the index of the chosen replica
+     */
+    public Integer choose(final List<? extends Number> active);
+
+}
@@ -0,0 +1,395 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.routing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the read-only transactions to a set of replicas, and
+ * everything else to the primary database.
+ * <p>
+ * The transaction is read-only when it was started as such, for example with
+ * {@code @Transactional(readOnly = true)}. Any connection requested outside a
+ * read-only transaction goes to the primary database. If there are no
+ * replicas the primary database receives all the connections.
+ * <p>
+ * The transaction managers usually ask for the connection before the
+ * read-only flag is set for the current thread, so this should be wrapped by
+ * a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+ * LazyConnectionDataSourceProxy}, which delays taking the connection until the
+ * first statement.
+ * <p>
+ * The connections in use and the total acquired are tracked for each data
+ * source, and exposed through JMX. These are also what the balancer receives
+ * to choose the replica.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Data source routing reads to replicas")
+public final class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    /**
+     * Handler for the returned connections, which keeps track of the
+     * connections in use.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class TrackedConnectionHandler
+            implements InvocationHandler {
+
+        /**
+         * Connections in use for the data source.
+         */
+        private final AtomicInteger active;
+
+        /**
+         * Flag telling if the connection was closed.
+         */
+        private final AtomicBoolean closed;
+
+        /**
+         * Connection being tracked.
+         */
+        private final Connection    target;
+
+        /**
+         * Constructs a handler for the specified connection.
+         *
+         * @param connection
+         *            connection being tracked
+         * @param counter
+         *            connections in use for the data source
+         */
+        public TrackedConnectionHandler(final Connection connection,
+                final AtomicInteger counter) {
+            super();
+
+            target = connection;
+            active = counter;
+            closed = new AtomicBoolean(false);
+        }
+
+        @Override
+        public final Object invoke(final Object proxy, final Method method,
+                final Object[] args) throws Throwable {
+            if (("close".equals(method.getName()))
+                    && (closed.compareAndSet(false, true))) {
+                active.decrementAndGet();
+            }
+
+            try {
+                return method.invoke(target, args);
+            } catch (final InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+    }
+
+    /**
+     * Data source taking all the connections from the replicas.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private final class ReplicaView extends AbstractDataSource {
+
+        /**
+         * Default constructor.
+         */
+        public ReplicaView() {
+            super();
+        }
+
+        @Override
+        public final Connection getConnection() throws SQLException {
+            return connect(!replicaDataSources.isEmpty(), null, null);
+        }
+
+        @Override
+        public final Connection getConnection(final String username,
+                final String password) throws SQLException {
+            return connect(!replicaDataSources.isEmpty(), username,
+                    password);
+        }
+
+    }
+
+    /**
+     * Balancer choosing the replica for each connection.
+     */
+    private final ReplicaBalancer     balancer;
+
+    /**
+     * Total connections acquired from the primary database.
+     */
+    private final AtomicLong          primaryAcquired;
+
+    /**
+     * Connections in use from the primary database.
+     */
+    private final AtomicInteger       primaryActive;
+
+    /**
+     * Primary database.
+     */
+    private final DataSource          primaryDataSource;
+
+    /**
+     * Total connections acquired from each replica.
+     */
+    private final List<AtomicLong>    replicaAcquired;
+
+    /**
+     * Connections in use from each replica.
+     */
+    private final List<AtomicInteger> replicaActive;
+
+    /**
+     * Read-only view of the connections in use from each replica, for the
+     * balancer.
+     */
+    private final List<AtomicInteger> replicaLoad;
+
+    /**
+     * Replicas of the primary database.
+     */
+    private final List<DataSource>    replicaDataSources;
+
+    /**
+     * Data source taking all the connections from the replicas.
+     */
+    private final DataSource          replicaView;
+
+    /**
+     * Constructs a routing data source with the specified databases.
+     *
+     * @param primary
+     *            primary database, receiving all the writes
+     * @param replicas
+     *            replicas of the primary database, receiving the read-only
+     *            transactions
+     * @param replicaBalancer
+     *            balancer choosing the replica for each connection
+     */
+    public ReplicaRoutingDataSource(final DataSource primary,
+            final List<DataSource> replicas,
+            final ReplicaBalancer replicaBalancer) {
+        super();
+
+        primaryDataSource = checkNotNull(primary,
+                "Received a null pointer as primary data source");
+        replicaDataSources = new ArrayList<>(checkNotNull(replicas,
+                "Received a null pointer as replica data sources"));
+        balancer = checkNotNull(replicaBalancer,
+                "Received a null pointer as balancer");
+
+        primaryActive = new AtomicInteger();
+        primaryAcquired = new AtomicLong();
+
+        replicaActive = new ArrayList<>();
+        replicaAcquired = new ArrayList<>();
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            replicaActive.add(new AtomicInteger());
+            replicaAcquired.add(new AtomicLong());
+        }
+        replicaLoad = Collections.unmodifiableList(replicaActive);
+
+        replicaView = new ReplicaView();
+    }
+
+    @Override
+    public final Connection getConnection() throws SQLException {
+        return connect(isReplicaRequired(), null, null);
+    }
+
+    @Override
+    public final Connection getConnection(final String username,
+            final String password) throws SQLException {
+        return connect(isReplicaRequired(), username, password);
+    }
+
+    /**
+     * Returns the total connections acquired from the primary database.
+     *
+     * @return the connections acquired from the primary database
+     */
+    @ManagedAttribute(description = "Connections acquired from the primary")
+    public final Long getPrimaryAcquiredConnections() {
+        return primaryAcquired.get();
+    }
+
+    /**
+     * Returns the connections in use from the primary database.
+     *
+     * @return the connections in use from the primary database
+     */
+    @ManagedAttribute(description = "Connections in use from the primary")
+    public final Integer getPrimaryActiveConnections() {
+        return primaryActive.get();
+    }
+
+    /**
+     * Returns the total connections acquired from each replica.
+     *
+     * @return the connections acquired from each replica
+     */
+    @ManagedAttribute(description = "Connections acquired from each replica")
+    public final long[] getReplicaAcquiredConnections() {
+        final long[] acquired; // Connections for each replica
+
+        acquired = new long[replicaAcquired.size()];
+        for (int i = 0; i < acquired.length; i++) {
+            acquired[i] = replicaAcquired.get(i).get();
+        }
+
+        return acquired;
+    }
+
+    /**
+     * Returns the connections in use from each replica.
+     *
+     * @return the connections in use from each replica
+     */
+    @ManagedAttribute(description = "Connections in use from each replica")
+    public final int[] getReplicaActiveConnections() {
+        final int[] active; // Connections for each replica
+
+        active = new int[replicaActive.size()];
+        for (int i = 0; i < active.length; i++) {
+            active[i] = replicaActive.get(i).get();
+        }
+
+        return active;
+    }
+
+    /**
+     * Returns a data source which always takes the connections from the
+     * replicas, even outside read-only transactions.
+     * <p>
+     * This is meant for the code which only reads, and doesn't use
+     * transactions, such as plain JDBC queries. Its connections are balanced
+     * and tracked along the rest.
+     *
+     * @return a data source for the replicas
+     */
+    public final DataSource getReplicaDataSource() {
+        return replicaView;
+    }
+
+    /**
+     * Returns a connection from the primary database or from a replica.
+     *
+     * @param replicaRequired
+     *            flag telling if the connection should come from a replica
+     * @param username
+     *            user for the connection, or {@code null} for the default one
+     * @param password
+     *            password for the connection
+     * @return a connection to the chosen database
+     * @throws SQLException
+     *             if the connection can't be acquired
+     */
+    private final Connection connect(final Boolean replicaRequired,
+            final String username, final String password)
+            throws SQLException {
+        final DataSource target;     // Chosen data source
+        final AtomicLong acquired;   // Connections acquired
+        final AtomicInteger active;  // Connections in use
+        final Connection connection; // Acquired connection
+        final Integer replica;       // Chosen replica
+
+        if (replicaRequired) {
+            replica = balancer.choose(replicaLoad);
+            target = replicaDataSources.get(replica);
+            acquired = replicaAcquired.get(replica);
+            active = replicaActive.get(replica);
+        } else {
+            target = primaryDataSource;
+            acquired = primaryAcquired;
+            active = primaryActive;
+        }
+
+        if (username == null) {
+            connection = target.getConnection();
+        } else {
+            connection = target.getConnection(username, password);
+        }
+        acquired.incrementAndGet();
+
+        return track(connection, active);
+    }
+
+    /**
+     * Indicates if the connection should be taken from a replica.
+     *
+     * @return {@code true} if there are replicas and the current transaction
+     *         is read-only, {@code false} otherwise
+     */
+    private final Boolean isReplicaRequired() {
+        return (!replicaDataSources.isEmpty())
+                && TransactionSynchronizationManager
+                        .isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Wraps the connection so closing it is tracked.
+     *
+     * @param connection
+     *            connection to track
+     * @param active
+     *            connections in use for its data source
+     * @return the tracked connection
+     */
+    private final Connection track(final Connection connection,
+            final AtomicInteger active) {
+        active.incrementAndGet();
+
+        return (Connection) Proxy.newProxyInstance(
+                ReplicaRoutingDataSource.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new TrackedConnectionHandler(connection, active));
+    }
+
+}
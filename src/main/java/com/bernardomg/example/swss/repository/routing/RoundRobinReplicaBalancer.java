@@ -0,0 +1,63 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.routing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replica balancer taking each replica in turn.
+ * <p>
+ * The load of the replicas is ignored, so this works best when all of them
+ * are equally powerful and the queries take about the same time.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class RoundRobinReplicaBalancer implements ReplicaBalancer {
+
+    /**
+     * Number of choices made.
+     */
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Default constructor.
+     */
+    public RoundRobinReplicaBalancer() {
+        super();
+    }
+
+    @Override
+    public final Integer choose(final List<? extends Number> active) {
+        checkNotNull(active, "Received a null pointer as active connections");
+
+        // The sign bit is dropped, in case the counter overflows
+        return (counter.getAndIncrement() & Integer.MAX_VALUE)
+                % active.size();
+    }
+
+}
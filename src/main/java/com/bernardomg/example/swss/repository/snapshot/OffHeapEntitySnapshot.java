@@ -0,0 +1,543 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.repository.snapshot;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Snapshot of the example entities, stored outside of the heap.
+ * <p>
+ * The entity ids are dense, so they are used directly as positions in an
+ * index of {@code int} values, each one pointing to the entity name inside a
+ * data buffer. Names are stored as their UTF-8 bytes, preceded by their
+ * length. Both buffers are direct, so the whole snapshot consists of a handful
+ * of objects, and the garbage collector doesn't need to trace the rows, no
+ * matter how many of them there are. Ids are handled as primitives, and only
+ * the returned names are allocated.
+ * <p>
+ * The snapshot is read completely when the bean is initialized. After that it
+ * is refreshed incrementally, reading only the rows with an id greater than
+ * the highest one already stored. As this won't notice changes to existing
+ * rows, every some refreshes the snapshot is read again completely.
+ * <p>
+ * There is a single writer, and the readers never lock. The incremental
+ * refreshes only write positions after the highest id, which is published
+ * through a volatile field once they are written, and readers ignore any id
+ * above it. When the buffers need to grow, or the snapshot is read again, a
+ * new set of buffers is filled and then replaces the current one at once.
+ * <p>
+ * The index takes four bytes for each id up to the highest one, so a table
+ * with ten million rows takes about 40 MB for it, plus the names.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Off-heap snapshot of the example entities")
+public final class OffHeapEntitySnapshot
+        implements InitializingBean, DisposableBean {
+
+    /**
+     * Buffers for a snapshot.
+     * <p>
+     * Only the writer changes them, and only above the published highest id.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class Segment {
+
+        /**
+         * Number of entities stored.
+         */
+        private volatile int     count;
+
+        /**
+         * Names of the entities, preceded by their length.
+         */
+        private final ByteBuffer data;
+
+        /**
+         * Position after the last name written.
+         */
+        private int              dataEnd;
+
+        /**
+         * Position of the name for each id, plus one. Zero means there is no
+         * entity.
+         */
+        private final IntBuffer  index;
+
+        /**
+         * Highest id visible to the readers.
+         */
+        private volatile int     maxId;
+
+        /**
+         * Constructs a segment with the specified capacities.
+         *
+         * @param ids
+         *            number of ids which can be stored
+         * @param bytes
+         *            bytes available for the names
+         */
+        public Segment(final int ids, final int bytes) {
+            super();
+
+            index = ByteBuffer.allocateDirect(ids * INDEX_ENTRY_BYTES)
+                    .asIntBuffer();
+            data = ByteBuffer.allocateDirect(bytes);
+            dataEnd = 0;
+            maxId = -1;
+            count = 0;
+        }
+
+    }
+
+    /**
+     * Bytes taken by each position in the index.
+     */
+    private static final int         INDEX_ENTRY_BYTES  = Integer.SIZE
+            / Byte.SIZE;
+
+    /**
+     * Initial bytes for the names.
+     */
+    private static final int         INITIAL_DATA_BYTES = 64 * 1024;
+
+    /**
+     * Initial number of ids.
+     */
+    private static final int         INITIAL_IDS        = 1024;
+
+    /**
+     * The logger used for logging the snapshot.
+     */
+    private static final Logger      LOGGER             = LoggerFactory
+            .getLogger(OffHeapEntitySnapshot.class);
+
+    /**
+     * Highest number of ids which can be indexed.
+     */
+    private static final int         MAX_IDS            = Integer.MAX_VALUE
+            / INDEX_ENTRY_BYTES;
+
+    /**
+     * Query for the entities after an id.
+     */
+    private static final String      QUERY              = "SELECT id, name FROM example_entities WHERE id > ? ORDER BY id";
+
+    /**
+     * Executor running the refreshes.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Template for the queries.
+     */
+    private final JdbcTemplate       jdbcTemplate;
+
+    /**
+     * Number of refreshes after which the snapshot is read completely.
+     */
+    private final Integer            rebuildEvery;
+
+    /**
+     * Seconds between refreshes.
+     */
+    private final Long               refreshInterval;
+
+    /**
+     * Number of refreshes run.
+     */
+    private final AtomicLong         refreshes;
+
+    /**
+     * Current snapshot.
+     */
+    private volatile Segment         segment;
+
+    /**
+     * Constructs a snapshot reading the entities from the specified data
+     * source.
+     *
+     * @param dataSource
+     *            data source with the entities
+     * @param interval
+     *            seconds between refreshes, zero to never refresh
+     * @param rebuild
+     *            number of refreshes after which the snapshot is read
+     *            completely
+     */
+    public OffHeapEntitySnapshot(final DataSource dataSource,
+            final Long interval, final Integer rebuild) {
+        super();
+
+        checkNotNull(dataSource, "Received a null pointer as data source");
+        refreshInterval = checkNotNull(interval,
+                "Received a null pointer as interval");
+        rebuildEvery = checkNotNull(rebuild,
+                "Received a null pointer as rebuild count");
+
+        checkArgument(interval >= 0, "The interval can't be negative");
+        checkArgument(rebuild > 0, "The rebuild count should be positive");
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(1000);
+
+        refreshes = new AtomicLong();
+        segment = new Segment(INITIAL_IDS, INITIAL_DATA_BYTES);
+    }
+
+    @Override
+    public final void afterPropertiesSet() {
+        rebuild();
+
+        if (refreshInterval > 0) {
+            executor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setDaemon(true)
+                            .setNameFormat("entity-snapshot-%d").build());
+            executor.scheduleWithFixedDelay(new Runnable() {
+
+                @Override
+                public final void run() {
+                    try {
+                        if (((refreshes.get() + 1) % rebuildEvery) == 0) {
+                            rebuild();
+                        } else {
+                            refresh();
+                        }
+                    } catch (final RuntimeException e) {
+                        LOGGER.warn("Failed refreshing the entity snapshot",
+                                e);
+                    }
+                }
+
+            }, refreshInterval, refreshInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public final void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the bytes taken by the names.
+     *
+     * @return the bytes taken by the names
+     */
+    @ManagedAttribute(description = "Bytes taken by the names")
+    public final Integer getDataBytes() {
+        return segment.data.capacity();
+    }
+
+    /**
+     * Returns the bytes taken by the index.
+     *
+     * @return the bytes taken by the index
+     */
+    @ManagedAttribute(description = "Bytes taken by the index")
+    public final Integer getIndexBytes() {
+        return segment.index.capacity() * INDEX_ENTRY_BYTES;
+    }
+
+    /**
+     * Returns the highest id stored.
+     *
+     * @return the highest id, or -1 if the snapshot is empty
+     */
+    @ManagedAttribute(description = "Highest id stored")
+    public final Integer getMaxId() {
+        return segment.maxId;
+    }
+
+    /**
+     * Returns the name of the entity with the specified id.
+     *
+     * @param identifier
+     *            id of the entity
+     * @return the name of the entity, or {@code null} if it doesn't exist
+     */
+    public final String getName(final int identifier) {
+        final Segment current; // Snapshot to read
+        final byte[] bytes;    // Name bytes
+        final int position;    // Position of the name
+        final String name;     // Returned name
+
+        current = segment;
+        if ((identifier < 0) || (identifier > current.maxId)) {
+            name = null;
+        } else {
+            position = current.index.get(identifier) - 1;
+            if (position < 0) {
+                name = null;
+            } else {
+                bytes = new byte[current.data.getShort(position) & 0xFFFF];
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = current.data.get(position + 2 + i);
+                }
+                name = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+
+        return name;
+    }
+
+    /**
+     * Returns the number of refreshes run.
+     *
+     * @return the number of refreshes
+     */
+    @ManagedAttribute(description = "Number of refreshes run")
+    public final Long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    /**
+     * Returns the number of entities stored.
+     *
+     * @return the number of entities
+     */
+    @ManagedAttribute(description = "Number of entities stored")
+    public final Integer getSize() {
+        return segment.count;
+    }
+
+    /**
+     * Returns the lowest id greater than the specified one which belongs to
+     * an entity.
+     *
+     * @param identifier
+     *            id after which the search starts
+     * @return the next id, or -1 if there are no more entities
+     */
+    public final int nextId(final int identifier) {
+        final Segment current; // Snapshot to read
+        final int max;         // Highest id to check
+        int next;              // Returned id
+
+        current = segment;
+        max = current.maxId;
+        next = -1;
+        for (int i = Math.max(identifier + 1, 0); (next < 0)
+                && (i <= max); i++) {
+            if (current.index.get(i) > 0) {
+                next = i;
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * Reads all the entities again, replacing the current snapshot.
+     * <p>
+     * This takes into account changes to existing rows, and deleted ones.
+     */
+    @ManagedOperation(description = "Reads all the entities again")
+    public final synchronized void rebuild() {
+        final Segment current; // Snapshot being replaced
+        final Segment built;   // New snapshot
+
+        current = segment;
+        built = load(new Segment(current.index.capacity(),
+                current.data.capacity()), -1);
+
+        segment = built;
+        refreshes.incrementAndGet();
+
+        LOGGER.info("Loaded {} entities into the snapshot", built.count);
+    }
+
+    /**
+     * Reads the entities added since the last refresh.
+     */
+    @ManagedOperation(description = "Reads the entities added")
+    public final synchronized void refresh() {
+        final Segment current; // Current snapshot
+        final Segment updated; // Snapshot with the new entities
+
+        current = segment;
+        updated = load(current, current.maxId);
+
+        if (updated != current) {
+            // The buffers grew
+            segment = updated;
+        }
+        refreshes.incrementAndGet();
+
+        LOGGER.debug("Snapshot refreshed up to id {}", updated.maxId);
+    }
+
+    /**
+     * Returns a segment with capacity for the specified id and name, copying
+     * the received one if it is too small.
+     *
+     * @param source
+     *            segment to check
+     * @param identifier
+     *            id to store
+     * @param bytes
+     *            bytes of the name to store
+     * @return a segment able to store the entity
+     */
+    private final Segment ensureCapacity(final Segment source,
+            final int identifier, final int bytes) {
+        final int ids;        // Required ids
+        final long dataBytes; // Required bytes
+        final Segment target; // Returned segment
+
+        checkArgument(identifier < MAX_IDS, "The id %s is too big to index",
+                identifier);
+
+        ids = identifier + 1;
+        dataBytes = (long) source.dataEnd + 2 + bytes;
+
+        checkArgument(dataBytes <= Integer.MAX_VALUE,
+                "The names don't fit into the snapshot");
+
+        if ((ids <= source.index.capacity())
+                && (dataBytes <= source.data.capacity())) {
+            target = source;
+        } else {
+            target = new Segment(
+                    grow(source.index.capacity(), ids, MAX_IDS),
+                    grow(source.data.capacity(), (int) dataBytes,
+                            Integer.MAX_VALUE));
+            for (int i = 0; i < source.index.capacity(); i++) {
+                target.index.put(i, source.index.get(i));
+            }
+            for (int i = 0; i < source.dataEnd; i++) {
+                target.data.put(i, source.data.get(i));
+            }
+            target.dataEnd = source.dataEnd;
+            target.count = source.count;
+            target.maxId = source.maxId;
+        }
+
+        return target;
+    }
+
+    /**
+     * Returns the new capacity for a buffer.
+     *
+     * @param capacity
+     *            current capacity
+     * @param required
+     *            required capacity
+     * @param max
+     *            highest capacity allowed
+     * @return the new capacity
+     */
+    private final int grow(final int capacity, final int required,
+            final int max) {
+        return (int) Math.min(max,
+                Math.max((long) required, 2L * capacity));
+    }
+
+    /**
+     * Reads into the segment all the entities after the specified id.
+     * <p>
+     * If the segment is too small a bigger one is created, and returned.
+     *
+     * @param initial
+     *            segment to fill
+     * @param after
+     *            id after which the entities are read
+     * @return the filled segment
+     */
+    private final Segment load(final Segment initial, final int after) {
+        final Segment[] target; // Segment being filled
+        final int[] added;      // Number of entities added and highest id
+
+        target = new Segment[] { initial };
+        added = new int[] { 0, initial.maxId };
+        jdbcTemplate.query(QUERY, new Object[] { after },
+                new RowCallbackHandler() {
+
+                    @Override
+                    public final void processRow(final ResultSet rs)
+                            throws SQLException {
+                        final int identifier; // Entity id
+                        final byte[] name;    // Entity name
+                        final Segment filled; // Segment to write
+
+                        identifier = rs.getInt(1);
+                        name = rs.getString(2)
+                                .getBytes(StandardCharsets.UTF_8);
+
+                        checkArgument(name.length <= 0xFFFF,
+                                "The name for id %s is too long", identifier);
+
+                        filled = ensureCapacity(target[0], identifier,
+                                name.length);
+                        filled.data.putShort(filled.dataEnd,
+                                (short) name.length);
+                        for (int i = 0; i < name.length; i++) {
+                            filled.data.put(filled.dataEnd + 2 + i, name[i]);
+                        }
+                        filled.index.put(identifier, filled.dataEnd + 1);
+                        filled.dataEnd += 2 + name.length;
+
+                        target[0] = filled;
+                        added[0]++;
+                        added[1] = Math.max(added[1], identifier);
+                    }
+
+                });
+
+        // Publishes the new entities
+        target[0].count += added[0];
+        target[0].maxId = added[1];
+
+        return target[0];
+    }
+
+}
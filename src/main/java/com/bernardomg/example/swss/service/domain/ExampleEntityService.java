@@ -24,6 +24,8 @@
 
 package com.bernardomg.example.swss.service.domain;
 
+import java.util.Collection;
+
 import com.bernardomg.example.swss.model.ExampleEntity;
 
 /**
@@ -36,6 +38,23 @@
  */
 public interface ExampleEntityService {
 
+    /**
+     * Returns the entities with an id greater than the given one, ordered by
+     * id.
+     * <p>
+     * The returned iterable is expected to be lazy, and to read the entities
+     * as they are iterated over. This way even big slices of the entities can
+     * be processed without holding all of them in memory.
+     *
+     * @param identifier
+     *            identifier after which the entities will be returned
+     * @param limit
+     *            maximum number of entities to return
+     * @return the entities after the given id
+     */
+    public Iterable<ExampleEntity> findAllAfter(final Integer identifier,
+            final Integer limit);
+
     /**
      * Returns an entity with the given id.
      * <p>
@@ -48,4 +67,18 @@ public interface ExampleEntityService {
      */
     public ExampleEntity findById(final Integer identifier);
 
+    /**
+     * Returns all the entities with any of the given ids.
+     * <p>
+     * Ids for which no entity exists are ignored, so the returned collection
+     * may be smaller than the received one, or even empty. Avoid returning
+     * nulls.
+     *
+     * @param identifiers
+     *            identifiers of the entities to find
+     * @return the entities for the given ids
+     */
+    public Collection<ExampleEntity>
+            findByIds(final Collection<Integer> identifiers);
+
 }
@@ -0,0 +1,350 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.service.domain;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.model.ImmutableExampleEntity;
+import com.bernardomg.example.swss.model.NotFoundExampleEntity;
+
+/**
+ * Example entity domain service implementation, reading the entities with
+ * plain JDBC queries.
+ * <p>
+ * This skips the ORM completely. Only the id and name columns are projected,
+ * and each row is mapped straight into an {@link ImmutableExampleEntity}, so
+ * there is no persistence context, dirty checking or second-level cache
+ * involved. The queries are always the same, so the prepared statements can be
+ * reused by the driver.
+ * <p>
+ * Missing entities are answered with the shared
+ * {@link NotFoundExampleEntity}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public class JdbcExampleEntityService implements ExampleEntityService {
+
+    /**
+     * Iterator reading the entities chunk by chunk.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private final class KeysetIterator implements Iterator<ExampleEntity> {
+
+        /**
+         * Entities in the current chunk.
+         */
+        private Iterator<ExampleEntity> chunk     = Collections
+                .emptyIterator();
+
+        /**
+         * Flag marking the last chunk has been read.
+         */
+        private Boolean                 exhausted = false;
+
+        /**
+         * Id of the last entity returned.
+         */
+        private Integer                 lastId;
+
+        /**
+         * Number of entities which can still be returned.
+         */
+        private Integer                 remaining;
+
+        /**
+         * Constructs an iterator starting after the specified id.
+         *
+         * @param identifier
+         *            id after which the entities are returned
+         * @param limit
+         *            maximum number of entities to return
+         */
+        public KeysetIterator(final Integer identifier, final Integer limit) {
+            super();
+
+            lastId = identifier;
+            remaining = limit;
+        }
+
+        @Override
+        public final boolean hasNext() {
+            final Integer size;                 // Size of the next chunk
+            final List<ExampleEntity> entities; // Chunk entities
+
+            if ((!chunk.hasNext()) && (!exhausted) && (remaining > 0)) {
+                // Reads the next chunk
+                size = Math.min(CHUNK_SIZE, remaining);
+                entities = getJdbcTemplate().query(QUERY_AFTER, ROW_MAPPER,
+                        lastId, size);
+
+                // A short chunk means there is nothing after it
+                exhausted = entities.size() < size;
+
+                chunk = entities.iterator();
+            }
+
+            return (remaining > 0) && chunk.hasNext();
+        }
+
+        @Override
+        public final ExampleEntity next() {
+            final ExampleEntity entity; // Next entity
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            entity = chunk.next();
+            lastId = entity.getId();
+            remaining--;
+
+            return entity;
+        }
+
+        @Override
+        public final void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /**
+     * Maps each row into an immutable entity.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class ExampleEntityRowMapper
+            implements RowMapper<ExampleEntity> {
+
+        /**
+         * Default constructor.
+         */
+        public ExampleEntityRowMapper() {
+            super();
+        }
+
+        @Override
+        public final ExampleEntity mapRow(final ResultSet rs,
+                final int rowNum) throws SQLException {
+            return new ImmutableExampleEntity(rs.getInt(1), rs.getString(2));
+        }
+
+    }
+
+    /**
+     * Maximum number of entities read on each query when listing entities.
+     */
+    private static final Integer                  CHUNK_SIZE  = 100;
+
+    /**
+     * The logger used for logging the entity service usage.
+     */
+    private static final Logger                   LOGGER      = LoggerFactory
+            .getLogger(JdbcExampleEntityService.class);
+
+    /**
+     * Query for the entities after an id.
+     */
+    private static final String                   QUERY_AFTER = "SELECT id, name FROM example_entities WHERE id > ? ORDER BY id LIMIT ?";
+
+    /**
+     * Query for a single entity.
+     */
+    private static final String                   QUERY_BY_ID = "SELECT id, name FROM example_entities WHERE id = ?";
+
+    /**
+     * Query for the entities with any of a set of ids.
+     */
+    private static final String                   QUERY_IN    = "SELECT id, name FROM example_entities WHERE id IN (:ids)";
+
+    /**
+     * Mapper for the queried rows, which is stateless and so shared.
+     */
+    private static final RowMapper<ExampleEntity> ROW_MAPPER  = new ExampleEntityRowMapper();
+
+    /**
+     * Template for the queries.
+     */
+    private final JdbcTemplate                    jdbcTemplate;
+
+    /**
+     * Template for the queries with named parameters.
+     */
+    private final NamedParameterJdbcTemplate      namedTemplate;
+
+    /**
+     * Constructs an entities service reading from the specified data source.
+     * <p>
+     * The service never writes, so this can be a data source for replicas.
+     *
+     * @param dataSource
+     *            the data source to query
+     */
+    @Autowired
+    public JdbcExampleEntityService(
+            @Qualifier("readOnlyDataSource") final DataSource dataSource) {
+        super();
+
+        checkNotNull(dataSource, "Received a null pointer as data source");
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Returns the entities with an id greater than the given one, ordered by
+     * id.
+     * <p>
+     * The entities are read lazily in chunks, using keyset pagination, so
+     * only a small number of them is kept in memory at any moment.
+     *
+     * @param identifier
+     *            identifier after which the entities will be returned
+     * @param limit
+     *            maximum number of entities to return
+     * @return the entities after the given id
+     */
+    @Override
+    public final Iterable<ExampleEntity> findAllAfter(final Integer identifier,
+            final Integer limit) {
+        checkNotNull(identifier, "Received a null pointer as identifier");
+        checkNotNull(limit, "Received a null pointer as limit");
+
+        LOGGER.debug("Listing up to {} entities after id {}", limit,
+                identifier);
+
+        return new Iterable<ExampleEntity>() {
+
+            @Override
+            public final Iterator<ExampleEntity> iterator() {
+                return new KeysetIterator(identifier, limit);
+            }
+
+        };
+    }
+
+    /**
+     * Returns an entity with the given id.
+     * <p>
+     * If no instance exists with that id then the shared not found entity is
+     * returned.
+     *
+     * @param identifier
+     *            identifier of the entity to find
+     * @return the entity for the given id
+     */
+    @Override
+    public final ExampleEntity findById(final Integer identifier) {
+        final List<ExampleEntity> found; // Queried entities
+        final ExampleEntity entity;      // Entity to return
+
+        checkNotNull(identifier, "Received a null pointer as identifier");
+
+        found = getJdbcTemplate().query(QUERY_BY_ID, ROW_MAPPER, identifier);
+
+        if (found.isEmpty()) {
+            // No entity found for the id
+            LOGGER.debug("No entity found for id {}", identifier);
+            entity = NotFoundExampleEntity.getInstance();
+        } else {
+            entity = found.get(0);
+        }
+
+        return entity;
+    }
+
+    /**
+     * Returns all the entities with any of the given ids.
+     * <p>
+     * All of them are acquired with a single query. Ids for which no entity
+     * exists are ignored.
+     *
+     * @param identifiers
+     *            identifiers of the entities to find
+     * @return the entities for the given ids
+     */
+    @Override
+    public final Collection<ExampleEntity>
+            findByIds(final Collection<Integer> identifiers) {
+        final Collection<ExampleEntity> entities; // Entities to return
+
+        checkNotNull(identifiers, "Received a null pointer as identifiers");
+
+        if (identifiers.isEmpty()) {
+            // Nothing to query
+            entities = Collections.emptyList();
+        } else {
+            entities = new ArrayList<ExampleEntity>(getNamedTemplate().query(
+                    QUERY_IN, new MapSqlParameterSource("ids", identifiers),
+                    ROW_MAPPER));
+
+            LOGGER.debug("Found {} entities for {} ids", entities.size(),
+                    identifiers.size());
+        }
+
+        return entities;
+    }
+
+    /**
+     * Returns the template for the queries.
+     *
+     * @return the template for the queries
+     */
+    private final JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    /**
+     * Returns the template for the queries with named parameters.
+     *
+     * @return the template for the queries with named parameters
+     */
+    private final NamedParameterJdbcTemplate getNamedTemplate() {
+        return namedTemplate;
+    }
+
+}
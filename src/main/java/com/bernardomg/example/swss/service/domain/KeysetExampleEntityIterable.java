@@ -0,0 +1,197 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.service.domain;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.bernardomg.example.swss.model.DefaultExampleEntity;
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.repository.ExampleEntityRepository;
+
+/**
+ * Lazy iterable over the entities after an id, reading them in chunks from an
+ * {@link ExampleEntityRepository}.
+ * <p>
+ * Each iterator queries the repository only when the previous chunk has been
+ * consumed, using keyset pagination over the id. So at most a single chunk is
+ * held in memory at any moment, no matter how many entities are iterated.
+ * <p>
+ * Each chunk is read on its own transaction, which means the entities are
+ * detached as soon as they are returned, and won't accumulate in the
+ * persistence context.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class KeysetExampleEntityIterable implements Iterable<ExampleEntity> {
+
+    /**
+     * Iterator reading the entities chunk by chunk.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private final class KeysetIterator implements Iterator<ExampleEntity> {
+
+        /**
+         * Entities in the current chunk.
+         */
+        private Iterator<DefaultExampleEntity> chunk     = Collections
+                .emptyIterator();
+
+        /**
+         * Flag marking the last chunk has been read.
+         */
+        private Boolean                        exhausted = false;
+
+        /**
+         * Id of the last entity returned.
+         */
+        private Integer                        lastId    = identifier;
+
+        /**
+         * Number of entities which can still be returned.
+         */
+        private Integer                        remaining = limit;
+
+        /**
+         * Default constructor.
+         */
+        public KeysetIterator() {
+            super();
+        }
+
+        @Override
+        public final boolean hasNext() {
+            final Integer size;                        // Size of the next chunk
+            final List<DefaultExampleEntity> entities; // Chunk entities
+
+            if ((!chunk.hasNext()) && (!exhausted) && (remaining > 0)) {
+                // Reads the next chunk
+                size = Math.min(chunkSize, remaining);
+                entities = repository.findAllByIdGreaterThan(lastId,
+                        getPage(size));
+
+                // A short chunk means there is nothing after it
+                exhausted = entities.size() < size;
+
+                chunk = entities.iterator();
+            }
+
+            return (remaining > 0) && chunk.hasNext();
+        }
+
+        @Override
+        public final ExampleEntity next() {
+            final ExampleEntity entity; // Next entity
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            entity = chunk.next();
+            lastId = entity.getId();
+            remaining--;
+
+            return entity;
+        }
+
+        @Override
+        public final void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Returns the first page, sorted by id, for the received size.
+         *
+         * @param size
+         *            size of the page
+         * @return the first page of the received size
+         */
+        private final Pageable getPage(final Integer size) {
+            return new PageRequest(0, size, Direction.ASC, "id");
+        }
+
+    }
+
+    /**
+     * Maximum number of entities read on each query.
+     */
+    private final Integer                 chunkSize;
+
+    /**
+     * Id after which the entities are read.
+     */
+    private final Integer                 identifier;
+
+    /**
+     * Maximum number of entities to return.
+     */
+    private final Integer                 limit;
+
+    /**
+     * Repository from which the entities are read.
+     */
+    private final ExampleEntityRepository repository;
+
+    /**
+     * Constructs an iterable over the entities after the received id.
+     *
+     * @param repo
+     *            repository from which the entities are read
+     * @param id
+     *            id after which the entities are read
+     * @param max
+     *            maximum number of entities to return
+     * @param chunk
+     *            maximum number of entities read on each query
+     */
+    public KeysetExampleEntityIterable(final ExampleEntityRepository repo,
+            final Integer id, final Integer max, final Integer chunk) {
+        super();
+
+        repository = checkNotNull(repo,
+                "Received a null pointer as repository");
+        identifier = checkNotNull(id, "Received a null pointer as identifier");
+        limit = checkNotNull(max, "Received a null pointer as limit");
+        chunkSize = checkNotNull(chunk, "Received a null pointer as chunk size");
+
+        checkArgument(chunkSize > 0, "The chunk size should be positive");
+    }
+
+    @Override
+    public final Iterator<ExampleEntity> iterator() {
+        return new KeysetIterator();
+    }
+
+}
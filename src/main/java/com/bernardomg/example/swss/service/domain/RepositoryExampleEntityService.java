@@ -26,14 +26,19 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.bernardomg.example.swss.model.DefaultExampleEntity;
 import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.model.NotFoundExampleEntity;
 import com.bernardomg.example.swss.repository.ExampleEntityRepository;
+import com.bernardomg.example.swss.repository.filter.EntityIdFilter;
 
 /**
  * Example entity domain service implementation, using an
@@ -42,16 +47,30 @@
  * This service just wraps and hides an instance of the
  * {@link com.bernardomg.example.swss.repository.ExampleEntityRepository
  * ExampleEntityRepository}.
+ * <p>
+ * Before querying the repository the ids are checked against an
+ * {@link EntityIdFilter}, so the lookups for ids which don't exist are
+ * answered from memory. In that case the shared
+ * {@link NotFoundExampleEntity} is returned, instead of creating a new
+ * entity.
+ * <p>
+ * All the queries are read-only transactions, so they can be sent to a read
+ * replica.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
-@Service("exampleEntityService")
+@Transactional(readOnly = true)
 public class RepositoryExampleEntityService implements ExampleEntityService {
 
+    /**
+     * Maximum number of entities read on each query when listing entities.
+     */
+    private static final Integer          CHUNK_SIZE = 100;
+
     /**
      * The logger used for logging the user details service usage.
      */
-    private static final Logger           LOGGER = LoggerFactory
+    private static final Logger           LOGGER     = LoggerFactory
             .getLogger(RepositoryExampleEntityService.class);
 
     /**
@@ -59,26 +78,62 @@ public class RepositoryExampleEntityService implements ExampleEntityService {
      */
     private final ExampleEntityRepository entityRepository;
 
+    /**
+     * Filter for the ids of the existing entities.
+     */
+    private final EntityIdFilter          idFilter;
+
     /**
      * Constructs an entities service with the specified repository.
      *
      * @param repository
      *            the repository for the entity instances
+     * @param filter
+     *            filter for the ids of the existing entities
      */
     @Autowired
     public RepositoryExampleEntityService(
-            final ExampleEntityRepository repository) {
+            final ExampleEntityRepository repository,
+            final EntityIdFilter filter) {
         super();
 
         this.entityRepository = checkNotNull(repository,
                 "Received a null pointer as repository");
+        this.idFilter = checkNotNull(filter,
+                "Received a null pointer as filter");
+    }
+
+    /**
+     * Returns the entities with an id greater than the given one, ordered by
+     * id.
+     * <p>
+     * The entities are read lazily in chunks, using keyset pagination, so
+     * only a small number of them is kept in memory at any moment.
+     *
+     * @param identifier
+     *            identifier after which the entities will be returned
+     * @param limit
+     *            maximum number of entities to return
+     * @return the entities after the given id
+     */
+    @Override
+    public final Iterable<ExampleEntity> findAllAfter(final Integer identifier,
+            final Integer limit) {
+        checkNotNull(identifier, "Received a null pointer as identifier");
+        checkNotNull(limit, "Received a null pointer as limit");
+
+        LOGGER.debug("Listing up to {} entities after id {}", limit,
+                identifier);
+
+        return new KeysetExampleEntityIterable(getExampleEntityRepository(),
+                identifier, limit, CHUNK_SIZE);
     }
 
     /**
      * Returns an entity with the given id.
      * <p>
      * If no instance exists with that id then an entity with a negative id is
-     * returned.
+     * returned. This is always the same immutable instance.
      *
      * @param identifier
      *            identifier of the entity to find
@@ -90,17 +145,62 @@ public final ExampleEntity findById(final Integer identifier) {
 
         checkNotNull(identifier, "Received a null pointer as identifier");
 
-        entity = getExampleEntityRepository().findOne(identifier);
+        if (getIdFilter().mightContain(identifier)) {
+            entity = getExampleEntityRepository().findOne(identifier);
+        } else {
+            // The filter knows there is no entity
+            entity = null;
+        }
 
         if (entity == null) {
             // No entity found for the id
             LOGGER.debug("No entity found for id {}", identifier);
-            entity = new DefaultExampleEntity();
+            entity = NotFoundExampleEntity.getInstance();
         }
 
         return entity;
     }
 
+    /**
+     * Returns all the entities with any of the given ids.
+     * <p>
+     * All of them are acquired with a single query. Ids for which no entity
+     * exists are ignored, and those rejected by the id filter are not even
+     * queried.
+     *
+     * @param identifiers
+     *            identifiers of the entities to find
+     * @return the entities for the given ids
+     */
+    @Override
+    public final Collection<ExampleEntity>
+            findByIds(final Collection<Integer> identifiers) {
+        final Collection<ExampleEntity> entities; // Entities to return
+        final Collection<Integer> candidates; // Ids which may exist
+
+        checkNotNull(identifiers, "Received a null pointer as identifiers");
+
+        candidates = new ArrayList<Integer>();
+        for (final Integer identifier : identifiers) {
+            if (getIdFilter().mightContain(identifier)) {
+                candidates.add(identifier);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            // Nothing to query
+            entities = Collections.emptyList();
+        } else {
+            entities = new ArrayList<ExampleEntity>(
+                    getExampleEntityRepository().findAllByIdIn(candidates));
+
+            LOGGER.debug("Found {} entities for {} ids", entities.size(),
+                    identifiers.size());
+        }
+
+        return entities;
+    }
+
     /**
      * Returns the repository used to acquire the domain entities.
      *
@@ -110,4 +210,13 @@ private final ExampleEntityRepository getExampleEntityRepository() {
         return entityRepository;
     }
 
+    /**
+     * Returns the filter for the ids of the existing entities.
+     *
+     * @return the filter for the ids
+     */
+    private final EntityIdFilter getIdFilter() {
+        return idFilter;
+    }
+
 }
@@ -0,0 +1,251 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.service.domain;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.bernardomg.example.swss.model.DefaultExampleEntity;
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.model.NotFoundExampleEntity;
+import com.bernardomg.example.swss.repository.snapshot.OffHeapEntitySnapshot;
+
+/**
+ * Example entity domain service implementation, reading the entities from an
+ * {@link OffHeapEntitySnapshot}.
+ * <p>
+ * All the lookups are answered from memory, without reaching the database or
+ * the ORM. As the snapshot is refreshed periodically, new entities may take a
+ * while to be found.
+ * <p>
+ * Missing entities are answered with the shared
+ * {@link NotFoundExampleEntity}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public class SnapshotExampleEntityService implements ExampleEntityService {
+
+    /**
+     * Iterator over the snapshot, walking the ids in order.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private final class SnapshotIterator implements Iterator<ExampleEntity> {
+
+        /**
+         * Next id to return, or -1 if there are no more.
+         */
+        private int       next;
+
+        /**
+         * Number of entities left to return.
+         */
+        private int       remaining;
+
+        /**
+         * Constructs an iterator starting after the specified id.
+         *
+         * @param identifier
+         *            id after which the entities are returned
+         * @param limit
+         *            maximum number of entities to return
+         */
+        public SnapshotIterator(final int identifier, final int limit) {
+            super();
+
+            remaining = limit;
+            next = getSnapshot().nextId(identifier);
+        }
+
+        @Override
+        public final boolean hasNext() {
+            return (remaining > 0) && (next >= 0);
+        }
+
+        @Override
+        public final ExampleEntity next() {
+            final String name;          // Name of the entity
+            final ExampleEntity entity; // Returned entity
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            name = getSnapshot().getName(next);
+            entity = toEntity(next, name == null ? "" : name);
+
+            remaining--;
+            next = getSnapshot().nextId(next);
+
+            return entity;
+        }
+
+        @Override
+        public final void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /**
+     * Snapshot with the entities.
+     */
+    private final OffHeapEntitySnapshot entitySnapshot;
+
+    /**
+     * Constructs an entities service reading from the specified snapshot.
+     *
+     * @param snapshot
+     *            the snapshot with the entities
+     */
+    @Autowired
+    public SnapshotExampleEntityService(
+            final OffHeapEntitySnapshot snapshot) {
+        super();
+
+        this.entitySnapshot = checkNotNull(snapshot,
+                "Received a null pointer as snapshot");
+    }
+
+    /**
+     * Returns the entities with an id greater than the given one, ordered by
+     * id.
+     * <p>
+     * The ids are walked over the snapshot as the returned iterable is
+     * iterated, and only the entities returned are created.
+     *
+     * @param identifier
+     *            identifier after which the entities will be returned
+     * @param limit
+     *            maximum number of entities to return
+     * @return the entities after the given id
+     */
+    @Override
+    public final Iterable<ExampleEntity> findAllAfter(final Integer identifier,
+            final Integer limit) {
+        checkNotNull(identifier, "Received a null pointer as identifier");
+        checkNotNull(limit, "Received a null pointer as limit");
+
+        return new Iterable<ExampleEntity>() {
+
+            @Override
+            public final Iterator<ExampleEntity> iterator() {
+                return new SnapshotIterator(identifier, limit);
+            }
+
+        };
+    }
+
+    /**
+     * Returns an entity with the given id.
+     * <p>
+     * If no instance exists with that id then the shared not found entity is
+     * returned.
+     *
+     * @param identifier
+     *            identifier of the entity to find
+     * @return the entity for the given id
+     */
+    @Override
+    public final ExampleEntity findById(final Integer identifier) {
+        final String name;          // Name of the entity
+        final ExampleEntity entity; // Entity to return
+
+        checkNotNull(identifier, "Received a null pointer as identifier");
+
+        name = getSnapshot().getName(identifier);
+        if (name == null) {
+            entity = NotFoundExampleEntity.getInstance();
+        } else {
+            entity = toEntity(identifier, name);
+        }
+
+        return entity;
+    }
+
+    /**
+     * Returns all the entities with any of the given ids.
+     * <p>
+     * Ids for which no entity exists are ignored.
+     *
+     * @param identifiers
+     *            identifiers of the entities to find
+     * @return the entities for the given ids
+     */
+    @Override
+    public final Collection<ExampleEntity>
+            findByIds(final Collection<Integer> identifiers) {
+        final Collection<ExampleEntity> entities; // Entities to return
+        String name;                              // Name of each entity
+
+        checkNotNull(identifiers, "Received a null pointer as identifiers");
+
+        entities = new ArrayList<ExampleEntity>(identifiers.size());
+        for (final Integer identifier : identifiers) {
+            name = getSnapshot().getName(identifier);
+            if (name != null) {
+                entities.add(toEntity(identifier, name));
+            }
+        }
+
+        return entities;
+    }
+
+    /**
+     * Returns the snapshot with the entities.
+     *
+     * @return the snapshot with the entities
+     */
+    private final OffHeapEntitySnapshot getSnapshot() {
+        return entitySnapshot;
+    }
+
+    /**
+     * Creates an entity with the specified data.
+     *
+     * @param identifier
+     *            id for the entity
+     * @param name
+     *            name for the entity
+     * @return an entity with the data
+     */
+    private final ExampleEntity toEntity(final Integer identifier,
+            final String name) {
+        final ExampleEntity entity; // Created entity
+
+        entity = new DefaultExampleEntity();
+        entity.setId(identifier);
+        entity.setName(name);
+
+        return entity;
+    }
+
+}
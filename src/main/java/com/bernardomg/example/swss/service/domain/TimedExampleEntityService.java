@@ -0,0 +1,155 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.service.domain;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+
+import com.bernardomg.example.swss.event.LifecycleStage;
+import com.bernardomg.example.swss.event.LifecycleTrace;
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.timing.PhaseClock;
+import com.bernardomg.example.swss.timing.TimedPhase;
+
+/**
+ * Example entity domain service which times the calls to another service.
+ * <p>
+ * The time is added to the {@link TimedPhase#SERVICE} phase of the request
+ * being handled by the current thread. If there is none, such as when the
+ * timings are disabled, the calls are just delegated.
+ * <p>
+ * The same time is added to the {@link LifecycleStage#SERVICE_LOOKUP} stage
+ * of the request lifecycle, if it is being traced.
+ * <p>
+ * The entities after an id are returned lazily, so only the time to acquire
+ * them is recorded, while iterating over them is part of the endpoint phase.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TimedExampleEntityService implements ExampleEntityService {
+
+    /**
+     * Timed service.
+     */
+    private final ExampleEntityService service;
+
+    /**
+     * Constructs a service timing the specified one.
+     *
+     * @param timed
+     *            service to time
+     */
+    public TimedExampleEntityService(final ExampleEntityService timed) {
+        super();
+
+        service = checkNotNull(timed, "Received a null pointer as service");
+    }
+
+    @Override
+    public final Iterable<ExampleEntity> findAllAfter(final Integer identifier,
+            final Integer limit) {
+        final PhaseClock clock;               // Clock for the request
+        final LifecycleTrace trace;           // Trace for the request
+        final long start;                     // Call start
+        final Iterable<ExampleEntity> result; // Entities found
+
+        clock = PhaseClock.current();
+        trace = LifecycleTrace.current();
+        if ((clock == null) && (trace == null)) {
+            result = service.findAllAfter(identifier, limit);
+        } else {
+            start = System.nanoTime();
+            result = service.findAllAfter(identifier, limit);
+            record(clock, trace, System.nanoTime() - start);
+        }
+
+        return result;
+    }
+
+    @Override
+    public final ExampleEntity findById(final Integer identifier) {
+        final PhaseClock clock;     // Clock for the request
+        final LifecycleTrace trace; // Trace for the request
+        final long start;           // Call start
+        final ExampleEntity result; // Entity found
+
+        clock = PhaseClock.current();
+        trace = LifecycleTrace.current();
+        if ((clock == null) && (trace == null)) {
+            result = service.findById(identifier);
+        } else {
+            start = System.nanoTime();
+            result = service.findById(identifier);
+            record(clock, trace, System.nanoTime() - start);
+        }
+
+        return result;
+    }
+
+    @Override
+    public final Collection<ExampleEntity>
+            findByIds(final Collection<Integer> identifiers) {
+        final PhaseClock clock;                 // Clock for the request
+        final LifecycleTrace trace;             // Trace for the request
+        final long start;                       // Call start
+        final Collection<ExampleEntity> result; // Entities found
+
+        clock = PhaseClock.current();
+        trace = LifecycleTrace.current();
+        if ((clock == null) && (trace == null)) {
+            result = service.findByIds(identifiers);
+        } else {
+            start = System.nanoTime();
+            result = service.findByIds(identifiers);
+            record(clock, trace, System.nanoTime() - start);
+        }
+
+        return result;
+    }
+
+    /**
+     * Records the time of a call into the clock and trace for the request.
+     * <p>
+     * Any of them may be {@code null}, in which case it is ignored.
+     *
+     * @param clock
+     *            clock for the request
+     * @param trace
+     *            trace for the request
+     * @param nanos
+     *            time taken by the call, in nanoseconds
+     */
+    private final void record(final PhaseClock clock,
+            final LifecycleTrace trace, final Long nanos) {
+        if (clock != null) {
+            clock.record(TimedPhase.SERVICE, nanos);
+        }
+        if (trace != null) {
+            trace.record(LifecycleStage.SERVICE_LOOKUP, nanos);
+        }
+    }
+
+}
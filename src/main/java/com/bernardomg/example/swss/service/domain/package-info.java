@@ -32,7 +32,11 @@
  * {@link com.bernardomg.example.swss.service.domain.RepositoryExampleEntityService
  * DefaultExampleEntityService}, makes use of the
  * {@link com.bernardomg.example.swss.repository.ExampleEntityRepository
- * ExampleEntityRepository} for this.
+ * ExampleEntityRepository} for this. The alternative
+ * {@link com.bernardomg.example.swss.service.domain.SnapshotExampleEntityService
+ * SnapshotExampleEntityService} reads them from an off-heap snapshot instead,
+ * while the {@link com.bernardomg.example.swss.service.domain.JdbcExampleEntityService
+ * JdbcExampleEntityService} queries them with plain JDBC, skipping the ORM.
  */
 
 package com.bernardomg.example.swss.service.domain;
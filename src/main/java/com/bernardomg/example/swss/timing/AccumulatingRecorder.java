@@ -0,0 +1,99 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.timing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Recorder which accumulates all the values recorded until reset.
+ * <p>
+ * Values are recorded into a {@link Recorder}, which doesn't block the
+ * recording threads. When read, the values recorded since the last read are
+ * moved into a histogram which accumulates all of them, and a copy of it is
+ * returned.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class AccumulatingRecorder {
+
+    /**
+     * Accumulated values.
+     */
+    private final Histogram histogram;
+
+    /**
+     * Values recorded since the last read.
+     */
+    private final Recorder  recorder;
+
+    /**
+     * Constructs a recorder with the specified precision.
+     *
+     * @param significantDigits
+     *            significant digits kept for the values
+     */
+    public AccumulatingRecorder(final Integer significantDigits) {
+        super();
+
+        checkNotNull(significantDigits,
+                "Received a null pointer as significant digits");
+
+        histogram = new Histogram(significantDigits);
+        recorder = new Recorder(significantDigits);
+    }
+
+    /**
+     * Returns all the values recorded since the last reset.
+     *
+     * @return all the values recorded since the last reset
+     */
+    public final synchronized Histogram getHistogram() {
+        histogram.add(recorder.getIntervalHistogram());
+
+        return histogram.copy();
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value
+     *            value to record
+     */
+    public final void record(final Long value) {
+        recorder.recordValue(value);
+    }
+
+    /**
+     * Removes all the recorded values.
+     */
+    public final synchronized void reset() {
+        recorder.reset();
+        histogram.reset();
+    }
+
+}
@@ -0,0 +1,193 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.timing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Times the phases of a single request.
+ * <p>
+ * Each phase ends when the next one starts, so the clock keeps the time of
+ * the last mark, and the phases are marked in order. A phase is only recorded
+ * if the previous one was, so requests rejected by the interceptors only
+ * record their total time, and the phases before the rejection. The
+ * validation and security phases may be skipped, as not all the servlets
+ * mark them.
+ * <p>
+ * The clock for the request being handled is bound to the thread handling it,
+ * so the services can add their time without knowing about the servlet which
+ * received it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PhaseClock {
+
+    /**
+     * Clock for the request handled by each thread.
+     */
+    private static final ThreadLocal<PhaseClock> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Last phase marked.
+     */
+    private TimedPhase                           last;
+
+    /**
+     * Time, in nanoseconds, of the last mark.
+     */
+    private long                                 lastMark;
+
+    /**
+     * Time, in nanoseconds, when the request was received.
+     */
+    private final long                           start;
+
+    /**
+     * Timings where the phases are recorded.
+     */
+    private final PhaseTimings                   timings;
+
+    /**
+     * Returns the clock for the request handled by the current thread.
+     * <p>
+     * If no request is being timed then {@code null} is returned.
+     *
+     * @return the clock for the current request
+     */
+    public static final PhaseClock current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts timing a request, binding its clock to the current thread.
+     *
+     * @param timings
+     *            timings where the phases are recorded
+     * @return the clock for the request
+     */
+    public static final PhaseClock start(final PhaseTimings timings) {
+        final PhaseClock clock; // Clock for the request
+
+        checkNotNull(timings, "Received a null pointer as timings");
+
+        clock = new PhaseClock(timings);
+        CURRENT.set(clock);
+
+        return clock;
+    }
+
+    /**
+     * Constructs a clock for a request received now.
+     *
+     * @param phaseTimings
+     *            timings where the phases are recorded
+     */
+    private PhaseClock(final PhaseTimings phaseTimings) {
+        super();
+
+        timings = phaseTimings;
+        start = System.nanoTime();
+        lastMark = start;
+        last = null;
+    }
+
+    /**
+     * Records the total time of the request, and unbinds the clock from the
+     * current thread.
+     */
+    public final void finish() {
+        CURRENT.remove();
+
+        timings.record(TimedPhase.TOTAL, System.nanoTime() - start);
+    }
+
+    /**
+     * Ends a phase, recording the time since the previous mark.
+     * <p>
+     * The phase is recorded only if it follows the last phase marked.
+     *
+     * @param phase
+     *            phase which ends
+     */
+    public final void mark(final TimedPhase phase) {
+        final long now; // Current time
+
+        if (follows(phase)) {
+            now = System.nanoTime();
+            timings.record(phase, now - lastMark);
+            lastMark = now;
+            last = phase;
+        }
+    }
+
+    /**
+     * Records the time taken by a phase which is contained in another one,
+     * without marking it.
+     *
+     * @param phase
+     *            timed phase
+     * @param nanos
+     *            time taken, in nanoseconds
+     */
+    public final void record(final TimedPhase phase, final Long nanos) {
+        timings.record(phase, nanos);
+    }
+
+    /**
+     * Indicates if the phase is the one following the last phase marked.
+     *
+     * @param phase
+     *            phase to check
+     * @return {@code true} if the phase follows the last one, {@code false}
+     *         otherwise
+     */
+    private final Boolean follows(final TimedPhase phase) {
+        final Boolean follows; // Flag telling if the phase follows
+
+        switch (phase) {
+            case VALIDATION:
+                follows = (last == null);
+                break;
+            case SECURITY:
+                follows = ((last == null) || (last == TimedPhase.VALIDATION));
+                break;
+            case REQUEST:
+                follows = ((last == null) || (last == TimedPhase.VALIDATION)
+                        || (last == TimedPhase.SECURITY));
+                break;
+            case ENDPOINT:
+                follows = (last == TimedPhase.REQUEST);
+                break;
+            case RESPONSE:
+                follows = (last == TimedPhase.ENDPOINT);
+                break;
+            default:
+                follows = false;
+        }
+
+        return follows;
+    }
+
+}
@@ -0,0 +1,207 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.timing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Latency histograms for each phase of the requests.
+ * <p>
+ * Latencies are recorded, in microseconds, into an
+ * {@link AccumulatingRecorder} for each phase, which doesn't block the request
+ * threads.
+ * <p>
+ * Each servlet has its own timings, which are exported through JMX in the
+ * domain of its security mode. When disabled the requests are not timed at
+ * all.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ManagedResource(description = "Latency of each phase of the requests")
+public final class PhaseTimings {
+
+    /**
+     * Significant digits kept by the latency histograms.
+     */
+    private static final Integer                        SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Flag telling if the requests are timed.
+     */
+    private volatile Boolean                            enabled;
+
+    /**
+     * Latencies recorded for each phase.
+     */
+    private final Map<TimedPhase, AccumulatingRecorder> recorders;
+
+    /**
+     * Constructs the timings for all the phases.
+     *
+     * @param enable
+     *            flag telling if the requests are timed
+     */
+    public PhaseTimings(final Boolean enable) {
+        super();
+
+        enabled = checkNotNull(enable,
+                "Received a null pointer as enabled flag");
+
+        recorders = new EnumMap<>(TimedPhase.class);
+        for (final TimedPhase phase : TimedPhase.values()) {
+            recorders.put(phase, new AccumulatingRecorder(SIGNIFICANT_DIGITS));
+        }
+    }
+
+    /**
+     * Returns the number of latencies recorded for the phase.
+     *
+     * @param phase
+     *            name of the phase
+     * @return the number of latencies recorded
+     */
+    @ManagedOperation(description = "Number of latencies recorded for a phase")
+    public final Long getCount(final String phase) {
+        return getHistogram(phase).getTotalCount();
+    }
+
+    /**
+     * Indicates if the requests are timed.
+     *
+     * @return {@code true} if the requests are timed, {@code false} otherwise
+     */
+    @ManagedAttribute(description = "Flag telling if the requests are timed")
+    public final Boolean getEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the latency, in microseconds, at the percentile for the phase.
+     *
+     * @param phase
+     *            name of the phase
+     * @param percentile
+     *            percentile to read, from 0 to 100
+     * @return the latency at the percentile
+     */
+    @ManagedOperation(
+            description = "Microseconds at a percentile for a phase")
+    public final Long getPercentile(final String phase,
+            final Double percentile) {
+        checkNotNull(percentile, "Received a null pointer as percentile");
+
+        return getHistogram(phase).getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Returns a summary of the latencies for each phase, in microseconds.
+     *
+     * @return a summary of the latencies for each phase
+     */
+    @ManagedAttribute(
+            description = "Latencies for each phase, in microseconds")
+    public final String[] getSummary() {
+        final List<String> lines;     // Summary for each phase
+        Histogram          histogram; // Latencies for the phase
+
+        lines = new ArrayList<>();
+        for (final TimedPhase phase : TimedPhase.values()) {
+            histogram = getHistogram(phase.name());
+            lines.add(String.format(Locale.ENGLISH,
+                    "%s: count=%d, p50=%d, p99=%d, p999=%d, max=%d", phase,
+                    histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9),
+                    histogram.getMaxValue()));
+        }
+
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    /**
+     * Records the latency of a phase.
+     *
+     * @param phase
+     *            timed phase
+     * @param nanos
+     *            latency, in nanoseconds
+     */
+    public final void record(final TimedPhase phase, final Long nanos) {
+        recorders.get(phase).record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * Removes all the recorded latencies.
+     */
+    @ManagedOperation(description = "Removes all the recorded latencies")
+    public final void reset() {
+        for (final AccumulatingRecorder recorder : recorders.values()) {
+            recorder.reset();
+        }
+    }
+
+    /**
+     * Sets if the requests are timed.
+     *
+     * @param enable
+     *            flag telling if the requests are timed
+     */
+    @ManagedAttribute(description = "Flag telling if the requests are timed")
+    public final void setEnabled(final Boolean enable) {
+        enabled = checkNotNull(enable,
+                "Received a null pointer as enabled flag");
+    }
+
+    /**
+     * Returns the latencies recorded for the phase.
+     *
+     * @param phase
+     *            name of the phase
+     * @return the accumulated latencies for the phase
+     */
+    private final Histogram getHistogram(final String phase) {
+        final TimedPhase timed; // Phase to read
+
+        checkNotNull(phase, "Received a null pointer as phase");
+
+        timed = TimedPhase.valueOf(phase.toUpperCase(Locale.ENGLISH));
+
+        return recorders.get(timed).getHistogram();
+    }
+
+}
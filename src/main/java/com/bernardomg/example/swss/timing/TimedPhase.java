@@ -0,0 +1,73 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.timing;
+
+/**
+ * Phases timed for each request.
+ * <p>
+ * The validation, security, request, endpoint and response phases follow
+ * each other, while the service phase is contained in the endpoint one, and
+ * the total covers all of them. The validation and security phases are only
+ * marked by the servlets which validate or secure the requests, otherwise
+ * their time is part of the request phase.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public enum TimedPhase {
+
+    /**
+     * From the request reaching the interceptors until its payload is
+     * validated.
+     */
+    VALIDATION,
+    /**
+     * From the end of the previous phase until the request security is
+     * validated.
+     */
+    SECURITY,
+    /**
+     * From the end of the previous phase until the endpoint is invoked.
+     */
+    REQUEST,
+    /**
+     * Invocation of the endpoint, including reading the request payload and
+     * writing the response payload.
+     */
+    ENDPOINT,
+    /**
+     * Calls to the domain service made by the endpoint.
+     */
+    SERVICE,
+    /**
+     * From the endpoint returning until the response leaves the
+     * interceptors. This includes the response validation and security.
+     */
+    RESPONSE,
+    /**
+     * The whole request, including rejected ones.
+     */
+    TOTAL;
+
+}
@@ -0,0 +1,119 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.xml;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Source;
+
+import org.springframework.core.io.Resource;
+import org.springframework.xml.validation.XmlValidator;
+import org.springframework.xml.validation.XmlValidatorFactory;
+import org.springframework.xml.xsd.SimpleXsdSchema;
+import org.springframework.xml.xsd.XsdSchema;
+import org.xml.sax.SAXException;
+
+/**
+ * XSD schema which is compiled only once, when created.
+ * <p>
+ * The {@link SimpleXsdSchema} compiles the schema again each time a validator
+ * is created, and each payload validating interceptor creates its own one. So
+ * with a servlet for each security mode the same schema ends compiled once
+ * for each of them. This one instead always returns the same validator, which
+ * can be shared as it creates a new JAXP validator for each validation, while
+ * reusing the compiled schema.
+ * <p>
+ * It is meant to be declared in the application context, and injected into
+ * the validators of all the servlets.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class CompiledXsdSchema implements XsdSchema {
+
+    /**
+     * Parsed schema definition.
+     */
+    private final XsdSchema    schema;
+
+    /**
+     * Validator for the compiled schema.
+     */
+    private final XmlValidator validator;
+
+    /**
+     * Constructs a schema from the specified resource, parsing and compiling
+     * it.
+     *
+     * @param resource
+     *            resource with the schema
+     * @throws IOException
+     *             if the schema can't be read
+     * @throws ParserConfigurationException
+     *             if the schema parser can't be created
+     * @throws SAXException
+     *             if the schema can't be parsed
+     */
+    public CompiledXsdSchema(final Resource resource)
+            throws IOException, ParserConfigurationException, SAXException {
+        super();
+
+        final SimpleXsdSchema parsed; // Parsed schema
+
+        checkNotNull(resource, "Received a null pointer as schema resource");
+
+        parsed = new SimpleXsdSchema(resource);
+        parsed.afterPropertiesSet();
+        schema = parsed;
+
+        validator = XmlValidatorFactory.createValidator(resource,
+                XmlValidatorFactory.SCHEMA_W3C_XML);
+    }
+
+    /**
+     * Returns the validator for the compiled schema.
+     * <p>
+     * The same validator is returned on each call.
+     *
+     * @return the validator for the compiled schema
+     */
+    @Override
+    public final XmlValidator createValidator() {
+        return validator;
+    }
+
+    @Override
+    public final Source getSource() {
+        return schema.getSource();
+    }
+
+    @Override
+    public final String getTargetNamespace() {
+        return schema.getTargetNamespace();
+    }
+
+}
@@ -0,0 +1,392 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.benchmark.endpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.soap.MessageFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.client.support.interceptor.ClientInterceptor;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+
+import com.bernardomg.example.swss.endpoint.routing.ChildContextInterceptorFactoryBean;
+import com.bernardomg.example.swss.test.util.factory.SecureSoapMessages;
+
+/**
+ * Benchmark measuring the cost of each security mode on the endpoint.
+ * <p>
+ * For each mode the application context and the servlet context are loaded
+ * just as they are when deployed, and the requests are handled by a
+ * dispatcher built from them. So the messages go through the same
+ * interceptors, including the security one, and reach the same endpoint and
+ * service. Only the HTTP transport is left out.
+ * <p>
+ * The requests are built before being measured. The unsecure, encrypted and
+ * plain password requests are the same ones used by the tests. The digested
+ * password requests are generated again for each call, as the nonce cache
+ * would reject them otherwise. The signed requests are created with the
+ * client interceptor of the same mode, as there are no signed messages among
+ * the test files.
+ * <p>
+ * Both throughput and average time are reported. Run it with the GC profiler,
+ * {@code -prof gc}, to also get the allocation per call.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityModeBenchmark {
+
+    /**
+     * Path to the template for digested password requests.
+     */
+    private static final String            DIGEST_TEMPLATE = "/target/test-classes/soap/request/template/request-password-digest.ftl";
+
+    /**
+     * Name of the message factory bean, if the servlet context defines one.
+     */
+    private static final String            MESSAGE_FACTORY = "messageFactory";
+
+    /**
+     * Path to the template for plain password requests.
+     */
+    private static final String            PLAIN_TEMPLATE  = "/target/test-classes/soap/request/template/request-password-plain.ftl";
+
+    /**
+     * Path to the unsecure request.
+     */
+    private static final String            UNSECURE_PATH   = "soap/request/request-not-secured.xml";
+
+    /**
+     * Application context shared by all the servlets.
+     */
+    private ClassPathXmlApplicationContext applicationContext;
+
+    /**
+     * Dispatcher handling the requests.
+     */
+    private SoapMessageDispatcher          dispatcher;
+
+    /**
+     * Factory for the SOAP messages.
+     */
+    private WebServiceMessageFactory       messageFactory;
+
+    /**
+     * Security mode, as the path for its endpoint.
+     */
+    @Param({ "unsecure", "password/plain/xwss", "password/plain/wss4j",
+            "password/digest/xwss", "password/digest/wss4j", "signature/xwss",
+            "signature/wss4j", "encryption/xwss", "encryption/wss4j" })
+    private String                         mode;
+
+    /**
+     * Stream where the responses are written.
+     */
+    private ByteArrayOutputStream          output;
+
+    /**
+     * Password for the password protected requests.
+     */
+    private String                         password;
+
+    /**
+     * Request to send.
+     */
+    private byte[]                         request;
+
+    /**
+     * Servlet context for the security mode.
+     */
+    private ClassPathXmlApplicationContext servletContext;
+
+    /**
+     * User for the password protected requests.
+     */
+    private String                         user;
+
+    /**
+     * Default constructor.
+     */
+    public SecurityModeBenchmark() {
+        super();
+    }
+
+    /**
+     * Sends the request to the endpoint and writes the response.
+     *
+     * @return the response
+     * @throws Exception
+     *             if the request can't be handled
+     */
+    @Benchmark
+    public final WebServiceMessage dispatch() throws Exception {
+        final MessageContext context; // Context for the request
+
+        context = new DefaultMessageContext(
+                messageFactory.createWebServiceMessage(
+                        new ByteArrayInputStream(request)),
+                messageFactory);
+
+        dispatcher.receive(context);
+
+        output.reset();
+        context.getResponse().writeTo(output);
+
+        return context.getResponse();
+    }
+
+    /**
+     * Generates a new digested password request, if the mode requires it.
+     *
+     * @throws Exception
+     *             if the request can't be generated
+     */
+    @Setup(Level.Invocation)
+    public final void prepareRequest() throws Exception {
+        if (mode.startsWith("password/digest")) {
+            request = StreamUtils.copyToByteArray(
+                    SecureSoapMessages.getDigestedPasswordStream(
+                            DIGEST_TEMPLATE, user, password));
+        }
+    }
+
+    /**
+     * Loads the contexts for the security mode and builds its request.
+     * <p>
+     * A first request is sent, to make sure the endpoint accepts it.
+     *
+     * @throws Exception
+     *             if the contexts or the request can't be prepared
+     */
+    @Setup(Level.Trial)
+    public final void setUp() throws Exception {
+        final Properties     users;   // Credentials
+        final MessageContext context; // Context for the first request
+
+        users = PropertiesLoaderUtils.loadProperties(
+                new ClassPathResource("config/user/test-user.properties"));
+        user = users.getProperty("security.credentials.user");
+        password = users.getProperty("security.credentials.password");
+
+        output = new ByteArrayOutputStream();
+
+        applicationContext = new ClassPathXmlApplicationContext(
+                "classpath:context/web-service.xml");
+        servletContext = new ClassPathXmlApplicationContext(
+                new String[] { getServletContextPath() }, applicationContext);
+
+        // As the servlet does, the context message factory is preferred
+        if (servletContext.containsBean(MESSAGE_FACTORY)) {
+            messageFactory = servletContext.getBean(MESSAGE_FACTORY,
+                    WebServiceMessageFactory.class);
+        } else {
+            messageFactory = new SaajSoapMessageFactory(
+                    MessageFactory.newInstance());
+        }
+
+        dispatcher = new SoapMessageDispatcher();
+        dispatcher.setApplicationContext(servletContext);
+
+        request = getRequest();
+        prepareRequest();
+
+        context = new DefaultMessageContext(
+                messageFactory.createWebServiceMessage(
+                        new ByteArrayInputStream(request)),
+                messageFactory);
+        dispatcher.receive(context);
+        if (((SoapMessage) context.getResponse()).getSoapBody().hasFault()) {
+            throw new IllegalStateException(String
+                    .format("The %s endpoint rejected the request", mode));
+        }
+    }
+
+    /**
+     * Closes the contexts.
+     */
+    @TearDown(Level.Trial)
+    public final void tearDown() {
+        servletContext.close();
+        applicationContext.close();
+    }
+
+    /**
+     * Returns the bytes in the specified class path file.
+     *
+     * @param path
+     *            path to the file
+     * @return the bytes in the file
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private final byte[] getBytes(final String path) throws IOException {
+        final InputStream stream; // Stream for the file
+
+        stream = new ClassPathResource(path).getInputStream();
+        try {
+            return StreamUtils.copyToByteArray(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns the request for the security mode.
+     * <p>
+     * The digested password request is generated later, before each call.
+     *
+     * @return the request for the security mode
+     * @throws Exception
+     *             if the request can't be created
+     */
+    private final byte[] getRequest() throws Exception {
+        final byte[] result; // Request
+
+        switch (mode) {
+            case "password/plain/xwss":
+            case "password/plain/wss4j":
+                result = StreamUtils.copyToByteArray(
+                        SecureSoapMessages.getPlainPasswordStream(
+                                PLAIN_TEMPLATE, user, password));
+                break;
+            case "signature/xwss":
+                result = getSignedRequest(new ClassPathResource(
+                        "config/client/signature/xwss/client-signature-xwss.properties"));
+                break;
+            case "signature/wss4j":
+                result = getSignedRequest(new ClassPathResource(
+                        "config/keystore/keystore-wss4j.properties"));
+                break;
+            case "encryption/xwss":
+                result = getBytes("soap/request/request-encryption-xwss.xml");
+                break;
+            case "encryption/wss4j":
+                result = getBytes("soap/request/request-encryption-wss4j.xml");
+                break;
+            default:
+                result = getBytes(UNSECURE_PATH);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the path to the servlet context for the security mode.
+     *
+     * @return the path to the servlet context
+     */
+    private final String getServletContextPath() {
+        final String path; // Context path
+
+        if ("unsecure".equals(mode)) {
+            path = "classpath:context/servlet/servlet-unsecure.xml";
+        } else {
+            path = String.format("classpath:context/servlet/%s/servlet-%s.xml",
+                    mode, mode.replace('/', '-'));
+        }
+
+        return path;
+    }
+
+    /**
+     * Signs the unsecure request with the client interceptor for the security
+     * mode.
+     *
+     * @param clientProperties
+     *            properties for the client side of the interceptor
+     * @return the signed request
+     * @throws Exception
+     *             if the request can't be signed
+     */
+    private final byte[] getSignedRequest(final Resource clientProperties)
+            throws Exception {
+        final ChildContextInterceptorFactoryBean factory; // Signer factory
+        final MessageContext                     context; // Request context
+        final ByteArrayOutputStream              signed;  // Signed request
+
+        factory = new ChildContextInterceptorFactoryBean();
+        factory.setApplicationContext(applicationContext);
+        factory.setContextLocation(String.format(
+                "classpath:context/interceptor/%s/interceptor-%s.xml", mode,
+                mode.replace('/', '-')));
+        factory.setPropertiesLocations(new Resource[] {
+                new ClassPathResource("config/keystore/keystore.properties"),
+                new ClassPathResource(String.format(
+                        "config/interceptor/%s/interceptor-%s.properties",
+                        mode, mode.replace('/', '-'))),
+                clientProperties });
+        factory.afterPropertiesSet();
+
+        try {
+            context = new DefaultMessageContext(
+                    messageFactory.createWebServiceMessage(
+                            new ByteArrayInputStream(getBytes(UNSECURE_PATH))),
+                    messageFactory);
+            ((ClientInterceptor) factory.getObject()).handleRequest(context);
+
+            signed = new ByteArrayOutputStream();
+            context.getRequest().writeTo(signed);
+        } finally {
+            factory.destroy();
+        }
+
+        return signed.toByteArray();
+    }
+
+}
@@ -0,0 +1,342 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.swss.test.benchmark.endpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.soap.MessageFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.client.support.interceptor.ClientInterceptor;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+
+import com.bernardomg.example.swss.auth.session.SessionKeyStore;
+import com.bernardomg.example.swss.client.session.SessionMessageSecurer;
+import com.bernardomg.example.swss.endpoint.ExampleEntityEndpointConstants;
+import com.bernardomg.example.swss.endpoint.routing.ChildContextInterceptorFactoryBean;
+
+/**
+ * Benchmark comparing encrypting each request with the server public key
+ * against encrypting it with keys derived from a session secret.
+ * <p>
+ * In the encryption mode each request carries a new symmetric key, encrypted
+ * with the RSA public key, so the client and the endpoint run an asymmetric
+ * operation for every message. In the session mode that is done only once,
+ * by the handshake, and then the requests are encrypted with keys derived
+ * from the session secret.
+ * <p>
+ * As the cost is on both sides, each call secures the unsecure request, just
+ * as the client does, and then sends it to a dispatcher built from the same
+ * contexts used by the servlet. Only the HTTP transport is left out. The
+ * session is opened directly on the endpoint session store before measuring,
+ * as the handshake is done once for many requests.
+ * <p>
+ * Both throughput and average time are reported. Run it with the GC profiler,
+ * {@code -prof gc}, to also get the allocation per call.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionKeyBenchmark {
+
+    /**
+     * Path to the session interceptor properties.
+     */
+    private static final String                SESSION_PROPERTIES = "config/interceptor/session/wss4j/interceptor-session-wss4j.properties";
+
+    /**
+     * Path to the unsecure request.
+     */
+    private static final String                UNSECURE_PATH      = "soap/request/request-not-secured.xml";
+
+    /**
+     * Application context shared by all the servlets.
+     */
+    private ClassPathXmlApplicationContext     applicationContext;
+
+    /**
+     * Dispatcher handling the requests.
+     */
+    private SoapMessageDispatcher              dispatcher;
+
+    /**
+     * Client interceptor encrypting the requests, for the encryption mode.
+     */
+    private ClientInterceptor                  encrypter;
+
+    /**
+     * Factory for the encryption client interceptor.
+     */
+    private ChildContextInterceptorFactoryBean encrypterFactory;
+
+    /**
+     * Factory for the SOAP messages.
+     */
+    private SaajSoapMessageFactory             messageFactory;
+
+    /**
+     * Security mode, as the path for its endpoint.
+     */
+    @Param({ "encryption/wss4j", "session/wss4j" })
+    private String                             mode;
+
+    /**
+     * Stream where the messages are written.
+     */
+    private ByteArrayOutputStream              output;
+
+    /**
+     * Unsecure request, which is secured for each call.
+     */
+    private byte[]                             request;
+
+    /**
+     * Session secret, for the session mode.
+     */
+    private byte[]                             secret;
+
+    /**
+     * Securer for the requests, for the session mode.
+     */
+    private SessionMessageSecurer              securer;
+
+    /**
+     * Servlet context for the security mode.
+     */
+    private ClassPathXmlApplicationContext     servletContext;
+
+    /**
+     * Session identifier, for the session mode.
+     */
+    private String                             session;
+
+    /**
+     * Default constructor.
+     */
+    public SessionKeyBenchmark() {
+        super();
+    }
+
+    /**
+     * Secures the request, sends it to the endpoint and writes the response.
+     *
+     * @return the response
+     * @throws Exception
+     *             if the request can't be secured or handled
+     */
+    @Benchmark
+    public final WebServiceMessage exchange() throws Exception {
+        final MessageContext context; // Context for the request
+
+        context = new DefaultMessageContext(getRequest(), messageFactory);
+
+        dispatcher.receive(context);
+
+        output.reset();
+        context.getResponse().writeTo(output);
+
+        return context.getResponse();
+    }
+
+    /**
+     * Loads the contexts for the security mode and prepares its client side.
+     * <p>
+     * A first request is sent, to make sure the endpoint accepts it.
+     *
+     * @throws Exception
+     *             if the contexts or the client side can't be prepared
+     */
+    @Setup(Level.Trial)
+    public final void setUp() throws Exception {
+        final Properties     properties; // Session properties
+        final MessageContext context;    // Context for the first request
+
+        output = new ByteArrayOutputStream();
+        request = getBytes(UNSECURE_PATH);
+        messageFactory = new SaajSoapMessageFactory(
+                MessageFactory.newInstance());
+
+        applicationContext = new ClassPathXmlApplicationContext(
+                "classpath:context/web-service.xml");
+        servletContext = new ClassPathXmlApplicationContext(
+                new String[] { String.format(
+                        "classpath:context/servlet/%s/servlet-%s.xml", mode,
+                        mode.replace('/', '-')) },
+                applicationContext);
+
+        dispatcher = new SoapMessageDispatcher();
+        dispatcher.setApplicationContext(servletContext);
+
+        if ("session/wss4j".equals(mode)) {
+            properties = PropertiesLoaderUtils
+                    .loadProperties(new ClassPathResource(SESSION_PROPERTIES));
+
+            secret = new byte[Integer
+                    .valueOf(properties.getProperty("session.secretLength"))];
+            new SecureRandom().nextBytes(secret);
+            session = servletContext.getBean(SessionKeyStore.class)
+                    .create(secret);
+
+            securer = new SessionMessageSecurer(
+                    properties.getProperty("session.encryptionAlgorithm"));
+        } else {
+            encrypterFactory = new ChildContextInterceptorFactoryBean();
+            encrypterFactory.setApplicationContext(applicationContext);
+            encrypterFactory.setContextLocation(
+                    "classpath:context/interceptor/encryption/wss4j/interceptor-encryption-wss4j.xml");
+            encrypterFactory.setPropertiesLocations(new Resource[] {
+                    new ClassPathResource(
+                            "config/keystore/keystore.properties"),
+                    new ClassPathResource(
+                            "config/interceptor/encryption/wss4j/interceptor-encryption-wss4j.properties") });
+            encrypterFactory.afterPropertiesSet();
+
+            encrypter = (ClientInterceptor) encrypterFactory.getObject();
+        }
+
+        context = new DefaultMessageContext(getRequest(), messageFactory);
+        dispatcher.receive(context);
+        if (((SoapMessage) context.getResponse()).getSoapBody().hasFault()) {
+            throw new IllegalStateException(String
+                    .format("The %s endpoint rejected the request", mode));
+        }
+    }
+
+    /**
+     * Closes the contexts.
+     */
+    @TearDown(Level.Trial)
+    public final void tearDown() {
+        if (encrypterFactory != null) {
+            encrypterFactory.destroy();
+        }
+        servletContext.close();
+        applicationContext.close();
+    }
+
+    /**
+     * Returns the bytes in the specified class path file.
+     *
+     * @param path
+     *            path to the file
+     * @return the bytes in the file
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private final byte[] getBytes(final String path) throws IOException {
+        final InputStream stream; // Stream for the file
+
+        stream = new ClassPathResource(path).getInputStream();
+        try {
+            return StreamUtils.copyToByteArray(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns the secured request, as received by the endpoint.
+     * <p>
+     * The SOAP action is set, as the client does, so the encrypted payload
+     * can be mapped to its endpoint.
+     *
+     * @return the secured request
+     * @throws Exception
+     *             if the request can't be secured
+     */
+    private final SoapMessage getRequest() throws Exception {
+        final SoapMessage message; // Secured request
+
+        message = messageFactory
+                .createWebServiceMessage(new ByteArrayInputStream(secure()));
+        message.setSoapAction(ExampleEntityEndpointConstants.ACTION);
+
+        return message;
+    }
+
+    /**
+     * Secures the unsecure request as the client for the security mode does.
+     *
+     * @return the secured request
+     * @throws Exception
+     *             if the request can't be secured
+     */
+    private final byte[] secure() throws Exception {
+        final MessageContext context; // Request context
+        final SoapMessage    message; // Request
+
+        context = new DefaultMessageContext(
+                messageFactory.createWebServiceMessage(
+                        new ByteArrayInputStream(request)),
+                messageFactory);
+        message = (SoapMessage) context.getRequest();
+
+        if (securer == null) {
+            encrypter.handleRequest(context);
+        } else {
+            securer.secure(message, session, secret);
+        }
+
+        output.reset();
+        message.writeTo(output);
+
+        return output.toByteArray();
+    }
+
+}
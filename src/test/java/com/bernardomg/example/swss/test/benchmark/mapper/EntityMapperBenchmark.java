@@ -0,0 +1,164 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.benchmark.mapper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import com.bernardomg.example.swss.client.DefaultExampleEntityMapper;
+import com.bernardomg.example.swss.client.ExampleEntityMapper;
+import com.bernardomg.example.swss.endpoint.DefaultEntityMapper;
+import com.bernardomg.example.swss.endpoint.EntityMapper;
+import com.bernardomg.example.swss.generated.entity.Entity;
+import com.bernardomg.example.swss.model.DefaultExampleEntity;
+import com.bernardomg.example.swss.model.ExampleEntity;
+
+/**
+ * Benchmark comparing the entity mappers with the reflective copy made by
+ * Spring's {@code BeanUtils}.
+ * <p>
+ * Both directions are measured: from the domain entity into the JAXB entity,
+ * as done by the endpoint, and from the JAXB entity into the domain entity, as
+ * done by the client.
+ * <p>
+ * Run it with the GC profiler, {@code -prof gc}, to also compare the
+ * allocation per call.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityMapperBenchmark {
+
+    /**
+     * Mapper used by the client.
+     */
+    private ExampleEntityMapper clientMapper;
+
+    /**
+     * Domain entity to map.
+     */
+    private ExampleEntity       domainEntity;
+
+    /**
+     * Mapper used by the endpoint.
+     */
+    private EntityMapper        endpointMapper;
+
+    /**
+     * JAXB entity to map.
+     */
+    private Entity              jaxbEntity;
+
+    /**
+     * Default constructor.
+     */
+    public EntityMapperBenchmark() {
+        super();
+    }
+
+    /**
+     * Maps the JAXB entity into a domain entity with the client mapper.
+     *
+     * @return the mapped entity
+     */
+    @Benchmark
+    public final ExampleEntity client_Mapper() {
+        return clientMapper.map(jaxbEntity);
+    }
+
+    /**
+     * Copies the JAXB entity into a domain entity with {@code BeanUtils}.
+     *
+     * @return the copied entity
+     */
+    @Benchmark
+    public final ExampleEntity client_Reflective() {
+        final ExampleEntity entity; // Copied entity
+
+        entity = new DefaultExampleEntity();
+        BeanUtils.copyProperties(jaxbEntity, entity);
+
+        return entity;
+    }
+
+    /**
+     * Maps the domain entity into a JAXB entity with the endpoint mapper.
+     *
+     * @return the mapped entity
+     */
+    @Benchmark
+    public final Entity endpoint_Mapper() {
+        return endpointMapper.map(domainEntity);
+    }
+
+    /**
+     * Copies the domain entity into a JAXB entity with {@code BeanUtils}.
+     *
+     * @return the copied entity
+     */
+    @Benchmark
+    public final Entity endpoint_Reflective() {
+        final Entity entity; // Copied entity
+
+        entity = new Entity();
+        BeanUtils.copyProperties(domainEntity, entity);
+
+        return entity;
+    }
+
+    /**
+     * Prepares the entities and mappers.
+     */
+    @Setup
+    public final void setUp() {
+        domainEntity = new DefaultExampleEntity();
+        domainEntity.setId(1);
+        domainEntity.setName("entity_1");
+
+        jaxbEntity = new Entity();
+        jaxbEntity.setId(1);
+        jaxbEntity.setName("entity_1");
+
+        endpointMapper = new DefaultEntityMapper();
+        clientMapper = new DefaultExampleEntityMapper();
+    }
+
+}
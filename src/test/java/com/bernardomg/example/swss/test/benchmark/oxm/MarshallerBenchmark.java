@@ -0,0 +1,190 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.benchmark.oxm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+
+import com.bernardomg.example.swss.generated.entity.Entity;
+import com.bernardomg.example.swss.generated.entity.GetEntityResponse;
+import com.bernardomg.example.swss.oxm.PooledJaxb2Marshaller;
+
+/**
+ * Benchmark comparing the {@link Jaxb2Marshaller} with the
+ * {@link PooledJaxb2Marshaller}.
+ * <p>
+ * Both share the same JAXB context, and marshal and unmarshal the same
+ * response, so the only difference is creating the JAXB marshallers for each
+ * call or taking them from the pool. Several threads are used, as when
+ * handling messages.
+ * <p>
+ * Run it with the GC profiler, {@code -prof gc}, to compare the allocation per
+ * call, which is where most of the difference is.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class MarshallerBenchmark {
+
+    /**
+     * Marshaller creating the JAXB marshallers for each call.
+     */
+    private Jaxb2Marshaller       marshaller;
+
+    /**
+     * Marshaller pooling the JAXB marshallers.
+     */
+    private PooledJaxb2Marshaller pooled;
+
+    /**
+     * Response to marshal.
+     */
+    private GetEntityResponse     response;
+
+    /**
+     * Marshalled response.
+     */
+    private byte[]                serialized;
+
+    /**
+     * Default constructor.
+     */
+    public MarshallerBenchmark() {
+        super();
+    }
+
+    /**
+     * Marshals the response creating a new JAXB marshaller.
+     *
+     * @return the marshalled response
+     * @throws IOException
+     *             if the response can't be marshalled
+     */
+    @Benchmark
+    public final byte[] marshal_Default() throws IOException {
+        final ByteArrayOutputStream output; // Marshalled response
+
+        output = new ByteArrayOutputStream(256);
+        marshaller.marshal(response, new StreamResult(output));
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Marshals the response with a pooled JAXB marshaller.
+     *
+     * @return the marshalled response
+     * @throws IOException
+     *             if the response can't be marshalled
+     */
+    @Benchmark
+    public final byte[] marshal_Pooled() throws IOException {
+        final ByteArrayOutputStream output; // Marshalled response
+
+        output = new ByteArrayOutputStream(256);
+        pooled.marshal(response, new StreamResult(output));
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Prepares the marshallers and the response.
+     *
+     * @throws Exception
+     *             if the marshallers can't be initialized
+     */
+    @Setup
+    public final void setUp() throws Exception {
+        final Entity entity;                // Returned entity
+        final ByteArrayOutputStream output; // Marshalled response
+
+        marshaller = new Jaxb2Marshaller();
+        marshaller.setPackagesToScan("com.bernardomg.example.swss.generated.*");
+        marshaller.afterPropertiesSet();
+
+        pooled = new PooledJaxb2Marshaller(marshaller, 16);
+
+        entity = new Entity();
+        entity.setId(1);
+        entity.setName("entity_1");
+        response = new GetEntityResponse();
+        response.setEntity(entity);
+
+        output = new ByteArrayOutputStream();
+        marshaller.marshal(response, new StreamResult(output));
+        serialized = output.toByteArray();
+    }
+
+    /**
+     * Unmarshals the response creating a new JAXB unmarshaller.
+     *
+     * @return the unmarshalled response
+     * @throws IOException
+     *             if the response can't be unmarshalled
+     */
+    @Benchmark
+    public final Object unmarshal_Default() throws IOException {
+        return marshaller.unmarshal(
+                new StreamSource(new ByteArrayInputStream(serialized)));
+    }
+
+    /**
+     * Unmarshals the response with a pooled JAXB unmarshaller.
+     *
+     * @return the unmarshalled response
+     * @throws IOException
+     *             if the response can't be unmarshalled
+     */
+    @Benchmark
+    public final Object unmarshal_Pooled() throws IOException {
+        return pooled.unmarshal(
+                new StreamSource(new ByteArrayInputStream(serialized)));
+    }
+
+}
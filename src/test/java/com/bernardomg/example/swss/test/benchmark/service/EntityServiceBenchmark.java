@@ -0,0 +1,254 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.benchmark.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.repository.filter.BitSetEntityIdFilter;
+import com.bernardomg.example.swss.repository.snapshot.OffHeapEntitySnapshot;
+import com.bernardomg.example.swss.service.domain.ExampleEntityService;
+import com.bernardomg.example.swss.service.domain.JdbcExampleEntityService;
+import com.bernardomg.example.swss.service.domain.SnapshotExampleEntityService;
+
+/**
+ * Benchmark comparing the entity services.
+ * <p>
+ * The repository service is taken from the application context, so it works
+ * just as when deployed, with the second-level cache and the id filter. The
+ * snapshot and JDBC services read from the same database, the latter through
+ * the replicas data source, as when deployed.
+ * <p>
+ * Before running, the database is filled with the received number of rows.
+ * The existing ids are queried at random, so with big tables most of them
+ * won't be in the second-level cache. Missing ids are queried too.
+ * <p>
+ * Run it with the GC profiler, {@code -prof gc}, to also compare the
+ * allocation per call.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityServiceBenchmark {
+
+    /**
+     * Application context.
+     */
+    private ClassPathXmlApplicationContext context;
+
+    /**
+     * Service reading with plain JDBC.
+     */
+    private ExampleEntityService           jdbcService;
+
+    /**
+     * Highest id in the database.
+     */
+    private Integer                        maxId;
+
+    /**
+     * Service reading through the repository.
+     */
+    private ExampleEntityService           repositoryService;
+
+    /**
+     * Number of rows added to the database.
+     */
+    @Param({ "10000", "1000000" })
+    private Integer                        rows;
+
+    /**
+     * Snapshot read by the snapshot service.
+     */
+    private OffHeapEntitySnapshot          snapshot;
+
+    /**
+     * Service reading from the snapshot.
+     */
+    private ExampleEntityService           snapshotService;
+
+    /**
+     * Default constructor.
+     */
+    public EntityServiceBenchmark() {
+        super();
+    }
+
+    /**
+     * Queries an existing id through the JDBC service.
+     *
+     * @return the entity found
+     */
+    @Benchmark
+    public final ExampleEntity jdbc_Existing() {
+        return jdbcService.findById(getExistingId());
+    }
+
+    /**
+     * Queries a missing id through the JDBC service.
+     *
+     * @return the entity found
+     */
+    @Benchmark
+    public final ExampleEntity jdbc_Missing() {
+        return jdbcService.findById(getMissingId());
+    }
+
+    /**
+     * Queries an existing id through the repository service.
+     *
+     * @return the entity found
+     */
+    @Benchmark
+    public final ExampleEntity repository_Existing() {
+        return repositoryService.findById(getExistingId());
+    }
+
+    /**
+     * Queries a missing id through the repository service.
+     *
+     * @return the entity found
+     */
+    @Benchmark
+    public final ExampleEntity repository_Missing() {
+        return repositoryService.findById(getMissingId());
+    }
+
+    /**
+     * Fills the database and prepares the services.
+     */
+    @Setup
+    public final void setUp() {
+        final DataSource dataSource; // Database
+        final JdbcTemplate jdbc;     // Template to fill the database
+        final List<Object[]> names;  // Names to add
+
+        context = new ClassPathXmlApplicationContext(
+                "classpath:context/web-service.xml");
+        dataSource = context.getBean(DataSource.class);
+
+        jdbc = new JdbcTemplate(dataSource);
+        names = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            names.add(new Object[] { "entity_" + i });
+            if (names.size() == 10000) {
+                jdbc.batchUpdate(
+                        "INSERT INTO example_entities (name) VALUES (?)",
+                        names);
+                names.clear();
+            }
+        }
+        if (!names.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO example_entities (name) VALUES (?)",
+                    names);
+        }
+        maxId = jdbc.queryForObject("SELECT MAX(id) FROM example_entities",
+                Integer.class);
+
+        // The rows were added without JPA
+        context.getBean(BitSetEntityIdFilter.class).reload();
+        repositoryService = context.getBean(ExampleEntityService.class);
+
+        snapshot = new OffHeapEntitySnapshot(dataSource, 0L, 1);
+        snapshot.afterPropertiesSet();
+        snapshotService = new SnapshotExampleEntityService(snapshot);
+
+        jdbcService = new JdbcExampleEntityService(
+                context.getBean("readOnlyDataSource", DataSource.class));
+    }
+
+    /**
+     * Queries an existing id through the snapshot service.
+     *
+     * @return the entity found
+     */
+    @Benchmark
+    public final ExampleEntity snapshot_Existing() {
+        return snapshotService.findById(getExistingId());
+    }
+
+    /**
+     * Queries a missing id through the snapshot service.
+     *
+     * @return the entity found
+     */
+    @Benchmark
+    public final ExampleEntity snapshot_Missing() {
+        return snapshotService.findById(getMissingId());
+    }
+
+    /**
+     * Closes the application context.
+     */
+    @TearDown
+    public final void tearDown() {
+        snapshot.destroy();
+        context.close();
+    }
+
+    /**
+     * Returns a random existing id.
+     *
+     * @return an existing id
+     */
+    private final Integer getExistingId() {
+        return ThreadLocalRandom.current().nextInt(1, maxId + 1);
+    }
+
+    /**
+     * Returns a random missing id.
+     *
+     * @return a missing id
+     */
+    private final Integer getMissingId() {
+        return maxId + 1 + ThreadLocalRandom.current().nextInt(maxId);
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.benchmark.xml;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.xml.validation.XmlValidator;
+import org.springframework.xml.validation.XmlValidatorFactory;
+
+import com.bernardomg.example.swss.xml.CompiledXsdSchema;
+
+/**
+ * Benchmark comparing the startup cost of compiling the schema for each
+ * servlet with compiling it once into a {@link CompiledXsdSchema}.
+ * <p>
+ * Each call creates the validators for all the servlets, as the payload
+ * validating interceptors do when their contexts are loaded. The validators
+ * are returned, so they are not discarded before the call ends.
+ * <p>
+ * Run it with the GC profiler, {@code -prof gc}, to compare the allocation per
+ * call, which is close to the heap taken by the compiled schemas.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaBenchmark {
+
+    /**
+     * Number of servlets with a payload validator.
+     */
+    private static final int SERVLETS = 9;
+
+    /**
+     * Schema resource.
+     */
+    private Resource         resource;
+
+    /**
+     * Default constructor.
+     */
+    public SchemaBenchmark() {
+        super();
+    }
+
+    /**
+     * Creates the validators compiling the schema for each servlet.
+     *
+     * @return the validators
+     * @throws IOException
+     *             if the schema can't be read
+     */
+    @Benchmark
+    public final XmlValidator[] compile_PerServlet() throws IOException {
+        final XmlValidator[] validators; // Created validators
+
+        validators = new XmlValidator[SERVLETS];
+        for (int i = 0; i < SERVLETS; i++) {
+            validators[i] = XmlValidatorFactory.createValidator(resource,
+                    XmlValidatorFactory.SCHEMA_W3C_XML);
+        }
+
+        return validators;
+    }
+
+    /**
+     * Creates the validators compiling the schema once.
+     *
+     * @return the validators
+     * @throws Exception
+     *             if the schema can't be read
+     */
+    @Benchmark
+    public final XmlValidator[] compile_Shared() throws Exception {
+        final CompiledXsdSchema schema;  // Shared schema
+        final XmlValidator[] validators; // Created validators
+
+        schema = new CompiledXsdSchema(resource);
+
+        validators = new XmlValidator[SERVLETS];
+        for (int i = 0; i < SERVLETS; i++) {
+            validators[i] = schema.createValidator();
+        }
+
+        return validators;
+    }
+
+    /**
+     * Prepares the schema resource.
+     */
+    @Setup
+    public final void setUp() {
+        resource = new ClassPathResource("xsd/entity.xsd");
+    }
+
+}
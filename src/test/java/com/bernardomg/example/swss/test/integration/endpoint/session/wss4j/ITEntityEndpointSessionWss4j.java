@@ -0,0 +1,256 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.integration.endpoint.session.wss4j;
+
+import java.security.SecureRandom;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.transform.dom.DOMResult;
+
+import org.apache.wss4j.common.crypto.Crypto;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.client.support.interceptor.ClientInterceptor;
+import org.springframework.ws.soap.client.core.SoapActionCallback;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.security.wss4j2.Wss4jSecurityInterceptor;
+import org.springframework.xml.transform.StringSource;
+import org.w3c.dom.Document;
+
+import com.bernardomg.example.swss.auth.session.SessionConstants;
+import com.bernardomg.example.swss.client.session.SessionMessageSecurer;
+import com.bernardomg.example.swss.test.util.SoapMessageUtils;
+import com.bernardomg.example.swss.test.util.config.context.TestContextPaths;
+import com.bernardomg.example.swss.test.util.config.properties.InterceptorWss4jPropertiesPaths;
+import com.bernardomg.example.swss.test.util.config.properties.SoapPropertiesPaths;
+import com.bernardomg.example.swss.test.util.config.properties.TestEndpointWss4jPropertiesPaths;
+import com.bernardomg.example.swss.test.util.config.properties.TestPropertiesPaths;
+import com.bernardomg.example.swss.test.util.test.integration.endpoint.AbstractITEndpoint;
+
+/**
+ * Integration test for a session keys protected endpoint using WSS4J.
+ * <p>
+ * The valid message is secured through a session, opened with a handshake
+ * encrypted with the server public key.
+ * <p>
+ * It adds the following cases:
+ * <ol>
+ * <li>A message for an unknown session returns a fault.</li>
+ * </ol>
+ * <p>
+ * Pay attention to the fact that it requires the WS to be running.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ContextConfiguration(locations = { TestContextPaths.KEYSTORE_WSS4J })
+@TestPropertySource({ TestPropertiesPaths.KEYSTORE,
+        TestPropertiesPaths.KEYSTORE_WSS4J,
+        InterceptorWss4jPropertiesPaths.SESSION, SoapPropertiesPaths.SESSION,
+        TestEndpointWss4jPropertiesPaths.SESSION })
+public final class ITEntityEndpointSessionWss4j extends AbstractITEndpoint {
+
+    /**
+     * Template for the handshake request payload.
+     */
+    private static final String REQUEST = "<ses:%1$s xmlns:ses=\"%2$s\"><ses:%3$s>%4$s</ses:%3$s></ses:%1$s>";
+
+    /**
+     * Security actions for the handshake.
+     */
+    @Value("${security.actions}")
+    private String              actions;
+
+    /**
+     * Alias for the certificate encrypting the handshake.
+     */
+    @Value("${symmetricstore.alias}")
+    private String              alias;
+
+    /**
+     * Algorithm for encrypting the messages.
+     */
+    @Value("${session.encryptionAlgorithm}")
+    private String              algorithm;
+
+    /**
+     * Key store for encrypting the handshake.
+     */
+    @Autowired
+    @Qualifier("keyStoreWSS4J")
+    private Crypto              crypto;
+
+    /**
+     * Key identifier for encrypting the handshake.
+     */
+    @Value("${security.encryptionKeyIdentifier}")
+    private String              keyIdentifier;
+
+    /**
+     * Path to the file containing the invalid SOAP request.
+     */
+    @Value("${soap.request.invalid.path}")
+    private String              pathInvalid;
+
+    /**
+     * Path to the file containing the SOAP request to secure.
+     */
+    @Value("${soap.request.path}")
+    private String              pathValid;
+
+    /**
+     * Length, in bytes, of the session secrets.
+     */
+    @Value("${session.secretLength}")
+    private Integer             secretLength;
+
+    /**
+     * URL to the web service being tested.
+     */
+    @Value("${endpoint.url}")
+    private String              wsURL;
+
+    /**
+     * Default constructor.
+     */
+    public ITEntityEndpointSessionWss4j() {
+        super();
+    }
+
+    /**
+     * Tests that a message for an unknown session returns a fault.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testEndpoint_UnknownSession_ReturnsFault()
+            throws Exception {
+        final SOAPMessage message; // Response message
+
+        message = callWebService(
+                getSecuredMessage("urn:uuid:unknown", getSecret()));
+
+        Assert.assertNotNull(
+                message.getSOAPPart().getEnvelope().getBody().getFault());
+    }
+
+    @Override
+    protected final SOAPMessage getInvalidSoapMessage() throws Exception {
+        return SoapMessageUtils.getMessage(pathInvalid);
+    }
+
+    @Override
+    protected final SOAPMessage getValidSoapMessage() throws Exception {
+        final byte[] secret;     // Session secret
+        final String identifier; // Session identifier
+
+        secret = getSecret();
+        identifier = openSession(secret);
+
+        return getSecuredMessage(identifier, secret);
+    }
+
+    /**
+     * Returns the request secured for the specified session.
+     *
+     * @param identifier
+     *            session identifier
+     * @param secret
+     *            session secret
+     * @return the secured request
+     * @throws Exception
+     *             if the request can't be secured
+     */
+    private final SOAPMessage getSecuredMessage(final String identifier,
+            final byte[] secret) throws Exception {
+        final SaajSoapMessage message; // Request to secure
+
+        message = new SaajSoapMessage(SoapMessageUtils.getMessage(pathValid));
+
+        new SessionMessageSecurer(algorithm).secure(message, identifier,
+                secret);
+
+        return message.getSaajMessage();
+    }
+
+    /**
+     * Returns a new random session secret.
+     *
+     * @return a random session secret
+     */
+    private final byte[] getSecret() {
+        final byte[] secret; // Session secret
+
+        secret = new byte[secretLength];
+        new SecureRandom().nextBytes(secret);
+
+        return secret;
+    }
+
+    /**
+     * Opens a session with the endpoint, sending the handshake encrypted with
+     * the server public key.
+     *
+     * @param secret
+     *            session secret
+     * @return the session identifier
+     */
+    private final String openSession(final byte[] secret) {
+        final Wss4jSecurityInterceptor interceptor; // Handshake security
+        final WebServiceTemplate       template;    // Handshake client
+        final DOMResult                response;    // Handshake response
+
+        interceptor = new Wss4jSecurityInterceptor();
+        interceptor.setSecurementActions(actions);
+        interceptor.setSecurementEncryptionUser(alias);
+        interceptor.setSecurementEncryptionCrypto(crypto);
+        interceptor.setSecurementEncryptionKeyIdentifier(keyIdentifier);
+        interceptor.setValidateResponse(false);
+
+        template = new WebServiceTemplate();
+        template.setInterceptors(new ClientInterceptor[] { interceptor });
+
+        response = new DOMResult();
+        template.sendSourceAndReceiveToResult(wsURL,
+                new StringSource(String.format(REQUEST,
+                        SessionConstants.REQUEST, SessionConstants.NAMESPACE,
+                        SessionConstants.SECRET,
+                        DatatypeConverter.printBase64Binary(secret))),
+                new SoapActionCallback(SessionConstants.ACTION), response);
+
+        return ((Document) response.getNode())
+                .getElementsByTagNameNS(SessionConstants.NAMESPACE,
+                        SessionConstants.IDENTIFIER)
+                .item(0).getTextContent().trim();
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.auth.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.bernardomg.example.swss.auth.cache.GuavaBasedUserCache;
+
+/**
+ * Unit tests for {@link GuavaBasedUserCache}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Stored users are returned, ignoring the username case.</li>
+ * <li>Hits and misses are counted.</li>
+ * <li>Locked users are not returned, and are removed.</li>
+ * <li>Removed users are not returned.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestGuavaBasedUserCache {
+
+    /**
+     * Constructs a {@code TestGuavaBasedUserCache}.
+     */
+    public TestGuavaBasedUserCache() {
+        super();
+    }
+
+    /**
+     * Tests that hits and misses are counted.
+     */
+    @Test
+    public final void testCache_Stats() {
+        final GuavaBasedUserCache cache; // Tested cache
+
+        cache = new GuavaBasedUserCache(60L, 10L);
+        cache.putUserInCache(getUser("user", false));
+
+        cache.getUserFromCache("user");
+        cache.getUserFromCache("user");
+        cache.getUserFromCache("other");
+
+        Assert.assertEquals(new Long(2), cache.getHitCount());
+        Assert.assertEquals(new Long(1), cache.getMissCount());
+        Assert.assertEquals(new Long(1), cache.getSize());
+    }
+
+    /**
+     * Tests that stored users are returned, ignoring the username case.
+     */
+    @Test
+    public final void testGet_IgnoresCase() {
+        final GuavaBasedUserCache cache; // Tested cache
+        final UserDetails user;          // Cached user
+
+        cache = new GuavaBasedUserCache(60L, 10L);
+        user = getUser("user", false);
+
+        cache.putUserInCache(user);
+
+        Assert.assertSame(user, cache.getUserFromCache("USER"));
+    }
+
+    /**
+     * Tests that locked users are not returned, and are removed.
+     */
+    @Test
+    public final void testGet_Locked() {
+        final GuavaBasedUserCache cache; // Tested cache
+
+        cache = new GuavaBasedUserCache(60L, 10L);
+        cache.putUserInCache(getUser("user", true));
+
+        Assert.assertNull(cache.getUserFromCache("user"));
+        Assert.assertEquals(new Long(0), cache.getSize());
+    }
+
+    /**
+     * Tests that removed users are not returned.
+     */
+    @Test
+    public final void testRemove() {
+        final GuavaBasedUserCache cache; // Tested cache
+
+        cache = new GuavaBasedUserCache(60L, 10L);
+        cache.putUserInCache(getUser("user", false));
+
+        cache.removeUserFromCache("User");
+
+        Assert.assertNull(cache.getUserFromCache("user"));
+    }
+
+    /**
+     * Returns a mocked user.
+     *
+     * @param username
+     *            name for the user
+     * @param locked
+     *            flag marking the user as locked
+     * @return a mocked user
+     */
+    private final UserDetails getUser(final String username,
+            final Boolean locked) {
+        final UserDetails user; // Mocked user
+
+        user = Mockito.mock(UserDetails.class);
+        Mockito.when(user.getUsername()).thenReturn(username);
+        Mockito.when(user.isEnabled()).thenReturn(true);
+        Mockito.when(user.isAccountNonLocked()).thenReturn(!locked);
+        Mockito.when(user.isAccountNonExpired()).thenReturn(true);
+        Mockito.when(user.isCredentialsNonExpired()).thenReturn(true);
+
+        return user;
+    }
+
+}
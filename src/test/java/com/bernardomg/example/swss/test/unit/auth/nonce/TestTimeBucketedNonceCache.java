@@ -0,0 +1,225 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.auth.nonce;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bernardomg.example.swss.auth.nonce.TimeBucketedNonceCache;
+
+/**
+ * Concurrency stress tests for {@link TimeBucketedNonceCache}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Each nonce is accepted once, even when several threads send it at the
+ * same time.</li>
+ * <li>The cache never stores more nonces than its maximum size, even when
+ * several threads fill it at the same time.</li>
+ * <li>Checking nonces as WSS4J does accepts each of them once.</li>
+ * <li>Nonces from stale tokens are rejected.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestTimeBucketedNonceCache {
+
+    /**
+     * Number of different nonces sent by each thread.
+     */
+    private static final Integer NONCES  = 20000;
+
+    /**
+     * Number of threads sending nonces.
+     */
+    private static final Integer THREADS = 8;
+
+    /**
+     * Constructs a {@code TestTimeBucketedNonceCache}.
+     */
+    public TestTimeBucketedNonceCache() {
+        super();
+    }
+
+    /**
+     * Tests that checking nonces as WSS4J does accepts each of them once.
+     *
+     * @throws Exception
+     *             if any thread fails
+     */
+    @Test
+    public final void testContains_Concurrent_AcceptedOnce() throws Exception {
+        final TimeBucketedNonceCache cache; // Tested cache
+        final Long accepted;                // Nonces accepted by the threads
+
+        cache = new TimeBucketedNonceCache(300, 30, NONCES * 2);
+
+        accepted = run(cache, true);
+
+        Assert.assertEquals(new Long(NONCES), accepted);
+        Assert.assertEquals(NONCES, cache.getSize());
+    }
+
+    /**
+     * Tests that each nonce is accepted once, even when several threads send
+     * it at the same time.
+     *
+     * @throws Exception
+     *             if any thread fails
+     */
+    @Test
+    public final void testRegister_Concurrent_AcceptedOnce() throws Exception {
+        final TimeBucketedNonceCache cache; // Tested cache
+        final Long accepted;                // Nonces accepted by the threads
+
+        cache = new TimeBucketedNonceCache(300, 30, NONCES * 2);
+
+        accepted = run(cache, false);
+
+        Assert.assertEquals(new Long(NONCES), accepted);
+        Assert.assertEquals(new Long(NONCES), cache.getAcceptedCount());
+        Assert.assertEquals(new Long(NONCES * (THREADS - 1)),
+                cache.getReplayCount());
+        Assert.assertEquals(NONCES, cache.getSize());
+    }
+
+    /**
+     * Tests that the cache never stores more nonces than its maximum size,
+     * even when several threads fill it at the same time.
+     *
+     * @throws Exception
+     *             if any thread fails
+     */
+    @Test
+    public final void testRegister_Concurrent_Bounded() throws Exception {
+        final TimeBucketedNonceCache cache; // Tested cache
+        final Integer max;                  // Maximum cache size
+        final Long accepted;                // Nonces accepted by the threads
+
+        max = NONCES / 4;
+        cache = new TimeBucketedNonceCache(300, 30, max);
+
+        accepted = run(cache, false);
+
+        Assert.assertEquals(new Long(max), accepted);
+        Assert.assertEquals(max, cache.getSize());
+        Assert.assertTrue(cache.getOverflowCount() > 0);
+    }
+
+    /**
+     * Tests that nonces from stale tokens are rejected.
+     */
+    @Test
+    public final void testRegister_Stale() {
+        final TimeBucketedNonceCache cache; // Tested cache
+        final Date created;                 // Token creation date
+
+        cache = new TimeBucketedNonceCache(300, 30, 10);
+        created = new Date(System.currentTimeMillis()
+                - TimeUnit.SECONDS.toMillis(301));
+
+        Assert.assertFalse(cache.register("nonce", created));
+        Assert.assertEquals(new Long(1), cache.getStaleCount());
+        Assert.assertEquals(new Integer(0), cache.getSize());
+    }
+
+    /**
+     * Sends the same nonces to the cache from several threads, all of them
+     * starting at the same time, and returns the number of nonces accepted.
+     *
+     * @param cache
+     *            cache to test
+     * @param asWss4j
+     *            flag to check the nonces as WSS4J does
+     * @return the number of nonces accepted
+     * @throws Exception
+     *             if any thread fails
+     */
+    private final Long run(final TimeBucketedNonceCache cache,
+            final Boolean asWss4j) throws Exception {
+        final ExecutorService executor;         // Executor for the threads
+        final CountDownLatch start;             // Latch to start the threads
+        final Collection<Future<Long>> results; // Accepted count per thread
+        Long accepted;                          // Total accepted count
+
+        executor = Executors.newFixedThreadPool(THREADS);
+        start = new CountDownLatch(1);
+        results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(new Callable<Long>() {
+
+                @Override
+                public final Long call() throws Exception {
+                    final Date created; // Token creation date
+                    Long count;         // Accepted nonces
+                    Boolean valid;      // Flag marking the nonce was accepted
+
+                    created = new Date();
+                    count = 0L;
+                    start.await();
+                    for (int j = 0; j < NONCES; j++) {
+                        if (asWss4j) {
+                            valid = !cache.contains("nonce" + j);
+                            if (valid) {
+                                cache.add("nonce" + j, 300L);
+                            }
+                        } else {
+                            valid = cache.register("nonce" + j, created);
+                        }
+
+                        if (valid) {
+                            count++;
+                        }
+                    }
+
+                    return count;
+                }
+
+            }));
+        }
+
+        start.countDown();
+
+        accepted = 0L;
+        for (final Future<Long> result : results) {
+            accepted += result.get(1, TimeUnit.MINUTES);
+        }
+
+        executor.shutdown();
+
+        return accepted;
+    }
+
+}
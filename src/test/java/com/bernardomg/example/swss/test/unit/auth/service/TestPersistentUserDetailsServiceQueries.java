@@ -0,0 +1,172 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.auth.service;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.AbstractJUnit4SpringContextTests;
+
+import com.bernardomg.example.swss.auth.service.PersistentUserDetailsService;
+import com.bernardomg.example.swss.test.util.config.context.TestContextPaths;
+
+/**
+ * Unit tests for {@link PersistentUserDetailsService}, reading from the
+ * persistence layer.
+ * <p>
+ * The queries are counted through the Hibernate statistics.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Loading a user with authorities requires a single query.</li>
+ * <li>Loading a user without authorities requires a single query.</li>
+ * <li>Users with the same authorities share the same collection.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@ContextConfiguration(locations = { TestContextPaths.PERSISTENCE })
+public final class TestPersistentUserDetailsServiceQueries
+        extends AbstractJUnit4SpringContextTests {
+
+    /**
+     * Data source for preparing the database.
+     */
+    @Autowired
+    private DataSource           dataSource;
+
+    /**
+     * Entity manager factory, for the statistics.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Template for preparing the database.
+     */
+    private JdbcTemplate         jdbcTemplate;
+
+    /**
+     * Service being tested.
+     */
+    @Autowired
+    private UserDetailsService   service;
+
+    /**
+     * Default constructor.
+     */
+    public TestPersistentUserDetailsServiceQueries() {
+        super();
+    }
+
+    /**
+     * Adds two users with the same authorities, and clears the statistics.
+     */
+    @Before
+    public final void setUpUsers() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update(
+                "INSERT INTO authorities (id, authority) VALUES (1001, 'ROLE_USER'), (1002, 'ROLE_ADMIN')");
+        jdbcTemplate.update(
+                "INSERT INTO users (id, name, password) VALUES (1001, 'user_a', 'pass'), (1002, 'user_b', 'pass')");
+        jdbcTemplate.update(
+                "INSERT INTO user_authorities (user_id, authority_id) VALUES (1001, 1001), (1001, 1002), (1002, 1001), (1002, 1002)");
+
+        getStatistics().clear();
+    }
+
+    /**
+     * Removes the added users.
+     */
+    @After
+    public final void tearDownUsers() {
+        jdbcTemplate.update("DELETE FROM user_authorities WHERE user_id > 1000");
+        jdbcTemplate.update("DELETE FROM users WHERE id > 1000");
+        jdbcTemplate.update("DELETE FROM authorities WHERE id > 1000");
+    }
+
+    /**
+     * Tests that users with the same authorities share the same collection.
+     */
+    @Test
+    public final void testLoad_SharedAuthorities() {
+        final UserDetails userA; // First user
+        final UserDetails userB; // Second user
+
+        userA = service.loadUserByUsername("user_a");
+        userB = service.loadUserByUsername("user_b");
+
+        Assert.assertNotSame(userA, userB);
+        Assert.assertSame(userA.getAuthorities(), userB.getAuthorities());
+    }
+
+    /**
+     * Tests that loading a user with authorities requires a single query.
+     */
+    @Test
+    public final void testLoad_WithAuthorities_SingleQuery() {
+        final UserDetails user; // Loaded user
+
+        user = service.loadUserByUsername("user_a");
+
+        Assert.assertEquals(2, user.getAuthorities().size());
+        Assert.assertEquals(1, getStatistics().getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that loading a user without authorities requires a single query.
+     */
+    @Test
+    public final void testLoad_WithoutAuthorities_SingleQuery() {
+        final UserDetails user; // Loaded user
+
+        user = service.loadUserByUsername("myuser");
+
+        Assert.assertTrue(user.getAuthorities().isEmpty());
+        Assert.assertEquals(1, getStatistics().getPrepareStatementCount());
+    }
+
+    /**
+     * Returns the Hibernate statistics.
+     *
+     * @return the Hibernate statistics
+     */
+    private final Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+}
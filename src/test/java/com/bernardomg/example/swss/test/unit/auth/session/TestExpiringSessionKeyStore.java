@@ -0,0 +1,187 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.auth.session;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bernardomg.example.swss.auth.session.ExpiringSessionKeyStore;
+
+/**
+ * Unit tests for {@link ExpiringSessionKeyStore}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The secret of an open session is returned.</li>
+ * <li>Changing the returned secret doesn't change the stored one.</li>
+ * <li>Each session receives its own identifier.</li>
+ * <li>Secrets shorter than the minimum length are rejected.</li>
+ * <li>Closed sessions have no secret.</li>
+ * <li>Unknown sessions have no secret.</li>
+ * <li>The oldest sessions are removed when the store is full.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestExpiringSessionKeyStore {
+
+    /**
+     * Constructs a {@code TestExpiringSessionKeyStore}.
+     */
+    public TestExpiringSessionKeyStore() {
+        super();
+    }
+
+    /**
+     * Tests that each session receives its own identifier.
+     */
+    @Test
+    public final void testCreate_DistinctIdentifiers() {
+        final ExpiringSessionKeyStore store; // Tested store
+        final String first;                  // First session
+        final String second;                 // Second session
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+
+        first = store.create(getSecret((byte) 1));
+        second = store.create(getSecret((byte) 1));
+
+        Assert.assertNotEquals(first, second);
+        Assert.assertEquals((Long) 2L, store.getCreatedCount());
+        Assert.assertEquals((Long) 2L, store.getSize());
+    }
+
+    /**
+     * Tests that the oldest sessions are removed when the store is full.
+     */
+    @Test
+    public final void testCreate_Full_Evicted() {
+        final ExpiringSessionKeyStore store; // Tested store
+        final String oldest;                 // First session
+
+        store = new ExpiringSessionKeyStore(600, 2L);
+
+        oldest = store.create(getSecret((byte) 1));
+        store.create(getSecret((byte) 2));
+        store.create(getSecret((byte) 3));
+
+        Assert.assertNull(store.getSecret(oldest));
+        Assert.assertEquals((Long) 2L, store.getSize());
+        Assert.assertEquals((Long) 1L, store.getEvictionCount());
+    }
+
+    /**
+     * Tests that secrets shorter than the minimum length are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testCreate_ShortSecret() {
+        final ExpiringSessionKeyStore store; // Tested store
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+
+        store.create(new byte[8]);
+    }
+
+    /**
+     * Tests that the secret of an open session is returned.
+     */
+    @Test
+    public final void testGetSecret() {
+        final ExpiringSessionKeyStore store; // Tested store
+        final String session;                // Session identifier
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+
+        session = store.create(getSecret((byte) 1));
+
+        Assert.assertArrayEquals(getSecret((byte) 1),
+                store.getSecret(session));
+    }
+
+    /**
+     * Tests that changing the returned secret doesn't change the stored one.
+     */
+    @Test
+    public final void testGetSecret_Copy() {
+        final ExpiringSessionKeyStore store; // Tested store
+        final String session;                // Session identifier
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+
+        session = store.create(getSecret((byte) 1));
+        Arrays.fill(store.getSecret(session), (byte) 0);
+
+        Assert.assertArrayEquals(getSecret((byte) 1),
+                store.getSecret(session));
+    }
+
+    /**
+     * Tests that closed sessions have no secret.
+     */
+    @Test
+    public final void testGetSecret_Removed() {
+        final ExpiringSessionKeyStore store; // Tested store
+        final String session;                // Session identifier
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+
+        session = store.create(getSecret((byte) 1));
+        store.removeAll();
+
+        Assert.assertNull(store.getSecret(session));
+    }
+
+    /**
+     * Tests that unknown sessions have no secret.
+     */
+    @Test
+    public final void testGetSecret_Unknown() {
+        final ExpiringSessionKeyStore store; // Tested store
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+
+        Assert.assertNull(store.getSecret("urn:uuid:unknown"));
+        Assert.assertEquals((Long) 1L, store.getMissCount());
+    }
+
+    /**
+     * Returns a secret filled with the specified value.
+     *
+     * @param value
+     *            value for all the secret bytes
+     * @return a secret filled with the value
+     */
+    private final byte[] getSecret(final byte value) {
+        final byte[] secret; // Generated secret
+
+        secret = new byte[32];
+        Arrays.fill(secret, value);
+
+        return secret;
+    }
+
+}
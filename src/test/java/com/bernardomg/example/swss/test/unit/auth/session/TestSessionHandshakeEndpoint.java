@@ -0,0 +1,209 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.auth.session;
+
+import java.util.Arrays;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.soap.MessageFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.xml.transform.StringSource;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.bernardomg.example.swss.auth.session.ExpiringSessionKeyStore;
+import com.bernardomg.example.swss.auth.session.SessionConstants;
+import com.bernardomg.example.swss.auth.session.SessionHandshakeEndpoint;
+
+/**
+ * Unit tests for {@link SessionHandshakeEndpoint}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>A secret shorter than the minimum length returns a fault.</li>
+ * <li>A valid secret opens a session, returning its identifier and
+ * lifetime.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestSessionHandshakeEndpoint {
+
+    /**
+     * Template for the handshake request payload.
+     */
+    private static final String     REQUEST = "<ses:%1$s xmlns:ses=\"%2$s\"><ses:%3$s>%4$s</ses:%3$s></ses:%1$s>";
+
+    /**
+     * Factory for the messages.
+     */
+    private SaajSoapMessageFactory  factory;
+
+    /**
+     * Store for the session secrets.
+     */
+    private ExpiringSessionKeyStore store;
+
+    /**
+     * Default constructor.
+     */
+    public TestSessionHandshakeEndpoint() {
+        super();
+    }
+
+    /**
+     * Creates the message factory and the session store.
+     *
+     * @throws Exception
+     *             if the message factory can't be created
+     */
+    @Before
+    public final void setUpStore() throws Exception {
+        factory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+        store = new ExpiringSessionKeyStore(600, 10L);
+    }
+
+    /**
+     * Tests that a secret shorter than the minimum length returns a fault.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testInvoke_ShortSecret_Fault() throws Exception {
+        final MessageContext context; // Context for the handshake
+
+        context = getContext(new byte[8]);
+
+        new SessionHandshakeEndpoint(store).invoke(context);
+
+        Assert.assertTrue(
+                ((SoapMessage) context.getResponse()).getSoapBody().hasFault());
+        Assert.assertEquals((Long) 0L, store.getCreatedCount());
+    }
+
+    /**
+     * Tests that a valid secret opens a session, returning its identifier
+     * and lifetime.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testInvoke_Valid_Opened() throws Exception {
+        final MessageContext context;    // Context for the handshake
+        final byte[]         secret;     // Session secret
+        final Element        response;   // Response payload
+        final String         identifier; // Session identifier
+
+        secret = new byte[32];
+        Arrays.fill(secret, (byte) 1);
+
+        context = getContext(secret);
+
+        new SessionHandshakeEndpoint(store).invoke(context);
+
+        Assert.assertFalse(
+                ((SoapMessage) context.getResponse()).getSoapBody().hasFault());
+
+        response = getPayload(context.getResponse());
+        identifier = getText(response, SessionConstants.IDENTIFIER);
+
+        Assert.assertEquals(SessionConstants.RESPONSE,
+                response.getLocalName());
+        Assert.assertEquals("600",
+                getText(response, SessionConstants.LIFETIME));
+        Assert.assertArrayEquals(secret, store.getSecret(identifier));
+    }
+
+    /**
+     * Returns a context for a handshake sending the specified secret.
+     *
+     * @param secret
+     *            secret to send
+     * @return a context for the handshake
+     * @throws Exception
+     *             if the request can't be created
+     */
+    private final MessageContext getContext(final byte[] secret)
+            throws Exception {
+        final WebServiceMessage request; // Handshake request
+
+        request = factory.createWebServiceMessage();
+        TransformerFactory.newInstance().newTransformer().transform(
+                new StringSource(String.format(REQUEST,
+                        SessionConstants.REQUEST, SessionConstants.NAMESPACE,
+                        SessionConstants.SECRET,
+                        DatatypeConverter.printBase64Binary(secret))),
+                request.getPayloadResult());
+
+        return new DefaultMessageContext(request, factory);
+    }
+
+    /**
+     * Returns the payload of the message.
+     *
+     * @param message
+     *            message to read
+     * @return the payload of the message
+     * @throws Exception
+     *             if the payload can't be read
+     */
+    private final Element getPayload(final WebServiceMessage message)
+            throws Exception {
+        final DOMResult payload; // Message payload
+
+        payload = new DOMResult();
+        TransformerFactory.newInstance().newTransformer()
+                .transform(message.getPayloadSource(), payload);
+
+        return ((Document) payload.getNode()).getDocumentElement();
+    }
+
+    /**
+     * Returns the text of the child element with the specified name.
+     *
+     * @param parent
+     *            parent element
+     * @param name
+     *            local name of the child
+     * @return the text of the child
+     */
+    private final String getText(final Element parent, final String name) {
+        return parent.getElementsByTagNameNS(SessionConstants.NAMESPACE, name)
+                .item(0).getTextContent();
+    }
+
+}
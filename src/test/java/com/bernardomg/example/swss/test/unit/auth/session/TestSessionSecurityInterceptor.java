@@ -0,0 +1,304 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.auth.session;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.MessageFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.w3c.dom.Document;
+
+import com.bernardomg.example.swss.auth.session.ExpiringSessionKeyStore;
+import com.bernardomg.example.swss.auth.session.SessionSecurityInterceptor;
+import com.bernardomg.example.swss.client.session.SessionMessageSecurer;
+
+/**
+ * Unit tests for {@link SessionSecurityInterceptor}, along the
+ * {@link SessionMessageSecurer}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>A request for an expired session returns a fault.</li>
+ * <li>A request without a session goes to the handshake interceptor.</li>
+ * <li>A request secured for an open session is decrypted.</li>
+ * <li>A request for an unknown session returns a fault.</li>
+ * <li>A request encrypted with another secret returns a fault.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestSessionSecurityInterceptor {
+
+    /**
+     * Algorithm for encrypting the requests.
+     */
+    private static final String   ALGORITHM       = "http://www.w3.org/2009/xmlenc11#aes128-gcm";
+
+    /**
+     * Local name of the request payload.
+     */
+    private static final String   PAYLOAD         = "getEntityRequest";
+
+    /**
+     * Path to the request.
+     */
+    private static final String   REQUEST_PATH    = "soap/request/request-not-secured.xml";
+
+    /**
+     * Name of the security header.
+     */
+    private static final QName    SECURITY_HEADER = new QName(
+            "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd",
+            "Security");
+
+    /**
+     * Context for the request.
+     */
+    private MessageContext        context;
+
+    /**
+     * Interceptor for the requests without a session.
+     */
+    private EndpointInterceptor   handshake;
+
+    /**
+     * Securer for the requests.
+     */
+    private SessionMessageSecurer securer;
+
+    /**
+     * Default constructor.
+     */
+    public TestSessionSecurityInterceptor() {
+        super();
+    }
+
+    /**
+     * Creates the context for the request and the securer.
+     *
+     * @throws Exception
+     *             if the request can't be read
+     */
+    @Before
+    public final void setUpContext() throws Exception {
+        final SaajSoapMessageFactory factory; // Message factory
+        final InputStream            stream;  // Request stream
+
+        factory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+
+        stream = new ClassPathResource(REQUEST_PATH).getInputStream();
+        try {
+            context = new DefaultMessageContext(
+                    factory.createWebServiceMessage(stream), factory);
+        } finally {
+            stream.close();
+        }
+
+        handshake = Mockito.mock(EndpointInterceptor.class);
+        securer = new SessionMessageSecurer(ALGORITHM);
+    }
+
+    /**
+     * Tests that a request for an expired session returns a fault.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_SessionExpired_Fault()
+            throws Exception {
+        final ExpiringSessionKeyStore store;      // Session store
+        final String                  identifier; // Session identifier
+
+        store = new ExpiringSessionKeyStore(1, 10L);
+        identifier = store.create(getSecret((byte) 1));
+
+        securer.secure((SoapMessage) context.getRequest(), identifier,
+                getSecret((byte) 1));
+
+        // Waits until the session expires
+        Thread.sleep(1100L);
+
+        Assert.assertFalse(new SessionSecurityInterceptor(store, handshake)
+                .handleRequest(context, null));
+
+        Assert.assertTrue(
+                ((SoapMessage) context.getResponse()).getSoapBody().hasFault());
+        Mockito.verifyZeroInteractions(handshake);
+    }
+
+    /**
+     * Tests that a request without a session goes to the handshake
+     * interceptor.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_SessionMissing_Handshake()
+            throws Exception {
+        final ExpiringSessionKeyStore store; // Session store
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+
+        Mockito.when(handshake.handleRequest(context, null)).thenReturn(true);
+
+        Assert.assertTrue(new SessionSecurityInterceptor(store, handshake)
+                .handleRequest(context, null));
+
+        Mockito.verify(handshake).handleRequest(context, null);
+    }
+
+    /**
+     * Tests that a request secured for an open session is decrypted.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_SessionOpen_Decrypted()
+            throws Exception {
+        final ExpiringSessionKeyStore store;      // Session store
+        final String                  identifier; // Session identifier
+        final SoapMessage             request;    // Secured request
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+        identifier = store.create(getSecret((byte) 1));
+
+        request = (SoapMessage) context.getRequest();
+        securer.secure(request, identifier, getSecret((byte) 1));
+
+        Assert.assertNotEquals(PAYLOAD, getPayloadName(request));
+
+        Assert.assertTrue(new SessionSecurityInterceptor(store, handshake)
+                .handleRequest(context, null));
+
+        Assert.assertEquals(PAYLOAD, getPayloadName(request));
+        Assert.assertFalse(request.getSoapHeader()
+                .examineHeaderElements(SECURITY_HEADER).hasNext());
+        Assert.assertFalse(context.hasResponse());
+        Mockito.verifyZeroInteractions(handshake);
+    }
+
+    /**
+     * Tests that a request for an unknown session returns a fault.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_SessionUnknown_Fault()
+            throws Exception {
+        final ExpiringSessionKeyStore store; // Session store
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+
+        securer.secure((SoapMessage) context.getRequest(),
+                "urn:uuid:unknown", getSecret((byte) 1));
+
+        Assert.assertFalse(new SessionSecurityInterceptor(store, handshake)
+                .handleRequest(context, null));
+
+        Assert.assertTrue(
+                ((SoapMessage) context.getResponse()).getSoapBody().hasFault());
+        Mockito.verifyZeroInteractions(handshake);
+    }
+
+    /**
+     * Tests that a request encrypted with another secret returns a fault.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_WrongSecret_Fault() throws Exception {
+        final ExpiringSessionKeyStore store;      // Session store
+        final String                  identifier; // Session identifier
+
+        store = new ExpiringSessionKeyStore(600, 10L);
+        identifier = store.create(getSecret((byte) 1));
+
+        securer.secure((SoapMessage) context.getRequest(), identifier,
+                getSecret((byte) 2));
+
+        Assert.assertFalse(new SessionSecurityInterceptor(store, handshake)
+                .handleRequest(context, null));
+
+        Assert.assertTrue(
+                ((SoapMessage) context.getResponse()).getSoapBody().hasFault());
+    }
+
+    /**
+     * Returns the local name of the message payload.
+     *
+     * @param message
+     *            message to read
+     * @return the local name of the payload
+     * @throws Exception
+     *             if the payload can't be read
+     */
+    private final String getPayloadName(final SoapMessage message)
+            throws Exception {
+        final DOMResult payload; // Message payload
+
+        payload = new DOMResult();
+        TransformerFactory.newInstance().newTransformer()
+                .transform(message.getPayloadSource(), payload);
+
+        return ((Document) payload.getNode()).getDocumentElement()
+                .getLocalName();
+    }
+
+    /**
+     * Returns a secret filled with the specified value.
+     *
+     * @param value
+     *            value for the secret bytes
+     * @return a secret with the minimum length
+     */
+    private final byte[] getSecret(final byte value) {
+        final byte[] secret; // Generated secret
+
+        secret = new byte[32];
+        Arrays.fill(secret, value);
+
+        return secret;
+    }
+
+}
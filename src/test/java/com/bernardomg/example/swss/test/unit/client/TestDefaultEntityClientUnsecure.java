@@ -25,6 +25,9 @@
 package com.bernardomg.example.swss.test.unit.client;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -53,6 +56,10 @@
  * <ol>
  * <li>The client parses correctly formed SOAP messages.</li>
  * <li>The client can handle incorrectly formed SOAP messages.</li>
+ * <li>The client parses correctly formed SOAP messages with several
+ * entities.</li>
+ * <li>The client iterates over correctly formed SOAP messages with a page of
+ * entities.</li>
  * </ol>
  *
  * @author Bernardo Mart&iacute;nez Garrido
@@ -86,6 +93,18 @@
     @Value("${xsd.entity.path}")
     private String              entityXsdPath;
 
+    /**
+     * Path to the file with the valid response payload for several entities.
+     */
+    @Value("${soap.response.payload.entities.path}")
+    private String              responseEntitiesPayloadPath;
+
+    /**
+     * Path to the file with the valid response payload for a page of entities.
+     */
+    @Value("${soap.response.payload.list.path}")
+    private String              responseListPayloadPath;
+
     /**
      * Path to the file with the invalid response payload.
      */
@@ -105,6 +124,90 @@ public TestDefaultEntityClientUnsecure() {
         super();
     }
 
+    /**
+     * Tests that the client parses correctly formed SOAP messages with several
+     * entities.
+     *
+     * @throws IOException
+     *             if there is any problem loading the entity schema file
+     */
+    @Test
+    public final void testClient_Entities_Payload_Valid() throws IOException {
+        final MockWebServiceServer mockServer; // Mocked server
+        final RequestMatcher requestMatcher; // Matcher for the request
+        final ResponseCreator responseCreator; // Creator for the response
+        final Collection<ExampleEntity> result; // Queried entities
+        final ExampleEntity first; // First queried entity
+
+        // Creates the request matcher
+        requestMatcher = RequestMatchers
+                .validPayload(new ClassPathResource(entityXsdPath));
+
+        // Creates the response
+        responseCreator = ResponseCreators
+                .withPayload(new ClassPathResource(responseEntitiesPayloadPath));
+
+        // Creates the server mock
+        mockServer = MockWebServiceServer.createServer(client);
+        mockServer.expect(requestMatcher).andRespond(responseCreator);
+
+        // Calls the server mock
+        result = client.getEntities("http:somewhere.com",
+                Arrays.asList(entityId, 2));
+
+        Assert.assertEquals(2, result.size());
+
+        first = result.iterator().next();
+        Assert.assertEquals(entityId, first.getId());
+        Assert.assertEquals(entityName, first.getName());
+
+        mockServer.verify();
+    }
+
+    /**
+     * Tests that the client iterates over correctly formed SOAP messages with a
+     * page of entities.
+     * <p>
+     * As the page is smaller than the requested size, a single request is
+     * expected.
+     *
+     * @throws IOException
+     *             if there is any problem loading the entity schema file
+     */
+    @Test
+    public final void testClient_List_Payload_Valid() throws IOException {
+        final MockWebServiceServer mockServer; // Mocked server
+        final RequestMatcher requestMatcher; // Matcher for the request
+        final ResponseCreator responseCreator; // Creator for the response
+        final Iterator<ExampleEntity> result; // Iterated entities
+        final ExampleEntity first; // First iterated entity
+
+        // Creates the request matcher
+        requestMatcher = RequestMatchers
+                .validPayload(new ClassPathResource(entityXsdPath));
+
+        // Creates the response
+        responseCreator = ResponseCreators
+                .withPayload(new ClassPathResource(responseListPayloadPath));
+
+        // Creates the server mock
+        mockServer = MockWebServiceServer.createServer(client);
+        mockServer.expect(requestMatcher).andRespond(responseCreator);
+
+        // Calls the server mock
+        result = client.listEntities("http:somewhere.com", 0, 10);
+
+        first = result.next();
+        Assert.assertEquals(entityId, first.getId());
+        Assert.assertEquals(entityName, first.getName());
+
+        Assert.assertTrue(result.hasNext());
+        result.next();
+        Assert.assertFalse(result.hasNext());
+
+        mockServer.verify();
+    }
+
     /**
      * Tests that the client can handle incorrectly formed SOAP messages.
      *
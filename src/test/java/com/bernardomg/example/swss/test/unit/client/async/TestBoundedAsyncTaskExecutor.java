@@ -0,0 +1,159 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.client.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import com.bernardomg.example.swss.client.async.BoundedAsyncTaskExecutor;
+
+/**
+ * Unit tests for {@link BoundedAsyncTaskExecutor}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Running tasks are counted as in flight until they finish.</li>
+ * <li>Cancelled tasks are no longer in flight.</li>
+ * <li>Rejected tasks are not in flight.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestBoundedAsyncTaskExecutor {
+
+    /**
+     * Default constructor.
+     */
+    public TestBoundedAsyncTaskExecutor() {
+        super();
+    }
+
+    /**
+     * Tests that cancelled tasks are no longer in flight.
+     */
+    @Test
+    public final void testSubmit_Cancelled_Released() {
+        final BoundedAsyncTaskExecutor executor; // Tested executor
+        final Future<?>                future;   // Submitted task
+
+        // The delegated executor never runs the tasks
+        executor = new BoundedAsyncTaskExecutor(new TaskExecutor() {
+
+            @Override
+            public final void execute(final Runnable task) {}
+
+        }, 1);
+
+        future = executor.submit(new Runnable() {
+
+            @Override
+            public final void run() {}
+
+        });
+
+        Assert.assertEquals(new Integer(1), executor.getInFlight());
+
+        future.cancel(false);
+
+        Assert.assertEquals(new Integer(0), executor.getInFlight());
+    }
+
+    /**
+     * Tests that running tasks are counted as in flight until they finish.
+     * <p>
+     * The permit is freed just after the result is set, so the test waits
+     * for it.
+     *
+     * @throws Exception
+     *             if the task fails
+     */
+    @Test(timeout = 5000)
+    public final void testSubmit_Running_InFlight() throws Exception {
+        final BoundedAsyncTaskExecutor executor; // Tested executor
+        final CountDownLatch           latch;    // Latch blocking the task
+        final Future<Integer>          future;   // Submitted task
+
+        executor = new BoundedAsyncTaskExecutor(new SimpleAsyncTaskExecutor(),
+                2);
+        latch = new CountDownLatch(1);
+
+        future = executor.submit(new Callable<Integer>() {
+
+            @Override
+            public final Integer call() throws InterruptedException {
+                latch.await();
+                return 1;
+            }
+
+        });
+
+        Assert.assertEquals(new Integer(1), executor.getInFlight());
+
+        latch.countDown();
+
+        Assert.assertEquals(new Integer(1), future.get());
+
+        while (executor.getInFlight() > 0) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Tests that rejected tasks are not in flight.
+     */
+    @Test
+    public final void testSubmit_Rejected_Released() {
+        final BoundedAsyncTaskExecutor executor; // Tested executor
+
+        executor = new BoundedAsyncTaskExecutor(new TaskExecutor() {
+
+            @Override
+            public final void execute(final Runnable task) {
+                throw new TaskRejectedException("Rejected");
+            }
+
+        }, 1);
+
+        try {
+            executor.submit(new Runnable() {
+
+                @Override
+                public final void run() {}
+
+            });
+            Assert.fail("The task should have been rejected");
+        } catch (final TaskRejectedException e) {
+            Assert.assertEquals(new Integer(0), executor.getInFlight());
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.client.metrics;
+
+import java.util.Arrays;
+
+import javax.xml.soap.MessageFactory;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.springframework.ws.client.support.interceptor.ClientInterceptor;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+import com.bernardomg.example.swss.client.metrics.ClientMetrics;
+import com.bernardomg.example.swss.client.metrics.ClientPhase;
+import com.bernardomg.example.swss.client.metrics.MetricsClientInterceptor;
+
+/**
+ * Unit tests for {@link MetricsClientInterceptor}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Errors are counted.</li>
+ * <li>A query completed twice, as the template does with faults, is recorded
+ * once.</li>
+ * <li>Faults are counted.</li>
+ * <li>The wrapped interceptors are called as the template would.</li>
+ * <li>All the phases are recorded for a response.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestMetricsClientInterceptor {
+
+    /**
+     * Target used when there is no connection.
+     */
+    private static final String      TARGET = "unknown";
+
+    /**
+     * Context for the query.
+     */
+    private MessageContext           context;
+
+    /**
+     * First wrapped interceptor.
+     */
+    private ClientInterceptor        first;
+
+    /**
+     * Interceptor being tested.
+     */
+    private MetricsClientInterceptor interceptor;
+
+    /**
+     * Recorded metrics.
+     */
+    private ClientMetrics            metrics;
+
+    /**
+     * Second wrapped interceptor.
+     */
+    private ClientInterceptor        second;
+
+    /**
+     * Default constructor.
+     */
+    public TestMetricsClientInterceptor() {
+        super();
+    }
+
+    /**
+     * Creates the interceptor, wrapping two mocked interceptors.
+     *
+     * @throws Exception
+     *             if the message factory can't be created
+     */
+    @Before
+    public final void setUpInterceptor() throws Exception {
+        context = new DefaultMessageContext(
+                new SaajSoapMessageFactory(MessageFactory.newInstance()));
+
+        first = Mockito.mock(ClientInterceptor.class);
+        second = Mockito.mock(ClientInterceptor.class);
+        for (final ClientInterceptor wrapped : Arrays.asList(first, second)) {
+            Mockito.when(wrapped
+                    .handleRequest(Matchers.any(MessageContext.class)))
+                    .thenReturn(true);
+            Mockito.when(wrapped
+                    .handleResponse(Matchers.any(MessageContext.class)))
+                    .thenReturn(true);
+            Mockito.when(wrapped
+                    .handleFault(Matchers.any(MessageContext.class)))
+                    .thenReturn(true);
+        }
+
+        metrics = new ClientMetrics();
+        interceptor = new MetricsClientInterceptor(metrics,
+                Arrays.asList(first, second));
+    }
+
+    /**
+     * Tests that errors are counted.
+     */
+    @Test
+    public final void testAfterCompletion_Error() {
+        interceptor.handleRequest(context);
+        interceptor.afterCompletion(context, new Exception());
+
+        Assert.assertEquals((Long) 1L, metrics.getErrors(TARGET));
+        Assert.assertEquals((Long) 1L,
+                metrics.getCount(TARGET, ClientPhase.TOTAL.name()));
+    }
+
+    /**
+     * Tests that a query completed twice, as the template does with faults,
+     * is recorded once.
+     */
+    @Test
+    public final void testAfterCompletion_Twice() {
+        interceptor.handleRequest(context);
+        interceptor.handleFault(context);
+        interceptor.afterCompletion(context, null);
+        interceptor.afterCompletion(context, new Exception());
+
+        Assert.assertEquals((Long) 1L,
+                metrics.getCount(TARGET, ClientPhase.TOTAL.name()));
+        Assert.assertEquals((Long) 0L, metrics.getErrors(TARGET));
+        Mockito.verify(first).afterCompletion(Matchers.eq(context),
+                Matchers.any(Exception.class));
+    }
+
+    /**
+     * Tests that faults are counted.
+     */
+    @Test
+    public final void testHandleFault() {
+        interceptor.handleRequest(context);
+        interceptor.handleFault(context);
+        interceptor.afterCompletion(context, null);
+
+        Assert.assertEquals((Long) 1L, metrics.getFaults(TARGET));
+        Assert.assertEquals((Long) 0L, metrics.getErrors(TARGET));
+    }
+
+    /**
+     * Tests that the wrapped interceptors are called as the template would.
+     */
+    @Test
+    public final void testHandleResponse_Delegates() {
+        final InOrder order; // Order of the calls
+
+        interceptor.handleRequest(context);
+        interceptor.handleResponse(context);
+        interceptor.afterCompletion(context, null);
+
+        order = Mockito.inOrder(first, second);
+        order.verify(first).handleRequest(context);
+        order.verify(second).handleRequest(context);
+        order.verify(second).handleResponse(context);
+        order.verify(first).handleResponse(context);
+        order.verify(second).afterCompletion(context, null);
+        order.verify(first).afterCompletion(context, null);
+    }
+
+    /**
+     * Tests that all the phases are recorded for a response.
+     */
+    @Test
+    public final void testHandleResponse_Phases() {
+        interceptor.handleRequest(context);
+        interceptor.handleResponse(context);
+        interceptor.afterCompletion(context, null);
+
+        for (final ClientPhase phase : ClientPhase.values()) {
+            Assert.assertEquals((Long) 1L,
+                    metrics.getCount(TARGET, phase.name()));
+        }
+    }
+
+}
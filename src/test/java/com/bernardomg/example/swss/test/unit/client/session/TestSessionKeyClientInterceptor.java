@@ -0,0 +1,382 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.client.session;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.soap.MessageFactory;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.client.core.WebServiceMessageCallback;
+import org.springframework.ws.client.core.WebServiceOperations;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.xml.transform.StringSource;
+import org.w3c.dom.NodeList;
+
+import com.bernardomg.example.swss.auth.session.SessionConstants;
+import com.bernardomg.example.swss.client.session.SessionKeyClientInterceptor;
+
+/**
+ * Unit tests for {@link SessionKeyClientInterceptor}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>After a fault the session is discarded, and a new one is opened.</li>
+ * <li>Concurrent requests to a target send a single handshake.</li>
+ * <li>The session is reused by the following requests.</li>
+ * <li>The request carries the session token, and its body is
+ * encrypted.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestSessionKeyClientInterceptor {
+
+    /**
+     * Algorithm for encrypting the requests.
+     */
+    private static final String  ALGORITHM    = "http://www.w3.org/2009/xmlenc11#aes128-gcm";
+
+    /**
+     * Local name of the session token identifier.
+     */
+    private static final String  IDENTIFIER   = "Identifier";
+
+    /**
+     * Path to the request.
+     */
+    private static final String  REQUEST_PATH = "soap/request/request-not-secured.xml";
+
+    /**
+     * Template for the handshake response payload.
+     */
+    private static final String  RESPONSE     = "<ses:%1$s xmlns:ses=\"%2$s\"><ses:%3$s>%4$s</ses:%3$s><ses:%5$s>%6$d</ses:%5$s></ses:%1$s>";
+
+    /**
+     * Target URI.
+     */
+    private static final String  TARGET       = "http://localhost:8080/swss/session/wss4j/entities";
+
+    /**
+     * Number of concurrent requests.
+     */
+    private static final Integer THREADS      = 8;
+
+    /**
+     * Number of handshakes received.
+     */
+    private AtomicInteger        handshakes;
+
+    /**
+     * Operations receiving the handshakes.
+     */
+    private WebServiceOperations operations;
+
+    /**
+     * Default constructor.
+     */
+    public TestSessionKeyClientInterceptor() {
+        super();
+    }
+
+    /**
+     * Removes the connection for the current thread.
+     */
+    @After
+    public final void cleanUpConnection() {
+        TransportContextHolder.setTransportContext(null);
+    }
+
+    /**
+     * Mocks the handshake operations, opening a new session each time.
+     * <p>
+     * Each handshake takes a bit of time, so concurrent requests overlap.
+     */
+    @Before
+    public final void setUpOperations() {
+        handshakes = new AtomicInteger();
+
+        operations = Mockito.mock(WebServiceOperations.class);
+        Mockito.when(operations.sendSourceAndReceiveToResult(
+                Matchers.anyString(), Matchers.any(Source.class),
+                Matchers.any(WebServiceMessageCallback.class),
+                Matchers.any(Result.class))).thenAnswer(new Answer<Boolean>() {
+
+                    @Override
+                    public final Boolean answer(
+                            final InvocationOnMock invocation)
+                            throws Exception {
+                        final Integer count; // Number of the handshake
+
+                        count = handshakes.incrementAndGet();
+                        Thread.sleep(100L);
+
+                        TransformerFactory.newInstance().newTransformer()
+                                .transform(
+                                        new StringSource(String.format(
+                                                RESPONSE,
+                                                SessionConstants.RESPONSE,
+                                                SessionConstants.NAMESPACE,
+                                                SessionConstants.IDENTIFIER,
+                                                "urn:uuid:session" + count,
+                                                SessionConstants.LIFETIME,
+                                                600)),
+                                        (Result) invocation.getArguments()[3]);
+
+                        return true;
+                    }
+
+                });
+    }
+
+    /**
+     * Tests that after a fault the session is discarded, and a new one is
+     * opened.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleFault_NewSession() throws Exception {
+        final SessionKeyClientInterceptor interceptor; // Tested interceptor
+        final MessageContext              failed;      // Request with a fault
+        final MessageContext              context;     // Following request
+
+        interceptor = getInterceptor();
+        setUpConnection();
+
+        failed = getContext();
+        interceptor.handleRequest(failed);
+        interceptor.handleFault(failed);
+
+        context = getContext();
+        interceptor.handleRequest(context);
+
+        Assert.assertEquals(2, handshakes.get());
+        Assert.assertEquals("urn:uuid:session1", getIdentifier(failed));
+        Assert.assertEquals("urn:uuid:session2", getIdentifier(context));
+    }
+
+    /**
+     * Tests that concurrent requests to a target send a single handshake.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_Concurrent_SingleHandshake()
+            throws Exception {
+        final SessionKeyClientInterceptor interceptor; // Tested interceptor
+        final ExecutorService             executor;    // Executor for threads
+        final CountDownLatch              start;       // Latch to start them
+        final Collection<Future<String>>  results;     // Session per thread
+
+        interceptor = getInterceptor();
+
+        executor = Executors.newFixedThreadPool(THREADS);
+        start = new CountDownLatch(1);
+        results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(new Callable<String>() {
+
+                @Override
+                public final String call() throws Exception {
+                    final MessageContext context; // Request context
+
+                    setUpConnection();
+                    context = getContext();
+                    start.await();
+
+                    try {
+                        interceptor.handleRequest(context);
+                    } finally {
+                        cleanUpConnection();
+                    }
+
+                    return getIdentifier(context);
+                }
+
+            }));
+        }
+
+        start.countDown();
+
+        for (final Future<String> result : results) {
+            Assert.assertEquals("urn:uuid:session1",
+                    result.get(1, TimeUnit.MINUTES));
+        }
+
+        executor.shutdown();
+
+        Assert.assertEquals(1, handshakes.get());
+        Mockito.verify(operations, Mockito.times(1))
+                .sendSourceAndReceiveToResult(Matchers.eq(TARGET),
+                        Matchers.any(Source.class),
+                        Matchers.any(WebServiceMessageCallback.class),
+                        Matchers.any(Result.class));
+    }
+
+    /**
+     * Tests that the session is reused by the following requests.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_Reused() throws Exception {
+        final SessionKeyClientInterceptor interceptor; // Tested interceptor
+        final MessageContext              first;       // First request
+        final MessageContext              second;      // Second request
+
+        interceptor = getInterceptor();
+        setUpConnection();
+
+        first = getContext();
+        second = getContext();
+        interceptor.handleRequest(first);
+        interceptor.handleRequest(second);
+
+        Assert.assertEquals(1, handshakes.get());
+        Assert.assertEquals(getIdentifier(first), getIdentifier(second));
+    }
+
+    /**
+     * Tests that the request carries the session token, and its body is
+     * encrypted.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_Secured() throws Exception {
+        final MessageContext context; // Request context
+        final SoapMessage    request; // Secured request
+
+        setUpConnection();
+
+        context = getContext();
+        Assert.assertTrue(getInterceptor().handleRequest(context));
+
+        request = (SoapMessage) context.getRequest();
+
+        Assert.assertEquals("urn:uuid:session1", getIdentifier(context));
+        Assert.assertEquals(0, request.getDocument().getElementsByTagNameNS(
+                "*", "getEntityRequest").getLength());
+    }
+
+    /**
+     * Returns a context for an unsecure request.
+     *
+     * @return a context for the request
+     * @throws Exception
+     *             if the request can't be read
+     */
+    private final MessageContext getContext() throws Exception {
+        final SaajSoapMessageFactory factory; // Message factory
+        final InputStream            stream;  // Request stream
+
+        factory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+
+        stream = new ClassPathResource(REQUEST_PATH).getInputStream();
+        try {
+            return new DefaultMessageContext(
+                    factory.createWebServiceMessage(stream), factory);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns the identifier in the session token of the request.
+     * <p>
+     * If there is no session token then {@code null} is returned.
+     *
+     * @param context
+     *            context with the request
+     * @return the identifier in the session token
+     */
+    private final String getIdentifier(final MessageContext context) {
+        final NodeList identifiers; // Identifier elements
+
+        identifiers = ((SoapMessage) context.getRequest()).getDocument()
+                .getElementsByTagNameNS("*", IDENTIFIER);
+
+        return (identifiers.getLength() == 0) ? null
+                : identifiers.item(0).getTextContent().trim();
+    }
+
+    /**
+     * Returns the interceptor to test, using the mocked operations.
+     *
+     * @return the interceptor to test
+     */
+    private final SessionKeyClientInterceptor getInterceptor() {
+        return new SessionKeyClientInterceptor(operations, ALGORITHM, 32);
+    }
+
+    /**
+     * Sets a connection to the target for the current thread.
+     *
+     * @throws Exception
+     *             if the connection can't be mocked
+     */
+    private final void setUpConnection() throws Exception {
+        final WebServiceConnection connection; // Connection to the target
+
+        connection = Mockito.mock(WebServiceConnection.class);
+        Mockito.when(connection.getUri()).thenReturn(new URI(TARGET));
+
+        TransportContextHolder
+                .setTransportContext(new DefaultTransportContext(connection));
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.client.transport;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bernardomg.example.swss.client.transport.PooledHttpComponentsMessageSender;
+
+/**
+ * Unit tests for {@link PooledHttpComponentsMessageSender}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The pool starts empty, with the configured maximum size.</li>
+ * <li>Invalid pool sizes are rejected.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestPooledHttpComponentsMessageSender {
+
+    /**
+     * Default constructor.
+     */
+    public TestPooledHttpComponentsMessageSender() {
+        super();
+    }
+
+    /**
+     * Tests that invalid pool sizes are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructor_InvalidSize() {
+        new PooledHttpComponentsMessageSender(0, 10, 1000, 1000, 1000L, 1000L);
+    }
+
+    /**
+     * Tests that the pool starts empty, with the configured maximum size.
+     *
+     * @throws Exception
+     *             if the sender can't be closed
+     */
+    @Test
+    public final void testStats_Initial() throws Exception {
+        final PooledHttpComponentsMessageSender sender; // Tested sender
+
+        sender = new PooledHttpComponentsMessageSender(20, 10, 1000, 1000,
+                1000L, 1000L);
+
+        try {
+            Assert.assertEquals(new Integer(20), sender.getMaxConnections());
+            Assert.assertEquals(new Integer(0), sender.getLeasedConnections());
+            Assert.assertEquals(new Integer(0),
+                    sender.getAvailableConnections());
+            Assert.assertEquals(new Integer(0),
+                    sender.getPendingConnections());
+        } finally {
+            sender.destroy();
+        }
+    }
+
+}
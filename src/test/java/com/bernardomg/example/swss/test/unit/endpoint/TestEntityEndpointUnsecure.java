@@ -50,6 +50,12 @@
  * <ol>
  * <li>The endpoint parses SOAP requests with a valid payload.</li>
  * <li>The endpoint can handle SOAP requests with an invalid payload.</li>
+ * <li>The endpoint parses SOAP requests for several entities with a valid
+ * payload.</li>
+ * <li>The endpoint can handle SOAP requests for several entities with an
+ * invalid payload.</li>
+ * <li>The streaming endpoint parses SOAP requests for a page of entities with a
+ * valid payload.</li>
  * </ol>
  *
  * @author Bernardo Mart&iacute;nez Garrido
@@ -71,6 +77,24 @@ public final class TestEntityEndpointUnsecure extends AbstractTestEndpoint {
     @Value("${xsd.entity.path}")
     private String             entityXsdPath;
 
+    /**
+     * Path to the file with the invalid request payload for several entities.
+     */
+    @Value("${soap.request.payload.entities.invalid.path}")
+    private String             requestEntitiesPayloadInvalidPath;
+
+    /**
+     * Path to the file with the valid request payload for several entities.
+     */
+    @Value("${soap.request.payload.entities.path}")
+    private String             requestEntitiesPayloadPath;
+
+    /**
+     * Path to the file with the valid request payload for a page of entities.
+     */
+    @Value("${soap.request.payload.list.path}")
+    private String             requestListPayloadPath;
+
     /**
      * Path to the file with the invalid request payload.
      */
@@ -90,6 +114,80 @@ public TestEntityEndpointUnsecure() {
         super();
     }
 
+    /**
+     * Tests that the endpoint can handle SOAP requests for several entities
+     * with an invalid payload.
+     */
+    @Test
+    public final void testEndpoint_Entities_Payload_Invalid() throws Exception {
+        final MockWebServiceClient mockClient; // Mocked client
+        final RequestCreator requestCreator; // Creator for the request
+        final ResponseMatcher responseMatcher; // Matcher for the response
+
+        // Creates the request
+        requestCreator = RequestCreators.withPayload(
+                new ClassPathResource(requestEntitiesPayloadInvalidPath));
+
+        // Creates the response matcher
+        responseMatcher = ResponseMatchers.clientOrSenderFault();
+
+        // Creates the client mock
+        mockClient = MockWebServiceClient.createClient(applicationContext);
+
+        // Calls the endpoint
+        mockClient.sendRequest(requestCreator).andExpect(responseMatcher);
+    }
+
+    /**
+     * Tests that the endpoint parses SOAP requests for several entities with a
+     * valid payload.
+     */
+    @Test
+    public final void testEndpoint_Entities_Payload_Valid() throws Exception {
+        final MockWebServiceClient mockClient; // Mocked client
+        final RequestCreator requestCreator; // Creator for the request
+        final ResponseMatcher responseMatcher; // Matcher for the response
+
+        // Creates the request
+        requestCreator = RequestCreators
+                .withPayload(new ClassPathResource(requestEntitiesPayloadPath));
+
+        // Creates the response matcher
+        responseMatcher = ResponseMatchers
+                .validPayload(new ClassPathResource(entityXsdPath));
+
+        // Creates the client mock
+        mockClient = MockWebServiceClient.createClient(applicationContext);
+
+        // Calls the endpoint
+        mockClient.sendRequest(requestCreator).andExpect(responseMatcher);
+    }
+
+    /**
+     * Tests that the streaming endpoint parses SOAP requests for a page of
+     * entities with a valid payload.
+     */
+    @Test
+    public final void testEndpoint_List_Payload_Valid() throws Exception {
+        final MockWebServiceClient mockClient; // Mocked client
+        final RequestCreator requestCreator; // Creator for the request
+        final ResponseMatcher responseMatcher; // Matcher for the response
+
+        // Creates the request
+        requestCreator = RequestCreators
+                .withPayload(new ClassPathResource(requestListPayloadPath));
+
+        // Creates the response matcher
+        responseMatcher = ResponseMatchers
+                .validPayload(new ClassPathResource(entityXsdPath));
+
+        // Creates the client mock
+        mockClient = MockWebServiceClient.createClient(applicationContext);
+
+        // Calls the endpoint
+        mockClient.sendRequest(requestCreator).andExpect(responseMatcher);
+    }
+
     /**
      * Tests that the endpoint can handle SOAP requests with a valid payload.
      */
@@ -0,0 +1,283 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.endpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+
+import javax.xml.soap.MessageFactory;
+import javax.xml.transform.dom.DOMResult;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMSourcedElement;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.axiom.AxiomSoapMessage;
+import org.springframework.ws.soap.axiom.AxiomSoapMessageFactory;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.TransportConstants;
+import org.springframework.ws.transport.TransportInputStream;
+import org.springframework.xml.transform.TransformerHelper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.bernardomg.example.swss.endpoint.ExampleEntityEndpointConstants;
+import com.bernardomg.example.swss.endpoint.StreamingGetEntityEndpoint;
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.model.ImmutableExampleEntity;
+import com.bernardomg.example.swss.service.domain.ExampleEntityService;
+
+/**
+ * Unit tests for {@link StreamingGetEntityEndpoint}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The response is written with the AXIOM message factory.</li>
+ * <li>With the AXIOM message factory the response is set as a streaming
+ * payload, and not copied.</li>
+ * <li>The response is written with the SAAJ message factory.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestStreamingGetEntityEndpoint {
+
+    /**
+     * Path to the request.
+     */
+    private static final String        REQUEST_PATH = "soap/request/request-not-secured.xml";
+
+    /**
+     * Endpoint being tested.
+     */
+    private StreamingGetEntityEndpoint endpoint;
+
+    /**
+     * Default constructor.
+     */
+    public TestStreamingGetEntityEndpoint() {
+        super();
+    }
+
+    /**
+     * Creates the endpoint, with a mocked service.
+     */
+    @Before
+    public final void setUpEndpoint() {
+        final ExampleEntityService service; // Mocked service
+        final ExampleEntity entity;         // Returned entity
+
+        entity = new ImmutableExampleEntity(1, "entity_1");
+
+        service = Mockito.mock(ExampleEntityService.class);
+        Mockito.when(service.findById(1)).thenReturn(entity);
+
+        endpoint = new StreamingGetEntityEndpoint(service);
+    }
+
+    /**
+     * Tests that the response is written with the AXIOM message factory.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testInvoke_Axiom() throws Exception {
+        final AxiomSoapMessageFactory factory; // Message factory
+
+        factory = new AxiomSoapMessageFactory();
+        factory.afterPropertiesSet();
+
+        assertResponse(invoke(factory));
+    }
+
+    /**
+     * Tests that with the AXIOM message factory the response is set as a
+     * streaming payload, and not copied.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testInvoke_Axiom_Streamed() throws Exception {
+        final AxiomSoapMessageFactory factory; // Message factory
+        final OMElement payload;               // Response payload
+
+        factory = new AxiomSoapMessageFactory();
+        factory.afterPropertiesSet();
+
+        payload = ((AxiomSoapMessage) invoke(factory).getResponse())
+                .getAxiomMessage().getSOAPEnvelope().getBody()
+                .getFirstElement();
+
+        // A copied response would be built into plain elements
+        Assert.assertTrue(payload instanceof OMSourcedElement);
+        Assert.assertFalse(((OMSourcedElement) payload).isExpanded());
+    }
+
+    /**
+     * Tests that the response is written with the SAAJ message factory.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testInvoke_Saaj() throws Exception {
+        final SaajSoapMessageFactory factory; // Message factory
+
+        factory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+
+        assertResponse(invoke(factory));
+    }
+
+    /**
+     * Checks that the response payload contains the expected entity.
+     *
+     * @param context
+     *            context with the response
+     * @throws Exception
+     *             if the response can't be read
+     */
+    private final void assertResponse(final MessageContext context)
+            throws Exception {
+        final DOMResult result; // Response payload
+        final Element payload;  // Payload root
+
+        result = new DOMResult();
+        new TransformerHelper().transform(
+                context.getResponse().getPayloadSource(), result);
+
+        payload = ((Document) result.getNode()).getDocumentElement();
+
+        Assert.assertEquals(ExampleEntityEndpointConstants.RESPONSE,
+                payload.getLocalName());
+        Assert.assertEquals("1",
+                payload.getElementsByTagNameNS(
+                        ExampleEntityEndpointConstants.ENTITY_NS, "id")
+                        .item(0).getTextContent());
+        Assert.assertEquals("entity_1",
+                payload.getElementsByTagNameNS(
+                        ExampleEntityEndpointConstants.ENTITY_NS, "name")
+                        .item(0).getTextContent());
+    }
+
+    /**
+     * Sends the request to the endpoint, with messages from the received
+     * factory.
+     * <p>
+     * The request is read from a transport stream, as it would be received
+     * by the servlet. The AXIOM messages read the request lazily, so the
+     * stream is closed only after the endpoint handled it.
+     *
+     * @param factory
+     *            factory for the messages
+     * @return the context with the response
+     * @throws Exception
+     *             if the request can't be handled
+     */
+    private final MessageContext
+            invoke(final WebServiceMessageFactory factory) throws Exception {
+        final MessageContext context; // Context for the request
+        final InputStream stream;     // Request stream
+
+        stream = new ResourceTransportInputStream(REQUEST_PATH);
+        try {
+            context = new DefaultMessageContext(
+                    factory.createWebServiceMessage(stream), factory);
+
+            endpoint.invoke(context);
+        } finally {
+            stream.close();
+        }
+
+        return context;
+    }
+
+    /**
+     * Transport stream reading a SOAP 1.1 message from a class path resource.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class ResourceTransportInputStream
+            extends TransportInputStream {
+
+        /**
+         * Content type of the message.
+         */
+        private static final String CONTENT_TYPE = "text/xml; charset=UTF-8";
+
+        /**
+         * Path to the resource.
+         */
+        private final String        path;
+
+        /**
+         * Constructs a stream for the specified resource.
+         *
+         * @param resource
+         *            path to the resource
+         */
+        public ResourceTransportInputStream(final String resource) {
+            super();
+
+            path = resource;
+        }
+
+        @Override
+        public final Iterator<String> getHeaderNames() {
+            return Collections
+                    .singletonList(TransportConstants.HEADER_CONTENT_TYPE)
+                    .iterator();
+        }
+
+        @Override
+        public final Iterator<String> getHeaders(final String name) {
+            final Iterator<String> headers; // Header values
+
+            if (TransportConstants.HEADER_CONTENT_TYPE.equalsIgnoreCase(name)) {
+                headers = Collections.singletonList(CONTENT_TYPE).iterator();
+            } else {
+                headers = Collections.<String> emptyList().iterator();
+            }
+
+            return headers;
+        }
+
+        @Override
+        protected final InputStream createInputStream() throws IOException {
+            return new ClassPathResource(path).getInputStream();
+        }
+
+    }
+
+}
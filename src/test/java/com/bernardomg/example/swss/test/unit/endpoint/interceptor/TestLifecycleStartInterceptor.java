@@ -0,0 +1,168 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.endpoint.interceptor;
+
+import java.io.InputStream;
+
+import javax.xml.soap.MessageFactory;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+import com.bernardomg.example.swss.endpoint.interceptor.LifecycleMarkInterceptor;
+import com.bernardomg.example.swss.endpoint.interceptor.LifecycleStartInterceptor;
+import com.bernardomg.example.swss.event.LifecycleEvents;
+import com.bernardomg.example.swss.event.LifecycleStage;
+import com.bernardomg.example.swss.event.LifecycleTrace;
+
+/**
+ * Unit tests for {@link LifecycleStartInterceptor} along the
+ * {@link LifecycleMarkInterceptor}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The trace is released after the request is completed.</li>
+ * <li>No event is emitted when the events are disabled.</li>
+ * <li>Only the start and completion events are emitted when the events are
+ * enabled.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestLifecycleStartInterceptor {
+
+    /**
+     * Path to the request.
+     */
+    private static final String REQUEST_PATH = "soap/request/request-not-secured.xml";
+
+    /**
+     * Context for the request.
+     */
+    private MessageContext      context;
+
+    /**
+     * Default constructor.
+     */
+    public TestLifecycleStartInterceptor() {
+        super();
+    }
+
+    /**
+     * Creates the context for the request.
+     *
+     * @throws Exception
+     *             if the request can't be read
+     */
+    @Before
+    public final void setUpContext() throws Exception {
+        final SaajSoapMessageFactory factory; // Message factory
+        final InputStream            stream;  // Request stream
+
+        factory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+
+        stream = new ClassPathResource(REQUEST_PATH).getInputStream();
+        try {
+            context = new DefaultMessageContext(
+                    factory.createWebServiceMessage(stream), factory);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Tests that the trace is released after the request is completed.
+     */
+    @Test
+    public final void testAfterCompletion_Released() {
+        invoke(new LifecycleEvents(true));
+
+        Assert.assertNull(LifecycleTrace.current());
+    }
+
+    /**
+     * Tests that no event is emitted when the events are disabled.
+     */
+    @Test
+    public final void testHandleRequest_Disabled() {
+        final LifecycleEvents events; // Emitted events
+
+        events = new LifecycleEvents(false);
+
+        invoke(events);
+
+        Assert.assertEquals((Long) 0L, events.getEmitted());
+    }
+
+    /**
+     * Tests that only the start and completion events are emitted when the
+     * events are enabled.
+     */
+    @Test
+    public final void testHandleRequest_Enabled() {
+        final LifecycleEvents events; // Emitted events
+
+        events = new LifecycleEvents(true);
+
+        invoke(events);
+
+        Assert.assertEquals((Long) 2L, events.getEmitted());
+    }
+
+    /**
+     * Runs a request through the interceptors, as the first ones in the
+     * chain.
+     *
+     * @param events
+     *            events where the stages are emitted
+     */
+    private final void invoke(final LifecycleEvents events) {
+        final LifecycleStartInterceptor start;   // First interceptor
+        final LifecycleMarkInterceptor payload;  // Payload validated mark
+        final LifecycleMarkInterceptor security; // Security validated mark
+
+        start = new LifecycleStartInterceptor(events);
+        payload = new LifecycleMarkInterceptor(
+                LifecycleStage.PAYLOAD_VALIDATED);
+        security = new LifecycleMarkInterceptor(
+                LifecycleStage.SECURITY_VALIDATED);
+
+        start.handleRequest(context, null);
+        payload.handleRequest(context, null);
+        security.handleRequest(context, null);
+        security.handleResponse(context, null);
+        payload.handleResponse(context, null);
+        start.handleResponse(context, null);
+        security.afterCompletion(context, null, null);
+        payload.afterCompletion(context, null, null);
+        start.afterCompletion(context, null, null);
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.endpoint.interceptor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bernardomg.example.swss.endpoint.interceptor.PhaseTimingEndInterceptor;
+import com.bernardomg.example.swss.endpoint.interceptor.PhaseTimingMarkInterceptor;
+import com.bernardomg.example.swss.endpoint.interceptor.PhaseTimingStartInterceptor;
+import com.bernardomg.example.swss.timing.PhaseClock;
+import com.bernardomg.example.swss.timing.PhaseTimings;
+import com.bernardomg.example.swss.timing.TimedPhase;
+
+/**
+ * Unit tests for {@link PhaseTimingStartInterceptor} along the
+ * {@link PhaseTimingMarkInterceptor} and the {@link PhaseTimingEndInterceptor}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>No request is timed when the timings are disabled.</li>
+ * <li>All the phases are recorded when the timings are enabled.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestPhaseTimingStartInterceptor {
+
+    /**
+     * Default constructor.
+     */
+    public TestPhaseTimingStartInterceptor() {
+        super();
+    }
+
+    /**
+     * Tests that no request is timed when the timings are disabled.
+     */
+    @Test
+    public final void testHandleRequest_Disabled() {
+        final PhaseTimings timings; // Recorded timings
+
+        timings = new PhaseTimings(false);
+
+        invoke(timings);
+
+        Assert.assertEquals((Long) 0L,
+                timings.getCount(TimedPhase.TOTAL.name()));
+    }
+
+    /**
+     * Tests that all the phases are recorded when the timings are enabled.
+     */
+    @Test
+    public final void testHandleRequest_Enabled() {
+        final PhaseTimings timings; // Recorded timings
+
+        timings = new PhaseTimings(true);
+
+        invoke(timings);
+
+        Assert.assertNull(PhaseClock.current());
+        for (final TimedPhase phase : new TimedPhase[] {
+                TimedPhase.VALIDATION, TimedPhase.SECURITY, TimedPhase.REQUEST,
+                TimedPhase.ENDPOINT, TimedPhase.RESPONSE, TimedPhase.TOTAL }) {
+            Assert.assertEquals((Long) 1L, timings.getCount(phase.name()));
+        }
+    }
+
+    /**
+     * Runs a request through the interceptors, with the start and end ones as
+     * the first and last ones in the chain.
+     *
+     * @param timings
+     *            timings where the phases are recorded
+     */
+    private final void invoke(final PhaseTimings timings) {
+        final PhaseTimingStartInterceptor start;     // First interceptor
+        final PhaseTimingMarkInterceptor validation; // Validation mark
+        final PhaseTimingMarkInterceptor security;   // Security mark
+        final PhaseTimingEndInterceptor end;         // Last interceptor
+
+        start = new PhaseTimingStartInterceptor(timings);
+        validation = new PhaseTimingMarkInterceptor(TimedPhase.VALIDATION);
+        security = new PhaseTimingMarkInterceptor(TimedPhase.SECURITY);
+        end = new PhaseTimingEndInterceptor();
+
+        start.handleRequest(null, null);
+        validation.handleRequest(null, null);
+        security.handleRequest(null, null);
+        end.handleRequest(null, null);
+        end.handleResponse(null, null);
+        security.handleResponse(null, null);
+        validation.handleResponse(null, null);
+        start.handleResponse(null, null);
+        end.afterCompletion(null, null, null);
+        security.afterCompletion(null, null, null);
+        validation.afterCompletion(null, null, null);
+        start.afterCompletion(null, null, null);
+    }
+
+}
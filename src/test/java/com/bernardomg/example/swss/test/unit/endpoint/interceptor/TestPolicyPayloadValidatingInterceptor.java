@@ -0,0 +1,149 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.endpoint.interceptor;
+
+import java.io.InputStream;
+
+import javax.xml.soap.MessageFactory;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+import com.bernardomg.example.swss.endpoint.interceptor.PolicyPayloadValidatingInterceptor;
+import com.bernardomg.example.swss.endpoint.interceptor.ValidationMode;
+import com.bernardomg.example.swss.endpoint.interceptor.ValidationPolicy;
+
+/**
+ * Unit tests for {@link PolicyPayloadValidatingInterceptor}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Invalid requests are rejected and counted when validated.</li>
+ * <li>Invalid requests are accepted when not validated.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestPolicyPayloadValidatingInterceptor {
+
+    /**
+     * Path to the invalid request.
+     */
+    private static final String                INVALID_PATH = "soap/request/request-not-secured-invalid.xml";
+
+    /**
+     * Path to the schema.
+     */
+    private static final String                SCHEMA_PATH  = "xsd/entity.xsd";
+
+    /**
+     * Context for the invalid request.
+     */
+    private MessageContext                     context;
+
+    /**
+     * Interceptor being tested.
+     */
+    private PolicyPayloadValidatingInterceptor interceptor;
+
+    /**
+     * Default constructor.
+     */
+    public TestPolicyPayloadValidatingInterceptor() {
+        super();
+    }
+
+    /**
+     * Creates the context for the invalid request.
+     *
+     * @throws Exception
+     *             if the request can't be read
+     */
+    @Before
+    public final void setUpContext() throws Exception {
+        final SaajSoapMessageFactory factory; // Message factory
+        final InputStream            stream;  // Request stream
+
+        factory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+
+        stream = new ClassPathResource(INVALID_PATH).getInputStream();
+        try {
+            context = new DefaultMessageContext(
+                    factory.createWebServiceMessage(stream), factory);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Creates the interceptor.
+     *
+     * @throws Exception
+     *             if the schema can't be read
+     */
+    @Before
+    public final void setUpInterceptor() throws Exception {
+        interceptor = new PolicyPayloadValidatingInterceptor();
+        interceptor.setSchema(new ClassPathResource(SCHEMA_PATH));
+        interceptor.afterPropertiesSet();
+    }
+
+    /**
+     * Tests that invalid requests are rejected and counted when validated.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_Always_Rejected() throws Exception {
+        Assert.assertFalse(interceptor.handleRequest(context, null));
+
+        Assert.assertEquals((Long) 1L, interceptor.getRequestsValidated());
+        Assert.assertEquals((Long) 1L, interceptor.getRequestViolations());
+    }
+
+    /**
+     * Tests that invalid requests are accepted when not validated.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_Off_Accepted() throws Exception {
+        interceptor.setRequestPolicy(
+                new ValidationPolicy(ValidationMode.OFF, 100d, 0));
+
+        Assert.assertTrue(interceptor.handleRequest(context, null));
+
+        Assert.assertEquals((Long) 1L, interceptor.getRequestsSkipped());
+        Assert.assertEquals((Long) 0L, interceptor.getRequestViolations());
+    }
+
+}
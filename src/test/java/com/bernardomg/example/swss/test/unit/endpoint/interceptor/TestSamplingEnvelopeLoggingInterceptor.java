@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.endpoint.interceptor;
+
+import java.io.InputStream;
+
+import javax.xml.soap.MessageFactory;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+import com.bernardomg.example.swss.endpoint.interceptor.SamplingEnvelopeLoggingInterceptor;
+
+/**
+ * Unit tests for {@link SamplingEnvelopeLoggingInterceptor}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Requests for endpoints not in the filter are not captured.</li>
+ * <li>Requests for endpoints in the filter are captured.</li>
+ * <li>Requests are not captured when the sampling rate is zero.</li>
+ * <li>The captured request is released after logging the response.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestSamplingEnvelopeLoggingInterceptor {
+
+    /**
+     * Path to the request.
+     */
+    private static final String                REQUEST_PATH = "soap/request/request-not-secured.xml";
+
+    /**
+     * Context for the request.
+     */
+    private MessageContext                     context;
+
+    /**
+     * Interceptor being tested.
+     */
+    private SamplingEnvelopeLoggingInterceptor interceptor;
+
+    /**
+     * Default constructor.
+     */
+    public TestSamplingEnvelopeLoggingInterceptor() {
+        super();
+    }
+
+    /**
+     * Creates the context for the request.
+     *
+     * @throws Exception
+     *             if the request can't be read
+     */
+    @Before
+    public final void setUpContext() throws Exception {
+        final SaajSoapMessageFactory factory; // Message factory
+        final InputStream            stream;  // Request stream
+
+        factory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+
+        stream = new ClassPathResource(REQUEST_PATH).getInputStream();
+        try {
+            context = new DefaultMessageContext(
+                    factory.createWebServiceMessage(stream), factory);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Creates the interceptor, logging all the requests.
+     */
+    @Before
+    public final void setUpInterceptor() {
+        interceptor = new SamplingEnvelopeLoggingInterceptor();
+        interceptor.setSamplingRate(1d);
+    }
+
+    /**
+     * Tests that requests for endpoints not in the filter are not captured.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_EndpointFiltered_NotCaptured()
+            throws Exception {
+        interceptor.setEndpoints(new String[] { "listEntitiesRequest" });
+
+        interceptor.handleRequest(context, null);
+
+        Assert.assertEquals(0, context.getPropertyNames().length);
+    }
+
+    /**
+     * Tests that requests for endpoints in the filter are captured.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_EndpointMatches_Captured()
+            throws Exception {
+        interceptor.setEndpoints(new String[] { "getEntityRequest" });
+
+        interceptor.handleRequest(context, null);
+
+        Assert.assertEquals(1, context.getPropertyNames().length);
+    }
+
+    /**
+     * Tests that requests are not captured when the sampling rate is zero.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_NoSampling_NotCaptured()
+            throws Exception {
+        interceptor.setSamplingRate(0d);
+
+        interceptor.handleRequest(context, null);
+
+        Assert.assertEquals(0, context.getPropertyNames().length);
+    }
+
+    /**
+     * Tests that the captured request is released after logging the response.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleResponse_Released() throws Exception {
+        interceptor.handleRequest(context, null);
+        context.getResponse();
+
+        interceptor.handleResponse(context, null);
+
+        Assert.assertEquals(0, context.getPropertyNames().length);
+    }
+
+}
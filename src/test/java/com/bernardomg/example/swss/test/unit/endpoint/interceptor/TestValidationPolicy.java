@@ -0,0 +1,143 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.endpoint.interceptor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bernardomg.example.swss.endpoint.interceptor.ValidationMode;
+import com.bernardomg.example.swss.endpoint.interceptor.ValidationPolicy;
+
+/**
+ * Unit tests for {@link ValidationPolicy}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>All the messages are validated when always validating.</li>
+ * <li>Only the first messages are validated when limiting them per
+ * minute.</li>
+ * <li>No message is validated when validation is off.</li>
+ * <li>No message is validated when sampling none of them.</li>
+ * <li>Violations are counted.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestValidationPolicy {
+
+    /**
+     * Default constructor.
+     */
+    public TestValidationPolicy() {
+        super();
+    }
+
+    /**
+     * Tests that all the messages are validated when always validating.
+     */
+    @Test
+    public final void testShouldValidate_Always() {
+        final ValidationPolicy policy; // Tested policy
+
+        policy = new ValidationPolicy(ValidationMode.ALWAYS, 0d, 0);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(policy.shouldValidate());
+        }
+
+        Assert.assertEquals((Long) 10L, policy.getValidated());
+        Assert.assertEquals((Long) 0L, policy.getSkipped());
+    }
+
+    /**
+     * Tests that only the first messages are validated when limiting them per
+     * minute.
+     */
+    @Test
+    public final void testShouldValidate_FirstPerMinute() {
+        final ValidationPolicy policy; // Tested policy
+
+        policy = new ValidationPolicy(ValidationMode.FIRST_PER_MINUTE, 0d, 3);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(policy.shouldValidate());
+        }
+        for (int i = 0; i < 7; i++) {
+            Assert.assertFalse(policy.shouldValidate());
+        }
+
+        Assert.assertEquals((Long) 3L, policy.getValidated());
+        Assert.assertEquals((Long) 7L, policy.getSkipped());
+    }
+
+    /**
+     * Tests that no message is validated when validation is off.
+     */
+    @Test
+    public final void testShouldValidate_Off() {
+        final ValidationPolicy policy; // Tested policy
+
+        policy = new ValidationPolicy(ValidationMode.OFF, 100d, 10);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertFalse(policy.shouldValidate());
+        }
+
+        Assert.assertEquals((Long) 0L, policy.getValidated());
+        Assert.assertEquals((Long) 10L, policy.getSkipped());
+    }
+
+    /**
+     * Tests that no message is validated when sampling none of them.
+     */
+    @Test
+    public final void testShouldValidate_SampledNone() {
+        final ValidationPolicy policy; // Tested policy
+
+        policy = new ValidationPolicy(ValidationMode.SAMPLED, 0d, 0);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertFalse(policy.shouldValidate());
+        }
+
+        Assert.assertEquals((Long) 10L, policy.getSkipped());
+    }
+
+    /**
+     * Tests that violations are counted.
+     */
+    @Test
+    public final void testViolations() {
+        final ValidationPolicy policy; // Tested policy
+
+        policy = new ValidationPolicy(ValidationMode.ALWAYS, 0d, 0);
+
+        policy.registerViolation();
+        policy.registerViolation();
+
+        Assert.assertEquals((Long) 2L, policy.getViolations());
+    }
+
+}
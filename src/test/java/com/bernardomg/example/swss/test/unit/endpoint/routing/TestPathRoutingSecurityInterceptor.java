@@ -0,0 +1,305 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.endpoint.routing;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.soap.MessageFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.soap.SoapBody;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+
+import com.bernardomg.example.swss.endpoint.routing.PathRoutingSecurityInterceptor;
+
+/**
+ * Unit tests for {@link PathRoutingSecurityInterceptor}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The route found first in the path is used.</li>
+ * <li>Requests are handled by the interceptors of their path.</li>
+ * <li>The longest matching prefix is used.</li>
+ * <li>A rejected request is only unwound through the interceptors which
+ * received it.</li>
+ * <li>Requests to unknown paths are rejected with a fault.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestPathRoutingSecurityInterceptor {
+
+    /**
+     * Default constructor.
+     */
+    public TestPathRoutingSecurityInterceptor() {
+        super();
+    }
+
+    /**
+     * Clears the transport context after each test.
+     */
+    @After
+    public final void clearTransportContext() {
+        TransportContextHolder.setTransportContext(null);
+    }
+
+    /**
+     * Tests that the route found first in the path is used.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_FirstRoute() throws Exception {
+        final PathRoutingSecurityInterceptor         router;    // Tested
+        final EndpointInterceptor                    plain;     // Plain
+        final EndpointInterceptor                    signature; // Signature
+        final MessageContext                         message;   // Message
+        final Map<String, List<EndpointInterceptor>> routes;    // Routes
+
+        plain = getInterceptor();
+        signature = getInterceptor();
+
+        routes = new HashMap<>();
+        routes.put("/password/plain/", Collections.singletonList(plain));
+        routes.put("/signature/", Collections.singletonList(signature));
+        router = new PathRoutingSecurityInterceptor(routes);
+
+        setPath("/signature/password/plain/entities");
+        message = getContext();
+
+        Assert.assertTrue(router.handleRequest(message, null));
+
+        Mockito.verify(signature).handleRequest(message, null);
+        Mockito.verify(plain, Mockito.never()).handleRequest(message, null);
+    }
+
+    /**
+     * Tests that the longest matching prefix is used.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_LongestPrefix() throws Exception {
+        final PathRoutingSecurityInterceptor         router;  // Tested
+        final EndpointInterceptor                    generic; // Generic
+        final EndpointInterceptor                    digest;  // Digest
+        final MessageContext                         message; // Message
+        final Map<String, List<EndpointInterceptor>> routes;  // Routes
+
+        generic = getInterceptor();
+        digest = getInterceptor();
+
+        routes = new HashMap<>();
+        routes.put("/password/", Collections.singletonList(generic));
+        routes.put("/password/digest/", Collections.singletonList(digest));
+        router = new PathRoutingSecurityInterceptor(routes);
+
+        setPath("/password/digest/entities");
+        message = getContext();
+
+        Assert.assertTrue(router.handleRequest(message, null));
+
+        Mockito.verify(digest).handleRequest(message, null);
+        Mockito.verify(generic, Mockito.never()).handleRequest(message, null);
+    }
+
+    /**
+     * Tests that requests are handled by the interceptors of their path.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_Path() throws Exception {
+        final PathRoutingSecurityInterceptor         router;    // Tested
+        final EndpointInterceptor                    plain;     // Plain
+        final EndpointInterceptor                    signature; // Signature
+        final MessageContext                         message;   // Message
+        final Map<String, List<EndpointInterceptor>> routes;    // Routes
+
+        plain = getInterceptor();
+        signature = getInterceptor();
+
+        routes = new HashMap<>();
+        routes.put("/password/plain/", Collections.singletonList(plain));
+        routes.put("/signature/", Collections.singletonList(signature));
+        router = new PathRoutingSecurityInterceptor(routes);
+
+        setPath("/signature/entities");
+        message = getContext();
+
+        Assert.assertTrue(router.handleRequest(message, null));
+        Assert.assertTrue(router.handleResponse(message, null));
+
+        Mockito.verify(signature).handleRequest(message, null);
+        Mockito.verify(signature).handleResponse(message, null);
+        Mockito.verify(plain, Mockito.never()).handleRequest(message, null);
+    }
+
+    /**
+     * Tests that a rejected request is only unwound through the interceptors
+     * which received it.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_Rejected_Unwound() throws Exception {
+        final PathRoutingSecurityInterceptor         router;    // Tested
+        final EndpointInterceptor                    validator; // Validator
+        final EndpointInterceptor                    security;  // Security
+        final MessageContext                         message;   // Message
+        final Map<String, List<EndpointInterceptor>> routes;    // Routes
+
+        validator = Mockito.mock(EndpointInterceptor.class);
+        Mockito.when(validator.handleFault(Matchers.any(MessageContext.class),
+                Matchers.any())).thenReturn(true);
+        security = getInterceptor();
+
+        routes = new HashMap<>();
+        routes.put("/signature/", Arrays.asList(validator, security));
+        router = new PathRoutingSecurityInterceptor(routes);
+
+        setPath("/signature/entities");
+        message = getContext();
+
+        Assert.assertFalse(router.handleRequest(message, null));
+        Assert.assertTrue(router.handleFault(message, null));
+        router.afterCompletion(message, null, null);
+
+        Mockito.verify(validator).handleFault(message, null);
+        Mockito.verify(validator).afterCompletion(message, null, null);
+        Mockito.verifyZeroInteractions(security);
+    }
+
+    /**
+     * Tests that requests to unknown paths are rejected with a fault.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testHandleRequest_UnknownPath() throws Exception {
+        final PathRoutingSecurityInterceptor         router;   // Tested
+        final EndpointInterceptor                    plain;    // Plain
+        final MessageContext                         message;  // Message
+        final SoapMessage                            response; // Response
+        final SoapBody                               body;     // Body
+        final Map<String, List<EndpointInterceptor>> routes;   // Routes
+
+        plain = getInterceptor();
+
+        routes = new HashMap<>();
+        routes.put("/password/plain/", Collections.singletonList(plain));
+        router = new PathRoutingSecurityInterceptor(routes);
+
+        setPath("/unknown/entities");
+
+        body = Mockito.mock(SoapBody.class);
+        response = Mockito.mock(SoapMessage.class);
+        Mockito.when(response.getSoapBody()).thenReturn(body);
+        message = Mockito.mock(MessageContext.class);
+        Mockito.when(message.getResponse()).thenReturn(response);
+
+        Assert.assertFalse(router.handleRequest(message, null));
+
+        Mockito.verify(body).addClientOrSenderFault(Matchers.anyString(),
+                Matchers.any(Locale.class));
+        Mockito.verify(plain, Mockito.never()).handleRequest(message, null);
+    }
+
+    /**
+     * Returns a context for a request.
+     *
+     * @return a context for a request
+     * @throws Exception
+     *             if the message factory can't be created
+     */
+    private final MessageContext getContext() throws Exception {
+        return new DefaultMessageContext(
+                new SaajSoapMessageFactory(MessageFactory.newInstance()));
+    }
+
+    /**
+     * Returns a mocked interceptor which lets all the messages through.
+     *
+     * @return a mocked interceptor
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    private final EndpointInterceptor getInterceptor() throws Exception {
+        final EndpointInterceptor interceptor; // Mocked interceptor
+
+        interceptor = Mockito.mock(EndpointInterceptor.class);
+        Mockito.when(interceptor.handleRequest(
+                Matchers.any(MessageContext.class), Matchers.any()))
+                .thenReturn(true);
+        Mockito.when(interceptor.handleResponse(
+                Matchers.any(MessageContext.class), Matchers.any()))
+                .thenReturn(true);
+
+        return interceptor;
+    }
+
+    /**
+     * Sets up a transport context for an HTTP request to the specified path.
+     *
+     * @param path
+     *            path of the request, relative to the web application
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    private final void setPath(final String path) throws Exception {
+        final WebServiceConnection connection; // HTTP connection
+
+        connection = Mockito.mock(WebServiceConnection.class);
+        Mockito.when(connection.getUri())
+                .thenReturn(new URI("http://localhost:8080/swss" + path));
+
+        TransportContextHolder
+                .setTransportContext(new DefaultTransportContext(connection));
+    }
+
+}
\ No newline at end of file
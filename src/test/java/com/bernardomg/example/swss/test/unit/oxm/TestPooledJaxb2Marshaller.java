@@ -0,0 +1,198 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.oxm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.oxm.XmlMappingException;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+
+import com.bernardomg.example.swss.generated.entity.Entity;
+import com.bernardomg.example.swss.generated.entity.GetEntityResponse;
+import com.bernardomg.example.swss.oxm.PooledJaxb2Marshaller;
+
+/**
+ * Unit tests for {@link PooledJaxb2Marshaller}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Marshalled objects are unmarshalled back.</li>
+ * <li>The JAXB marshallers are reused between calls.</li>
+ * <li>The JAXB unmarshallers which failed are not reused.</li>
+ * <li>Documents with a DTD are rejected.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestPooledJaxb2Marshaller {
+
+    /**
+     * Marshaller being tested.
+     */
+    private PooledJaxb2Marshaller marshaller;
+
+    /**
+     * Default constructor.
+     */
+    public TestPooledJaxb2Marshaller() {
+        super();
+    }
+
+    /**
+     * Creates the marshaller being tested.
+     *
+     * @throws Exception
+     *             if the JAXB marshaller can't be initialized
+     */
+    @Before
+    public final void setUpMarshaller() throws Exception {
+        final Jaxb2Marshaller jaxb; // JAXB marshaller
+
+        jaxb = new Jaxb2Marshaller();
+        jaxb.setPackagesToScan("com.bernardomg.example.swss.generated.*");
+        jaxb.afterPropertiesSet();
+
+        marshaller = new PooledJaxb2Marshaller(jaxb, 2);
+    }
+
+    /**
+     * Tests that marshalled objects are unmarshalled back, and the JAXB
+     * marshallers are reused between calls.
+     *
+     * @throws IOException
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testRoundTrip_Reused() throws IOException {
+        String xml;                 // Marshalled response
+        GetEntityResponse response; // Unmarshalled response
+
+        for (int i = 0; i < 3; i++) {
+            xml = marshal(getResponse());
+            response = (GetEntityResponse) unmarshal(xml);
+
+            Assert.assertEquals(1, response.getEntity().getId());
+            Assert.assertEquals("entity_1", response.getEntity().getName());
+        }
+
+        Assert.assertEquals(new Long(1), marshaller.getMarshallersCreated());
+        Assert.assertEquals(new Long(1), marshaller.getUnmarshallersCreated());
+        Assert.assertEquals(new Integer(1), marshaller.getPooledMarshallers());
+    }
+
+    /**
+     * Tests that documents with a DTD are rejected.
+     *
+     * @throws IOException
+     *             never, this is a required declaration
+     */
+    @Test(expected = XmlMappingException.class)
+    public final void testUnmarshal_Dtd_Rejected() throws IOException {
+        unmarshal("<?xml version=\"1.0\"?>"
+                + "<!DOCTYPE foo [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>"
+                + "<foo>&xxe;</foo>");
+    }
+
+    /**
+     * Tests that the JAXB unmarshallers which failed are not reused.
+     *
+     * @throws IOException
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testUnmarshal_Failed_Discarded() throws IOException {
+        try {
+            unmarshal("<invalid");
+            Assert.fail("Expected an exception");
+        } catch (final XmlMappingException e) {
+            // Expected
+        }
+
+        Assert.assertEquals(new Long(1), marshaller.getUnmarshallersCreated());
+        Assert.assertEquals(new Integer(0),
+                marshaller.getPooledUnmarshallers());
+    }
+
+    /**
+     * Returns a response to marshal.
+     *
+     * @return a response to marshal
+     */
+    private final GetEntityResponse getResponse() {
+        final GetEntityResponse response; // Response to marshal
+        final Entity entity;              // Returned entity
+
+        entity = new Entity();
+        entity.setId(1);
+        entity.setName("entity_1");
+
+        response = new GetEntityResponse();
+        response.setEntity(entity);
+
+        return response;
+    }
+
+    /**
+     * Marshals the received object into a string.
+     *
+     * @param graph
+     *            object to marshal
+     * @return the marshalled object
+     * @throws IOException
+     *             if the object can't be marshalled
+     */
+    private final String marshal(final Object graph) throws IOException {
+        final ByteArrayOutputStream output; // Marshalled object
+
+        output = new ByteArrayOutputStream();
+        marshaller.marshal(graph, new StreamResult(output));
+
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Unmarshals the received string.
+     *
+     * @param xml
+     *            string to unmarshal
+     * @return the unmarshalled object
+     * @throws IOException
+     *             if the string can't be unmarshalled
+     */
+    private final Object unmarshal(final String xml) throws IOException {
+        return marshaller.unmarshal(new StreamSource(new ByteArrayInputStream(
+                xml.getBytes(StandardCharsets.UTF_8))));
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.repository.cache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bernardomg.example.swss.repository.cache.EhcacheRegionStatistics;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+
+/**
+ * Unit tests for {@link EhcacheRegionStatistics}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Hits, misses and puts are counted.</li>
+ * <li>Entries removed to make room are counted as evictions.</li>
+ * <li>A missing region returns zero for all the statistics.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestEhcacheRegionStatistics {
+
+    /**
+     * Name of the region used for the tests.
+     */
+    private static final String REGION = "region";
+
+    /**
+     * Cache manager for the tests.
+     */
+    private CacheManager        manager;
+
+    /**
+     * Default constructor.
+     */
+    public TestEhcacheRegionStatistics() {
+        super();
+    }
+
+    /**
+     * Creates a cache manager with a single region, which can hold two
+     * entries.
+     */
+    @Before
+    public final void setUpCacheManager() {
+        final Configuration config; // Manager configuration
+
+        config = new Configuration().name("test-region-statistics");
+        manager = CacheManager.newInstance(config);
+        manager.addCache(new Cache(new CacheConfiguration(REGION, 2)));
+    }
+
+    /**
+     * Closes the cache manager.
+     */
+    @After
+    public final void tearDownCacheManager() {
+        manager.shutdown();
+    }
+
+    /**
+     * Tests that entries removed to make room are counted as evictions.
+     */
+    @Test
+    public final void testStats_Evictions() {
+        final EhcacheRegionStatistics stats; // Tested statistics
+        final Cache cache;                   // Cache region
+
+        stats = new EhcacheRegionStatistics(manager, REGION);
+        cache = manager.getCache(REGION);
+
+        cache.put(new Element(1, "a"));
+        cache.put(new Element(2, "b"));
+        cache.put(new Element(3, "c"));
+
+        Assert.assertEquals(new Long(1), stats.getEvictionCount());
+        Assert.assertEquals(new Long(2), stats.getSize());
+    }
+
+    /**
+     * Tests that hits, misses and puts are counted.
+     */
+    @Test
+    public final void testStats_HitsAndMisses() {
+        final EhcacheRegionStatistics stats; // Tested statistics
+        final Cache cache;                   // Cache region
+
+        stats = new EhcacheRegionStatistics(manager, REGION);
+        cache = manager.getCache(REGION);
+
+        cache.put(new Element(1, "a"));
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+
+        Assert.assertEquals(new Long(1), stats.getPutCount());
+        Assert.assertEquals(new Long(2), stats.getHitCount());
+        Assert.assertEquals(new Long(1), stats.getMissCount());
+    }
+
+    /**
+     * Tests that a missing region returns zero for all the statistics.
+     */
+    @Test
+    public final void testStats_MissingRegion() {
+        final EhcacheRegionStatistics stats; // Tested statistics
+
+        stats = new EhcacheRegionStatistics(manager, "missing");
+
+        Assert.assertEquals(new Long(0), stats.getHitCount());
+        Assert.assertEquals(new Long(0), stats.getMissCount());
+        Assert.assertEquals(new Long(0), stats.getSize());
+    }
+
+}
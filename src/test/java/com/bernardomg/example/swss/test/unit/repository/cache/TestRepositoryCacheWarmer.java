@@ -0,0 +1,139 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.repository.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+
+import com.bernardomg.example.swss.model.DefaultExampleEntity;
+import com.bernardomg.example.swss.repository.ExampleEntityRepository;
+import com.bernardomg.example.swss.repository.cache.RepositoryCacheWarmer;
+
+/**
+ * Unit tests for {@link RepositoryCacheWarmer}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The entities are read in chunks, starting after the last id read.</li>
+ * <li>Reading stops once there are no more entities.</li>
+ * <li>Nothing is read when the size is zero.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestRepositoryCacheWarmer {
+
+    /**
+     * Default constructor.
+     */
+    public TestRepositoryCacheWarmer() {
+        super();
+    }
+
+    /**
+     * Tests that the entities are read in chunks, starting after the last id
+     * read.
+     */
+    @Test
+    public final void testWarmUp_Chunks() {
+        final ExampleEntityRepository repository; // Mocked repository
+
+        repository = Mockito.mock(ExampleEntityRepository.class);
+        Mockito.when(repository.findAllByIdGreaterThan(Matchers.eq(0),
+                Matchers.any(Pageable.class))).thenReturn(getEntities(1, 2));
+        Mockito.when(repository.findAllByIdGreaterThan(Matchers.eq(2),
+                Matchers.any(Pageable.class))).thenReturn(getEntities(3, 4));
+
+        new RepositoryCacheWarmer(repository, 4, 2).afterPropertiesSet();
+
+        Mockito.verify(repository).findAllByIdGreaterThan(Matchers.eq(0),
+                Matchers.any(Pageable.class));
+        Mockito.verify(repository).findAllByIdGreaterThan(Matchers.eq(2),
+                Matchers.any(Pageable.class));
+        Mockito.verifyNoMoreInteractions(repository);
+    }
+
+    /**
+     * Tests that reading stops once there are no more entities.
+     */
+    @Test
+    public final void testWarmUp_Exhausted() {
+        final ExampleEntityRepository repository; // Mocked repository
+
+        repository = Mockito.mock(ExampleEntityRepository.class);
+        Mockito.when(repository.findAllByIdGreaterThan(Matchers.eq(0),
+                Matchers.any(Pageable.class))).thenReturn(getEntities(1, 1));
+
+        new RepositoryCacheWarmer(repository, 10, 2).afterPropertiesSet();
+
+        Mockito.verify(repository).findAllByIdGreaterThan(Matchers.eq(0),
+                Matchers.any(Pageable.class));
+        Mockito.verifyNoMoreInteractions(repository);
+    }
+
+    /**
+     * Tests that nothing is read when the size is zero.
+     */
+    @Test
+    public final void testWarmUp_Zero() {
+        final ExampleEntityRepository repository; // Mocked repository
+
+        repository = Mockito.mock(ExampleEntityRepository.class);
+
+        new RepositoryCacheWarmer(repository, 0, 2).afterPropertiesSet();
+
+        Mockito.verifyZeroInteractions(repository);
+    }
+
+    /**
+     * Returns entities with the ids in the specified range.
+     *
+     * @param first
+     *            first id
+     * @param last
+     *            last id
+     * @return entities for the range
+     */
+    private final List<DefaultExampleEntity> getEntities(final Integer first,
+            final Integer last) {
+        final List<DefaultExampleEntity> entities; // Returned entities
+        DefaultExampleEntity entity;               // Created entity
+
+        entities = new ArrayList<>();
+        for (int i = first; i <= last; i++) {
+            entity = new DefaultExampleEntity();
+            entity.setId(i);
+            entities.add(entity);
+        }
+
+        return entities;
+    }
+
+}
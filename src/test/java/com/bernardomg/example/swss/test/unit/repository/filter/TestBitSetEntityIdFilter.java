@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.repository.filter;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.example.swss.repository.ExampleEntityRepository;
+import com.bernardomg.example.swss.repository.filter.BitSetEntityIdFilter;
+
+/**
+ * Unit tests for {@link BitSetEntityIdFilter}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The ids in the repository are accepted, and the rest rejected.</li>
+ * <li>Added ids are accepted, and removed ones rejected.</li>
+ * <li>Reloading keeps the ids added after the last load.</li>
+ * <li>Negative ids are rejected.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestBitSetEntityIdFilter {
+
+    /**
+     * Default constructor.
+     */
+    public TestBitSetEntityIdFilter() {
+        super();
+    }
+
+    /**
+     * Tests that added ids are accepted, and removed ones rejected.
+     */
+    @Test
+    public final void testAddRemove() {
+        final BitSetEntityIdFilter filter; // Tested filter
+
+        filter = getFilter(1, 2);
+
+        filter.add(10);
+        filter.remove(1);
+
+        Assert.assertTrue(filter.mightContain(10));
+        Assert.assertFalse(filter.mightContain(1));
+        Assert.assertEquals(new Integer(2), filter.getSize());
+    }
+
+    /**
+     * Tests that the ids in the repository are accepted, and the rest
+     * rejected.
+     */
+    @Test
+    public final void testMightContain() {
+        final BitSetEntityIdFilter filter; // Tested filter
+
+        filter = getFilter(1, 2, 5);
+
+        Assert.assertTrue(filter.mightContain(1));
+        Assert.assertTrue(filter.mightContain(5));
+        Assert.assertFalse(filter.mightContain(3));
+        Assert.assertFalse(filter.mightContain(1000));
+        Assert.assertEquals(new Long(2), filter.getRejectedCount());
+    }
+
+    /**
+     * Tests that negative ids are rejected.
+     */
+    @Test
+    public final void testMightContain_Negative() {
+        Assert.assertFalse(getFilter(1).mightContain(-1));
+    }
+
+    /**
+     * Tests that reloading keeps the ids added after the last load.
+     */
+    @Test
+    public final void testReload_KeepsAdded() {
+        final BitSetEntityIdFilter filter; // Tested filter
+
+        filter = getFilter(1);
+
+        filter.add(7);
+        filter.reload();
+
+        Assert.assertTrue(filter.mightContain(1));
+        Assert.assertTrue(filter.mightContain(7));
+    }
+
+    /**
+     * Returns a filter loaded with the specified ids.
+     *
+     * @param identifiers
+     *            ids in the repository
+     * @return a filter for the ids
+     */
+    private final BitSetEntityIdFilter getFilter(
+            final Integer... identifiers) {
+        final ExampleEntityRepository repository; // Mocked repository
+        final BitSetEntityIdFilter filter;        // Returned filter
+
+        repository = Mockito.mock(ExampleEntityRepository.class);
+        Mockito.when(repository.findAllIds())
+                .thenReturn(Arrays.asList(identifiers));
+
+        filter = new BitSetEntityIdFilter(repository);
+        filter.afterPropertiesSet();
+
+        return filter;
+    }
+
+}
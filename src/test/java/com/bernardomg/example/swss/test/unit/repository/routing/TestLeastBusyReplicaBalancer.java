@@ -0,0 +1,85 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.repository.routing;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bernardomg.example.swss.repository.routing.LeastBusyReplicaBalancer;
+import com.bernardomg.example.swss.repository.routing.ReplicaBalancer;
+
+/**
+ * Unit tests for {@link LeastBusyReplicaBalancer}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The replica with the fewest connections is chosen.</li>
+ * <li>Ties are shared among the replicas.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestLeastBusyReplicaBalancer {
+
+    /**
+     * Default constructor.
+     */
+    public TestLeastBusyReplicaBalancer() {
+        super();
+    }
+
+    /**
+     * Tests that the replica with the fewest connections is chosen.
+     */
+    @Test
+    public final void testChoose_LeastBusy() {
+        final ReplicaBalancer balancer; // Tested balancer
+
+        balancer = new LeastBusyReplicaBalancer();
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(new Integer(1),
+                    balancer.choose(Arrays.asList(5, 1, 3)));
+        }
+    }
+
+    /**
+     * Tests that ties are shared among the replicas.
+     */
+    @Test
+    public final void testChoose_Ties() {
+        final ReplicaBalancer balancer; // Tested balancer
+
+        balancer = new LeastBusyReplicaBalancer();
+
+        Assert.assertEquals(new Integer(0),
+                balancer.choose(Arrays.asList(0, 0)));
+        Assert.assertEquals(new Integer(1),
+                balancer.choose(Arrays.asList(0, 0)));
+    }
+
+}
@@ -0,0 +1,219 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.repository.routing;
+
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bernardomg.example.swss.repository.routing.ReplicaRoutingDataSource;
+import com.bernardomg.example.swss.repository.routing.RoundRobinReplicaBalancer;
+
+/**
+ * Unit tests for {@link ReplicaRoutingDataSource}.
+ * <p>
+ * Each data source is a different in-memory database, containing its own
+ * name, so the queries tell which one received them.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Read-only transactions go to the replicas, in turn.</li>
+ * <li>Other transactions go to the primary database.</li>
+ * <li>Queries outside transactions go to the primary database.</li>
+ * <li>The replicas view sends queries outside transactions to the
+ * replicas.</li>
+ * <li>Closed connections are no longer counted as in use.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestReplicaRoutingDataSource {
+
+    /**
+     * Query returning the name of the database.
+     */
+    private static final String      QUERY = "SELECT name FROM database_name";
+
+    /**
+     * Template for the queries, using the routing data source.
+     */
+    private JdbcTemplate             jdbcTemplate;
+
+    /**
+     * Routing data source being tested.
+     */
+    private ReplicaRoutingDataSource routing;
+
+    /**
+     * Template for the transactions.
+     */
+    private TransactionTemplate      transactionTemplate;
+
+    /**
+     * Default constructor.
+     */
+    public TestReplicaRoutingDataSource() {
+        super();
+    }
+
+    /**
+     * Creates the databases and the routing data source.
+     */
+    @Before
+    public final void setUpDataSources() {
+        final DataSource lazy; // Data source delaying the connection
+
+        routing = new ReplicaRoutingDataSource(getDatabase("primary"),
+                Arrays.asList(getDatabase("replica1"),
+                        getDatabase("replica2")),
+                new RoundRobinReplicaBalancer());
+        lazy = new LazyConnectionDataSourceProxy(routing);
+
+        jdbcTemplate = new JdbcTemplate(lazy);
+        transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(lazy));
+    }
+
+    /**
+     * Tests that closed connections are no longer counted as in use.
+     */
+    @Test
+    public final void testActive_Closed() {
+        final Long acquired; // Connections acquired before the queries
+
+        // The lazy proxy may have taken a connection to read its defaults
+        acquired = routing.getPrimaryAcquiredConnections();
+
+        queryInTransaction(true);
+        jdbcTemplate.queryForObject(QUERY, String.class);
+
+        Assert.assertEquals(new Integer(0),
+                routing.getPrimaryActiveConnections());
+        Assert.assertEquals(new Long(acquired + 1),
+                routing.getPrimaryAcquiredConnections());
+        Assert.assertArrayEquals(new int[] { 0, 0 },
+                routing.getReplicaActiveConnections());
+        Assert.assertArrayEquals(new long[] { 1, 0 },
+                routing.getReplicaAcquiredConnections());
+    }
+
+    /**
+     * Tests that queries outside transactions go to the primary database.
+     */
+    @Test
+    public final void testRoute_NoTransaction() {
+        Assert.assertEquals("primary",
+                jdbcTemplate.queryForObject(QUERY, String.class));
+    }
+
+    /**
+     * Tests that the replicas view sends queries outside transactions to the
+     * replicas.
+     */
+    @Test
+    public final void testRoute_ReplicaView() {
+        final JdbcTemplate replicas; // Template using the replicas view
+
+        replicas = new JdbcTemplate(routing.getReplicaDataSource());
+
+        Assert.assertEquals("replica1",
+                replicas.queryForObject(QUERY, String.class));
+        Assert.assertEquals("replica2",
+                replicas.queryForObject(QUERY, String.class));
+    }
+
+    /**
+     * Tests that read-only transactions go to the replicas, in turn.
+     */
+    @Test
+    public final void testRoute_ReadOnly() {
+        Assert.assertEquals("replica1", queryInTransaction(true));
+        Assert.assertEquals("replica2", queryInTransaction(true));
+        Assert.assertEquals("replica1", queryInTransaction(true));
+    }
+
+    /**
+     * Tests that other transactions go to the primary database.
+     */
+    @Test
+    public final void testRoute_Write() {
+        Assert.assertEquals("primary", queryInTransaction(false));
+    }
+
+    /**
+     * Returns an in-memory database containing its own name.
+     *
+     * @param name
+     *            name for the database
+     * @return the database
+     */
+    private final DataSource getDatabase(final String name) {
+        final DriverManagerDataSource dataSource; // Database
+        final JdbcTemplate jdbc;                  // Template to fill it
+
+        dataSource = new DriverManagerDataSource(String.format(
+                "jdbc:h2:mem:routing_%s;DB_CLOSE_DELAY=-1", name), "sa", "");
+
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS database_name");
+        jdbc.execute("CREATE TABLE database_name (name VARCHAR(20))");
+        jdbc.update("INSERT INTO database_name VALUES (?)", name);
+
+        return dataSource;
+    }
+
+    /**
+     * Returns the name of the database queried inside a transaction.
+     *
+     * @param readOnly
+     *            flag telling if the transaction is read-only
+     * @return the name of the database which received the query
+     */
+    private final String queryInTransaction(final Boolean readOnly) {
+        transactionTemplate.setReadOnly(readOnly);
+
+        return transactionTemplate.execute(new TransactionCallback<String>() {
+
+            @Override
+            public final String doInTransaction(
+                    final TransactionStatus status) {
+                return jdbcTemplate.queryForObject(QUERY, String.class);
+            }
+
+        });
+    }
+
+}
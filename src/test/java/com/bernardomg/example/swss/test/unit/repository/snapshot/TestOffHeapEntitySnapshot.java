@@ -0,0 +1,172 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.repository.snapshot;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.bernardomg.example.swss.repository.snapshot.OffHeapEntitySnapshot;
+
+/**
+ * Unit tests for {@link OffHeapEntitySnapshot}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The stored entities are found, and missing ids are not.</li>
+ * <li>The ids are walked in order.</li>
+ * <li>Refreshing reads the new entities.</li>
+ * <li>Rebuilding notices changed and deleted entities.</li>
+ * <li>The buffers grow to fit big ids and long names.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestOffHeapEntitySnapshot {
+
+    /**
+     * Template for preparing the database.
+     */
+    private JdbcTemplate          jdbcTemplate;
+
+    /**
+     * Snapshot being tested.
+     */
+    private OffHeapEntitySnapshot snapshot;
+
+    /**
+     * Default constructor.
+     */
+    public TestOffHeapEntitySnapshot() {
+        super();
+    }
+
+    /**
+     * Creates the database and the snapshot.
+     */
+    @Before
+    public final void setUpSnapshot() {
+        final DriverManagerDataSource dataSource; // Test database
+
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:snapshot_test;DB_CLOSE_DELAY=-1", "sa", "");
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(
+                "CREATE TABLE example_entities (id INT PRIMARY KEY, name VARCHAR(50))");
+        jdbcTemplate.update(
+                "INSERT INTO example_entities VALUES (1, 'entity_1'), (2, 'entity_2'), (5, 'entity_5')");
+
+        snapshot = new OffHeapEntitySnapshot(dataSource, 0L, 10);
+        snapshot.afterPropertiesSet();
+    }
+
+    /**
+     * Drops the database.
+     */
+    @After
+    public final void tearDownSnapshot() {
+        snapshot.destroy();
+        jdbcTemplate.execute("DROP TABLE example_entities");
+    }
+
+    /**
+     * Tests that the stored entities are found, and missing ids are not.
+     */
+    @Test
+    public final void testGetName() {
+        Assert.assertEquals("entity_1", snapshot.getName(1));
+        Assert.assertEquals("entity_5", snapshot.getName(5));
+        Assert.assertNull(snapshot.getName(3));
+        Assert.assertNull(snapshot.getName(100));
+        Assert.assertNull(snapshot.getName(-1));
+        Assert.assertEquals(new Integer(3), snapshot.getSize());
+    }
+
+    /**
+     * Tests that the buffers grow to fit big ids and long names.
+     */
+    @Test
+    public final void testGrow() {
+        final String name; // Long name
+
+        name = "01234567890123456789012345678901234567890123456789";
+        jdbcTemplate.update("INSERT INTO example_entities VALUES (?, ?)",
+                100000, name);
+
+        snapshot.refresh();
+
+        Assert.assertEquals(name, snapshot.getName(100000));
+        Assert.assertEquals("entity_2", snapshot.getName(2));
+        Assert.assertEquals(new Integer(100000), snapshot.getMaxId());
+    }
+
+    /**
+     * Tests that the ids are walked in order.
+     */
+    @Test
+    public final void testNextId() {
+        Assert.assertEquals(1, snapshot.nextId(0));
+        Assert.assertEquals(2, snapshot.nextId(1));
+        Assert.assertEquals(5, snapshot.nextId(2));
+        Assert.assertEquals(-1, snapshot.nextId(5));
+    }
+
+    /**
+     * Tests that rebuilding notices changed and deleted entities.
+     */
+    @Test
+    public final void testRebuild() {
+        jdbcTemplate.update(
+                "UPDATE example_entities SET name = 'changed' WHERE id = 1");
+        jdbcTemplate.update("DELETE FROM example_entities WHERE id = 2");
+
+        snapshot.rebuild();
+
+        Assert.assertEquals("changed", snapshot.getName(1));
+        Assert.assertNull(snapshot.getName(2));
+        Assert.assertEquals(new Integer(2), snapshot.getSize());
+    }
+
+    /**
+     * Tests that refreshing reads the new entities.
+     */
+    @Test
+    public final void testRefresh() {
+        jdbcTemplate.update(
+                "INSERT INTO example_entities VALUES (6, 'entity_6')");
+
+        Assert.assertNull(snapshot.getName(6));
+
+        snapshot.refresh();
+
+        Assert.assertEquals("entity_6", snapshot.getName(6));
+        Assert.assertEquals(new Integer(4), snapshot.getSize());
+    }
+
+}
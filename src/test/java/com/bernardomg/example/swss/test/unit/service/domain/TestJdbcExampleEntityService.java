@@ -0,0 +1,164 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.service.domain;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.model.ImmutableExampleEntity;
+import com.bernardomg.example.swss.model.NotFoundExampleEntity;
+import com.bernardomg.example.swss.service.domain.JdbcExampleEntityService;
+
+/**
+ * Unit tests for {@link JdbcExampleEntityService}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Existing entities are returned as immutable entities.</li>
+ * <li>Missing entities are returned as the not found entity.</li>
+ * <li>Only the existing entities are returned when searching by ids.</li>
+ * <li>Listing returns the entities after an id, in order and up to the
+ * limit.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestJdbcExampleEntityService {
+
+    /**
+     * Template for preparing the database.
+     */
+    private JdbcTemplate             jdbcTemplate;
+
+    /**
+     * Service being tested.
+     */
+    private JdbcExampleEntityService service;
+
+    /**
+     * Default constructor.
+     */
+    public TestJdbcExampleEntityService() {
+        super();
+    }
+
+    /**
+     * Creates the database and the service.
+     */
+    @Before
+    public final void setUpService() {
+        final DriverManagerDataSource dataSource; // Test database
+
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:jdbc_service_test;DB_CLOSE_DELAY=-1", "sa", "");
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(
+                "CREATE TABLE example_entities (id INT PRIMARY KEY, name VARCHAR(50))");
+        jdbcTemplate.update(
+                "INSERT INTO example_entities VALUES (1, 'entity_1'), (2, 'entity_2'), (5, 'entity_5')");
+
+        service = new JdbcExampleEntityService(dataSource);
+    }
+
+    /**
+     * Drops the database.
+     */
+    @After
+    public final void tearDownService() {
+        jdbcTemplate.execute("DROP TABLE example_entities");
+    }
+
+    /**
+     * Tests that listing returns the entities after an id, in order and up to
+     * the limit.
+     */
+    @Test
+    public final void testFindAllAfter() {
+        final Iterator<ExampleEntity> entities; // Listed entities
+
+        entities = service.findAllAfter(1, 10).iterator();
+
+        Assert.assertEquals(new Integer(2), entities.next().getId());
+        Assert.assertEquals(new Integer(5), entities.next().getId());
+        Assert.assertFalse(entities.hasNext());
+
+        Assert.assertFalse(service.findAllAfter(0, 0).iterator().hasNext());
+        Assert.assertEquals(new Integer(1),
+                service.findAllAfter(0, 1).iterator().next().getId());
+    }
+
+    /**
+     * Tests that existing entities are returned as immutable entities.
+     */
+    @Test
+    public final void testFindById_Existing() {
+        final ExampleEntity entity; // Found entity
+
+        entity = service.findById(5);
+
+        Assert.assertTrue(entity instanceof ImmutableExampleEntity);
+        Assert.assertEquals(new Integer(5), entity.getId());
+        Assert.assertEquals("entity_5", entity.getName());
+    }
+
+    /**
+     * Tests that missing entities are returned as the not found entity.
+     */
+    @Test
+    public final void testFindById_Missing() {
+        Assert.assertSame(NotFoundExampleEntity.getInstance(),
+                service.findById(3));
+    }
+
+    /**
+     * Tests that only the existing entities are returned when searching by
+     * ids.
+     */
+    @Test
+    public final void testFindByIds() {
+        final Collection<ExampleEntity> entities; // Found entities
+
+        entities = service.findByIds(Arrays.asList(1, 3, 5));
+
+        Assert.assertEquals(2, entities.size());
+        Assert.assertTrue(entities.contains(new ImmutableExampleEntity(1, "")));
+        Assert.assertTrue(entities.contains(new ImmutableExampleEntity(5, "")));
+
+        Assert.assertTrue(service
+                .findByIds(Collections.<Integer> emptyList()).isEmpty());
+    }
+
+}
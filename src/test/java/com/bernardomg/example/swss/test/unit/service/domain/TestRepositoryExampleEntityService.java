@@ -0,0 +1,123 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.service.domain;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.example.swss.model.DefaultExampleEntity;
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.model.NotFoundExampleEntity;
+import com.bernardomg.example.swss.repository.ExampleEntityRepository;
+import com.bernardomg.example.swss.repository.filter.EntityIdFilter;
+import com.bernardomg.example.swss.service.domain.RepositoryExampleEntityService;
+
+/**
+ * Unit tests for {@link RepositoryExampleEntityService}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Ids rejected by the filter are not queried.</li>
+ * <li>Ids accepted by the filter are queried.</li>
+ * <li>Missing entities are always the same not found entity.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestRepositoryExampleEntityService {
+
+    /**
+     * Default constructor.
+     */
+    public TestRepositoryExampleEntityService() {
+        super();
+    }
+
+    /**
+     * Tests that ids accepted by the filter are queried.
+     */
+    @Test
+    public final void testFindById_Accepted() {
+        final ExampleEntityRepository repository; // Mocked repository
+        final EntityIdFilter filter;              // Mocked filter
+        final DefaultExampleEntity entity;        // Stored entity
+
+        entity = new DefaultExampleEntity();
+        entity.setId(1);
+
+        repository = Mockito.mock(ExampleEntityRepository.class);
+        Mockito.when(repository.findOne(1)).thenReturn(entity);
+        filter = Mockito.mock(EntityIdFilter.class);
+        Mockito.when(filter.mightContain(1)).thenReturn(true);
+
+        Assert.assertSame(entity,
+                new RepositoryExampleEntityService(repository, filter)
+                        .findById(1));
+    }
+
+    /**
+     * Tests that missing entities are always the same not found entity.
+     */
+    @Test
+    public final void testFindById_NotFound() {
+        final ExampleEntityRepository repository; // Mocked repository
+        final EntityIdFilter filter;              // Mocked filter
+        final ExampleEntity first;                // First missing entity
+        final ExampleEntity second;               // Second missing entity
+
+        repository = Mockito.mock(ExampleEntityRepository.class);
+        filter = Mockito.mock(EntityIdFilter.class);
+        Mockito.when(filter.mightContain(1)).thenReturn(true);
+        Mockito.when(filter.mightContain(2)).thenReturn(false);
+
+        first = new RepositoryExampleEntityService(repository, filter)
+                .findById(1);
+        second = new RepositoryExampleEntityService(repository, filter)
+                .findById(2);
+
+        Assert.assertSame(NotFoundExampleEntity.getInstance(), first);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(new Integer(-1), first.getId());
+    }
+
+    /**
+     * Tests that ids rejected by the filter are not queried.
+     */
+    @Test
+    public final void testFindById_Rejected() {
+        final ExampleEntityRepository repository; // Mocked repository
+        final EntityIdFilter filter;              // Mocked filter
+
+        repository = Mockito.mock(ExampleEntityRepository.class);
+        filter = Mockito.mock(EntityIdFilter.class);
+        Mockito.when(filter.mightContain(1)).thenReturn(false);
+
+        new RepositoryExampleEntityService(repository, filter).findById(1);
+
+        Mockito.verifyZeroInteractions(repository);
+    }
+
+}
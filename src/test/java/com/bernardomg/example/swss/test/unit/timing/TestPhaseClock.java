@@ -0,0 +1,188 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.timing;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bernardomg.example.swss.timing.PhaseClock;
+import com.bernardomg.example.swss.timing.PhaseTimings;
+import com.bernardomg.example.swss.timing.TimedPhase;
+
+/**
+ * Unit tests for {@link PhaseClock}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Finishing the clock records the total and unbinds it.</li>
+ * <li>Phases marked in order are all recorded.</li>
+ * <li>The validation and security phases marked in order are recorded.</li>
+ * <li>Phases marked out of order are ignored.</li>
+ * <li>The security phase marked after the request one is ignored.</li>
+ * <li>Starting the clock binds it to the current thread.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestPhaseClock {
+
+    /**
+     * Timings where the phases are recorded.
+     */
+    private PhaseTimings timings;
+
+    /**
+     * Default constructor.
+     */
+    public TestPhaseClock() {
+        super();
+    }
+
+    /**
+     * Creates the timings.
+     */
+    @Before
+    public final void setUpTimings() {
+        timings = new PhaseTimings(true);
+    }
+
+    /**
+     * Unbinds any clock left by the tests.
+     */
+    @After
+    public final void tearDownClock() {
+        if (PhaseClock.current() != null) {
+            PhaseClock.current().finish();
+        }
+    }
+
+    /**
+     * Tests that finishing the clock records the total and unbinds it.
+     */
+    @Test
+    public final void testFinish() {
+        PhaseClock.start(timings).finish();
+
+        Assert.assertNull(PhaseClock.current());
+        Assert.assertEquals((Long) 1L,
+                timings.getCount(TimedPhase.TOTAL.name()));
+    }
+
+    /**
+     * Tests that phases marked in order are all recorded.
+     */
+    @Test
+    public final void testMark_InOrder() {
+        final PhaseClock clock; // Tested clock
+
+        clock = PhaseClock.start(timings);
+        clock.mark(TimedPhase.REQUEST);
+        clock.mark(TimedPhase.ENDPOINT);
+        clock.mark(TimedPhase.RESPONSE);
+        clock.finish();
+
+        Assert.assertEquals((Long) 1L,
+                timings.getCount(TimedPhase.REQUEST.name()));
+        Assert.assertEquals((Long) 1L,
+                timings.getCount(TimedPhase.ENDPOINT.name()));
+        Assert.assertEquals((Long) 1L,
+                timings.getCount(TimedPhase.RESPONSE.name()));
+    }
+
+    /**
+     * Tests that the validation and security phases marked in order are
+     * recorded.
+     */
+    @Test
+    public final void testMark_InOrder_Split() {
+        final PhaseClock clock; // Tested clock
+
+        clock = PhaseClock.start(timings);
+        clock.mark(TimedPhase.VALIDATION);
+        clock.mark(TimedPhase.SECURITY);
+        clock.mark(TimedPhase.REQUEST);
+        clock.finish();
+
+        Assert.assertEquals((Long) 1L,
+                timings.getCount(TimedPhase.VALIDATION.name()));
+        Assert.assertEquals((Long) 1L,
+                timings.getCount(TimedPhase.SECURITY.name()));
+        Assert.assertEquals((Long) 1L,
+                timings.getCount(TimedPhase.REQUEST.name()));
+    }
+
+    /**
+     * Tests that phases marked out of order are ignored.
+     */
+    @Test
+    public final void testMark_OutOfOrder() {
+        final PhaseClock clock; // Tested clock
+
+        clock = PhaseClock.start(timings);
+        clock.mark(TimedPhase.RESPONSE);
+        clock.mark(TimedPhase.ENDPOINT);
+        clock.finish();
+
+        Assert.assertEquals((Long) 0L,
+                timings.getCount(TimedPhase.ENDPOINT.name()));
+        Assert.assertEquals((Long) 0L,
+                timings.getCount(TimedPhase.RESPONSE.name()));
+        Assert.assertEquals((Long) 1L,
+                timings.getCount(TimedPhase.TOTAL.name()));
+    }
+
+    /**
+     * Tests that the security phase marked after the request one is ignored.
+     */
+    @Test
+    public final void testMark_OutOfOrder_Split() {
+        final PhaseClock clock; // Tested clock
+
+        clock = PhaseClock.start(timings);
+        clock.mark(TimedPhase.REQUEST);
+        clock.mark(TimedPhase.SECURITY);
+        clock.finish();
+
+        Assert.assertEquals((Long) 1L,
+                timings.getCount(TimedPhase.REQUEST.name()));
+        Assert.assertEquals((Long) 0L,
+                timings.getCount(TimedPhase.SECURITY.name()));
+    }
+
+    /**
+     * Tests that starting the clock binds it to the current thread.
+     */
+    @Test
+    public final void testStart() {
+        final PhaseClock clock; // Tested clock
+
+        clock = PhaseClock.start(timings);
+
+        Assert.assertSame(clock, PhaseClock.current());
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.unit.xml;
+
+import java.io.StringReader;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import com.bernardomg.example.swss.endpoint.ExampleEntityEndpointConstants;
+import com.bernardomg.example.swss.xml.CompiledXsdSchema;
+
+/**
+ * Unit tests for {@link CompiledXsdSchema}.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>The same validator is returned on each call.</li>
+ * <li>The target namespace is read from the schema.</li>
+ * <li>Invalid payloads are rejected.</li>
+ * <li>Valid payloads are accepted.</li>
+ * </ol>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TestCompiledXsdSchema {
+
+    /**
+     * Invalid payload, missing the id.
+     */
+    private static final String INVALID = "<ent:getEntityRequest xmlns:ent=\"http://bernardomg.com/example/ws/entity\"/>";
+
+    /**
+     * Valid payload.
+     */
+    private static final String VALID   = "<ent:getEntityRequest xmlns:ent=\"http://bernardomg.com/example/ws/entity\"><ent:id>1</ent:id></ent:getEntityRequest>";
+
+    /**
+     * Schema being tested.
+     */
+    private CompiledXsdSchema   schema;
+
+    /**
+     * Default constructor.
+     */
+    public TestCompiledXsdSchema() {
+        super();
+    }
+
+    /**
+     * Compiles the schema.
+     *
+     * @throws Exception
+     *             if the schema can't be compiled
+     */
+    @Before
+    public final void setUpSchema() throws Exception {
+        schema = new CompiledXsdSchema(new ClassPathResource("xsd/entity.xsd"));
+    }
+
+    /**
+     * Tests that the same validator is returned on each call.
+     */
+    @Test
+    public final void testCreateValidator_Shared() {
+        Assert.assertSame(schema.createValidator(), schema.createValidator());
+    }
+
+    /**
+     * Tests that the target namespace is read from the schema.
+     */
+    @Test
+    public final void testGetTargetNamespace() {
+        Assert.assertEquals(ExampleEntityEndpointConstants.ENTITY_NS,
+                schema.getTargetNamespace());
+    }
+
+    /**
+     * Tests that invalid payloads are rejected.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testValidate_Invalid() throws Exception {
+        Assert.assertTrue(schema.createValidator().validate(
+                new StreamSource(new StringReader(INVALID))).length > 0);
+    }
+
+    /**
+     * Tests that valid payloads are accepted.
+     *
+     * @throws Exception
+     *             never, this is a required declaration
+     */
+    @Test
+    public final void testValidate_Valid() throws Exception {
+        Assert.assertEquals(0, schema.createValidator()
+                .validate(new StreamSource(new StringReader(VALID))).length);
+    }
+
+}
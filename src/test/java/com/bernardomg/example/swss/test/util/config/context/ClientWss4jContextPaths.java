@@ -52,6 +52,11 @@ public final class ClientWss4jContextPaths {
      */
     public static final String PASSWORD_PLAIN  = "classpath:context/client/password/plain/wss4j/client-password-plain-wss4j.xml";
 
+    /**
+     * Session keys client.
+     */
+    public static final String SESSION         = "classpath:context/client/session/wss4j/client-session-wss4j.xml";
+
     /**
      * Signed client.
      */
@@ -55,6 +55,14 @@ public final class TestContextPaths {
      */
     public static final String KEYSTORE_WSS4J = "classpath:context/keystore/keystore-wss4j.xml";
 
+    /**
+     * Persistence.
+     * <p>
+     * Contains the persistence layer, along the user details service, with
+     * the Hibernate statistics enabled.
+     */
+    public static final String PERSISTENCE    = "classpath:context/test-persistence.xml";
+
     /**
      * Private constructor to avoid initialization.
      */
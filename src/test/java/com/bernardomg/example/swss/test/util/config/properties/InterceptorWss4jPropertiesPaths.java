@@ -48,6 +48,11 @@ public final class InterceptorWss4jPropertiesPaths {
      */
     public static final String PASSWORD_PLAIN  = "classpath:config/interceptor/password/plain/wss4j/interceptor-password-plain-wss4j.properties";
 
+    /**
+     * Session keys interceptor.
+     */
+    public static final String SESSION         = "classpath:config/interceptor/session/wss4j/interceptor-session-wss4j.properties";
+
     /**
      * Signature interceptor.
      */
@@ -54,6 +54,11 @@ public final class SoapPropertiesPaths {
      */
     public static final String PASSWORD_PLAIN   = "classpath:config/soap/test-soap-password-plain.properties";
 
+    /**
+     * Session keys SOAP messages.
+     */
+    public static final String SESSION          = "classpath:config/soap/test-soap-session-wss4j.properties";
+
     /**
      * Signed SOAP messages.
      */
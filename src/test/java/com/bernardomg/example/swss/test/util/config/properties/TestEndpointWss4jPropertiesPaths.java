@@ -49,6 +49,11 @@ public final class TestEndpointWss4jPropertiesPaths {
      */
     public static final String PASSWORD_PLAIN  = "classpath:config/endpoint/test-endpoint-password-plain-wss4j.properties";
 
+    /**
+     * Session keys endpoint.
+     */
+    public static final String SESSION         = "classpath:config/endpoint/test-endpoint-session-wss4j.properties";
+
     /**
      * Signed endpoint.
      */
@@ -25,6 +25,7 @@
 package com.bernardomg.example.swss.test.util.factory;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import javax.security.auth.callback.Callback;
 import javax.security.auth.callback.CallbackHandler;
@@ -74,6 +75,12 @@ public final ExampleEntityService getExampleEntityService() {
         // Mocks the service
         service = Mockito.mock(ExampleEntityService.class);
         Mockito.when(service.findById(Matchers.anyInt())).thenReturn(entity);
+        Mockito.when(
+                service.findByIds(Matchers.anyCollectionOf(Integer.class)))
+                .thenReturn(Arrays.asList(entity));
+        Mockito.when(
+                service.findAllAfter(Matchers.anyInt(), Matchers.anyInt()))
+                .thenReturn(Arrays.asList(entity));
 
         return service;
     }
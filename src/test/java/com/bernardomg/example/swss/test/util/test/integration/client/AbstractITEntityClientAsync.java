@@ -0,0 +1,120 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2017 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.swss.test.util.test.integration.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.AbstractJUnit4SpringContextTests;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import com.bernardomg.example.swss.client.EntityClient;
+import com.bernardomg.example.swss.model.ExampleEntity;
+import com.bernardomg.example.swss.test.util.config.properties.TestPropertiesPaths;
+
+/**
+ * Abstract integration tests for an {@link EntityClient} testing that it
+ * handles many concurrent asynchronous queries correctly.
+ * <p>
+ * Checks the following cases:
+ * <ol>
+ * <li>Thousands of concurrent queries return the expected values.</li>
+ * </ol>
+ * <p>
+ * Pay attention to the fact that it requires the WS to be running, and a Spring
+ * context to populate the test data.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@TestPropertySource({ TestPropertiesPaths.ENTITY })
+public abstract class AbstractITEntityClientAsync
+        extends AbstractJUnit4SpringContextTests {
+
+    /**
+     * Number of queries to send.
+     */
+    private static final Integer QUERIES = 2000;
+
+    /**
+     * Client being tested.
+     */
+    @Autowired
+    private EntityClient         client;
+
+    /**
+     * Id of the returned entity.
+     */
+    @Value("${entity.id}")
+    private Integer              entityId;
+
+    /**
+     * Name of the returned entity.
+     */
+    @Value("${entity.name}")
+    private String               entityName;
+
+    /**
+     * URL for the WS.
+     */
+    @Value("${endpoint.url}")
+    private String               wsUrl;
+
+    /**
+     * Default constructor.
+     */
+    public AbstractITEntityClientAsync() {
+        super();
+    }
+
+    /**
+     * Tests that thousands of concurrent queries return the expected values.
+     *
+     * @throws Exception
+     *             if any of the queries fails
+     */
+    @Test
+    public final void testEndpoint_Concurrent_ReturnsValid() throws Exception {
+        final List<ListenableFuture<ExampleEntity>> futures; // Queries
+        ExampleEntity                               entity;  // Entity
+
+        futures = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            futures.add(client.getEntityAsync(wsUrl, entityId));
+        }
+
+        for (final ListenableFuture<ExampleEntity> future : futures) {
+            entity = future.get();
+
+            Assert.assertEquals(entityId, entity.getId());
+            Assert.assertEquals(entityName, entity.getName());
+        }
+    }
+
+}